@@ -29,7 +29,13 @@ public class SecurityConfig {
         return http
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .authorizeExchange(exchanges -> exchanges
+                        // Выгрузка, лента изменений и список id держат соединения долго - только после входа
+                        .pathMatchers(HttpMethod.GET, "/api/catalog/books/export", "/api/catalog/books/ids",
+                                "/api/catalog/changes").authenticated()
                         .pathMatchers(HttpMethod.GET, "/api/catalog/**").permitAll()
+                        .pathMatchers(HttpMethod.HEAD, "/api/catalog/**").permitAll()
+                        // Пакетное чтение данных книг - POST только из-за списка ids в теле
+                        .pathMatchers(HttpMethod.POST, "/api/catalog/books/details:batch").permitAll()
                         .pathMatchers(HttpMethod.POST, "/api/catalog/**").authenticated()
                         .pathMatchers(HttpMethod.PUT, "/api/catalog/**").authenticated()
                         .pathMatchers(HttpMethod.DELETE, "/api/catalog/**").authenticated()
@@ -0,0 +1,42 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Точка входа benchmarks.jar поверх org.openjdk.jmh.Main.
+ * Если параметры не заданы явно, результаты сохраняются в JSON в каталог results
+ * (файл с датой запуска, для сравнения между релизами), а профайлер gc добавляет
+ * скорость и объём выделения памяти на операцию.
+ */
+public class CatalogBenchmarks {
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        if (!arguments.contains("-h") && !arguments.contains("-l") && !arguments.contains("-lp")
+                && !arguments.contains("-lprof") && !arguments.contains("-lrf")) {
+            if (!arguments.contains("-rf")) {
+                arguments.add("-rf");
+                arguments.add("json");
+            }
+            if (!arguments.contains("-rff")) {
+                File results = new File("results");
+                results.mkdirs();
+                arguments.add("-rff");
+                arguments.add(new File(results, "jmh-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." +
+                        arguments.get(arguments.indexOf("-rf") + 1)).getPath());
+            }
+            if (!arguments.contains("-prof")) {
+                arguments.add("-prof");
+                arguments.add("gc");
+            }
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Синтетический набор данных для бенчмарков репозиториев.
+ * Строки генерируются в базе одним INSERT ... SELECT из generate_series и однозначно
+ * определяются своим номером, поэтому повторный запуск дозаписывает только недостающие строки.
+ * На одного автора приходится BOOKS_PER_AUTHOR книг.
+ */
+final class CatalogDataset {
+    static final String BOOK_PREFIX = "Benchmark book ";
+    static final String AUTHOR_PREFIX = "Benchmark author ";
+    static final String[] GENRES = {"Fantasy", "Novel", "Dystopian", "Tragedy", "Drama", "Poetry", "Detective",
+            "Science"};
+    private static final int BOOKS_PER_AUTHOR = 20;
+
+    private CatalogDataset() {
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int books) {
+        int authors = Math.max(books / BOOKS_PER_AUTHOR, 1);
+        int seededAuthors = count(jdbcTemplate, "authors", "name", AUTHOR_PREFIX);
+        if (seededAuthors < authors) {
+            jdbcTemplate.update("INSERT INTO authors (name, birth_date, location, bio) " +
+                    "SELECT '" + AUTHOR_PREFIX + "' || i, DATE '1850-01-01' + (i % 50000 * 97 % 50000), " +
+                    "'Location ' || (i % 100), 'Biography ' || md5(i::text) " +
+                    "FROM generate_series(?, ?) AS i", seededAuthors + 1, authors);
+        }
+
+        int seededBooks = count(jdbcTemplate, "books", "title", BOOK_PREFIX);
+        if (seededBooks < books) {
+            jdbcTemplate.update("INSERT INTO books (title, genre, pages_number, publishing_date, description, author_id) " +
+                    "SELECT '" + BOOK_PREFIX + "' || i, (?::text[])[1 + i % " + GENRES.length + "], " +
+                    "50 + i % 1200 * 7919 % 1200, DATE '1900-01-01' + (i % 45000 * 37 % 45000), " +
+                    "'Description ' || md5(i::text), a.id " +
+                    "FROM generate_series(?, ?) AS i " +
+                    "JOIN (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM authors " +
+                    "WHERE name LIKE '" + AUTHOR_PREFIX + "%') a ON a.rn = 1 + i % ?",
+                    "{" + String.join(",", GENRES) + "}", seededBooks + 1, books, authors);
+        }
+
+        if (seededAuthors < authors || seededBooks < books) {
+            jdbcTemplate.execute("ANALYZE authors");
+            jdbcTemplate.execute("ANALYZE books");
+        }
+        System.out.printf("%nDataset: %d books, %d authors%n", Math.max(books, seededBooks),
+                Math.max(authors, seededAuthors));
+    }
+
+    /**
+     * Случайная выборка идентификаторов книг набора для запросов по ключу.
+     */
+    static long[] sampleBookIds(JdbcTemplate jdbcTemplate, int size) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM books WHERE title LIKE '" + BOOK_PREFIX + "%' " +
+                "ORDER BY random() LIMIT ?", Long.class, size);
+        long[] sample = new long[size];
+        for (int i = 0; i < size; i++) {
+            sample[i] = ids.get(i % ids.size());
+        }
+        return sample;
+    }
+
+    static long firstAuthorId(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT min(id) FROM authors WHERE name LIKE '" + AUTHOR_PREFIX + "%'",
+                Long.class);
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate, String table, String column, String prefix) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE " + column + " LIKE '" +
+                prefix + "%'", Integer.class);
+    }
+}
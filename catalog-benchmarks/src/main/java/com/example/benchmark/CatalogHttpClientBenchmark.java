@@ -0,0 +1,121 @@
+package com.example.benchmark;
+
+import com.example.BookServiceApplication;
+import com.example.config.AppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы reader-service к catalog-service через RestTemplate: SimpleClientHttpRequestFactory
+ * (HttpURLConnection, до 5 сохраняемых соединений на адрес) против пула Apache HttpClient 5
+ * из бинов catalogConnectionManager и catalogHttpClient AppConfig reader-service с настройками
+ * по умолчанию. catalog-service поднимается с веб-сервером на случайном порту, запросы идут
+ * из 16 потоков: details - данные книги (после прогрева из кэша каталога), exists - HEAD по первичному ключу.
+ * Набор данных и подключение к базе - как в CatalogRepositoryBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CatalogHttpClientBenchmark {
+    private static final int BOOKS = 100000;
+    private static final int SAMPLE_SIZE = 4096;
+
+    @Param({"simple", "pooled"})
+    private String client;
+
+    private ConfigurableApplicationContext context;
+    private AnnotationConfigApplicationContext readerContext;
+    private RestTemplate restTemplate;
+    private String booksUrl;
+    private long[] bookIds;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BookServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--catalog.search.index.enabled=false",
+                        "--catalog.analytics.columnar.enabled=false",
+                        "--eureka.client.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example=WARN",
+                        "--logging.file.name=",
+                        "--logging.file.path=");
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        CatalogDataset.seed(jdbcTemplate, BOOKS);
+        bookIds = CatalogDataset.sampleBookIds(jdbcTemplate, SAMPLE_SIZE);
+        booksUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/api/catalog/books";
+
+        if ("pooled".equals(client)) {
+            readerContext = new AnnotationConfigApplicationContext();
+            /* Длительности в @Value AppConfig вида 1s преобразуются как в Spring Boot */
+            readerContext.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+            readerContext.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+            readerContext.register(AppConfig.class);
+            readerContext.refresh();
+            CloseableHttpClient httpClient = readerContext.getBean("catalogHttpClient", CloseableHttpClient.class);
+            restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        } else {
+            restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        if (readerContext != null) {
+            readerContext.close();
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public String details() {
+        return restTemplate.getForObject(booksUrl + "/{id}/details", String.class, randomBookId());
+    }
+
+    @Benchmark
+    public HttpStatusCode exists() {
+        return restTemplate.exchange(booksUrl + "/{id}", HttpMethod.HEAD, null, Void.class, randomBookId())
+                .getStatusCode();
+    }
+
+    private long randomBookId() {
+        return bookIds[ThreadLocalRandom.current().nextInt(SAMPLE_SIZE)];
+    }
+}
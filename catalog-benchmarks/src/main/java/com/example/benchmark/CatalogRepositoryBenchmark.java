@@ -0,0 +1,176 @@
+package com.example.benchmark;
+
+import com.example.BookServiceApplication;
+import com.example.config.PersistenceConfig;
+import com.example.model.Author;
+import com.example.model.Book;
+import com.example.pagination.CountMode;
+import com.example.projection.BookFields;
+import com.example.repository.BookRepository;
+import com.example.service.BookSpecialService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Одинаковые запросы через репозитории JDBC, jOOQ и JPA на общем наборе данных в локальном Postgres.
+ * В каждом прогоне поднимается контекст catalog-service без веб-сервера, реализация выбирается
+ * свойствами catalog.persistence.* так же, как в сервисе. Свойства передаются аргументами командной строки:
+ * они приоритетнее application.properties.
+ * Каждая операция выполняется в своей транзакции, как запрос к сервису: чтение - только для чтения,
+ * вставка откатывается, чтобы набор данных не рос от прогона к прогону.
+ * Подключение к базе берётся из application.properties сервиса, его можно переопределить через
+ * -jvmArgsAppend "-Dspring.datasource.url=... -Dspring.liquibase.url=...".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CatalogRepositoryBenchmark {
+    private static final int SAMPLE_SIZE = 4096;
+    private static final int PAGES = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final BookFields LIST_FIELDS = BookFields.parse("title,genre");
+
+    @Param({"jdbc", "jooq", "jpa"})
+    private String backend;
+
+    @Param({"100000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private BookRepository bookWriteRepository;
+    private BookSpecialService bookSpecialService;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate rolledBackTransaction;
+    private long[] bookIds;
+    private long authorId;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BookServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--catalog.persistence.reads=" + backend,
+                        "--catalog.persistence.writes=" + backend,
+                        "--catalog.persistence.stats=" + backend,
+                        "--catalog.search.index.enabled=false",
+                        "--catalog.analytics.columnar.enabled=false",
+                        "--eureka.client.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example=WARN",
+                        "--logging.file.name=",
+                        "--logging.file.path=");
+        bookRepository = context.getBean(PersistenceConfig.BOOK_READS, BookRepository.class);
+        bookWriteRepository = context.getBean(PersistenceConfig.BOOK_WRITES, BookRepository.class);
+        bookSpecialService = context.getBean(PersistenceConfig.BOOK_STATS, BookSpecialService.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        rolledBackTransaction = new TransactionTemplate(transactionManager);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        CatalogDataset.seed(jdbcTemplate, books);
+        bookIds = CatalogDataset.sampleBookIds(jdbcTemplate, SAMPLE_SIZE);
+        authorId = CatalogDataset.firstAuthorId(jdbcTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book findById() {
+        long id = bookIds[next++ & (SAMPLE_SIZE - 1)];
+        return readTransaction.execute(status -> bookRepository.findById(id).orElseThrow());
+    }
+
+    /**
+     * Страница книг жанра с точным подсчётом общего количества: JPA считает только точно.
+     */
+    @Benchmark
+    public List<Book> findByGenre() {
+        int n = next++;
+        String genre = CatalogDataset.GENRES[n % CatalogDataset.GENRES.length];
+        Pageable pageable = PageRequest.of(n % PAGES, PAGE_SIZE);
+        return readTransaction.execute(status ->
+                bookRepository.findByGenre(genre, pageable, CountMode.EXACT, BookFields.ALL).getContent());
+    }
+
+    /**
+     * Та же страница только с полями title и genre: JPA всё равно загружает книги целиком.
+     */
+    @Benchmark
+    public List<Book> findByGenreTitles() {
+        int n = next++;
+        String genre = CatalogDataset.GENRES[n % CatalogDataset.GENRES.length];
+        Pageable pageable = PageRequest.of(n % PAGES, PAGE_SIZE);
+        return readTransaction.execute(status ->
+                bookRepository.findByGenre(genre, pageable, CountMode.EXACT, LIST_FIELDS).getContent());
+    }
+
+    @Benchmark
+    public List<Book> findAllOrderByTitle() {
+        Pageable pageable = PageRequest.of(next++ % PAGES, PAGE_SIZE);
+        return readTransaction.execute(status ->
+                bookRepository.findAllByOrderByTitleAsc(pageable, CountMode.EXACT, BookFields.ALL).getContent());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> genreStats() {
+        return readTransaction.execute(status -> bookSpecialService.getGenreStats());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> authorStatsSummary() {
+        return readTransaction.execute(status -> bookSpecialService.getAuthorStatsSummary());
+    }
+
+    @Benchmark
+    public Book insert() {
+        Author author = new Author();
+        author.setId(authorId);
+        Book book = new Book();
+        book.setTitle("Benchmark insert " + next++);
+        book.setGenre("Drama");
+        book.setPagesNumber(300);
+        book.setPublishingDate(LocalDate.of(2000, 1, 1));
+        book.setDescription("Inserted by benchmark");
+        book.setAuthor(author);
+        return rolledBackTransaction.execute(status -> {
+            bookWriteRepository.save(book);
+            status.setRollbackOnly();
+            return book;
+        });
+    }
+}
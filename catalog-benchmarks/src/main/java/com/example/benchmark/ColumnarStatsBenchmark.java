@@ -0,0 +1,113 @@
+package com.example.benchmark;
+
+import com.example.BookServiceApplication;
+import com.example.analytics.BookColumnarSnapshot;
+import com.example.config.PersistenceConfig;
+import com.example.service.BookSpecialService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Статистика по жанрам и авторам: SQL запросы JDBC против колоночного снимка в памяти
+ * (catalog.analytics.columnar.enabled). Набор данных и подключение к базе - как в
+ * CatalogRepositoryBenchmark. Перед замером ожидается построение снимка, SQL запросы
+ * выполняются в транзакции только для чтения, снимок читается без обращения к базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ColumnarStatsBenchmark {
+    @Param({"sql", "columnar"})
+    private String source;
+
+    @Param({"100000", "1000000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private BookSpecialService bookSpecialService;
+    private TransactionTemplate readTransaction;
+
+    @Setup(Level.Trial)
+    public void startContext() throws InterruptedException {
+        boolean columnar = "columnar".equals(source);
+        /* Снимок строится при старте и не видит строк, вставленных мимо сервиса: набор засевается заранее */
+        try (ConfigurableApplicationContext seeding = start(false)) {
+            CatalogDataset.seed(seeding.getBean(JdbcTemplate.class), books);
+        }
+        context = start(columnar);
+        bookSpecialService = context.getBean(PersistenceConfig.BOOK_STATS, BookSpecialService.class);
+        if (columnar) {
+            BookColumnarSnapshot snapshot = context.getBean(BookColumnarSnapshot.class);
+            while (!snapshot.isReady()) {
+                Thread.sleep(100);
+            }
+        } else {
+            readTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            readTransaction.setReadOnly(true);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> genreStats() {
+        return stats(bookSpecialService::getGenreStats);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> fullAuthorStats() {
+        return stats(bookSpecialService::getFullAuthorStats);
+    }
+
+    @Benchmark
+    public Map<String, Object> combinedAuthorStats() {
+        return stats(bookSpecialService::getCombinedAuthorStats);
+    }
+
+    private ConfigurableApplicationContext start(boolean columnar) {
+        return new SpringApplicationBuilder(BookServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--catalog.persistence.stats=jdbc",
+                        "--catalog.analytics.columnar.enabled=" + columnar,
+                        "--catalog.analytics.columnar.expected-size=" + books,
+                        "--catalog.search.index.enabled=false",
+                        "--eureka.client.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example=WARN",
+                        "--logging.file.name=",
+                        "--logging.file.path=");
+    }
+
+    private <T> T stats(Supplier<T> query) {
+        return readTransaction == null ? query.get() : readTransaction.execute(status -> query.get());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.benchmark;
+
+import com.example.search.NgramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск по подстроке в NgramIndex на синтетических названиях.
+ * Слова словаря составлены из букв с частотами английского текста и выбираются с перекосом частот,
+ * запросы - случайные подстроки существующих названий длиной от 4 до 10 символов.
+ * Объём индекса печатается после построения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class NgramIndexBenchmark {
+    private static final int QUERY_COUNT = 4096;
+    /* Буквы с частотами английского текста */
+    private static final String LETTERS =
+            "eeeeeeeeeeeettttttttaaaaaaaaoooooooiiiiiiinnnnnnnsssssshhhhhhrrrrrrddddlllluuuccmmwwffggyyppbbvkjxqz";
+
+    @Param({"1000000", "10000000"})
+    private int titles;
+
+    private NgramIndex index;
+    private String[] queries;
+    private String[] originals;
+    private String[] replacements;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[20_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(random);
+        }
+
+        index = new NgramIndex(titles);
+        String[] sample = new String[QUERY_COUNT];
+        for (int i = 0; i < titles; i++) {
+            String title = title(random, vocabulary);
+            index.put(i + 1L, title);
+            if (i % (titles / QUERY_COUNT) == 0 && i / (titles / QUERY_COUNT) < QUERY_COUNT) {
+                sample[i / (titles / QUERY_COUNT)] = title;
+            }
+        }
+
+        queries = new String[QUERY_COUNT];
+        originals = sample;
+        replacements = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            String title = sample[i];
+            int length = Math.min(4 + random.nextInt(7), title.length());
+            int start = random.nextInt(title.length() - length + 1);
+            queries[i] = title.substring(start, start + length);
+            replacements[i] = title(random, vocabulary);
+        }
+        System.out.printf("%nIndex of %d titles: %d trigrams, ~%d MB%n",
+                index.size(), index.gramCount(), index.estimateBytes() >> 20);
+    }
+
+    @Benchmark
+    public int search() {
+        int[] docs = index.search(queries[next++ & (QUERY_COUNT - 1)]);
+        return docs == null ? -1 : docs.length;
+    }
+
+    /**
+     * Обновление названия существующей книги: удаление старых и добавление новых вхождений.
+     * Название чередуется между исходным и новым на каждом проходе по выборке.
+     */
+    @Benchmark
+    public int update() {
+        int n = next++;
+        int i = n & (QUERY_COUNT - 1);
+        String title = (n & QUERY_COUNT) == 0 ? replacements[i] : originals[i];
+        return index.put(1L + (long) i * (titles / QUERY_COUNT), title);
+    }
+
+    private static String title(Random random, String[] vocabulary) {
+        int words = 2 + random.nextInt(5);
+        StringBuilder title = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                title.append(' ');
+            }
+            double skew = random.nextDouble();
+            title.append(vocabulary[(int) (skew * skew * skew * vocabulary.length)]);
+        }
+        return title.toString();
+    }
+
+    private static String word(Random random) {
+        int length = 3 + random.nextInt(8);
+        StringBuilder word = new StringBuilder();
+        for (int c = 0; c < length; c++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.benchmark;
+
+import com.example.model.Book;
+import com.example.repository.jdbc.BookRowMapper;
+import com.example.repository.jooq.CatalogRecordMapperProvider;
+import org.jooq.DSLContext;
+import org.jooq.RecordMapper;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.generated.tables.records.BooksRecord;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultRecordMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.jooq.generated.tables.Books.BOOKS;
+
+/**
+ * Стоимость отображения одной строки книги: по именам колонок, как до перехода на индексы,
+ * и по индексам через BookRowMapper; в jOOQ - рефлексией DefaultRecordMapper и через
+ * CatalogRecordMapperProvider. Строки загружаются из Postgres один раз, поэтому измеряется
+ * только отображение. Методы page* отображают страницу из PAGE_SIZE книг через Result.into,
+ * то есть вместе с созданием отображения на запрос.
+ * Подключение берётся из application.properties catalog-service, его можно переопределить
+ * через -jvmArgsAppend "-Dspring.datasource.url=...".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RowMappingBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000"})
+    private int rows;
+
+    private Connection connection;
+    private ResultSet resultSet;
+    private RowMapper<Book> byLabel;
+    private RowMapper<Book> byIndex;
+    private Result<BooksRecord> records;
+    private RecordMapper<BooksRecord, Book> reflectionMapper;
+    private RecordMapper<BooksRecord, Book> indexMapper;
+    private Result<BooksRecord> defaultPage;
+    private Result<BooksRecord> providerPage;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException, SQLException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        connection = DriverManager.getConnection(
+                System.getProperty("spring.datasource.url", properties.getProperty("spring.datasource.url")),
+                System.getProperty("spring.datasource.username", properties.getProperty("spring.datasource.username")),
+                System.getProperty("spring.datasource.password", properties.getProperty("spring.datasource.password")));
+        CatalogDataset.seed(new JdbcTemplate(new SingleConnectionDataSource(connection, true)), rows);
+
+        String sql = "SELECT * FROM books WHERE title LIKE '" + CatalogDataset.BOOK_PREFIX + "%' LIMIT " + rows;
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_SCROLL_INSENSITIVE,
+                ResultSet.CONCUR_READ_ONLY);
+        resultSet = statement.executeQuery();
+        byLabel = new LabelBookRowMapper();
+        byIndex = new BookRowMapper().forQuery();
+
+        DSLContext reflection = DSL.using(connection, SQLDialect.POSTGRES);
+        DSLContext provider = DSL.using(new DefaultConfiguration()
+                .set(connection)
+                .set(SQLDialect.POSTGRES)
+                .set(new CatalogRecordMapperProvider()));
+        records = reflection.selectFrom(BOOKS).where(BOOKS.TITLE.startsWith(CatalogDataset.BOOK_PREFIX))
+                .limit(rows).fetch();
+        reflectionMapper = new DefaultRecordMapper<>(records.recordType(), Book.class);
+        indexMapper = new CatalogRecordMapperProvider().provide(records.recordType(), Book.class);
+        defaultPage = reflection.selectFrom(BOOKS).limit(PAGE_SIZE).fetch();
+        providerPage = provider.selectFrom(BOOKS).limit(PAGE_SIZE).fetch();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public Book jdbcByLabel() throws SQLException {
+        return byLabel.mapRow(nextRow(), 0);
+    }
+
+    @Benchmark
+    public Book jdbcByIndex() throws SQLException {
+        return byIndex.mapRow(nextRow(), 0);
+    }
+
+    @Benchmark
+    public Book jooqReflection() {
+        return reflectionMapper.map(records.get(next++ % records.size()));
+    }
+
+    @Benchmark
+    public Book jooqIndex() {
+        return indexMapper.map(records.get(next++ % records.size()));
+    }
+
+    @Benchmark
+    public List<Book> pageJooqReflection() {
+        return defaultPage.into(Book.class);
+    }
+
+    @Benchmark
+    public List<Book> pageJooqIndex() {
+        return providerPage.into(Book.class);
+    }
+
+    private ResultSet nextRow() throws SQLException {
+        if (!resultSet.next()) {
+            resultSet.first();
+        }
+        return resultSet;
+    }
+
+    /**
+     * BookRowMapper до перехода на индексы колонок.
+     */
+    private static final class LabelBookRowMapper implements RowMapper<Book> {
+        @Override
+        public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Book book = new Book();
+            book.setId(rs.getLong("id"));
+            book.setTitle(rs.getString("title"));
+            book.setGenre(rs.getString("genre"));
+            book.setPagesNumber(rs.getInt("pages_number"));
+            book.setPublishingDate(rs.getObject("publishing_date", LocalDate.class));
+            book.setDescription(rs.getString("description"));
+            return book;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.analytics;
+
+import com.example.cache.InMemoryCatalogView;
+import com.example.model.Author;
+import com.example.model.Book;
+import com.example.repository.jdbc.AnalyticsChangeJdbcRepository;
+import com.example.repository.jdbc.AuthorJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Колоночный снимок книг в памяти сервиса для статистики (BookColumns).
+ * Построение и обновление по событиям каталога общие с BookSearchIndex (InMemoryCatalogView).
+ * Агрегаты считаются параллельным проходом в отдельном ForkJoinPool на
+ * catalog.analytics.columnar.parallelism потоков. Пока снимок строится, методы возвращают
+ * Optional.empty() и статистика считается в базе. Ответы совпадают по форме с BookJdbcRepository.
+ */
+@Component
+public class BookColumnarSnapshot extends InMemoryCatalogView {
+    private static final Comparator<Map<String, Object>> BY_BOOK_COUNT_DESC =
+            Comparator.comparing((Map<String, Object> stats) -> (Integer) stats.get("bookCount")).reversed();
+
+    private final AnalyticsChangeJdbcRepository changes;
+    private final AuthorJdbcRepository authorRepository;
+    private final int expectedSize;
+    private final ForkJoinPool pool;
+
+    private BookColumns columns;
+
+    private final Counter snapshotHits;
+    private final Counter sqlFallbacks;
+
+    public BookColumnarSnapshot(AnalyticsChangeJdbcRepository changes, AuthorJdbcRepository authorRepository,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                @Value("${catalog.analytics.columnar.enabled:false}") boolean enabled,
+                                @Value("${catalog.analytics.columnar.expected-size:100000}") int expectedSize,
+                                @Value("${catalog.analytics.columnar.parallelism:0}") int parallelism) {
+        super("columnar snapshot", enabled, transactionManager);
+        this.changes = changes;
+        this.authorRepository = authorRepository;
+        this.expectedSize = enabled ? expectedSize : 0;
+        this.columns = new BookColumns(this.expectedSize);
+        /* Отдельный пул: проходы по снимку не занимают общий ForkJoinPool приложения */
+        this.pool = enabled ? new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("catalog-columnar-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false) : null;
+
+        Gauge.builder("catalog.analytics.columnar.memory", this, snapshot -> snapshot.read(snapshot::estimateBytes))
+                .description("Estimated heap size of the in-memory columnar books snapshot")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("catalog.analytics.columnar.rows", this, snapshot -> snapshot.read(() -> columns.size()))
+                .tag("type", "book")
+                .register(meterRegistry);
+        Gauge.builder("catalog.analytics.columnar.rows", this, snapshot -> snapshot.read(() -> columns.authorsSize()))
+                .tag("type", "author")
+                .register(meterRegistry);
+        Gauge.builder("catalog.analytics.columnar.ready", this, snapshot -> snapshot.isReady() ? 1 : 0)
+                .register(meterRegistry);
+        this.snapshotHits = Counter.builder("catalog.analytics.columnar.queries").tag("source", "snapshot")
+                .register(meterRegistry);
+        this.sqlFallbacks = Counter.builder("catalog.analytics.columnar.queries").tag("source", "sql")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void clear() {
+        columns = new BookColumns(expectedSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Override
+    protected void forEachAuthor(Consumer<Author> consumer) {
+        authorRepository.forEachName(consumer);
+    }
+
+    @Override
+    protected void forEachBook(Consumer<Book> consumer) {
+        changes.forEachBook(consumer);
+    }
+
+    @Override
+    protected Optional<Book> findBook(long id) {
+        return changes.findBooks(List.of(id)).stream().findFirst();
+    }
+
+    @Override
+    protected Optional<String> findAuthorName(long id) {
+        return changes.findAuthors(List.of(id)).stream().map(Author::getName).findFirst();
+    }
+
+    @Override
+    protected List<Book> findBooksByAuthorIds(Collection<Long> authorIds) {
+        return changes.findBooksByAuthorIds(authorIds);
+    }
+
+    @Override
+    protected boolean containsBook(long id) {
+        return columns.contains(id);
+    }
+
+    @Override
+    protected boolean containsAuthor(long id) {
+        return columns.containsAuthor(id);
+    }
+
+    @Override
+    protected String describe() {
+        return columns.size() + " books, " + columns.authorsSize() + " authors, ~" + (estimateBytes() >> 20) + " MB";
+    }
+
+    public Optional<List<Map<String, Object>>> getGenreStats() {
+        return query(() -> {
+            BookColumns.GenreTotals totals = columns.genreTotals(pool);
+            int[] counts = totals.getCounts();
+            long[] pagesSums = totals.getPagesSums();
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (int genre = 0; genre < counts.length; genre++) {
+                if (counts[genre] > 0) {
+                    Map<String, Object> stats = new HashMap<>();
+                    stats.put("genre", columns.genreName(genre));
+                    stats.put("bookCount", counts[genre]);
+                    stats.put("avgPages", (double) pagesSums[genre] / counts[genre]);
+                    result.add(stats);
+                }
+            }
+            result.sort(BY_BOOK_COUNT_DESC);
+            return result;
+        });
+    }
+
+    public Optional<List<Map<String, Object>>> getFullAuthorStats() {
+        return query(() -> {
+            BookColumns.AuthorTotals totals = columns.authorTotals(pool);
+            int[] counts = totals.getCounts();
+            List<Map<String, Object>> result = new ArrayList<>(columns.authorsSize());
+            for (int author = 0; author < counts.length; author++) {
+                String name = columns.authorName(author);
+                if (name == null) {
+                    continue;
+                }
+                int count = counts[author];
+                Map<String, Object> stats = new HashMap<>();
+                stats.put("authorId", columns.authorId(author));
+                stats.put("authorName", name);
+                stats.put("bookCount", count);
+                stats.put("firstPublishDate", count == 0 ? null : toDate(totals.getFirstDays()[author]));
+                stats.put("lastPublishDate", count == 0 ? null : toDate(totals.getLastDays()[author]));
+                stats.put("avgPages", count == 0 ? 0.0 : (double) totals.getPagesSums()[author] / count);
+                result.add(stats);
+            }
+            result.sort(BY_BOOK_COUNT_DESC);
+            return result;
+        });
+    }
+
+    public Optional<List<Map<String, Object>>> getAuthorStatsSummary() {
+        return query(() -> {
+            int[] counts = columns.authorTotals(pool).getCounts();
+            List<Map<String, Object>> result = new ArrayList<>(columns.authorsSize());
+            for (int author = 0; author < counts.length; author++) {
+                String name = columns.authorName(author);
+                if (name != null) {
+                    Map<String, Object> stats = new HashMap<>();
+                    stats.put("authorId", columns.authorId(author));
+                    stats.put("authorName", name);
+                    stats.put("bookCount", counts[author]);
+                    result.add(stats);
+                }
+            }
+            result.sort(BY_BOOK_COUNT_DESC);
+            return result;
+        });
+    }
+
+    public Optional<Map<String, Object>> getCombinedAuthorStats() {
+        return query(() -> {
+            int[] counts = columns.authorTotals(pool).getCounts();
+            int top = -1;
+            long books = 0;
+            for (int author = 0; author < counts.length; author++) {
+                if (columns.authorName(author) != null) {
+                    books += counts[author];
+                    if (top < 0 || counts[author] > counts[top]) {
+                        top = author;
+                    }
+                }
+            }
+            Map<String, Object> result = new HashMap<>();
+            int authorsCount = columns.authorsSize();
+            result.put("totalAuthors", authorsCount);
+            Map<String, Object> topAuthor = null;
+            if (top >= 0) {
+                topAuthor = new HashMap<>();
+                topAuthor.put("authorName", columns.authorName(top));
+                topAuthor.put("bookCount", counts[top]);
+            }
+            result.put("topAuthor", topAuthor);
+            result.put("avgBooksPerAuthor", authorsCount == 0 ? 0.0 : (double) books / authorsCount);
+            return result;
+        });
+    }
+
+    private <T> Optional<T> query(Supplier<T> aggregate) {
+        if (!isReady()) {
+            sqlFallbacks.increment();
+            return Optional.empty();
+        }
+        T result = read(aggregate);
+        snapshotHits.increment();
+        return Optional.of(result);
+    }
+
+    @Override
+    protected void putBook(Book book) {
+        columns.put(book.getId(), book.getGenre(), book.getAuthor().getId(), book.getPagesNumber(),
+                book.getPublishingDate());
+    }
+
+    @Override
+    protected void putAuthor(long id, String name) {
+        columns.putAuthor(id, name);
+    }
+
+    @Override
+    protected void deleteBook(long id) {
+        columns.remove(id);
+    }
+
+    @Override
+    protected void deleteAuthor(long id) {
+        columns.removeAuthor(id);
+    }
+
+    private long estimateBytes() {
+        return columns.estimateBytes();
+    }
+
+    private static Date toDate(int epochDay) {
+        return Date.valueOf(LocalDate.ofEpochDay(epochDay));
+    }
+}
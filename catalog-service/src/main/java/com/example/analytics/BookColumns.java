@@ -0,0 +1,386 @@
+package com.example.analytics;
+
+import com.example.search.LongIntHashMap;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Колонки таблицы books, нужные для статистики: по примитивному массиву на колонку,
+ * строка снимка - общий номер в массивах. Жанр и автор хранятся кодами словарей,
+ * дата издания - номером дня от 1970-01-01. Освободившиеся строки занимаются заново,
+ * коды удалённых авторов не переиспользуются.
+ * Агрегаты считаются параллельным проходом по диапазонам строк в переданном ForkJoinPool.
+ * Класс не потокобезопасен: синхронизацию обеспечивает владелец снимка.
+ */
+public class BookColumns {
+    /* Код жанра свободной строки */
+    private static final int FREE = -1;
+    /* Меньше строк на задачу не делится: накладные расходы fork-join дороже прохода */
+    private static final int MIN_SPLIT_ROWS = 1 << 14;
+
+    private final LongIntHashMap rowsById;
+    private long[] ids;
+    private int[] genres;
+    private int[] authors;
+    private int[] pages;
+    private int[] publishDays;
+    private int rowCount;
+    private int liveCount;
+    private int[] freeRows = new int[16];
+    private int freeCount;
+
+    private final Map<String, Integer> genreCodes = new HashMap<>();
+    private String[] genreNames = new String[16];
+
+    private final LongIntHashMap authorCodes;
+    private long[] authorIds;
+    /* null - автор удалён или ещё не загружен */
+    private String[] authorNames;
+    private int authorCount;
+    private int liveAuthors;
+    private long authorNameChars;
+
+    public BookColumns(int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        int authorCapacity = Math.max(expectedSize / 10, 16);
+        rowsById = new LongIntHashMap(capacity);
+        ids = new long[capacity];
+        genres = new int[capacity];
+        authors = new int[capacity];
+        pages = new int[capacity];
+        publishDays = new int[capacity];
+        authorCodes = new LongIntHashMap(authorCapacity);
+        authorIds = new long[authorCapacity];
+        authorNames = new String[authorCapacity];
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    public int authorsSize() {
+        return liveAuthors;
+    }
+
+    public boolean contains(long id) {
+        return rowsById.get(id) >= 0;
+    }
+
+    public boolean containsAuthor(long id) {
+        int code = authorCodes.get(id);
+        return code >= 0 && authorNames[code] != null;
+    }
+
+    /**
+     * Добавляет книгу или заменяет значения колонок существующей.
+     */
+    public void put(long id, String genre, long authorId, int pagesNumber, LocalDate publishingDate) {
+        int row = rowsById.get(id);
+        if (row < 0) {
+            row = allocate(id);
+        }
+        genres[row] = genreCode(genre);
+        authors[row] = authorCode(authorId);
+        pages[row] = pagesNumber;
+        publishDays[row] = (int) publishingDate.toEpochDay();
+    }
+
+    public void remove(long id) {
+        int row = rowsById.remove(id);
+        if (row >= 0) {
+            release(row);
+        }
+    }
+
+    public void putAuthor(long id, String name) {
+        int code = authorCode(id);
+        if (authorNames[code] == null) {
+            liveAuthors++;
+        } else {
+            authorNameChars -= authorNames[code].length();
+        }
+        authorNames[code] = name;
+        authorNameChars += name.length();
+    }
+
+    /**
+     * Удаляет автора вместе с его книгами: в базе они удаляются каскадно.
+     */
+    public void removeAuthor(long id) {
+        int code = authorCodes.get(id);
+        if (code < 0) {
+            return;
+        }
+        if (authorNames[code] != null) {
+            authorNameChars -= authorNames[code].length();
+            authorNames[code] = null;
+            liveAuthors--;
+        }
+        for (int row = 0; row < rowCount; row++) {
+            if (genres[row] != FREE && authors[row] == code) {
+                rowsById.remove(ids[row]);
+                release(row);
+            }
+        }
+    }
+
+    /**
+     * Число книг и сумма страниц по кодам жанров.
+     */
+    public GenreTotals genreTotals(ForkJoinPool pool) {
+        return pool.invoke(new GenreScan(genres, pages, 0, rowCount, genreCodes.size(),
+                splitRows(pool)));
+    }
+
+    /**
+     * Число книг, сумма страниц и даты первой и последней книги по кодам авторов.
+     */
+    public AuthorTotals authorTotals(ForkJoinPool pool) {
+        return pool.invoke(new AuthorScan(genres, authors, pages, publishDays, 0, rowCount, authorCount,
+                splitRows(pool)));
+    }
+
+    public String genreName(int code) {
+        return genreNames[code];
+    }
+
+    public int authorCodesSize() {
+        return authorCount;
+    }
+
+    public long authorId(int code) {
+        return authorIds[code];
+    }
+
+    /**
+     * @return имя автора или null, если автора нет в снимке
+     */
+    public String authorName(int code) {
+        return authorNames[code];
+    }
+
+    public long estimateBytes() {
+        long bytes = 12L * rowsById.capacity() + 16 + 8L * ids.length;
+        bytes += 4 * (16 + 4L * genres.length) + 16 + 4L * freeRows.length;
+        bytes += 64L * genreCodes.size() + 16 + 4L * genreNames.length;
+        bytes += 12L * authorCodes.capacity() + 16 + 8L * authorIds.length + 16 + 4L * authorNames.length;
+        bytes += 40L * liveAuthors + authorNameChars;
+        return bytes;
+    }
+
+    private int splitRows(ForkJoinPool pool) {
+        return Math.max(MIN_SPLIT_ROWS, rowCount / pool.getParallelism() + 1);
+    }
+
+    private int allocate(long id) {
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            if (rowCount == ids.length) {
+                int capacity = ids.length + (ids.length >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                genres = Arrays.copyOf(genres, capacity);
+                authors = Arrays.copyOf(authors, capacity);
+                pages = Arrays.copyOf(pages, capacity);
+                publishDays = Arrays.copyOf(publishDays, capacity);
+            }
+            row = rowCount++;
+        }
+        ids[row] = id;
+        rowsById.put(id, row);
+        liveCount++;
+        return row;
+    }
+
+    private void release(int row) {
+        genres[row] = FREE;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+        }
+        freeRows[freeCount++] = row;
+        liveCount--;
+    }
+
+    private int genreCode(String genre) {
+        Integer code = genreCodes.get(genre);
+        if (code != null) {
+            return code;
+        }
+        int newCode = genreCodes.size();
+        if (newCode == genreNames.length) {
+            genreNames = Arrays.copyOf(genreNames, newCode * 2);
+        }
+        genreNames[newCode] = genre;
+        genreCodes.put(genre, newCode);
+        return newCode;
+    }
+
+    private int authorCode(long authorId) {
+        int code = authorCodes.get(authorId);
+        if (code >= 0) {
+            return code;
+        }
+        if (authorCount == authorIds.length) {
+            int capacity = authorIds.length + (authorIds.length >> 1);
+            authorIds = Arrays.copyOf(authorIds, capacity);
+            authorNames = Arrays.copyOf(authorNames, capacity);
+        }
+        code = authorCount++;
+        authorIds[code] = authorId;
+        authorCodes.put(authorId, code);
+        return code;
+    }
+
+    @Getter
+    public static final class GenreTotals {
+        private final int[] counts;
+        private final long[] pagesSums;
+
+        private GenreTotals(int genreCount) {
+            this.counts = new int[genreCount];
+            this.pagesSums = new long[genreCount];
+        }
+
+        private GenreTotals merge(GenreTotals other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                pagesSums[i] += other.pagesSums[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Даты - номера дней, у авторов без книг firstDays = Integer.MAX_VALUE.
+     */
+    @Getter
+    public static final class AuthorTotals {
+        private final int[] counts;
+        private final long[] pagesSums;
+        private final int[] firstDays;
+        private final int[] lastDays;
+
+        private AuthorTotals(int authorCount) {
+            this.counts = new int[authorCount];
+            this.pagesSums = new long[authorCount];
+            this.firstDays = new int[authorCount];
+            this.lastDays = new int[authorCount];
+            Arrays.fill(firstDays, Integer.MAX_VALUE);
+            Arrays.fill(lastDays, Integer.MIN_VALUE);
+        }
+
+        private AuthorTotals merge(AuthorTotals other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                pagesSums[i] += other.pagesSums[i];
+                firstDays[i] = Math.min(firstDays[i], other.firstDays[i]);
+                lastDays[i] = Math.max(lastDays[i], other.lastDays[i]);
+            }
+            return this;
+        }
+    }
+
+    private static final class GenreScan extends RecursiveTask<GenreTotals> {
+        private final int[] genres;
+        private final int[] pages;
+        private final int from;
+        private final int to;
+        private final int genreCount;
+        private final int splitRows;
+
+        private GenreScan(int[] genres, int[] pages, int from, int to, int genreCount, int splitRows) {
+            this.genres = genres;
+            this.pages = pages;
+            this.from = from;
+            this.to = to;
+            this.genreCount = genreCount;
+            this.splitRows = splitRows;
+        }
+
+        @Override
+        protected GenreTotals compute() {
+            if (to - from > splitRows) {
+                int middle = (from + to) >>> 1;
+                GenreScan left = new GenreScan(genres, pages, from, middle, genreCount, splitRows);
+                left.fork();
+                GenreTotals right = new GenreScan(genres, pages, middle, to, genreCount, splitRows).compute();
+                return left.join().merge(right);
+            }
+            GenreTotals totals = new GenreTotals(genreCount);
+            int[] counts = totals.counts;
+            long[] pagesSums = totals.pagesSums;
+            for (int row = from; row < to; row++) {
+                int genre = genres[row];
+                if (genre != FREE) {
+                    counts[genre]++;
+                    pagesSums[genre] += pages[row];
+                }
+            }
+            return totals;
+        }
+    }
+
+    private static final class AuthorScan extends RecursiveTask<AuthorTotals> {
+        private final int[] genres;
+        private final int[] authors;
+        private final int[] pages;
+        private final int[] publishDays;
+        private final int from;
+        private final int to;
+        private final int authorCount;
+        private final int splitRows;
+
+        private AuthorScan(int[] genres, int[] authors, int[] pages, int[] publishDays, int from, int to,
+                           int authorCount, int splitRows) {
+            this.genres = genres;
+            this.authors = authors;
+            this.pages = pages;
+            this.publishDays = publishDays;
+            this.from = from;
+            this.to = to;
+            this.authorCount = authorCount;
+            this.splitRows = splitRows;
+        }
+
+        @Override
+        protected AuthorTotals compute() {
+            if (to - from > splitRows) {
+                int middle = (from + to) >>> 1;
+                AuthorScan left = new AuthorScan(genres, authors, pages, publishDays, from, middle,
+                        authorCount, splitRows);
+                left.fork();
+                AuthorTotals right = new AuthorScan(genres, authors, pages, publishDays, middle, to,
+                        authorCount, splitRows).compute();
+                return left.join().merge(right);
+            }
+            AuthorTotals totals = new AuthorTotals(authorCount);
+            int[] counts = totals.counts;
+            long[] pagesSums = totals.pagesSums;
+            int[] firstDays = totals.firstDays;
+            int[] lastDays = totals.lastDays;
+            for (int row = from; row < to; row++) {
+                if (genres[row] == FREE) {
+                    continue;
+                }
+                int author = authors[row];
+                int day = publishDays[row];
+                counts[author]++;
+                pagesSums[author] += pages[row];
+                if (day < firstDays[author]) {
+                    firstDays[author] = day;
+                }
+                if (day > lastDays[author]) {
+                    lastDays[author] = day;
+                }
+            }
+            return totals;
+        }
+    }
+}
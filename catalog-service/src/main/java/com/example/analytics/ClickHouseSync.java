@@ -0,0 +1,280 @@
+package com.example.analytics;
+
+import com.example.datasource.Workload;
+import com.example.datasource.Workloads;
+import com.example.model.Author;
+import com.example.model.Book;
+import com.example.repository.clickhouse.BookClickHouseRepository;
+import com.example.repository.jdbc.AnalyticsChangeJdbcRepository;
+import com.example.repository.jdbc.AuthorJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перенос книг и авторов из Postgres в ClickHouse.
+ * Триггеры записывают идентификаторы изменённых строк в analytics_changes, перенос раз в
+ * catalog.analytics.clickhouse.sync-interval читает журнал порциями, загружает текущее состояние
+ * строк и записывает его в ClickHouse с новой версией, после чего удаляет перенесённые записи журнала.
+ * Повторный перенос тех же строк безопасен, поэтому сбой между записью в ClickHouse и фиксацией
+ * транзакции не теряет и не портит данные.
+ * Журнал ведётся, пока действует аренда catalog.analytics.clickhouse.lease, продлеваемая каждым
+ * переносом. Без аренды (первый запуск, долгая остановка всех экземпляров) данные загружаются
+ * заново из снимка Postgres, аренда должна быть больше времени такой загрузки.
+ * Переносом занимается один экземпляр за раз (pg_try_advisory_xact_lock), отставание видят все.
+ */
+@Component
+public class ClickHouseSync {
+    private static final Logger logger = LoggerFactory.getLogger(ClickHouseSync.class);
+    private static final String CONSUMER = "clickhouse";
+    private static final String BOOK = "book";
+
+    private final AnalyticsChangeJdbcRepository changes;
+    private final AuthorJdbcRepository authorRepository;
+    private final BookClickHouseRepository clickHouse;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate loadTransactionTemplate;
+    private final Duration syncInterval;
+    private final Duration lease;
+    private final Duration maxLag;
+    private final int batchSize;
+    private final int loadBatchSize;
+    private final ScheduledExecutorService syncer;
+    private boolean tablesCreated;
+    private volatile boolean failing;
+    private volatile boolean loaded;
+    /* Всё, что изменено до этого момента, уже в ClickHouse */
+    private volatile Instant caughtUpAt;
+
+    public ClickHouseSync(AnalyticsChangeJdbcRepository changes, AuthorJdbcRepository authorRepository,
+                          BookClickHouseRepository clickHouse, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${catalog.analytics.clickhouse.sync-interval:1s}") Duration syncInterval,
+                          @Value("${catalog.analytics.clickhouse.lease:1h}") Duration lease,
+                          @Value("${catalog.analytics.clickhouse.max-lag:30s}") Duration maxLag,
+                          @Value("${catalog.analytics.clickhouse.batch-size:10000}") int batchSize,
+                          @Value("${catalog.analytics.clickhouse.load-batch-size:100000}") int loadBatchSize) {
+        this.changes = changes;
+        this.authorRepository = authorRepository;
+        this.clickHouse = clickHouse;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        /* Полная загрузка читает книги и авторов из одного снимка */
+        this.loadTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.loadTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.syncInterval = syncInterval;
+        this.lease = lease;
+        this.maxLag = maxLag;
+        this.batchSize = batchSize;
+        this.loadBatchSize = loadBatchSize;
+        this.syncer = clickHouse.isEnabled() ? Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "catalog-analytics-sync");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        if (clickHouse.isEnabled()) {
+            Gauge.builder("catalog.analytics.lag", this, ClickHouseSync::lagSeconds)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (syncer == null) {
+            logger.info("ClickHouse analytics is disabled");
+            return;
+        }
+        syncer.scheduleWithFixedDelay(this::sync, 0, syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("ClickHouse sync every {}, max lag {}", syncInterval, maxLag);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+    }
+
+    /**
+     * Можно ли считать статистику в ClickHouse: данные загружены, отстают не больше max-lag
+     * и последний перенос прошёл без ошибок.
+     */
+    public boolean isFresh() {
+        return loaded && !failing && lagSeconds() <= maxLag.toMillis() / 1000.0;
+    }
+
+    private double lagSeconds() {
+        Instant current = caughtUpAt;
+        return current == null ? Double.POSITIVE_INFINITY :
+                Math.max(0, Duration.between(current, Instant.now()).toMillis() / 1000.0);
+    }
+
+    private void sync() {
+        try {
+            if (!tablesCreated) {
+                clickHouse.createTables();
+                tablesCreated = true;
+            } else {
+                /* Проверка доступности, даже если переносить нечего */
+                clickHouse.ping();
+            }
+            Step step;
+            do {
+                step = Workloads.call(Workload.ANALYTICS, () -> transactionTemplate.execute(status -> applyBatch()));
+            } while (step == Step.MORE);
+            if (step == Step.NOT_LOADED) {
+                load();
+            }
+            if (failing) {
+                logger.info("ClickHouse sync recovered");
+                failing = false;
+            }
+        } catch (Exception e) {
+            /* Пока ClickHouse недоступен, ошибка повторяется при каждом переносе */
+            if (!failing) {
+                logger.warn("ClickHouse sync failed: {}", e.getMessage());
+                failing = true;
+            } else {
+                logger.debug("ClickHouse sync failed: {}", e.getMessage());
+            }
+        }
+        observe();
+    }
+
+    private Step applyBatch() {
+        if (!changes.tryLock()) {
+            return Step.LOCKED;
+        }
+        if (!changes.renewLease(CONSUMER, lease)) {
+            return Step.NOT_LOADED;
+        }
+        List<AnalyticsChangeJdbcRepository.Change> batch = changes.findChanges(batchSize);
+        if (batch.isEmpty()) {
+            return Step.DONE;
+        }
+        Set<Long> bookIds = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        List<Long> changeIds = new ArrayList<>(batch.size());
+        for (AnalyticsChangeJdbcRepository.Change change : batch) {
+            (BOOK.equals(change.getEntity()) ? bookIds : authorIds).add(change.getEntityId());
+            changeIds.add(change.getId());
+        }
+        long version = changes.nextVersion();
+
+        List<Author> authors = authorIds.isEmpty() ? List.of() : changes.findAuthors(authorIds);
+        authors.forEach(author -> authorIds.remove(author.getId()));
+        clickHouse.saveAuthors(authors, authorIds, version);
+
+        List<Book> books = bookIds.isEmpty() ? List.of() : changes.findBooks(bookIds);
+        books.forEach(book -> bookIds.remove(book.getId()));
+        clickHouse.saveBooks(books, bookIds, version);
+
+        changes.deleteChanges(changeIds);
+        logger.debug("Synced {} changes to ClickHouse", batch.size());
+        return batch.size() == batchSize ? Step.MORE : Step.DONE;
+    }
+
+    /**
+     * Полная загрузка: включает журнал, ждёт завершения транзакций, которые могли изменить
+     * таблицы без записи в журнал, и переносит снимок таблиц. Изменения, сделанные во время
+     * загрузки, переносятся после неё с более новой версией.
+     */
+    private void load() throws InterruptedException {
+        loaded = false;
+        Long xid = Workloads.call(Workload.ANALYTICS, () -> transactionTemplate.execute(status ->
+                changes.tryLock() ? changes.startLoad(CONSUMER, lease) : null));
+        if (xid == null) {
+            return;
+        }
+        while (!Workloads.call(Workload.ANALYTICS, () -> changes.isCompletedBefore(xid))) {
+            Thread.sleep(100);
+        }
+
+        Instant start = Instant.now();
+        logger.info("Loading catalog into ClickHouse");
+        long[] counts = Workloads.call(Workload.BULK, () -> loadTransactionTemplate.execute(status -> {
+            if (!changes.tryLock() || changes.isLoaded(CONSUMER)) {
+                return null;
+            }
+            long version = changes.nextVersion();
+            clickHouse.truncate();
+
+            long[] loadedCounts = new long[2];
+            List<Author> authors = new ArrayList<>(loadBatchSize);
+            authorRepository.forEachName(author -> {
+                authors.add(author);
+                if (authors.size() == loadBatchSize) {
+                    clickHouse.saveAuthors(authors, List.of(), version);
+                    loadedCounts[0] += authors.size();
+                    authors.clear();
+                }
+            });
+            clickHouse.saveAuthors(authors, List.of(), version);
+            loadedCounts[0] += authors.size();
+
+            List<Book> books = new ArrayList<>(loadBatchSize);
+            changes.forEachBook(book -> {
+                books.add(book);
+                if (books.size() == loadBatchSize) {
+                    clickHouse.saveBooks(books, List.of(), version);
+                    loadedCounts[1] += books.size();
+                    books.clear();
+                }
+            });
+            clickHouse.saveBooks(books, List.of(), version);
+            loadedCounts[1] += books.size();
+
+            changes.markLoaded(CONSUMER);
+            return loadedCounts;
+        }));
+        if (counts != null) {
+            logger.info("Loaded {} authors and {} books into ClickHouse in {} ms", counts[0], counts[1],
+                    Duration.between(start, Instant.now()).toMillis());
+        }
+    }
+
+    /**
+     * Обновляет состояние по Postgres: журнал общий, поэтому отставание видно и экземплярам,
+     * которые сами не переносят изменения.
+     */
+    private void observe() {
+        try {
+            Instant observedAt = Instant.now();
+            Workloads.run(Workload.ANALYTICS, () -> transactionTemplate.executeWithoutResult(status -> {
+                loaded = changes.isLoaded(CONSUMER);
+                caughtUpAt = changes.oldestChange().orElse(observedAt);
+            }));
+        } catch (Exception e) {
+            logger.warn("ClickHouse sync state unavailable: {}", e.getMessage());
+        }
+    }
+
+    private enum Step {
+        /* Порция заполнена целиком, в журнале могут быть ещё изменения */
+        MORE,
+        DONE,
+        /* Переносом занят другой экземпляр */
+        LOCKED,
+        NOT_LOADED
+    }
+}
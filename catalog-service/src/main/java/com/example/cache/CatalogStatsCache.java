@@ -0,0 +1,232 @@
+package com.example.cache;
+
+import com.example.config.PersistenceConfig;
+import com.example.event.AuthorChangedEvent;
+import com.example.event.BookChangedEvent;
+import com.example.event.BooksImportedEvent;
+import com.example.event.RemoteCatalogChangeEvent;
+import com.example.service.BookSpecialService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Статистика /complex, рассчитываемая заранее в фоне.
+ * Каждый результат пересчитывается раз в catalog.stats.refresh-interval и после
+ * catalog.stats.refresh-after-writes изменений книг и авторов в этом и других экземплярах:
+ * чужие изменения приходят как RemoteCatalogChangeEvent, а после их возможной потери пересчёт идёт сразу.
+ * Запросы получают последний завершённый расчёт, ждать приходится только первого расчёта.
+ * Одновременные запросы на пересчёт объединяются: пока идёт расчёт, новый не начинается,
+ * а запрошенный во время расчёта выполняется сразу после него.
+ * Расчёты идут по очереди в одном потоке, поэтому нагрузка на базу не зависит от числа запросов.
+ */
+@Component
+public class CatalogStatsCache {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogStatsCache.class);
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "catalog-stats-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Entry<List<Map<String, Object>>> genreStats;
+    private final Entry<List<Map<String, Object>>> fullAuthorStats;
+    private final Entry<List<Map<String, Object>>> authorStatsSummary;
+    private final Entry<Map<String, Object>> combinedAuthorStats;
+    private final List<Entry<?>> entries;
+    private final Duration refreshInterval;
+    private final long refreshAfterWrites;
+    private final AtomicLong writes = new AtomicLong();
+
+    public CatalogStatsCache(@Qualifier(PersistenceConfig.BOOK_STATS) BookSpecialService stats,
+                             MeterRegistry meterRegistry,
+                             @Value("${catalog.stats.refresh-interval:60s}") Duration refreshInterval,
+                             @Value("${catalog.stats.refresh-after-writes:100}") long refreshAfterWrites) {
+        this.genreStats = new Entry<>("genre-stats", stats::getGenreStats, meterRegistry);
+        this.fullAuthorStats = new Entry<>("author-stats", stats::getFullAuthorStats, meterRegistry);
+        this.authorStatsSummary = new Entry<>("author-stats-summary", stats::getAuthorStatsSummary, meterRegistry);
+        this.combinedAuthorStats = new Entry<>("author-stats-combined", stats::getCombinedAuthorStats,
+                meterRegistry);
+        this.entries = List.of(genreStats, fullAuthorStats, authorStatsSummary, combinedAuthorStats);
+        this.refreshInterval = refreshInterval;
+        this.refreshAfterWrites = refreshAfterWrites;
+    }
+
+    public StatsSnapshot<List<Map<String, Object>>> getGenreStats() {
+        return genreStats.get();
+    }
+
+    public StatsSnapshot<List<Map<String, Object>>> getFullAuthorStats() {
+        return fullAuthorStats.get();
+    }
+
+    public StatsSnapshot<List<Map<String, Object>>> getAuthorStatsSummary() {
+        return authorStatsSummary.get();
+    }
+
+    public StatsSnapshot<Map<String, Object>> getCombinedAuthorStats() {
+        return combinedAuthorStats.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRefreshing() {
+        refresher.scheduleWithFixedDelay(this::refreshAll, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Stats refresh every {} or after {} writes", refreshInterval, refreshAfterWrites);
+    }
+
+    @PreDestroy
+    public void stopRefreshing() {
+        refresher.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        countWrites(1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        countWrites(1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        countWrites(event.getBooks().size());
+    }
+
+    /**
+     * Уведомление об импорте содержит только авторов, поэтому импорт считается по их числу.
+     */
+    @EventListener
+    public void onRemoteChange(RemoteCatalogChangeEvent event) {
+        if (event.getType() == RemoteCatalogChangeEvent.Type.RESYNC) {
+            refreshAll();
+        } else if (event.getType() == RemoteCatalogChangeEvent.Type.BOOKS_IMPORTED) {
+            countWrites(event.getAuthorIds().size());
+        } else {
+            countWrites(1);
+        }
+    }
+
+    /**
+     * Сбрасывает счётчик только тот поток, чьё значение в нём ещё лежит:
+     * записи, посчитанные одновременно, не теряются и запускают пересчёт сами.
+     */
+    private void countWrites(long count) {
+        long total = writes.addAndGet(count);
+        if (total >= refreshAfterWrites && writes.compareAndSet(total, 0)) {
+            logger.debug("Refreshing stats after {} writes", total);
+            entries.forEach(Entry::refresh);
+        }
+    }
+
+    /**
+     * Записи, посчитанные до сброса, уже зафиксированы и попадут в начинающийся расчёт.
+     */
+    private void refreshAll() {
+        writes.set(0);
+        entries.forEach(Entry::refresh);
+    }
+
+    private final class Entry<T> {
+        private final String name;
+        private final Supplier<T> loader;
+        private final Timer timer;
+        private volatile StatsSnapshot<T> snapshot;
+        private CompletableFuture<StatsSnapshot<T>> inFlight;
+        private boolean rerun;
+
+        private Entry(String name, Supplier<T> loader, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.loader = loader;
+            this.timer = Timer.builder("catalog.stats.refresh").tag("stats", name).register(meterRegistry);
+            Gauge.builder("catalog.stats.age", this, entry -> entry.ageSeconds())
+                    .tag("stats", name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        /**
+         * До первого расчёта запрос ждёт его, ошибка первого расчёта возвращается запросу.
+         */
+        StatsSnapshot<T> get() {
+            StatsSnapshot<T> current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            try {
+                return refresh().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        synchronized CompletableFuture<StatsSnapshot<T>> refresh() {
+            if (inFlight != null) {
+                rerun = true;
+                return inFlight;
+            }
+            CompletableFuture<StatsSnapshot<T>> future = new CompletableFuture<>();
+            inFlight = future;
+            refresher.execute(() -> compute(future));
+            return future;
+        }
+
+        private void compute(CompletableFuture<StatsSnapshot<T>> future) {
+            try {
+                T value = timer.recordCallable(loader::get);
+                StatsSnapshot<T> computed = new StatsSnapshot<>(value, Instant.now());
+                snapshot = computed;
+                logger.debug("Stats {} refreshed", name);
+                complete(future, computed, null);
+            } catch (Exception e) {
+                logger.error("Error refreshing stats {}: {}", name, e.getMessage());
+                complete(future, null, e);
+            }
+        }
+
+        private void complete(CompletableFuture<StatsSnapshot<T>> future, StatsSnapshot<T> computed, Exception e) {
+            boolean again;
+            synchronized (this) {
+                inFlight = null;
+                again = rerun;
+                rerun = false;
+            }
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(computed);
+            }
+            if (again) {
+                refresh();
+            }
+        }
+
+        private double ageSeconds() {
+            StatsSnapshot<T> current = snapshot;
+            return current == null ? Double.NaN :
+                    Duration.between(current.getComputedAt(), Instant.now()).toMillis() / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Версии данных каталога для ETag и условных GET.
+ * Значения строятся из версий изменений общей для всех экземпляров последовательности Postgres
+ * (catalog_version_seq), поэтому одинаковые данные получают одинаковый ETag на всех экземплярах
+ * и после перезапуска, а версии только растут. Версия изменения занимает старшие биты значения;
+ * изменение, зафиксированное позже изменения с большей версией, увеличивает младшие биты,
+ * чтобы ETag всё равно поменялся. Следующее изменение с большей версией снова выравнивает экземпляры.
+ * Версии строк книг хранятся в фиксированном массиве по хэшу id: запись одной книги
+ * меняет версию и у книг с тем же хэшем, что лишь вызывает повторную загрузку у клиента.
+ * Версии коллекций покрывают все списки книг и все списки авторов.
+ * Версии обновляет EntityCacheInvalidator после фиксации транзакции и по уведомлениям
+ * других экземпляров, уже после очистки кэшей.
+ */
+@Component
+public class CatalogVersions {
+    private static final int ROW_STRIPES = 1 << 16;
+    private static final int ORDER_BITS = 16;
+
+    private final AtomicLongArray bookRows = new AtomicLongArray(ROW_STRIPES);
+    private final AtomicLong books = new AtomicLong();
+    private final AtomicLong authors = new AtomicLong();
+
+    /**
+     * Книга создана, изменена или удалена в версии каталога version:
+     * меняются её строка и списки книг и авторов.
+     */
+    public void bookChanged(long bookId, long version) {
+        bookRows.accumulateAndGet(stripe(bookId), version, CatalogVersions::advance);
+        books.accumulateAndGet(version, CatalogVersions::advance);
+    }
+
+    /**
+     * Изменение авторов меняет имена в деталях книг и фильтр по автору,
+     * а удаление автора каскадно удаляет его книги.
+     */
+    public void authorsChanged(long version) {
+        authors.accumulateAndGet(version, CatalogVersions::advance);
+        books.accumulateAndGet(version, CatalogVersions::advance);
+    }
+
+    /**
+     * Изменения до версии version могли быть пропущены: все версии поднимаются до неё.
+     * Вызывается при запуске и после переподключения к каналу уведомлений.
+     */
+    public void reset(long version) {
+        long value = version << ORDER_BITS;
+        for (int i = 0; i < ROW_STRIPES; i++) {
+            bookRows.accumulateAndGet(i, value, Math::max);
+        }
+        authors.accumulateAndGet(value, Math::max);
+        books.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * ETag книги и её деталей: детали содержат имя автора.
+     */
+    public String bookTag(long bookId) {
+        return tag("b", bookRows.get(stripe(bookId)) + "." + authors.get());
+    }
+
+    /**
+     * ETag списков книг и статистики.
+     */
+    public String booksTag() {
+        return tag("bs", Long.toString(books.get()));
+    }
+
+    /**
+     * ETag авторов: ответы содержат их книги.
+     */
+    public String authorsTag() {
+        return tag("as", authors.get() + "." + books.get());
+    }
+
+    private static long advance(long current, long version) {
+        return Math.max(current + 1, version << ORDER_BITS);
+    }
+
+    private static String tag(String prefix, String version) {
+        return "\"" + prefix + "-" + version + "\"";
+    }
+
+    private static int stripe(long id) {
+        return (int) (id ^ (id >>> 32)) * 0x9E3779B9 >>> 16;
+    }
+}
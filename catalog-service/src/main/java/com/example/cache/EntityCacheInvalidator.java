@@ -0,0 +1,387 @@
+package com.example.cache;
+
+import com.example.config.CacheConfig;
+import com.example.datasource.ReadYourWrites;
+import com.example.event.AuthorChangedEvent;
+import com.example.event.BookChangedEvent;
+import com.example.event.BooksImportedEvent;
+import com.example.event.RemoteCatalogChangeEvent;
+import com.example.model.Author;
+import com.example.model.Book;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Инвалидация кэшей книг и авторов.
+ * Свои записи удаляются после фиксации транзакции. Остальные экземпляры сервиса
+ * получают уведомление через Postgres LISTEN/NOTIFY: NOTIFY отправляется внутри
+ * транзакции записи и доставляется слушателям только после её фиксации.
+ * Каждое уведомление несёт версию изменения из последовательности catalog_version_seq,
+ * с которой после очистки кэшей обновляются версии CatalogVersions для ETag.
+ * Чужие изменения дополнительно публикуются как RemoteCatalogChangeEvent для индексов и снимков в памяти.
+ * Кэши заполняются через getOrLoad, который не кладёт в кэш значение, загруженное во время инвалидации.
+ */
+@Component
+public class EntityCacheInvalidator {
+    private static final Logger logger = LoggerFactory.getLogger(EntityCacheInvalidator.class);
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final String BOOK = "book";
+    private static final String AUTHOR = "author";
+    private static final String AUTHOR_BATCH = "authors";
+    /* Ограничение Postgres на размер payload - 8000 байт */
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+    private static final String NOTIFY_QUERY = "WITH v AS (SELECT nextval('catalog_version_seq') AS version) " +
+            "SELECT version, pg_notify(?, ? || version || ?) FROM v";
+    private static final String VERSION_QUERY = "SELECT last_value FROM catalog_version_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final Cache<Object, Object> books;
+    private final Cache<Object, Object> authors;
+    private final CatalogVersions versions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private final String instanceId = UUID.randomUUID().toString();
+    /* Увеличивается перед каждой очисткой кэшей */
+    private final AtomicLong evictions = new AtomicLong();
+    /* Книга -> автор, в закэшированном списке книг которого она есть; не больше одной записи на книгу */
+    private final Map<Long, Long> listedAuthors = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread listener;
+
+    public EntityCacheInvalidator(JdbcTemplate jdbcTemplate,
+                                  DataSourceProperties dataSourceProperties,
+                                  CacheManager cacheManager,
+                                  CatalogVersions versions,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${catalog.cache.invalidation.channel:catalog_cache}") String channel,
+                                  @Value("${catalog.cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.books = nativeCache(cacheManager, CacheConfig.BOOKS);
+        this.authors = nativeCache(cacheManager, CacheConfig.AUTHORS);
+        this.versions = versions;
+        this.eventPublisher = eventPublisher;
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    private static Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+
+    @PostConstruct
+    public void initVersions() {
+        versions.reset(currentVersion());
+    }
+
+    @EventListener
+    public void notifyBookChanged(BookChangedEvent event) {
+        long bookId = event.getBookId();
+        long authorId = event.isDeleted() ? 0 : event.getBook().getAuthor().getId();
+        long version = notifyOthers(BOOK + ":" + bookId + ":" + authorId);
+        afterCommit(() -> {
+            evictBook(bookId, authorId);
+            versions.bookChanged(bookId, version);
+        });
+    }
+
+    @EventListener
+    public void notifyAuthorChanged(AuthorChangedEvent event) {
+        long authorId = event.getAuthorId();
+        long version = notifyOthers(AUTHOR + ":" + authorId);
+        afterCommit(() -> {
+            evictAuthor(authorId);
+            versions.authorsChanged(version);
+        });
+    }
+
+    /**
+     * Импорт не меняет автора у существующих книг, поэтому достаточно сбросить их авторов;
+     * версия авторов входит и в ETag книг.
+     */
+    @EventListener
+    public void notifyBooksImported(BooksImportedEvent event) {
+        Set<Long> authorIds = authorIdsOf(event);
+        List<Long> batchVersions = new ArrayList<>();
+        StringBuilder ids = new StringBuilder();
+        for (long authorId : authorIds) {
+            if (ids.length() > MAX_PAYLOAD_LENGTH) {
+                batchVersions.add(notifyOthers(AUTHOR_BATCH + ":" + ids));
+                ids.setLength(0);
+            }
+            ids.append(ids.isEmpty() ? "" : ",").append(authorId);
+        }
+        if (!ids.isEmpty()) {
+            batchVersions.add(notifyOthers(AUTHOR_BATCH + ":" + ids));
+        }
+        afterCommit(() -> {
+            evictAuthors(authorIds);
+            batchVersions.forEach(versions::authorsChanged);
+        });
+    }
+
+    private static Set<Long> authorIdsOf(BooksImportedEvent event) {
+        Set<Long> authorIds = new HashSet<>();
+        for (Book book : event.getBooks()) {
+            authorIds.add(book.getAuthor().getId());
+        }
+        return authorIds;
+    }
+
+    /**
+     * Версия изменения берётся из последовательности тем же запросом, что и NOTIFY, и передаётся в payload.
+     * nextval не блокирует другие транзакции, поэтому версии выдаются не в порядке фиксации:
+     * CatalogVersions учитывает и изменения с меньшей версией.
+     *
+     * @return версия изменения
+     */
+    private long notifyOthers(String message) {
+        return jdbcTemplate.queryForObject(NOTIFY_QUERY, (rs, rowNum) -> rs.getLong(1),
+                channel, instanceId + ":", ":" + message);
+    }
+
+    /**
+     * Кэши очищаются после фиксации раньше остальных слушателей,
+     * чтобы лента изменений не сообщала о записи, пока её старое значение ещё в кэше.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private long currentVersion() {
+        return jdbcTemplate.queryForObject(VERSION_QUERY, Long.class);
+    }
+
+    /**
+     * Книга пропадает из кэша вместе с авторами, в списке книг которых она есть:
+     * при смене автора старый автор известен только по закэшированному списку, его находит listedAuthors.
+     */
+    void evictBook(long bookId, long authorId) {
+        evictions.incrementAndGet();
+        books.invalidate(bookId);
+        authors.invalidate(authorId);
+        Long listedAuthor = listedAuthors.remove(bookId);
+        if (listedAuthor != null) {
+            authors.invalidate(listedAuthor);
+        }
+    }
+
+    /**
+     * Закэшированные книги содержат имя автора, поэтому удаляются вместе с ним.
+     */
+    void evictAuthor(long authorId) {
+        evictAuthors(Set.of(authorId));
+    }
+
+    void evictAuthors(Set<Long> authorIds) {
+        evictions.incrementAndGet();
+        authors.invalidateAll(authorIds);
+        books.asMap().values().removeIf(value -> value instanceof Book book
+                && book.getAuthor() != null && authorIds.contains(book.getAuthor().getId()));
+    }
+
+    /**
+     * Значение кэша cacheName по id или результат loader, который кладётся в кэш.
+     * Загрузка, во время которой прошла инвалидация, могла прочитать строку до фиксации изменения,
+     * поэтому её результат в кэше не остаётся. Проверка после put закрывает гонку с инвалидацией,
+     * начавшейся между первой проверкой и put: иначе она уже удалит значение сама.
+     * Загрузка идёт с основной базы: реплика могла ещё не применить изменение, о котором пришло уведомление.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String cacheName, long id, Supplier<T> loader) {
+        Cache<Object, Object> cache = CacheConfig.BOOKS.equals(cacheName) ? books : authors;
+        Object cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return (T) cached;
+        }
+        long seen = evictions.get();
+        T value = ReadYourWrites.onPrimary(loader);
+        if (evictions.get() == seen) {
+            /* Индекс заполняется до put: инвалидация между ними либо увидит запись, либо сбросит и put */
+            if (value instanceof Author author && author.getBooks() != null) {
+                for (Book book : author.getBooks()) {
+                    listedAuthors.put(book.getId(), id);
+                }
+            }
+            cache.put(id, value);
+            if (evictions.get() != seen) {
+                cache.asMap().remove(id, value);
+            }
+        }
+        return value;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        running = true;
+        listener = new Thread(this::listen, "catalog-cache-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Слушает канал на отдельном соединении вне пула. После обрыва соединения
+     * уведомления могли быть потеряны, поэтому кэши очищаются целиком,
+     * а после повторного подключения публикуется RemoteCatalogChangeEvent.resync().
+     * Любая другая ошибка обрабатывается так же, чтобы поток слушателя не завершался.
+     */
+    private void listen() {
+        boolean resync = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                logger.info("Listening for cache invalidations on channel '{}'", channel);
+                versions.reset(readVersion(connection));
+                if (resync) {
+                    resync = false;
+                    publishResync();
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            try {
+                                onNotification(notification.getParameter());
+                            } catch (RuntimeException e) {
+                                logger.warn("Error handling cache invalidation '{}': {}",
+                                        notification.getParameter(), e.getMessage());
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cache invalidation listener failed, clearing caches: {}", e.getMessage());
+                evictions.incrementAndGet();
+                books.invalidateAll();
+                authors.invalidateAll();
+                listedAuthors.clear();
+                resync = true;
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ошибка слушателя resync только пишется в журнал и не останавливает поток LISTEN.
+     */
+    private void publishResync() {
+        try {
+            eventPublisher.publishEvent(RemoteCatalogChangeEvent.resync());
+        } catch (RuntimeException e) {
+            logger.warn("Error handling catalog resync: {}", e.getMessage());
+        }
+    }
+
+    private static long readVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(VERSION_QUERY)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Payload: instanceId:версия:тип:данные.
+     */
+    private void onNotification(String payload) {
+        String[] parts = payload.split(":");
+        if (parts.length < 4 || instanceId.equals(parts[0])) {
+            return;
+        }
+        try {
+            long version = Long.parseLong(parts[1]);
+            if (BOOK.equals(parts[2]) && parts.length == 5) {
+                long bookId = Long.parseLong(parts[3]);
+                long authorId = Long.parseLong(parts[4]);
+                evictBook(bookId, authorId);
+                versions.bookChanged(bookId, version);
+                eventPublisher.publishEvent(RemoteCatalogChangeEvent.book(bookId, authorId));
+            } else if (AUTHOR.equals(parts[2])) {
+                long authorId = Long.parseLong(parts[3]);
+                evictAuthor(authorId);
+                versions.authorsChanged(version);
+                eventPublisher.publishEvent(RemoteCatalogChangeEvent.author(authorId));
+            } else if (AUTHOR_BATCH.equals(parts[2])) {
+                Set<Long> authorIds = new HashSet<>();
+                for (String id : parts[3].split(",")) {
+                    authorIds.add(Long.parseLong(id));
+                }
+                evictAuthors(authorIds);
+                versions.authorsChanged(version);
+                eventPublisher.publishEvent(RemoteCatalogChangeEvent.booksImported(authorIds));
+            } else {
+                logger.warn("Unknown cache invalidation message: {}", payload);
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Malformed cache invalidation message: {}", payload);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.cache;
+
+import com.example.datasource.Workload;
+import com.example.datasource.Workloads;
+import com.example.event.AuthorChangedEvent;
+import com.example.event.BookChangedEvent;
+import com.example.event.BooksImportedEvent;
+import com.example.event.RemoteCatalogChangeEvent;
+import com.example.model.Author;
+import com.example.model.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Копия каталога в памяти сервиса (BookSearchIndex, BookColumnarSnapshot).
+ * Строится в фоне после старта приложения и обновляется событиями BookChangedEvent,
+ * AuthorChangedEvent и BooksImportedEvent после фиксации транзакций, а изменения других экземпляров
+ * перечитываются из базы по RemoteCatalogChangeEvent. Если уведомления могли быть потеряны или строки
+ * не удалось перечитать, копия строится заново. Пока копия строится, isReady() возвращает false
+ * и запросы выполняются в базе.
+ * Слушатели изменений выполняются первыми, чтобы пересчёт CatalogStatsCache по тому же событию видел их.
+ * Структуры копии меняются и читаются только внутри write() и read().
+ */
+public abstract class InMemoryCatalogView {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final boolean enabled;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /* Удаления во время построения: снимок, из которого читается копия, может их ещё содержать */
+    private final Set<Long> deletedBooks = new HashSet<>();
+    private final Set<Long> deletedAuthors = new HashSet<>();
+    private volatile boolean ready;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private volatile boolean rebuildRequested;
+
+    /**
+     * @param name название копии для логов и потока построения, например "search index"
+     */
+    protected InMemoryCatalogView(String name, boolean enabled, PlatformTransactionManager transactionManager) {
+        this.name = name;
+        this.enabled = enabled;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Очищает структуры копии; вызывается под блокировкой записи перед построением.
+     */
+    protected abstract void clear();
+
+    /**
+     * Читает всех авторов каталога для построения; вызывается в транзакции только для чтения.
+     */
+    protected abstract void forEachAuthor(Consumer<Author> consumer);
+
+    /**
+     * Читает все книги каталога для построения; вызывается в транзакции только для чтения.
+     */
+    protected abstract void forEachBook(Consumer<Book> consumer);
+
+    protected abstract Optional<Book> findBook(long id);
+
+    protected abstract Optional<String> findAuthorName(long id);
+
+    protected abstract List<Book> findBooksByAuthorIds(Collection<Long> authorIds);
+
+    protected abstract boolean containsBook(long id);
+
+    protected abstract boolean containsAuthor(long id);
+
+    protected abstract void putBook(Book book);
+
+    protected abstract void putAuthor(long id, String name);
+
+    protected abstract void deleteBook(long id);
+
+    /**
+     * Удаление автора каскадно удаляет его книги, поэтому они убираются из копии вместе с ним.
+     */
+    protected abstract void deleteAuthor(long id);
+
+    /**
+     * @return размер копии для лога после построения, вызывается под блокировкой чтения
+     */
+    protected abstract String describe();
+
+    /**
+     * Вызывается под блокировкой записи после каждого изменения готовой копии.
+     */
+    protected void afterWrite() {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBuild() {
+        if (!enabled) {
+            logger.info("In-memory {} is disabled", name);
+            return;
+        }
+        requestBuild();
+    }
+
+    /**
+     * Запрос во время построения не запускает второй поток: текущий поток построит копию ещё раз.
+     */
+    private void requestBuild() {
+        rebuildRequested = true;
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        /* Полное чтение каталога идёт через пул массовых операций, без statement_timeout OLTP */
+        Thread builder = new Thread(() -> Workloads.run(Workload.BULK, () -> {
+            do {
+                rebuildRequested = false;
+                build();
+                building.set(false);
+            } while (rebuildRequested && building.compareAndSet(false, true));
+        }), "catalog-" + name.replace(' ', '-') + "-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private void build() {
+        Instant start = Instant.now();
+        logger.info("Building in-memory {}", name);
+        write(() -> {
+            ready = false;
+            clear();
+            deletedBooks.clear();
+            deletedAuthors.clear();
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                forEachAuthor(author -> write(() -> {
+                    if (!deletedAuthors.contains(author.getId()) && !containsAuthor(author.getId())) {
+                        putAuthor(author.getId(), author.getName());
+                    }
+                }));
+                forEachBook(book -> write(() -> {
+                    if (!deletedBooks.contains(book.getId()) && !deletedAuthors.contains(book.getAuthor().getId())
+                            && !containsBook(book.getId())) {
+                        putBook(book);
+                    }
+                }));
+            });
+            write(() -> {
+                deletedBooks.clear();
+                deletedAuthors.clear();
+                ready = true;
+            });
+            Duration duration = Duration.between(start, Instant.now());
+            logger.info("In-memory {} built: {} in {} ms", name, read(this::describe), duration.toMillis());
+        } catch (Exception e) {
+            logger.error("Error building in-memory {}, falling back to SQL: {}", name, e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        write(() -> {
+            if (event.isDeleted()) {
+                removeBook(event.getBookId());
+            } else {
+                putBook(event.getBook());
+            }
+        });
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        write(() -> {
+            if (event.isDeleted()) {
+                removeAuthor(event.getAuthorId());
+            } else {
+                Author author = event.getAuthor();
+                putAuthor(author.getId(), author.getName());
+            }
+        });
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        write(() -> event.getBooks().forEach(this::putBook));
+    }
+
+    /**
+     * Изменения других экземпляров перечитываются из базы вне блокировки копии.
+     * При ошибке чтения копия строится заново, чтобы не остаться рассогласованной.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onRemoteChange(RemoteCatalogChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            switch (event.getType()) {
+                case BOOK -> {
+                    Optional<Book> book = event.isBookDeleted() ? Optional.empty() : findBook(event.getBookId());
+                    write(() -> book.ifPresentOrElse(this::putBook, () -> removeBook(event.getBookId())));
+                }
+                case AUTHOR -> {
+                    long authorId = event.getAuthorIds().iterator().next();
+                    Optional<String> authorName = findAuthorName(authorId);
+                    write(() -> authorName.ifPresentOrElse(n -> putAuthor(authorId, n), () -> removeAuthor(authorId)));
+                }
+                case BOOKS_IMPORTED -> {
+                    List<Book> books = findBooksByAuthorIds(event.getAuthorIds());
+                    write(() -> books.forEach(this::putBook));
+                }
+                case RESYNC -> {
+                    logger.info("Catalog change notifications may have been lost, rebuilding in-memory {}", name);
+                    requestBuild();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Error applying remote catalog change, rebuilding in-memory {}: {}", name, e.getMessage());
+            requestBuild();
+        }
+    }
+
+    private void removeBook(long id) {
+        deleteBook(id);
+        if (!ready) {
+            deletedBooks.add(id);
+        }
+    }
+
+    private void removeAuthor(long id) {
+        deleteAuthor(id);
+        if (!ready) {
+            deletedAuthors.add(id);
+        }
+    }
+
+    protected void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            if (ready) {
+                afterWrite();
+            }
+            lock.writeLock().unlock();
+        }
+    }
+
+    protected <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.cache;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Последний завершённый расчёт статистики и время, когда он был получен.
+ */
+@Getter
+public class StatsSnapshot<T> {
+    private final T value;
+    private final Instant computedAt;
+
+    public StatsSnapshot(T value, Instant computedAt) {
+        this.value = value;
+        this.computedAt = computedAt;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Кэши книг и авторов по идентификатору.
+ * Параметры Caffeine задаются в application.properties (spring.cache.*).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String BOOKS = "books";
+    public static final String AUTHORS = "authors";
+}
@@ -0,0 +1,27 @@
+package com.example.config;
+
+import com.example.controller.CatalogETagInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * ETag и условные GET для чтения каталога. Потоковая выгрузка не помечается,
+ * статистика /complex отдаёт время своего расчёта в Last-Modified.
+ */
+@Configuration
+public class ConditionalRequestConfig implements WebMvcConfigurer {
+    private final CatalogETagInterceptor catalogETagInterceptor;
+
+    public ConditionalRequestConfig(CatalogETagInterceptor catalogETagInterceptor) {
+        this.catalogETagInterceptor = catalogETagInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogETagInterceptor)
+                .addPathPatterns("/api/catalog/books", "/api/catalog/books/**",
+                        "/api/catalog/authors", "/api/catalog/authors/**")
+                .excludePathPatterns("/api/catalog/books/export", "/api/catalog/books/complex/**");
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.config;
+
+import com.example.datasource.ReplicaDataSource;
+import com.example.datasource.Workload;
+import com.example.datasource.WorkloadPoolSettings;
+import com.example.datasource.WorkloadRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Основная база и реплики для чтения, у каждой - свои пулы по классам нагрузки (Workload).
+ * JdbcTemplate, jOOQ и JPA получают общий DataSource, который берёт физическое соединение
+ * при первом запросе транзакции: к этому моменту известно, что транзакция только для чтения,
+ * и такие транзакции получают соединение реплики (ReplicaDataSource), остальные - основной базы.
+ * Реплики перечисляются в catalog.datasource.replica.urls, без них все запросы идут в основную базу.
+ * Заполнение кэшей, чтения с ETag одной сущности и проверка существования книги идут в основную базу
+ * (ReadYourWrites.onPrimary): реплика может отставать на max-lag.
+ * Метрики пулов публикуются Hikari с тегом pool: catalog-oltp, catalog-replica-1-analytics и т.д.
+ */
+@Configuration
+public class DataSourceConfig {
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public DataSourceConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public WorkloadRoutingDataSource primaryDataSource(DataSourceProperties properties) {
+        Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            HikariDataSource pool = pool("catalog-" + workload.getId(), workload, properties.determineUrl(),
+                    properties.determineUsername(), properties.determinePassword());
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pools.put(workload, pool);
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    /**
+     * Пулы реплик только для чтения. Сервис запускается и при недоступных репликах:
+     * они подключатся после успешной проверки.
+     */
+    @Bean
+    public ReplicaDataSource replicaDataSource(
+            WorkloadRoutingDataSource primaryDataSource,
+            @Value("${catalog.datasource.replica.urls:}") List<String> urls,
+            @Value("${catalog.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${catalog.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${catalog.datasource.replica.connection-timeout:1s}") Duration connectionTimeout,
+            @Value("${catalog.datasource.replica.check-interval:1s}") Duration checkInterval,
+            @Value("${catalog.datasource.replica.max-lag:5s}") Duration maxLag) {
+        Map<String, Map<Workload, HikariDataSource>> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            String name = "catalog-replica-" + (replicas.size() + 1);
+            Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+            for (Workload workload : Workload.values()) {
+                HikariDataSource pool = pool(name + "-" + workload.getId(), workload, url.trim(), username,
+                        password);
+                pool.setReadOnly(true);
+                pool.setInitializationFailTimeout(-1);
+                /* Недоступная реплика должна быстро уступать основной базе */
+                pool.setConnectionTimeout(Math.min(pool.getConnectionTimeout(), connectionTimeout.toMillis()));
+                pools.put(workload, pool);
+            }
+            replicas.put(name, pools);
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, checkInterval, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(WorkloadRoutingDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        if (!replicaDataSource.isEmpty()) {
+            dataSource.setReadOnlyDataSource(replicaDataSource);
+        }
+        return dataSource;
+    }
+
+    private HikariDataSource pool(String name, Workload workload, String url, String username, String password) {
+        WorkloadPoolSettings settings = WorkloadPoolSettings.of(environment, workload);
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setMaximumPoolSize(settings.getSize());
+        pool.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+        if (!settings.getStatementTimeout().isZero()) {
+            pool.setConnectionInitSql("SET statement_timeout = " + settings.getStatementTimeout().toMillis());
+        }
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -1,18 +1,33 @@
 package com.example.config;
 
+import com.example.repository.jooq.CatalogRecordMapperProvider;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.springframework.boot.autoconfigure.jooq.JooqExceptionTranslator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 
 import javax.sql.DataSource;
 
 @Configuration
 public class JooqConfig {
 
+    /**
+     * Запросы jOOQ участвуют в транзакциях Spring, как JdbcTemplate,
+     * а ошибки переводятся в исключения DataAccessException Spring.
+     * Книги и авторы отображаются CatalogRecordMapperProvider без рефлексии.
+     */
     @Bean
     public DSLContext dslContext(DataSource dataSource) {
-        return DSL.using(dataSource, SQLDialect.POSTGRES);
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.set(new TransactionAwareDataSourceProxy(dataSource));
+        configuration.set(SQLDialect.POSTGRES);
+        configuration.set(new CatalogRecordMapperProvider());
+        configuration.set(new DefaultExecuteListenerProvider(new JooqExceptionTranslator()));
+        return DSL.using(configuration);
     }
-}
\ No newline at end of file
+}
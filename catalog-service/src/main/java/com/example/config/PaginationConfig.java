@@ -1,9 +1,12 @@
 package com.example.config;
 
+import com.example.pagination.CountMode;
+import com.example.projection.BookFields;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.config.PageableHandlerMethodArgumentResolverCustomizer;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -20,4 +23,10 @@ public class PaginationConfig implements WebMvcConfigurer {
             pageableResolver.setOneIndexedParameters(true);
         };
     }
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, CountMode.class, source -> CountMode.valueOf(source.trim().toUpperCase()));
+        registry.addConverter(String.class, BookFields.class, BookFields::parse);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.config;
+
+/**
+ * Реализация хранилища каталога.
+ */
+public enum PersistenceBackend {
+    JDBC,
+    JOOQ,
+    JPA
+}
@@ -0,0 +1,104 @@
+package com.example.config;
+
+import com.example.analytics.BookColumnarSnapshot;
+import com.example.analytics.ClickHouseSync;
+import com.example.repository.AuthorRepository;
+import com.example.repository.BookRepository;
+import com.example.repository.clickhouse.BookClickHouseRepository;
+import com.example.repository.jdbc.AuthorJdbcRepository;
+import com.example.repository.jdbc.BookJdbcRepository;
+import com.example.repository.jooq.AuthorJooqRepository;
+import com.example.repository.jooq.BookJooqRepository;
+import com.example.repository.jpa.AuthorJpaAdapter;
+import com.example.repository.jpa.BookJpaAdapter;
+import com.example.service.BookClickHouseSpecialService;
+import com.example.service.BookColumnarSpecialService;
+import com.example.service.BookJdbcSpecialService;
+import com.example.service.BookJooqSpecialService;
+import com.example.service.BookJpaSpecialService;
+import com.example.service.BookSpecialService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Выбор реализации хранилища отдельно для чтения, записи и статистики:
+ * catalog.persistence.reads, catalog.persistence.writes и catalog.persistence.stats
+ * принимают значения jdbc, jooq или jpa. Сервисы получают реализацию по квалификатору.
+ * При catalog.analytics.clickhouse.enabled=true статистика считается в ClickHouse,
+ * а выбранная реализация используется, когда копия в ClickHouse отстаёт или недоступна.
+ * При catalog.analytics.columnar.enabled=true статистика считается по снимку в памяти,
+ * а до его построения - одним из способов выше.
+ */
+@Configuration
+public class PersistenceConfig {
+    public static final String BOOK_READS = "bookReads";
+    public static final String BOOK_WRITES = "bookWrites";
+    public static final String AUTHOR_READS = "authorReads";
+    public static final String AUTHOR_WRITES = "authorWrites";
+    public static final String BOOK_STATS = "bookStats";
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistenceConfig.class);
+
+    private final PersistenceBackend reads;
+    private final PersistenceBackend writes;
+    private final PersistenceBackend stats;
+
+    public PersistenceConfig(@Value("${catalog.persistence.reads:jdbc}") PersistenceBackend reads,
+                             @Value("${catalog.persistence.writes:jdbc}") PersistenceBackend writes,
+                             @Value("${catalog.persistence.stats:jdbc}") PersistenceBackend stats) {
+        this.reads = reads;
+        this.writes = writes;
+        this.stats = stats;
+        logger.info("Persistence backends: reads={}, writes={}, stats={}", reads, writes, stats);
+    }
+
+    @Bean(BOOK_READS)
+    public BookRepository bookReads(BookJdbcRepository jdbc, BookJooqRepository jooq, BookJpaAdapter jpa) {
+        return select(reads, jdbc, jooq, jpa);
+    }
+
+    @Bean(BOOK_WRITES)
+    public BookRepository bookWrites(BookJdbcRepository jdbc, BookJooqRepository jooq, BookJpaAdapter jpa) {
+        return select(writes, jdbc, jooq, jpa);
+    }
+
+    @Bean(AUTHOR_READS)
+    public AuthorRepository authorReads(AuthorJdbcRepository jdbc, AuthorJooqRepository jooq, AuthorJpaAdapter jpa) {
+        return select(reads, jdbc, jooq, jpa);
+    }
+
+    @Bean(AUTHOR_WRITES)
+    public AuthorRepository authorWrites(AuthorJdbcRepository jdbc, AuthorJooqRepository jooq,
+                                         AuthorJpaAdapter jpa) {
+        return select(writes, jdbc, jooq, jpa);
+    }
+
+    @Bean(BOOK_STATS)
+    public BookSpecialService bookStats(BookJdbcSpecialService jdbc, BookJooqSpecialService jooq,
+                                        BookJpaSpecialService jpa, BookClickHouseRepository clickHouse,
+                                        ClickHouseSync clickHouseSync, BookColumnarSnapshot columnarSnapshot,
+                                        MeterRegistry meterRegistry) {
+        BookSpecialService service = select(stats, jdbc, jooq, jpa);
+        if (clickHouse.isEnabled()) {
+            logger.info("Stats are served from ClickHouse, fallback: {}", stats);
+            service = new BookClickHouseSpecialService(clickHouse, clickHouseSync, service, meterRegistry);
+        }
+        if (columnarSnapshot.isEnabled()) {
+            logger.info("Stats are served from the in-memory columnar snapshot once it is built");
+            service = new BookColumnarSpecialService(columnarSnapshot, service);
+        }
+        return service;
+    }
+
+    private static <T> T select(PersistenceBackend backend, T jdbc, T jooq, T jpa) {
+        return switch (backend) {
+            case JDBC -> jdbc;
+            case JOOQ -> jooq;
+            case JPA -> jpa;
+        };
+    }
+}
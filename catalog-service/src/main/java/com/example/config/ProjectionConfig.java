@@ -0,0 +1,31 @@
+package com.example.config;
+
+import com.example.model.Book;
+import com.example.projection.BookFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройка Jackson для параметра fields.
+ * Book сериализуется через фильтр BookFields.FILTER, который по умолчанию пропускает все поля;
+ * списочные эндпоинты подменяют его в BookFieldsResponseAdvice.
+ */
+@Configuration
+public class ProjectionConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer bookFieldsFilterCustomizer() {
+        return builder -> builder
+                .mixIn(Book.class, BookFilterMixin.class)
+                .filters(new SimpleFilterProvider()
+                        .addFilter(BookFields.FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(BookFields.FILTER)
+    private abstract static class BookFilterMixin {
+    }
+}
@@ -2,13 +2,17 @@ package com.example.controller;
 
 import com.example.dto.AuthorRequest;
 import com.example.model.Author;
+import com.example.pagination.AuthorSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
 import com.example.service.AuthorService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -76,9 +80,17 @@ public class AuthorController {
         }
     }
 
+    /*
+     * Параметр withBooks=false отключает загрузку книг авторов
+     * для списков, которым нужны только поля самого автора.
+     * Параметр count задаёт способ подсчёта общего количества, как в BookController.
+     */
     @GetMapping
-    public Page<Author> getAllAuthors(Pageable pageable) {
-        return authorService.getAll(pageable);
+    public Slice<Author> getAllAuthors(
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            Pageable pageable) {
+        return authorService.getAll(pageable, count, withBooks);
     }
 
     @GetMapping("/{id}")
@@ -87,54 +99,152 @@ public class AuthorController {
     }
 
     @GetMapping("/search")
-    public Page<Author> searchAuthorsByName(
+    public Slice<Author> searchAuthorsByName(
             @RequestParam String name,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            @RequestParam(defaultValue = "exact") CountMode count,
             Pageable pageable) {
-        return authorService.getByName(name, pageable);
+        return authorService.getByName(name, pageable, count, withBooks);
     }
 
     @GetMapping("/birthdate")
-    public Page<Author> getAuthorsByBirthDate(
+    public Slice<Author> getAuthorsByBirthDate(
             @RequestParam LocalDate start,
             @RequestParam LocalDate end,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            @RequestParam(defaultValue = "exact") CountMode count,
             Pageable pageable) {
-        return authorService.getByBirthDateBetween(start, end, pageable);
+        return authorService.getByBirthDateBetween(start, end, pageable, count, withBooks);
     }
 
     @GetMapping("/location/{location}")
-    public Page<Author> getAuthorsByLocation(@PathVariable String location, Pageable pageable) {
-        return authorService.getByLocation(location, pageable);
+    public Slice<Author> getAuthorsByLocation(
+            @PathVariable String location,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            Pageable pageable) {
+        return authorService.getByLocation(location, pageable, count, withBooks);
     }
 
     @GetMapping("/genre/{genre}")
-    public Page<Author> getAuthorsByBookGenre(@PathVariable String genre, Pageable pageable) {
-        return authorService.getByBookGenre(genre, pageable);
+    public Slice<Author> getAuthorsByBookGenre(
+            @PathVariable String genre,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            Pageable pageable) {
+        return authorService.getByBookGenre(genre, pageable, count, withBooks);
     }
 
     @GetMapping("/sort/name")
-    public Page<Author> sortAuthorsByName(
+    public Slice<Author> sortAuthorsByName(
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            @RequestParam(defaultValue = "exact") CountMode count,
             Pageable pageable) {
         return "desc".equalsIgnoreCase(direction) ?
-                authorService.getAllByOrderByNameDesc(pageable) :
-                authorService.getAllByOrderByNameAsc(pageable);
+                authorService.getAllByOrderByNameDesc(pageable, count, withBooks) :
+                authorService.getAllByOrderByNameAsc(pageable, count, withBooks);
     }
 
     @GetMapping("/sort/birthdate")
-    public Page<Author> sortAuthorsByBirthDate(
+    public Slice<Author> sortAuthorsByBirthDate(
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            @RequestParam(defaultValue = "exact") CountMode count,
             Pageable pageable) {
         return "desc".equalsIgnoreCase(direction) ?
-                authorService.getAllByOrderByBirthDateDesc(pageable) :
-                authorService.getAllByOrderByBirthDateAsc(pageable);
+                authorService.getAllByOrderByBirthDateDesc(pageable, count, withBooks) :
+                authorService.getAllByOrderByBirthDateAsc(pageable, count, withBooks);
+    }
+
+    /*
+     * Keyset-пагинация: включается параметром cursor.
+     * Первая страница запрашивается с пустым cursor, следующие - с nextCursor из ответа.
+     * Сортировка по количеству книг вычисляется агрегатом и keyset-режим не поддерживает.
+     */
+    @GetMapping(params = "cursor")
+    public KeysetPage<Author> getAllAuthors(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            Pageable pageable) {
+        return authorService.getAll(KeysetCursor.decode(cursor, AuthorSortKey.NAME, false), pageable.getPageSize(),
+                withBooks);
+    }
+
+    @GetMapping(value = "/search", params = "cursor")
+    public KeysetPage<Author> searchAuthorsByName(
+            @RequestParam String name,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            Pageable pageable) {
+        return authorService.getByName(name, KeysetCursor.decode(cursor, AuthorSortKey.NAME, false),
+                pageable.getPageSize(), withBooks);
+    }
+
+    @GetMapping(value = "/birthdate", params = "cursor")
+    public KeysetPage<Author> getAuthorsByBirthDate(
+            @RequestParam LocalDate start,
+            @RequestParam LocalDate end,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            Pageable pageable) {
+        return authorService.getByBirthDateBetween(start, end,
+                KeysetCursor.decode(cursor, AuthorSortKey.BIRTH_DATE, false), pageable.getPageSize(), withBooks);
+    }
+
+    @GetMapping(value = "/location/{location}", params = "cursor")
+    public KeysetPage<Author> getAuthorsByLocation(
+            @PathVariable String location,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            Pageable pageable) {
+        return authorService.getByLocation(location, KeysetCursor.decode(cursor, AuthorSortKey.ID, false),
+                pageable.getPageSize(), withBooks);
+    }
+
+    @GetMapping(value = "/genre/{genre}", params = "cursor")
+    public KeysetPage<Author> getAuthorsByBookGenre(
+            @PathVariable String genre,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            Pageable pageable) {
+        return authorService.getByBookGenre(genre, KeysetCursor.decode(cursor, AuthorSortKey.ID, false),
+                pageable.getPageSize(), withBooks);
+    }
+
+    @GetMapping(value = "/sort/name", params = "cursor")
+    public KeysetPage<Author> sortAuthorsByName(
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            Pageable pageable) {
+        return sortAuthors(AuthorSortKey.NAME, direction, cursor, pageable, withBooks);
+    }
+
+    @GetMapping(value = "/sort/birthdate", params = "cursor")
+    public KeysetPage<Author> sortAuthorsByBirthDate(
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            Pageable pageable) {
+        return sortAuthors(AuthorSortKey.BIRTH_DATE, direction, cursor, pageable, withBooks);
+    }
+
+    private KeysetPage<Author> sortAuthors(AuthorSortKey sortKey, String direction, String cursor,
+                                           Pageable pageable, boolean withBooks) {
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        return authorService.getAllOrderBy(sortKey, descending, KeysetCursor.decode(cursor, sortKey, descending),
+                pageable.getPageSize(), withBooks);
     }
 
     @GetMapping("/sort/books")
-    public Page<Author> sortAuthorsByBooksCount(
+    public Slice<Author> sortAuthorsByBooksCount(
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "true") boolean withBooks,
+            @RequestParam(defaultValue = "exact") CountMode count,
             Pageable pageable) {
         return "desc".equalsIgnoreCase(direction) ?
-                authorService.getAllOrderByBooksCountDesc(pageable) :
-                authorService.getAllOrderByBooksCountAsc(pageable);
+                authorService.getAllOrderByBooksCountDesc(pageable, count, withBooks) :
+                authorService.getAllOrderByBooksCountAsc(pageable, count, withBooks);
     }
 }
\ No newline at end of file
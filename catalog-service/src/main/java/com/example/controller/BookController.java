@@ -1,24 +1,49 @@
 package com.example.controller;
 
+import com.example.cache.CatalogStatsCache;
+import com.example.cache.StatsSnapshot;
+import com.example.dto.BookDetailsBatchRequest;
+import com.example.dto.BookDetailsBatchResponse;
 import com.example.dto.BookDetailsResponse;
+import com.example.dto.BookExportFilter;
+import com.example.dto.BookImportReport;
 import com.example.dto.BookRequest;
+import com.example.exporter.BookExportWriter;
+import com.example.exporter.CsvBookExportWriter;
+import com.example.exporter.NdjsonBookExportWriter;
+import com.example.importer.CsvBookImportReader;
+import com.example.importer.NdjsonBookImportReader;
 import com.example.model.Book;
-//import com.example.service.BookJpaService;
-import com.example.service.BookJdbcSpecialService;
-import com.example.service.BookJooqSpecialService;
+import com.example.pagination.BookSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.projection.BookFields;
+import com.example.service.BookExportService;
+import com.example.service.BookImportService;
 import com.example.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -29,14 +54,23 @@ import java.util.Map;
 @RequestMapping("/api/catalog/books")
 public class BookController {
     private static final Logger logger = LoggerFactory.getLogger(BookController.class);
+    private static final int MAX_IDS_LIMIT = 50000;
     private final BookService bookService;
-    //private final BookJpaService bookSpecialService;
-    private final BookJdbcSpecialService bookSpecialService;
-    //private final BookJooqSpecialService bookSpecialService;
+    private final CatalogStatsCache statsCache;
 
-    public BookController(BookService bookService, BookJdbcSpecialService bookSpecialService) {
+    private final BookImportService bookImportService;
+    private final BookExportService bookExportService;
+    private final ObjectMapper objectMapper;
+
+    public BookController(BookService bookService,
+                          CatalogStatsCache statsCache,
+                          BookImportService bookImportService, BookExportService bookExportService,
+                          ObjectMapper objectMapper) {
         this.bookService = bookService;
-        this.bookSpecialService = bookSpecialService;
+        this.statsCache = statsCache;
+        this.bookImportService = bookImportService;
+        this.bookExportService = bookExportService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -56,6 +90,49 @@ public class BookController {
         }
     }
 
+    /*
+     * Массовый импорт: тело запроса читается потоком, формат задаётся заголовком Content-Type.
+     * Ответ содержит счётчики строк и ошибки с номерами строк.
+     */
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public BookImportReport importBooksNdjson(InputStream body) throws IOException {
+        return bookImportService.importBooks(new NdjsonBookImportReader(utf8Reader(body), objectMapper));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public BookImportReport importBooksCsv(InputStream body) throws IOException {
+        return bookImportService.importBooks(new CsvBookImportReader(utf8Reader(body), objectMapper));
+    }
+
+    private static BufferedReader utf8Reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Выгрузка каталога: format=ndjson (по умолчанию) или csv, необязательные фильтры
+     * genre, min/max и start/end как у /genre, /size и /period.
+     * Тело пишется потоком из курсора базы данных в отдельном потоке.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "ndjson") String format,
+                                                             @Valid BookExportFilter filter) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестный формат выгрузки: " + format);
+        }
+        StreamingResponseBody body = out -> {
+            BookExportWriter writer = csv ?
+                    new CsvBookExportWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)) :
+                    new NdjsonBookExportWriter(out, objectMapper);
+            bookExportService.export(filter, writer);
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) :
+                        MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<String> updateBook(@Valid @PathVariable long id, @RequestBody BookRequest bookRequest) {
         try {
@@ -88,9 +165,17 @@ public class BookController {
         }
     }
 
+    /*
+     * Параметр count задаёт способ подсчёта общего количества: exact, cached, estimated
+     * или none - без подсчёта, только признак следующей страницы.
+     * Параметр fields списочных эндпоинтов ограничивает поля книг в выборке и ответе,
+     * например fields=title,genre; id возвращается всегда.
+     */
     @GetMapping
-    public Page<Book> getAllBooks(Pageable pageable) {
-        return bookService.getAll(pageable);
+    public Slice<Book> getAllBooks(@RequestParam(defaultValue = "exact") CountMode count,
+                                   @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+                                   Pageable pageable) {
+        return bookService.getAll(pageable, count, fields);
     }
 
     @GetMapping("/{id}")
@@ -98,73 +183,219 @@ public class BookController {
         return bookService.getById(id);
     }
 
+    /*
+     * Проверка существования книги без тела ответа: 200 или 404.
+     * Выполняется запросом по первичному ключу без соединения с авторами.
+     */
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> checkBookExists(@PathVariable long id) {
+        return bookService.exists(id) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+
+    /*
+     * Идентификаторы всех книг по возрастанию страницами до limit, следующая страница - after=последний id.
+     * Нужны reader-service для локального фильтра существующих книг.
+     */
+    @GetMapping("/ids")
+    public List<Long> getBookIds(@RequestParam(defaultValue = "0") long after,
+                                 @RequestParam(defaultValue = "10000") int limit) {
+        if (limit < 1 || limit > MAX_IDS_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Параметр limit должен быть от 1 до " + MAX_IDS_LIMIT);
+        }
+        return bookService.getIds(after, limit);
+    }
+
     @GetMapping("/genre/{genre}")
-    public Page<Book> getBooksByGenre(@PathVariable String genre, Pageable pageable) {
-        return bookService.getByGenre(genre, pageable);
+    public Slice<Book> getBooksByGenre(@PathVariable String genre,
+                                       @RequestParam(defaultValue = "exact") CountMode count,
+                                       @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+                                       Pageable pageable) {
+        return bookService.getByGenre(genre, pageable, count, fields);
     }
 
     @GetMapping("/period")
-    public Page<Book> getBooksByPeriod(
+    public Slice<Book> getBooksByPeriod(
             @RequestParam LocalDate start,
             @RequestParam LocalDate end,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
             Pageable pageable) {
-        return bookService.getByPeriod(start, end, pageable);
+        return bookService.getByPeriod(start, end, pageable, count, fields);
     }
 
     @GetMapping("/size")
-    public Page<Book> getBooksBySize(
+    public Slice<Book> getBooksBySize(
             @RequestParam int min,
             @RequestParam int max,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
             Pageable pageable) {
-        return bookService.getBySize(min, max, pageable);
+        return bookService.getBySize(min, max, pageable, count, fields);
     }
 
     @GetMapping("/author")
-    public Page<Book> getBooksByAuthor(
+    public Slice<Book> getBooksByAuthor(
             @RequestParam String authorName,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
             Pageable pageable) {
-        return bookService.getByAuthor(authorName, pageable);
+        return bookService.getByAuthor(authorName, pageable, count, fields);
     }
 
     @GetMapping("/search")
-    public Page<Book> searchBooksByTitle(
+    public Slice<Book> searchBooksByTitle(
             @RequestParam String title,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
             Pageable pageable) {
-        return bookService.getByTitle(title, pageable);
+        return bookService.getByTitle(title, pageable, count, fields);
+    }
+
+    /*
+     * Ранжированный поиск: параметр q ищет по названию и имени автора
+     * с учётом опечаток, результаты отсортированы по релевантности.
+     */
+    @GetMapping(value = "/search", params = {"q", "!cursor"})
+    public Slice<Book> searchBooks(@RequestParam String q,
+                                   @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+                                   Pageable pageable) {
+        // Ранжированный запрос выбирает книги целиком, fields ограничивает только поля ответа
+        return bookService.search(q, pageable);
     }
 
     @GetMapping("/sort/title")
-    public Page<Book> sortBooksByTitle(
+    public Slice<Book> sortBooksByTitle(
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
             Pageable pageable) {
         return "desc".equalsIgnoreCase(direction) ?
-                bookService.getOrderByTitleDesc(pageable) :
-                bookService.getOrderByTitleAsc(pageable);
+                bookService.getOrderByTitleDesc(pageable, count, fields) :
+                bookService.getOrderByTitleAsc(pageable, count, fields);
     }
 
     @GetMapping("/sort/size")
-    public Page<Book> sortBooksBySize(
+    public Slice<Book> sortBooksBySize(
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
             Pageable pageable) {
         return "desc".equalsIgnoreCase(direction) ?
-                bookService.getOrderBySizeDesc(pageable) :
-                bookService.getOrderBySizeAsc(pageable);
+                bookService.getOrderBySizeDesc(pageable, count, fields) :
+                bookService.getOrderBySizeAsc(pageable, count, fields);
     }
 
     @GetMapping("/sort/date")
-    public Page<Book> sortBooksByDate(
+    public Slice<Book> sortBooksByDate(
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "exact") CountMode count,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
             Pageable pageable) {
         return "desc".equalsIgnoreCase(direction) ?
-                bookService.getOrderByPublishingDateDesc(pageable) :
-                bookService.getOrderByPublishingDateAsc(pageable);
+                bookService.getOrderByPublishingDateDesc(pageable, count, fields) :
+                bookService.getOrderByPublishingDateAsc(pageable, count, fields);
+    }
+
+    /*
+     * Keyset-пагинация: включается параметром cursor.
+     * Первая страница запрашивается с пустым cursor, следующие - с nextCursor из ответа.
+     */
+    @GetMapping(params = "cursor")
+    public KeysetPage<Book> getAllBooks(@RequestParam String cursor,
+                                        @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+                                        Pageable pageable) {
+        return bookService.getAll(KeysetCursor.decode(cursor, BookSortKey.ID, false), pageable.getPageSize(), fields);
+    }
+
+    @GetMapping(value = "/genre/{genre}", params = "cursor")
+    public KeysetPage<Book> getBooksByGenre(@PathVariable String genre, @RequestParam String cursor,
+                                            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+                                            Pageable pageable) {
+        return bookService.getByGenre(genre, KeysetCursor.decode(cursor, BookSortKey.ID, false),
+                pageable.getPageSize(), fields);
+    }
+
+    @GetMapping(value = "/period", params = "cursor")
+    public KeysetPage<Book> getBooksByPeriod(
+            @RequestParam LocalDate start,
+            @RequestParam LocalDate end,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+            Pageable pageable) {
+        return bookService.getByPeriod(start, end, KeysetCursor.decode(cursor, BookSortKey.PUBLISHING_DATE, false),
+                pageable.getPageSize(), fields);
+    }
+
+    @GetMapping(value = "/size", params = "cursor")
+    public KeysetPage<Book> getBooksBySize(
+            @RequestParam int min,
+            @RequestParam int max,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+            Pageable pageable) {
+        return bookService.getBySize(min, max, KeysetCursor.decode(cursor, BookSortKey.PAGES_NUMBER, false),
+                pageable.getPageSize(), fields);
+    }
+
+    @GetMapping(value = "/author", params = "cursor")
+    public KeysetPage<Book> getBooksByAuthor(
+            @RequestParam String authorName,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+            Pageable pageable) {
+        return bookService.getByAuthor(authorName, KeysetCursor.decode(cursor, BookSortKey.ID, false),
+                pageable.getPageSize(), fields);
+    }
+
+    @GetMapping(value = "/search", params = "cursor")
+    public KeysetPage<Book> searchBooksByTitle(
+            @RequestParam String title,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+            Pageable pageable) {
+        return bookService.getByTitle(title, KeysetCursor.decode(cursor, BookSortKey.TITLE, false),
+                pageable.getPageSize(), fields);
+    }
+
+    @GetMapping(value = "/sort/title", params = "cursor")
+    public KeysetPage<Book> sortBooksByTitle(
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+            Pageable pageable) {
+        return sortBooks(BookSortKey.TITLE, direction, cursor, fields, pageable);
+    }
+
+    @GetMapping(value = "/sort/size", params = "cursor")
+    public KeysetPage<Book> sortBooksBySize(
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+            Pageable pageable) {
+        return sortBooks(BookSortKey.PAGES_NUMBER, direction, cursor, fields, pageable);
+    }
+
+    @GetMapping(value = "/sort/date", params = "cursor")
+    public KeysetPage<Book> sortBooksByDate(
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = BookFields.ALL_FIELDS) BookFields fields,
+            Pageable pageable) {
+        return sortBooks(BookSortKey.PUBLISHING_DATE, direction, cursor, fields, pageable);
+    }
+
+    private KeysetPage<Book> sortBooks(BookSortKey sortKey, String direction, String cursor, BookFields fields,
+                                       Pageable pageable) {
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        return bookService.getOrderBy(sortKey, descending, KeysetCursor.decode(cursor, sortKey, descending),
+                pageable.getPageSize(), fields);
     }
 
     @GetMapping("/{id}/details")
     public ResponseEntity<?> getBookDetails(@PathVariable long id) {
         try {
             BookDetailsResponse response = bookService.convertToBookDetails(getBookById(id));
-            response.setAddedAt(LocalDateTime.now());
             return ResponseEntity.ok(response);
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -176,23 +407,42 @@ public class BookController {
         }
     }
 
+    /*
+     * Данные нескольких книг одним запросом, например для страницы списка прочитанного в reader-service:
+     * книги в порядке ids и отдельно ids, которых нет в каталоге. Не больше BookDetailsBatchRequest.MAX_IDS.
+     */
+    @PostMapping("/details:batch")
+    public BookDetailsBatchResponse getBookDetailsBatch(@Valid @RequestBody BookDetailsBatchRequest request) {
+        return bookService.getDetailsByIds(request.getIds());
+    }
+
     @GetMapping("/complex/author-stats")
     public ResponseEntity<List<Map<String, Object>>> getFullAuthorStats() {
-        return ResponseEntity.ok(bookSpecialService.getFullAuthorStats());
+        return snapshot(statsCache.getFullAuthorStats());
     }
 
     @GetMapping("/complex/genre-stats")
     public ResponseEntity<List<Map<String, Object>>> getGenreStats() {
-        return ResponseEntity.ok(bookSpecialService.getGenreStats());
+        return snapshot(statsCache.getGenreStats());
     }
 
     @GetMapping("/complex/author-stats-summary")
     public ResponseEntity<List<Map<String, Object>>> getAuthorStatsSummary() {
-        return ResponseEntity.ok(bookSpecialService.getAuthorStatsSummary());
+        return snapshot(statsCache.getAuthorStatsSummary());
     }
 
     @GetMapping("/complex/author-stats-combined")
     public ResponseEntity<Map<String, Object>> getCombinedAuthorStats() {
-        return ResponseEntity.ok(bookSpecialService.getCombinedAuthorStats());
+        return snapshot(statsCache.getCombinedAuthorStats());
+    }
+
+    /**
+     * Время расчёта отдаётся в Last-Modified, поэтому опрос с If-Modified-Since получает 304,
+     * пока статистика не пересчитана.
+     */
+    private static <T> ResponseEntity<T> snapshot(StatsSnapshot<T> snapshot) {
+        return ResponseEntity.ok()
+                .lastModified(snapshot.getComputedAt())
+                .body(snapshot.getValue());
     }
 }
\ No newline at end of file
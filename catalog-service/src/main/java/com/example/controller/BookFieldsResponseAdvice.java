@@ -0,0 +1,46 @@
+package com.example.controller;
+
+import com.example.pagination.KeysetPage;
+import com.example.projection.BookFields;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Оставляет в ответах списочных эндпоинтов BookController только поля из параметра fields.
+ * Значение параметра уже проверено при привязке аргументов контроллера.
+ */
+@ControllerAdvice(assignableTypes = BookController.class)
+public class BookFieldsResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+    private static final String FIELDS_PARAMETER = "fields";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        Class<?> type = returnType.getParameterType();
+        return super.supports(returnType, converterType)
+                && (Slice.class.isAssignableFrom(type) || KeysetPage.class.isAssignableFrom(type));
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        BookFields fields = BookFields.parse(servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER));
+        if (!fields.isAll()) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .addFilter(BookFields.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields.properties())));
+        }
+    }
+}
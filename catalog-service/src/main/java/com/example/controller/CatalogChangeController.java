@@ -0,0 +1,26 @@
+package com.example.controller;
+
+import com.example.service.CatalogChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Контроллер ленты изменений каталога для других сервисов
+ */
+@RestController
+@RequestMapping("/api/catalog/changes")
+public class CatalogChangeController {
+    private final CatalogChangeFeed changeFeed;
+
+    public CatalogChangeController(CatalogChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return changeFeed.subscribe();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.controller;
+
+import com.example.cache.CatalogVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Условные GET для книг и авторов.
+ * ETag вычисляется по CatalogVersions до вызова контроллера, поэтому при совпадении
+ * If-None-Match ответ 304 отдаётся без обращения к репозиторию.
+ * Ответы с count=cached и count=estimated не помечаются: их количество меняется без записи в каталог.
+ */
+@Component
+public class CatalogETagInterceptor implements HandlerInterceptor {
+    private static final Pattern BOOK_PATH = Pattern.compile("/api/catalog/books/(\\d+)(/details)?");
+    private static final String AUTHORS_PATH = "/api/catalog/authors";
+
+    private final CatalogVersions versions;
+
+    public CatalogETagInterceptor(CatalogVersions versions) {
+        this.versions = versions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        String etag = etagOf(request);
+        return etag == null || !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private String etagOf(HttpServletRequest request) {
+        String count = request.getParameter("count");
+        if ("cached".equalsIgnoreCase(count) || "estimated".equalsIgnoreCase(count)) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(AUTHORS_PATH)) {
+            return versions.authorsTag();
+        }
+        Matcher book = BOOK_PATH.matcher(path);
+        return book.matches() ? versions.bookTag(Long.parseLong(book.group(1))) : versions.booksTag();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Закрепление чтений текущего потока за основной базой.
+ * Пока поток закреплён, ReplicaDataSource отдаёт соединения основной базы
+ * даже для транзакций только для чтения.
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void release() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    /**
+     * Выполняет чтение на основной базе: результат кэшируется или помечается ETag версии,
+     * которую реплика с отставанием может ещё не содержать. Транзакция не должна успеть
+     * взять соединение до вызова.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (isPinned()) {
+            return action.get();
+        }
+        pin();
+        try {
+            return action.get();
+        } finally {
+            release();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Чтение своих записей при чтении с реплик.
+ * Запросы на изменение целиком выполняются на основной базе, а после успешной записи
+ * чтения того же клиента ещё catalog.datasource.read-your-writes.window не уходят на реплики.
+ * Клиент определяется по заголовку X-Authenticated-User от gateway, без него - по адресу.
+ * Окно хранится в памяти экземпляра сервиса.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Authenticated-User";
+
+    private final ReplicaDataSource replicas;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(ReplicaDataSource replicas,
+                                @Value("${catalog.datasource.read-your-writes.window:5s}") Duration window,
+                                @Value("${catalog.datasource.read-your-writes.max-clients:100000}") long maxClients) {
+        this.replicas = replicas;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return replicas.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = client(request);
+        boolean write = !isSafe(request.getMethod());
+        if (write || recentWriters.getIfPresent(client) != null) {
+            ReadYourWrites.pin();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.release();
+            if (write && response.getStatus() < HttpServletResponse.SC_BAD_REQUEST) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+        }
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static String client(HttpServletRequest request) {
+        String user = request.getHeader(USER_HEADER);
+        return user != null && !user.isBlank() ? user : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Соединения для транзакций только для чтения: реплики по очереди, основная база - если
+ * подходящих реплик нет или поток закреплён за ней (ReadYourWrites). У каждой реплики
+ * свои пулы по классам нагрузки, соединение берётся из пула класса текущего потока.
+ * Реплика исключается из чтений, если проверка не прошла, к ней не удалось подключиться
+ * или её отставание больше catalog.datasource.replica.max-lag, и возвращается после
+ * следующей успешной проверки.
+ * Отставание - сколько времени назад основная база прошла позицию WAL, которую реплика
+ * ещё не применила: позиция основной базы запоминается при каждой проверке, поэтому
+ * простой основной базы не делает реплику отстающей. Без основной базы отставание
+ * считается от времени последней применённой транзакции.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_current_wal_lsn()::text";
+    private static final String REPLAY_SQL = "SELECT pg_is_in_recovery(), pg_last_wal_replay_lsn()::text, " +
+            "EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())";
+
+    private final DataSource primary;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final long sampleWindowNanos;
+    /* Позиции WAL основной базы и время, когда они были замечены; только для потока проверок */
+    private final Deque<long[]> primarySamples = new ArrayDeque<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final ScheduledExecutorService healthChecks;
+    private volatile List<Replica> available = List.of();
+
+    public ReplicaDataSource(DataSource primary, Map<String, Map<Workload, HikariDataSource>> replicaPools,
+                             Duration checkInterval, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.primaryJdbcTemplate = new JdbcTemplate(primary);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.sampleWindowNanos = maxLag.plus(checkInterval).toNanos();
+        int queryTimeout = (int) Math.max(1, checkInterval.toSeconds());
+        for (Map.Entry<String, Map<Workload, HikariDataSource>> pools : replicaPools.entrySet()) {
+            Replica replica = new Replica(pools.getKey(), pools.getValue(), queryTimeout);
+            Gauge.builder("catalog.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("catalog.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            replicas.add(replica);
+        }
+        this.replicaReads = Counter.builder("catalog.datasource.reads").tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("catalog.datasource.reads").tag("target", "primary")
+                .register(meterRegistry);
+
+        if (replicas.isEmpty()) {
+            healthChecks = null;
+            return;
+        }
+        healthChecks = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "catalog-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        logger.info("Read replicas configured: {}, max lag {}", replicas.size(), maxLag);
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.isPinned()) {
+            List<Replica> candidates = available;
+            for (int i = 0; i < candidates.size(); i++) {
+                Replica replica = candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+                try {
+                    Connection connection = replica.pools.get(Workloads.current()).getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLTransientConnectionException e) {
+                    if (e.getCause() == null) {
+                        /* Пул занят, но реплика доступна: ожидание уже ограничено connection-timeout */
+                        throw e;
+                    }
+                    exclude(replica, e.getMessage());
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use pool credentials");
+    }
+
+    private void checkReplicas() {
+        try {
+            long now = System.nanoTime();
+            boolean sampled = samplePrimary(now);
+            List<Replica> healthy = new ArrayList<>();
+            for (Replica replica : replicas) {
+                double lag;
+                try {
+                    lag = replica.jdbcTemplate.queryForObject(REPLAY_SQL, (rs, rowNum) -> {
+                        if (!rs.getBoolean(1)) {
+                            return 0.0;
+                        }
+                        String replayed = rs.getString(2);
+                        if (sampled && replayed != null) {
+                            return lagBehindPrimary(parseLsn(replayed), now);
+                        }
+                        double sinceReplay = rs.getDouble(3);
+                        return rs.wasNull() ? Double.POSITIVE_INFINITY : sinceReplay;
+                    });
+                } catch (DataAccessException e) {
+                    replica.lagSeconds = Double.NaN;
+                    exclude(replica, e.getMessage());
+                    continue;
+                }
+                replica.lagSeconds = lag;
+                if (lag > maxLagSeconds) {
+                    exclude(replica, "lag " + lag + " s");
+                    continue;
+                }
+                if (!replica.available) {
+                    logger.info("Replica {} is back in reads, lag {} s", replica.name, lag);
+                    replica.available = true;
+                }
+                healthy.add(replica);
+            }
+            synchronized (this) {
+                available = List.copyOf(healthy);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Replica health check failed", e);
+        }
+    }
+
+    /**
+     * Запоминает позицию основной базы, если она сдвинулась. Хранятся позиции за окно
+     * max-lag и одна перед ним, чтобы отставание больше окна тоже было видно.
+     */
+    private boolean samplePrimary(long now) {
+        String lsn;
+        try {
+            lsn = primaryJdbcTemplate.queryForObject(PRIMARY_LSN_SQL, String.class);
+        } catch (DataAccessException e) {
+            logger.debug("Primary WAL position unavailable: {}", e.getMessage());
+            return false;
+        }
+        long position = parseLsn(lsn);
+        if (primarySamples.isEmpty() || primarySamples.peekLast()[0] < position) {
+            primarySamples.addLast(new long[]{position, now});
+        }
+        while (primarySamples.size() > 1) {
+            Iterator<long[]> samples = primarySamples.iterator();
+            samples.next();
+            if (now - samples.next()[1] < sampleWindowNanos) {
+                break;
+            }
+            primarySamples.removeFirst();
+        }
+        return true;
+    }
+
+    /**
+     * Время с первой замеченной позиции основной базы, которую реплика ещё не применила.
+     */
+    private double lagBehindPrimary(long replayed, long now) {
+        for (long[] sample : primarySamples) {
+            if (sample[0] > replayed) {
+                return (now - sample[1]) / 1_000_000_000.0;
+            }
+        }
+        return 0;
+    }
+
+    private static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return Long.parseLong(lsn.substring(0, slash), 16) << 32 | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    private synchronized void exclude(Replica replica, String reason) {
+        if (replica.available) {
+            logger.warn("Replica {} excluded from reads: {}", replica.name, reason);
+            replica.available = false;
+        }
+        List<Replica> remaining = new ArrayList<>(available);
+        if (remaining.remove(replica)) {
+            available = List.copyOf(remaining);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.pools.values().forEach(HikariDataSource::close));
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final Map<Workload, HikariDataSource> pools;
+        private final JdbcTemplate jdbcTemplate;
+        /* До первой проверки реплика считается доступной, чтобы её недоступность попала в журнал */
+        private volatile boolean available = true;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, Map<Workload, HikariDataSource> pools, int queryTimeout) {
+            this.name = name;
+            this.pools = new EnumMap<>(pools);
+            this.jdbcTemplate = new JdbcTemplate(pools.get(Workload.OLTP));
+            this.jdbcTemplate.setQueryTimeout(queryTimeout);
+        }
+    }
+}
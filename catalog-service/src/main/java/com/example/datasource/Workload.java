@@ -0,0 +1,49 @@
+package com.example.datasource;
+
+import java.time.Duration;
+
+/**
+ * Классы нагрузки со своими пулами соединений на основной базе и на каждой реплике:
+ * короткие запросы сервиса, аналитика (/complex) и массовые выгрузка и загрузка.
+ * Настройки пула - catalog.datasource.pools.<id>.*, значения по умолчанию заданы здесь.
+ */
+public enum Workload {
+    OLTP("oltp", 10, 100, Duration.ofSeconds(5), Duration.ofSeconds(5)),
+    ANALYTICS("analytics", 4, 8, Duration.ofSeconds(60), Duration.ofSeconds(10)),
+    BULK("bulk", 2, 2, Duration.ZERO, Duration.ofSeconds(30));
+
+    private final String id;
+    private final int defaultSize;
+    private final int defaultQueueLimit;
+    private final Duration defaultStatementTimeout;
+    private final Duration defaultConnectionTimeout;
+
+    Workload(String id, int defaultSize, int defaultQueueLimit, Duration defaultStatementTimeout,
+             Duration defaultConnectionTimeout) {
+        this.id = id;
+        this.defaultSize = defaultSize;
+        this.defaultQueueLimit = defaultQueueLimit;
+        this.defaultStatementTimeout = defaultStatementTimeout;
+        this.defaultConnectionTimeout = defaultConnectionTimeout;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    int getDefaultSize() {
+        return defaultSize;
+    }
+
+    int getDefaultQueueLimit() {
+        return defaultQueueLimit;
+    }
+
+    Duration getDefaultStatementTimeout() {
+        return defaultStatementTimeout;
+    }
+
+    Duration getDefaultConnectionTimeout() {
+        return defaultConnectionTimeout;
+    }
+}
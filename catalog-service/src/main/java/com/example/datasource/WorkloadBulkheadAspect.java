@@ -0,0 +1,85 @@
+package com.example.datasource;
+
+import com.example.exception.WorkloadRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Изоляция классов нагрузки (bulkhead) для методов с @WorkloadPool.
+ * Одновременно выполняется не больше size + queue-limit вызовов класса: size из них
+ * работают с соединениями, остальные ждут свободное соединение в пуле. Следующие вызовы
+ * сразу отклоняются с 503, а не занимают потоки сервиса в очереди к пулу.
+ * Вложенный вызов того же класса нагрузки выполняется в разрешении внешнего.
+ */
+@Aspect
+@Component
+public class WorkloadBulkheadAspect {
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadBulkheadAspect.class);
+
+    private final Map<Workload, Semaphore> permits = new EnumMap<>(Workload.class);
+    private final Map<Workload, Counter> rejected = new EnumMap<>(Workload.class);
+
+    public WorkloadBulkheadAspect(Environment environment, MeterRegistry meterRegistry) {
+        for (Workload workload : Workload.values()) {
+            WorkloadPoolSettings settings = WorkloadPoolSettings.of(environment, workload);
+            int limit = settings.getSize() + settings.getQueueLimit();
+            Semaphore semaphore = new Semaphore(limit);
+            permits.put(workload, semaphore);
+            Gauge.builder("catalog.datasource.workload.calls", semaphore, s -> limit - s.availablePermits())
+                    .tag("workload", workload.getId())
+                    .register(meterRegistry);
+            rejected.put(workload, Counter.builder("catalog.datasource.workload.rejected")
+                    .tag("workload", workload.getId())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Around("@within(com.example.datasource.WorkloadPool) || @annotation(com.example.datasource.WorkloadPool)")
+    public Object bind(ProceedingJoinPoint joinPoint) throws Throwable {
+        Workload workload = resolve(joinPoint);
+        if (workload == Workloads.bound()) {
+            return joinPoint.proceed();
+        }
+        Semaphore semaphore = permits.get(workload);
+        if (!semaphore.tryAcquire()) {
+            rejected.get(workload).increment();
+            logger.warn("Workload {} is saturated, rejecting {}", workload.getId(),
+                    joinPoint.getSignature().toShortString());
+            throw new WorkloadRejectedException("Сервис перегружен, повторите запрос позже");
+        }
+        Workload previous = Workloads.enter(workload);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            Workloads.restore(previous);
+            semaphore.release();
+        }
+    }
+
+    private static Workload resolve(ProceedingJoinPoint joinPoint) {
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        Method method = AopUtils.getMostSpecificMethod(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                targetClass);
+        WorkloadPool binding = AnnotatedElementUtils.findMergedAnnotation(method, WorkloadPool.class);
+        if (binding == null) {
+            binding = AnnotatedElementUtils.findMergedAnnotation(targetClass, WorkloadPool.class);
+        }
+        return binding.value();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Привязка методов бина к пулу соединений класса нагрузки.
+ * Аннотация метода важнее аннотации класса. Без аннотации запросы идут в пул OLTP.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface WorkloadPool {
+    Workload value();
+}
@@ -0,0 +1,38 @@
+package com.example.datasource;
+
+import lombok.Getter;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Настройки пула класса нагрузки из catalog.datasource.pools.<id>:
+ * size - размер пула, queue-limit - сколько вызовов может ждать соединение сверх размера пула,
+ * statement-timeout - statement_timeout соединений (0 - без ограничения),
+ * connection-timeout - сколько ждать свободное соединение.
+ */
+@Getter
+public class WorkloadPoolSettings {
+    private final int size;
+    private final int queueLimit;
+    private final Duration statementTimeout;
+    private final Duration connectionTimeout;
+
+    private WorkloadPoolSettings(int size, int queueLimit, Duration statementTimeout, Duration connectionTimeout) {
+        this.size = size;
+        this.queueLimit = queueLimit;
+        this.statementTimeout = statementTimeout;
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public static WorkloadPoolSettings of(Environment environment, Workload workload) {
+        String prefix = "catalog.datasource.pools." + workload.getId() + ".";
+        return new WorkloadPoolSettings(
+                environment.getProperty(prefix + "size", Integer.class, workload.getDefaultSize()),
+                environment.getProperty(prefix + "queue-limit", Integer.class, workload.getDefaultQueueLimit()),
+                environment.getProperty(prefix + "statement-timeout", Duration.class,
+                        workload.getDefaultStatementTimeout()),
+                environment.getProperty(prefix + "connection-timeout", Duration.class,
+                        workload.getDefaultConnectionTimeout()));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Класс нагрузки текущего потока: по нему WorkloadRoutingDataSource и ReplicaDataSource
+ * выбирают пул. Устанавливается WorkloadBulkheadAspect или явно через run и call для фоновых потоков.
+ */
+public final class Workloads {
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private Workloads() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : Workload.OLTP;
+    }
+
+    public static void run(Workload workload, Runnable action) {
+        call(workload, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T call(Workload workload, Supplier<T> action) {
+        Workload previous = enter(workload);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Класс нагрузки, явно установленный для потока, или null.
+     */
+    static Workload bound() {
+        return CURRENT.get();
+    }
+
+    static Workload enter(Workload workload) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    static void restore(Workload previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Данные книг в порядке запрошенных идентификаторов и идентификаторы, которых нет в каталоге.
+ */
+@Data
+public class BookDetailsBatchResponse {
+    private List<BookDetailsResponse> books;
+    private List<Long> missingIds;
+}
@@ -4,13 +4,13 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 
 /**
  * DTO для вывода книг.
  */
 @Data
 public class BookDetailsResponse {
+    private Long id;
     private String title;
     private String genre;
     private int pagesNumber;
@@ -18,7 +18,6 @@ public class BookDetailsResponse {
     private LocalDate publishingDate;
     private String description;
     private AuthorInfo author;
-    private LocalDateTime addedAt;
 
     @Data
     public static class AuthorInfo {
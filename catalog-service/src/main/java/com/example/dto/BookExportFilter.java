@@ -0,0 +1,32 @@
+package com.example.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Необязательные фильтры выгрузки каталога.
+ * Параметры совпадают с эндпоинтами /genre, /size и /period; границы диапазонов задаются парами.
+ */
+@Data
+public class BookExportFilter {
+    private String genre;
+    private Integer min;
+    private Integer max;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate start;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate end;
+
+    @AssertTrue(message = "Параметры min и max задаются вместе")
+    public boolean isSizeRangeComplete() {
+        return (min == null) == (max == null);
+    }
+
+    @AssertTrue(message = "Параметры start и end задаются вместе")
+    public boolean isPeriodComplete() {
+        return (start == null) == (end == null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат массового импорта книг.
+ * Список errors ограничен catalog.import.max-reported-errors, счётчик failed - нет.
+ * Строки, которые перекрыла более поздняя строка той же книги в той же порции, считаются отклонёнными.
+ */
+@Data
+public class BookImportReport {
+    private long received;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long failed;
+    private long authorsCreated;
+    private long durationMs;
+    private double rowsPerSecond;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    public static class RowError {
+        private final long row;
+        private final String message;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Строка массового импорта книг.
+ * Автор задаётся через authorId или authorName; если автора с таким именем нет,
+ * он создаётся при наличии authorBirthDate и authorLocation.
+ */
+@Data
+public class BookImportRow {
+    @JsonIgnore
+    private long rowNumber;
+    @JsonIgnore
+    private String parseError;
+
+    @NotBlank
+    @Size(max = 255)
+    private String title;
+    @NotBlank
+    @Size(max = 255)
+    private String genre;
+    @NotNull
+    @Positive
+    private Integer pagesNumber;
+    @NotNull
+    @PastOrPresent
+    private LocalDate publishingDate;
+    private String description;
+
+    private Long authorId;
+    @Size(max = 255)
+    private String authorName;
+    @Past
+    private LocalDate authorBirthDate;
+    @Size(max = 255)
+    private String authorLocation;
+    private String authorBio;
+}
@@ -0,0 +1,40 @@
+package com.example.dto;
+
+import lombok.Data;
+
+/**
+ * Событие ленты изменений каталога /api/catalog/changes:
+ * book - книга bookId создана, изменена или удалена (deleted);
+ * authors - изменились авторы, а их имена входят в данные книг;
+ * resync - изменения могли быть пропущены, закэшированные данные каталога нужно перечитать.
+ */
+@Data
+public class CatalogChangeResponse {
+    public static final String BOOK = "book";
+    public static final String AUTHORS = "authors";
+    public static final String RESYNC = "resync";
+
+    private String type;
+    private Long bookId;
+    private boolean deleted;
+
+    public static CatalogChangeResponse book(long bookId, boolean deleted) {
+        CatalogChangeResponse change = new CatalogChangeResponse();
+        change.setType(BOOK);
+        change.setBookId(bookId);
+        change.setDeleted(deleted);
+        return change;
+    }
+
+    public static CatalogChangeResponse authors() {
+        CatalogChangeResponse change = new CatalogChangeResponse();
+        change.setType(AUTHORS);
+        return change;
+    }
+
+    public static CatalogChangeResponse resync() {
+        CatalogChangeResponse change = new CatalogChangeResponse();
+        change.setType(RESYNC);
+        return change;
+    }
+}
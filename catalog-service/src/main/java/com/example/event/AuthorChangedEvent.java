@@ -0,0 +1,30 @@
+package com.example.event;
+
+import com.example.model.Author;
+import lombok.Getter;
+
+/**
+ * Событие изменения автора. Удаление автора каскадно удаляет его книги.
+ */
+@Getter
+public class AuthorChangedEvent {
+    private final long authorId;
+    private final Author author;
+
+    private AuthorChangedEvent(long authorId, Author author) {
+        this.authorId = authorId;
+        this.author = author;
+    }
+
+    public static AuthorChangedEvent saved(Author author) {
+        return new AuthorChangedEvent(author.getId(), author);
+    }
+
+    public static AuthorChangedEvent deleted(long authorId) {
+        return new AuthorChangedEvent(authorId, null);
+    }
+
+    public boolean isDeleted() {
+        return author == null;
+    }
+}
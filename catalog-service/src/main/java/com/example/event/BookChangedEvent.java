@@ -0,0 +1,31 @@
+package com.example.event;
+
+import com.example.model.Book;
+import lombok.Getter;
+
+/**
+ * Событие изменения книги. Публикуется сервисом после сохранения или удаления,
+ * слушатели обрабатывают его после фиксации транзакции.
+ */
+@Getter
+public class BookChangedEvent {
+    private final long bookId;
+    private final Book book;
+
+    private BookChangedEvent(long bookId, Book book) {
+        this.bookId = bookId;
+        this.book = book;
+    }
+
+    public static BookChangedEvent saved(Book book) {
+        return new BookChangedEvent(book.getId(), book);
+    }
+
+    public static BookChangedEvent deleted(long bookId) {
+        return new BookChangedEvent(bookId, null);
+    }
+
+    public boolean isDeleted() {
+        return book == null;
+    }
+}
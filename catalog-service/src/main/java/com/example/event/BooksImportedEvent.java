@@ -0,0 +1,19 @@
+package com.example.event;
+
+import com.example.model.Book;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Событие массового импорта: одна порция вставленных или изменённых книг.
+ * Автор у изменённых книг не меняется, так как строки сопоставляются по (title, author_id).
+ */
+@Getter
+public class BooksImportedEvent {
+    private final List<Book> books;
+
+    public BooksImportedEvent(List<Book> books) {
+        this.books = books;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.event;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Изменение каталога другим экземпляром сервиса, полученное через LISTEN/NOTIFY.
+ * Уведомление содержит только идентификаторы, поэтому слушатели сами перечитывают строки из базы.
+ * RESYNC означает, что уведомления могли быть потеряны и состояние нужно перестроить целиком.
+ */
+@Getter
+public class RemoteCatalogChangeEvent {
+    public enum Type {
+        BOOK,
+        AUTHOR,
+        BOOKS_IMPORTED,
+        RESYNC
+    }
+
+    private final Type type;
+    private final long bookId;
+    private final Set<Long> authorIds;
+
+    private RemoteCatalogChangeEvent(Type type, long bookId, Set<Long> authorIds) {
+        this.type = type;
+        this.bookId = bookId;
+        this.authorIds = authorIds;
+    }
+
+    /**
+     * @param authorId автор книги или 0, если книга удалена
+     */
+    public static RemoteCatalogChangeEvent book(long bookId, long authorId) {
+        return new RemoteCatalogChangeEvent(Type.BOOK, bookId, authorId == 0 ? Set.of() : Set.of(authorId));
+    }
+
+    public static RemoteCatalogChangeEvent author(long authorId) {
+        return new RemoteCatalogChangeEvent(Type.AUTHOR, 0, Set.of(authorId));
+    }
+
+    public static RemoteCatalogChangeEvent booksImported(Set<Long> authorIds) {
+        return new RemoteCatalogChangeEvent(Type.BOOKS_IMPORTED, 0, authorIds);
+    }
+
+    public static RemoteCatalogChangeEvent resync() {
+        return new RemoteCatalogChangeEvent(Type.RESYNC, 0, Set.of());
+    }
+
+    public boolean isBookDeleted() {
+        return type == Type.BOOK && authorIds.isEmpty();
+    }
+}
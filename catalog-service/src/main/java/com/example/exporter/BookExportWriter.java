@@ -0,0 +1,22 @@
+package com.example.exporter;
+
+import com.example.model.Book;
+
+import java.io.IOException;
+
+/**
+ * Потоковая запись книг при выгрузке каталога. Имена полей совпадают с BookImportRow,
+ * поэтому выгрузку можно загрузить обратно через импорт.
+ */
+public interface BookExportWriter {
+
+    /**
+     * @param book книга с id и именем автора
+     */
+    void write(Book book) throws IOException;
+
+    /**
+     * Отправляет накопленные строки клиенту.
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,85 @@
+package com.example.exporter;
+
+import com.example.model.Book;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Выгрузка в формате CSV (RFC 4180) с заголовком из имён полей.
+ * Отсутствующее описание пишется пустым значением без кавычек и при импорте читается как null.
+ */
+public class CsvBookExportWriter implements BookExportWriter {
+    private static final String HEADER = "id,title,genre,pagesNumber,publishingDate,description,authorId,authorName\r\n";
+
+    private final Writer writer;
+    private boolean headerWritten;
+
+    public CsvBookExportWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(Book book) throws IOException {
+        if (!headerWritten) {
+            writer.write(HEADER);
+            headerWritten = true;
+        }
+        writer.write(Long.toString(book.getId()));
+        writer.write(',');
+        writeQuoted(book.getTitle());
+        writer.write(',');
+        writeQuoted(book.getGenre());
+        writer.write(',');
+        writer.write(Integer.toString(book.getPagesNumber()));
+        writer.write(',');
+        writer.write(book.getPublishingDate().toString());
+        writer.write(',');
+        if (book.getDescription() != null) {
+            writeQuoted(book.getDescription());
+        }
+        writer.write(',');
+        writer.write(Long.toString(book.getAuthor().getId()));
+        writer.write(',');
+        writeQuoted(book.getAuthor().getName());
+        writer.write("\r\n");
+    }
+
+    /**
+     * Пустая строка тоже берётся в кавычки, чтобы отличаться от null.
+     */
+    private void writeQuoted(String value) throws IOException {
+        if (!value.isEmpty() && !needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (!headerWritten) {
+            writer.write(HEADER);
+            headerWritten = true;
+        }
+        writer.flush();
+    }
+}
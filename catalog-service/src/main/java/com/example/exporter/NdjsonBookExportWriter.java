@@ -0,0 +1,42 @@
+package com.example.exporter;
+
+import com.example.model.Book;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Выгрузка в формате NDJSON: один JSON-объект на строку.
+ * Поля пишутся генератором Jackson напрямую, без промежуточных объектов.
+ */
+public class NdjsonBookExportWriter implements BookExportWriter {
+    private final JsonGenerator generator;
+
+    public NdjsonBookExportWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(Book book) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", book.getId());
+        generator.writeStringField("title", book.getTitle());
+        generator.writeStringField("genre", book.getGenre());
+        generator.writeNumberField("pagesNumber", book.getPagesNumber());
+        generator.writeStringField("publishingDate", book.getPublishingDate().toString());
+        generator.writeStringField("description", book.getDescription());
+        generator.writeNumberField("authorId", book.getAuthor().getId());
+        generator.writeStringField("authorName", book.getAuthor().getName());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+}
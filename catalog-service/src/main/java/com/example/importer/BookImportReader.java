@@ -0,0 +1,18 @@
+package com.example.importer;
+
+import com.example.dto.BookImportRow;
+
+import java.io.IOException;
+
+/**
+ * Потоковое чтение строк импорта. Строки читаются по одной,
+ * поэтому размер загрузки не влияет на потребление памяти.
+ */
+public interface BookImportReader {
+
+    /**
+     * @return следующая строка или null в конце потока; строка, которую не удалось разобрать,
+     * возвращается с заполненным parseError
+     */
+    BookImportRow next() throws IOException;
+}
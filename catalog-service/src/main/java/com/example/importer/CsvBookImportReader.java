@@ -0,0 +1,114 @@
+package com.example.importer;
+
+import com.example.dto.BookImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Импорт в формате CSV (RFC 4180). Первая строка - заголовок с именами полей BookImportRow,
+ * неизвестные столбцы игнорируются. Пустое значение без кавычек читается как null.
+ * Номер строки импорта - номер строки файла, с которой начинается запись.
+ */
+public class CsvBookImportReader implements BookImportReader {
+    private final Reader reader;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long lineNumber;
+
+    public CsvBookImportReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        if (header == null) {
+            header = readRecord();
+            if (header == null) {
+                return null;
+            }
+        }
+        List<String> values;
+        long rowNumber;
+        do {
+            rowNumber = lineNumber + 1;
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0) == null);
+
+        BookImportRow row;
+        if (values.size() != header.size()) {
+            row = new BookImportRow();
+            row.setParseError("Ожидалось столбцов: " + header.size() + ", получено: " + values.size());
+        } else {
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            try {
+                row = objectMapper.convertValue(fields, BookImportRow.class);
+            } catch (IllegalArgumentException e) {
+                row = new BookImportRow();
+                row.setParseError("Некорректное значение: " + (e.getCause() instanceof JsonProcessingException cause ?
+                        cause.getOriginalMessage() : e.getMessage()));
+            }
+        }
+        row.setRowNumber(rowNumber);
+        return row;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        inQuotes = false;
+                        continue;
+                    }
+                } else if (c == -1) {
+                    inQuotes = false;
+                    continue;
+                } else if (c == '\n') {
+                    lineNumber++;
+                }
+                value.append((char) c);
+            } else if (c == '"' && value.isEmpty() && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == ',') {
+                values.add(toValue(value, quoted));
+                value.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == -1) {
+                lineNumber++;
+                values.add(toValue(value, quoted));
+                return values;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private static String toValue(StringBuilder value, boolean quoted) {
+        return value.isEmpty() && !quoted ? null : value.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.importer;
+
+import com.example.dto.BookImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Импорт в формате NDJSON: один JSON-объект на строку, пустые строки пропускаются.
+ * Номер строки импорта совпадает с номером строки файла.
+ */
+public class NdjsonBookImportReader implements BookImportReader {
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+
+    public NdjsonBookImportReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        BookImportRow row;
+        try {
+            row = objectMapper.readValue(line, BookImportRow.class);
+        } catch (JsonProcessingException e) {
+            row = new BookImportRow();
+            row.setParseError("Некорректный JSON: " + e.getOriginalMessage());
+        }
+        row.setRowNumber(lineNumber);
+        return row;
+    }
+}
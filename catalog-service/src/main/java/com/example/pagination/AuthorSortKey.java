@@ -0,0 +1,53 @@
+package com.example.pagination;
+
+import com.example.model.Author;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Ключи сортировки авторов, поддерживаемые keyset-пагинацией.
+ * Каждой колонке соответствует индекс idx_author_*.
+ */
+public enum AuthorSortKey implements KeysetSortKey<Author> {
+    ID("id", "id", Author::getId, Long::valueOf),
+    NAME("name", "name", Author::getName, value -> value),
+    BIRTH_DATE("birth_date", "birthDate", Author::getBirthDate, LocalDate::parse);
+
+    private final String column;
+    private final String property;
+    private final Function<Author, Object> extractor;
+    private final Function<String, Object> parser;
+
+    AuthorSortKey(String column, String property, Function<Author, Object> extractor, Function<String, Object> parser) {
+        this.column = column;
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    @Override
+    public String getColumn() {
+        return column;
+    }
+
+    @Override
+    public String getProperty() {
+        return property;
+    }
+
+    @Override
+    public Object valueOf(Author author) {
+        return extractor.apply(author);
+    }
+
+    @Override
+    public long idOf(Author author) {
+        return author.getId();
+    }
+
+    @Override
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+}
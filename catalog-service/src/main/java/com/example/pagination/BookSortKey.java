@@ -0,0 +1,54 @@
+package com.example.pagination;
+
+import com.example.model.Book;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Ключи сортировки книг, поддерживаемые keyset-пагинацией.
+ * Каждой колонке соответствует индекс idx_book_*_id_cover, для id - первичный ключ.
+ */
+public enum BookSortKey implements KeysetSortKey<Book> {
+    ID("id", "id", Book::getId, Long::valueOf),
+    TITLE("title", "title", Book::getTitle, value -> value),
+    PAGES_NUMBER("pages_number", "pagesNumber", Book::getPagesNumber, Integer::valueOf),
+    PUBLISHING_DATE("publishing_date", "publishingDate", Book::getPublishingDate, LocalDate::parse);
+
+    private final String column;
+    private final String property;
+    private final Function<Book, Object> extractor;
+    private final Function<String, Object> parser;
+
+    BookSortKey(String column, String property, Function<Book, Object> extractor, Function<String, Object> parser) {
+        this.column = column;
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    @Override
+    public String getColumn() {
+        return column;
+    }
+
+    @Override
+    public String getProperty() {
+        return property;
+    }
+
+    @Override
+    public Object valueOf(Book book) {
+        return extractor.apply(book);
+    }
+
+    @Override
+    public long idOf(Book book) {
+        return book.getId();
+    }
+
+    @Override
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.pagination;
+
+/**
+ * Способ вычисления общего количества элементов для постраничных запросов.
+ * EXACT - SELECT COUNT(*) на каждый запрос;
+ * CACHED - точное значение, закэшированное по фильтру на короткое время;
+ * ESTIMATED - оценка планировщика Postgres без сканирования таблицы;
+ * NONE - без подсчёта, ответ содержит только признак следующей страницы.
+ */
+public enum CountMode {
+    EXACT,
+    CACHED,
+    ESTIMATED,
+    NONE
+}
@@ -0,0 +1,61 @@
+package com.example.pagination;
+
+import com.example.exception.InvalidCursorException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Курсор keyset-пагинации: значение ключа сортировки последней строки и её id.
+ * Передаётся клиенту в виде непрозрачного токена.
+ */
+@Getter
+public final class KeysetCursor {
+    private static final String SEPARATOR = ":";
+
+    private final String key;
+    private final boolean descending;
+    private final long id;
+    private final String value;
+
+    private KeysetCursor(String key, boolean descending, long id, String value) {
+        this.key = key;
+        this.descending = descending;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static <T> KeysetCursor of(KeysetSortKey<T> sortKey, boolean descending, T entity) {
+        return new KeysetCursor(sortKey.name(), descending, sortKey.idOf(entity),
+                String.valueOf(sortKey.valueOf(entity)));
+    }
+
+    /**
+     * Разбирает токен курсора. Пустой токен означает первую страницу.
+     */
+    public static KeysetCursor decode(String token, KeysetSortKey<?> sortKey, boolean descending) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 4);
+            KeysetCursor cursor = new KeysetCursor(parts[0], "D".equals(parts[1]), Long.parseLong(parts[2]), parts[3]);
+            if (!cursor.key.equals(sortKey.name()) || cursor.descending != descending) {
+                throw new InvalidCursorException("Курсор не соответствует сортировке запроса!");
+            }
+            sortKey.parse(cursor.value);
+            return cursor;
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Некорректный курсор!");
+        }
+    }
+
+    public String encode() {
+        String raw = key + SEPARATOR + (descending ? "D" : "A") + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
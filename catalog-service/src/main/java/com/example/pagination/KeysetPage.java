@@ -0,0 +1,32 @@
+package com.example.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница keyset-пагинации.
+ * Вместо номера страницы содержит токен для запроса следующей.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * Собирает страницу из выборки размером limit + 1:
+     * лишняя строка лишь сигнализирует о наличии следующей страницы.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, KeysetSortKey<T> sortKey, boolean descending) {
+        boolean hasNext = rows.size() > limit;
+        List<T> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext
+                ? KeysetCursor.of(sortKey, descending, content.get(content.size() - 1)).encode()
+                : null;
+        return new KeysetPage<>(content, content.size(), hasNext, nextCursor);
+    }
+}
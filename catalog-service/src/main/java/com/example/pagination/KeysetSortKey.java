@@ -0,0 +1,19 @@
+package com.example.pagination;
+
+/**
+ * Ключ сортировки для keyset-пагинации.
+ * Связывает колонку таблицы, свойство сущности и тип значения курсора.
+ */
+public interface KeysetSortKey<T> {
+    String name();
+
+    String getColumn();
+
+    String getProperty();
+
+    Object valueOf(T entity);
+
+    long idOf(T entity);
+
+    Object parse(String value);
+}
@@ -0,0 +1,48 @@
+package com.example.projection;
+
+/**
+ * Поля книги, которые можно запросить параметром fields.
+ * property - имя поля в JSON, column - колонка таблицы books.
+ */
+public enum BookField {
+    ID("id", "id"),
+    TITLE("title", "title"),
+    GENRE("genre", "genre"),
+    PAGES_NUMBER("pagesNumber", "pages_number"),
+    PUBLISHING_DATE("publishingDate", "publishing_date"),
+    DESCRIPTION("description", "description");
+
+    private final String property;
+    private final String column;
+
+    BookField(String property, String column) {
+        this.property = property;
+        this.column = column;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public static BookField ofProperty(String property) {
+        for (BookField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное поле книги: " + property);
+    }
+
+    public static BookField ofColumn(String column) {
+        for (BookField field : values()) {
+            if (field.column.equals(column)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная колонка книги: " + column);
+    }
+}
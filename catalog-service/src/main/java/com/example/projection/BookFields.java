@@ -0,0 +1,85 @@
+package com.example.projection;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Набор полей книги для списочных эндпоинтов, задаётся параметром fields через запятую,
+ * например fields=title,genre. JDBC и jOOQ репозитории выбирают только эти колонки,
+ * в ответ попадают только эти поля. id выбирается всегда.
+ */
+public final class BookFields {
+    /* Значение параметра fields по умолчанию - все поля */
+    public static final String ALL_FIELDS = "*";
+    /* Идентификатор Jackson-фильтра, которым ответ ограничивается запрошенными полями */
+    public static final String FILTER = "bookFields";
+    public static final BookFields ALL = new BookFields(EnumSet.allOf(BookField.class));
+
+    private final Set<BookField> fields;
+
+    private BookFields(EnumSet<BookField> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    public static BookFields parse(String value) {
+        if (value == null || value.isBlank() || ALL_FIELDS.equals(value.trim())) {
+            return ALL;
+        }
+        EnumSet<BookField> fields = EnumSet.of(BookField.ID);
+        for (String property : value.split(",")) {
+            if (!property.isBlank()) {
+                fields.add(BookField.ofProperty(property.trim()));
+            }
+        }
+        return of(fields);
+    }
+
+    private static BookFields of(EnumSet<BookField> fields) {
+        return fields.size() == BookField.values().length ? ALL : new BookFields(fields);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public boolean contains(BookField field) {
+        return fields.contains(field);
+    }
+
+    public Set<BookField> getFields() {
+        return fields;
+    }
+
+    /**
+     * Добавляет колонку сортировки keyset-выборки: по ней строится курсор следующей страницы.
+     */
+    public BookFields withColumn(String column) {
+        BookField field = BookField.ofColumn(column);
+        if (fields.contains(field)) {
+            return this;
+        }
+        EnumSet<BookField> extended = EnumSet.copyOf(fields);
+        extended.add(field);
+        return of(extended);
+    }
+
+    /**
+     * @return список колонок для SELECT с префиксом таблицы, например "b.id, b.title"
+     */
+    public String columns(String alias) {
+        return fields.stream()
+                .map(field -> alias + "." + field.getColumn())
+                .collect(Collectors.joining(", "));
+    }
+
+    public Set<String> properties() {
+        return fields.stream().map(BookField::getProperty).collect(Collectors.toSet());
+    }
+
+    @Override
+    public String toString() {
+        return fields.stream().map(BookField::getProperty).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.repository;
+
+import com.example.model.Author;
+import com.example.pagination.AuthorSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Общий контракт хранилища авторов для JDBC, jOOQ и JPA реализаций.
+ * Реализация для чтения и для записи выбирается в PersistenceConfig.
+ */
+public interface AuthorRepository {
+
+    /**
+     * Создаёт автора без id или обновляет существующего.
+     *
+     * @return false, если обновляемый автор не найден
+     */
+    boolean save(Author author);
+
+    /**
+     * Книги автора удаляются каскадно.
+     *
+     * @return false, если автор не найден
+     */
+    boolean deleteById(long id);
+
+    /**
+     * @return автор вместе со списком книг
+     */
+    Optional<Author> findById(long id);
+
+    Slice<Author> findByNameContainingIgnoreCase(String name, Pageable pageable, CountMode countMode);
+
+    Slice<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable,
+                                         CountMode countMode);
+
+    Slice<Author> findByLocation(String location, Pageable pageable, CountMode countMode);
+
+    Slice<Author> findByBookGenre(String genre, Pageable pageable, CountMode countMode);
+
+    Slice<Author> findAllByOrderByNameAsc(Pageable pageable, CountMode countMode);
+
+    Slice<Author> findAllByOrderByNameDesc(Pageable pageable, CountMode countMode);
+
+    Slice<Author> findAllByOrderByBirthDateAsc(Pageable pageable, CountMode countMode);
+
+    Slice<Author> findAllByOrderByBirthDateDesc(Pageable pageable, CountMode countMode);
+
+    Slice<Author> findAllOrderByBooksCountAsc(Pageable pageable, CountMode countMode);
+
+    Slice<Author> findAllOrderByBooksCountDesc(Pageable pageable, CountMode countMode);
+
+    KeysetPage<Author> findAll(AuthorSortKey sortKey, boolean descending, KeysetCursor cursor, int limit);
+
+    KeysetPage<Author> findByNameContainingIgnoreCase(String name, KeysetCursor cursor, int limit);
+
+    KeysetPage<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound,
+                                              KeysetCursor cursor, int limit);
+
+    KeysetPage<Author> findByLocation(String location, KeysetCursor cursor, int limit);
+
+    KeysetPage<Author> findByBookGenre(String genre, KeysetCursor cursor, int limit);
+
+    /**
+     * Загружает книги для страницы авторов одним запросом.
+     */
+    void loadBooks(Collection<Author> authors);
+
+    /**
+     * Убирает книги у страницы авторов, запрошенной без книг, чтобы они не попали в ответ.
+     */
+    void clearBooks(Collection<Author> authors);
+}
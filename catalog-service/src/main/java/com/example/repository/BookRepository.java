@@ -0,0 +1,110 @@
+package com.example.repository;
+
+import com.example.model.Book;
+import com.example.pagination.BookSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.projection.BookFields;
+import com.example.search.BookSearchRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Общий контракт хранилища книг для JDBC, jOOQ и JPA реализаций.
+ * Реализация для чтения и для записи выбирается в PersistenceConfig.
+ */
+public interface BookRepository extends BookSearchRepository {
+
+    /**
+     * Создаёт книгу без id или обновляет существующую.
+     * Существование автора проверяется внешним ключом fk_book_author.
+     *
+     * @return false, если обновляемая книга не найдена
+     */
+    boolean save(Book book);
+
+    /**
+     * @return false, если книга не найдена
+     */
+    boolean deleteById(long id);
+
+    /**
+     * Проверка по первичному ключу без чтения строки книги.
+     */
+    boolean existsById(long id);
+
+    /**
+     * @return книга вместе с данными автора
+     */
+    Optional<Book> findById(long id);
+
+    /**
+     * Загружает книги одним запросом в порядке переданных идентификаторов.
+     * Из полей fields загружаются только перечисленные и id.
+     */
+    List<Book> findAllById(List<Long> ids, BookFields fields);
+
+    /**
+     * Загружает книги вместе с данными автора одним запросом в порядке переданных идентификаторов.
+     * Отсутствующие книги пропускаются.
+     */
+    List<Book> findAllWithAuthorById(List<Long> ids);
+
+    /**
+     * Идентификаторы книг больше afterId по возрастанию, не больше limit.
+     */
+    List<Long> findIdsAfter(long afterId, int limit);
+
+    /*
+     * Списочные методы выбирают только колонки из fields, остальные поля книг остаются пустыми.
+     */
+    Slice<Book> findAll(Pageable pageable, CountMode countMode, BookFields fields);
+
+    Slice<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable, CountMode countMode,
+                                                BookFields fields);
+
+    Slice<Book> findByGenre(String genre, Pageable pageable, CountMode countMode, BookFields fields);
+
+    Slice<Book> findByPagesNumberBetween(int minPages, int maxPages, Pageable pageable, CountMode countMode,
+                                         BookFields fields);
+
+    Slice<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable,
+                                            CountMode countMode, BookFields fields);
+
+    Slice<Book> findByAuthorNameContainingIgnoreCase(String authorName, Pageable pageable, CountMode countMode,
+                                                     BookFields fields);
+
+    Slice<Book> findAllByOrderByTitleAsc(Pageable pageable, CountMode countMode, BookFields fields);
+
+    Slice<Book> findAllByOrderByTitleDesc(Pageable pageable, CountMode countMode, BookFields fields);
+
+    Slice<Book> findAllByOrderByPagesNumberAsc(Pageable pageable, CountMode countMode, BookFields fields);
+
+    Slice<Book> findAllByOrderByPagesNumberDesc(Pageable pageable, CountMode countMode, BookFields fields);
+
+    Slice<Book> findAllByOrderByPublishingDateAsc(Pageable pageable, CountMode countMode, BookFields fields);
+
+    Slice<Book> findAllByOrderByPublishingDateDesc(Pageable pageable, CountMode countMode, BookFields fields);
+
+    KeysetPage<Book> findAll(BookSortKey sortKey, boolean descending, KeysetCursor cursor, int limit,
+                             BookFields fields);
+
+    KeysetPage<Book> findByTitleContainingIgnoreCase(String title, KeysetCursor cursor, int limit,
+                                                     BookFields fields);
+
+    KeysetPage<Book> findByGenre(String genre, KeysetCursor cursor, int limit, BookFields fields);
+
+    KeysetPage<Book> findByPagesNumberBetween(int minPages, int maxPages, KeysetCursor cursor, int limit,
+                                              BookFields fields);
+
+    KeysetPage<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                 KeysetCursor cursor, int limit, BookFields fields);
+
+    KeysetPage<Book> findByAuthorNameContainingIgnoreCase(String authorName, KeysetCursor cursor, int limit,
+                                                          BookFields fields);
+}
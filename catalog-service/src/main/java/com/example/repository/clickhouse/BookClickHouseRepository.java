@@ -0,0 +1,248 @@
+package com.example.repository.clickhouse;
+
+import com.example.model.Author;
+import com.example.model.Book;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Копия книг и авторов в ClickHouse для статистики.
+ * Таблицы ReplacingMergeTree(version): каждое изменение - новая строка с большей версией,
+ * удаление - строка с deleted = 1. Запросы читают с FINAL, то есть последнюю версию каждой строки.
+ * В копию попадают только колонки, нужные для агрегатов, ответы совпадают по форме с BookJdbcRepository.
+ * Пул соединений создаётся, только если catalog.analytics.clickhouse.enabled=true, и не является
+ * DataSource контекста: недоступность ClickHouse не влияет на проверку здоровья сервиса.
+ */
+@Repository
+public class BookClickHouseRepository {
+    private static final String BOOKS = "books";
+    private static final String AUTHORS = "authors";
+
+    /* Авторы с числом книг, средним объёмом и датами первой и последней книги */
+    private static final String AUTHOR_STATS = "SELECT a.id AS id, a.name AS name, " +
+            "ifNull(b.cnt, 0) AS book_count, b.first_date AS first_publish_date, " +
+            "b.last_date AS last_publish_date, b.pages_avg AS avg_pages " +
+            "FROM (SELECT id, name FROM " + AUTHORS + " FINAL WHERE deleted = 0) a " +
+            "LEFT JOIN (SELECT author_id, count() AS cnt, min(publishing_date) AS first_date, " +
+            "max(publishing_date) AS last_date, avg(pages_number) AS pages_avg " +
+            "FROM " + BOOKS + " FINAL WHERE deleted = 0 GROUP BY author_id) b ON a.id = b.author_id " +
+            "ORDER BY book_count DESC";
+
+    private final boolean enabled;
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookClickHouseRepository(MeterRegistry meterRegistry,
+                                    @Value("${catalog.analytics.clickhouse.enabled:false}") boolean enabled,
+                                    @Value("${catalog.analytics.clickhouse.url:}") String url,
+                                    @Value("${catalog.analytics.clickhouse.username:default}") String username,
+                                    @Value("${catalog.analytics.clickhouse.password:}") String password,
+                                    @Value("${catalog.analytics.clickhouse.pool-size:4}") int poolSize,
+                                    @Value("${catalog.analytics.clickhouse.connection-timeout:1s}")
+                                    Duration connectionTimeout,
+                                    @Value("${catalog.analytics.clickhouse.query-timeout:10s}") Duration queryTimeout) {
+        this.enabled = enabled;
+        if (!enabled) {
+            this.dataSource = null;
+            this.jdbcTemplate = null;
+            return;
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("catalog-clickhouse");
+        config.setDriverClassName("ru.yandex.clickhouse.ClickHouseDriver");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setConnectionTimeout(Math.max(250, connectionTimeout.toMillis()));
+        config.setConnectionTestQuery("SELECT 1");
+        /* Сервис запускается и без ClickHouse, статистика тогда считается в Postgres */
+        config.setInitializationFailTimeout(-1);
+        config.addDataSourceProperty("connection_timeout", connectionTimeout.toMillis());
+        config.addDataSourceProperty("socket_timeout", queryTimeout.toMillis());
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        /* Пул создаётся сразу и подключается в фоне, а не при первом запросе */
+        this.dataSource = new HikariDataSource(config);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    public void createTables() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + BOOKS + " (" +
+                "id UInt64, genre LowCardinality(String), author_id UInt64, pages_number Int32, " +
+                "publishing_date Date, version UInt64, deleted UInt8" +
+                ") ENGINE = ReplacingMergeTree(version) ORDER BY id");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + AUTHORS + " (" +
+                "id UInt64, name String, version UInt64, deleted UInt8" +
+                ") ENGINE = ReplacingMergeTree(version) ORDER BY id");
+    }
+
+    public void ping() {
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+    }
+
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE " + BOOKS);
+        jdbcTemplate.execute("TRUNCATE TABLE " + AUTHORS);
+    }
+
+    /**
+     * Записывает текущее состояние книг одной вставкой.
+     * Идентификаторы из deletedIds записываются как удалённые.
+     */
+    public void saveBooks(List<Book> books, Collection<Long> deletedIds, long version) {
+        List<Book> rows = new ArrayList<>(books);
+        for (Long id : deletedIds) {
+            Book book = new Book();
+            book.setId(id);
+            book.setGenre("");
+            book.setAuthor(new Author());
+            rows.add(book);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        int live = books.size();
+        jdbcTemplate.batchUpdate("INSERT INTO " + BOOKS + " (id, genre, author_id, pages_number, publishing_date, " +
+                "version, deleted) VALUES (?, ?, ?, ?, ?, ?, ?)", new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Book book = rows.get(i);
+                boolean deleted = i >= live;
+                ps.setLong(1, book.getId());
+                ps.setString(2, book.getGenre());
+                ps.setLong(3, deleted ? 0 : book.getAuthor().getId());
+                ps.setInt(4, book.getPagesNumber());
+                ps.setDate(5, deleted ? new Date(0) : Date.valueOf(book.getPublishingDate()));
+                ps.setLong(6, version);
+                ps.setInt(7, deleted ? 1 : 0);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    public void saveAuthors(List<Author> authors, Collection<Long> deletedIds, long version) {
+        List<Author> rows = new ArrayList<>(authors);
+        for (Long id : deletedIds) {
+            Author author = new Author();
+            author.setId(id);
+            author.setName("");
+            rows.add(author);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        int live = authors.size();
+        jdbcTemplate.batchUpdate("INSERT INTO " + AUTHORS + " (id, name, version, deleted) VALUES (?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Author author = rows.get(i);
+                        ps.setLong(1, author.getId());
+                        ps.setString(2, author.getName());
+                        ps.setLong(3, version);
+                        ps.setInt(4, i >= live ? 1 : 0);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+    }
+
+    public List<Map<String, Object>> getFullAuthorStats() {
+        return jdbcTemplate.query(AUTHOR_STATS + " SETTINGS join_use_nulls = 1", (rs, rowNum) -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("authorId", rs.getLong("id"));
+            stats.put("authorName", rs.getString("name"));
+            stats.put("bookCount", rs.getInt("book_count"));
+            stats.put("firstPublishDate", rs.getDate("first_publish_date"));
+            stats.put("lastPublishDate", rs.getDate("last_publish_date"));
+            stats.put("avgPages", rs.getDouble("avg_pages"));
+            return stats;
+        });
+    }
+
+    public List<Map<String, Object>> getGenreStats() {
+        String sql = "SELECT genre, count() AS book_count, avg(pages_number) AS avg_pages " +
+                "FROM " + BOOKS + " FINAL " +
+                "WHERE deleted = 0 " +
+                "GROUP BY genre " +
+                "ORDER BY book_count DESC";
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("genre", rs.getString("genre"));
+            stats.put("bookCount", rs.getInt("book_count"));
+            stats.put("avgPages", rs.getDouble("avg_pages"));
+            return stats;
+        });
+    }
+
+    public List<Map<String, Object>> getAuthorStatsSummary() {
+        return jdbcTemplate.query(AUTHOR_STATS + " SETTINGS join_use_nulls = 1", (rs, rowNum) -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("authorId", rs.getLong("id"));
+            stats.put("authorName", rs.getString("name"));
+            stats.put("bookCount", rs.getInt("book_count"));
+            return stats;
+        });
+    }
+
+    public Map<String, Object> getCombinedAuthorStats() {
+        Map<String, Object> result = new HashMap<>();
+
+        long authorsCount = jdbcTemplate.queryForObject(
+                "SELECT count() FROM " + AUTHORS + " FINAL WHERE deleted = 0", Long.class);
+        result.put("totalAuthors", (int) authorsCount);
+
+        Map<String, Object> topAuthor = jdbcTemplate.queryForObject(
+                AUTHOR_STATS + " LIMIT 1 SETTINGS join_use_nulls = 1", (rs, rowNum) -> {
+                    Map<String, Object> author = new HashMap<>();
+                    author.put("authorName", rs.getString("name"));
+                    author.put("bookCount", rs.getInt("book_count"));
+                    return author;
+                });
+        result.put("topAuthor", topAuthor);
+
+        /* Книги без автора невозможны (fk_book_author), поэтому среднее - книги на автора */
+        long booksCount = jdbcTemplate.queryForObject(
+                "SELECT count() FROM " + BOOKS + " FINAL WHERE deleted = 0", Long.class);
+        result.put("avgBooksPerAuthor", authorsCount == 0 ? 0.0 : (double) booksCount / authorsCount);
+
+        return result;
+    }
+}
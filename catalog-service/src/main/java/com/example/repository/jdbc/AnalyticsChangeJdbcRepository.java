@@ -0,0 +1,182 @@
+package com.example.repository.jdbc;
+
+import com.example.model.Author;
+import com.example.model.Book;
+import lombok.Getter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений analytics_changes и аренда получателя в analytics_sync.
+ * Методы вызываются внутри транзакций ClickHouseSync.
+ */
+@Repository
+public class AnalyticsChangeJdbcRepository {
+    private static final int STREAM_FETCH_SIZE = 10_000;
+    /* Ключ pg_advisory_xact_lock: переносом занимается один экземпляр сервиса */
+    private static final long SYNC_LOCK = 0x616e616c79746963L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnalyticsChangeJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                Boolean.class, SYNC_LOCK));
+    }
+
+    /**
+     * Продлевает действующую аренду загруженного получателя.
+     *
+     * @return false, если аренды нет, она истекла или данные ещё не загружены
+     */
+    public boolean renewLease(String consumer, Duration lease) {
+        return jdbcTemplate.update("UPDATE analytics_sync SET lease_until = now() + ? * interval '1 millisecond' " +
+                "WHERE consumer = ? AND lease_until > now() AND loaded_at IS NOT NULL",
+                lease.toMillis(), consumer) > 0;
+    }
+
+    /**
+     * Начинает полную загрузку: включает запись журнала и очищает его,
+     * так как загрузка прочитает текущее состояние таблиц.
+     *
+     * @return граница транзакций, начатых до включения журнала (xmax снимка)
+     */
+    public long startLoad(String consumer, Duration lease) {
+        jdbcTemplate.update("INSERT INTO analytics_sync (consumer, lease_until, loaded_at) " +
+                "VALUES (?, now() + ? * interval '1 millisecond', NULL) " +
+                "ON CONFLICT (consumer) DO UPDATE SET lease_until = EXCLUDED.lease_until, loaded_at = NULL",
+                consumer, lease.toMillis());
+        jdbcTemplate.update("DELETE FROM analytics_changes");
+        return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmax(pg_current_snapshot())::text::bigint",
+                Long.class);
+    }
+
+    /**
+     * Завершились ли все транзакции с номером меньше xid.
+     */
+    public boolean isCompletedBefore(long xid) {
+        Long xmin = jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint",
+                Long.class);
+        return xmin != null && xmin >= xid;
+    }
+
+    public boolean isLoaded(String consumer) {
+        Integer loaded = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analytics_sync " +
+                "WHERE consumer = ? AND lease_until > now() AND loaded_at IS NOT NULL", Integer.class, consumer);
+        return loaded != null && loaded > 0;
+    }
+
+    public void markLoaded(String consumer) {
+        jdbcTemplate.update("UPDATE analytics_sync SET loaded_at = now() WHERE consumer = ?", consumer);
+    }
+
+    /**
+     * Версия строк для ReplacingMergeTree: время базы в микросекундах.
+     * Под блокировкой переноса версии растут от пакета к пакету.
+     */
+    public long nextVersion() {
+        return jdbcTemplate.queryForObject("SELECT (EXTRACT(EPOCH FROM clock_timestamp()) * 1000000)::bigint",
+                Long.class);
+    }
+
+    public List<Change> findChanges(int limit) {
+        return jdbcTemplate.query("SELECT id, entity, entity_id FROM analytics_changes ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Change(rs.getLong(1), rs.getString(2), rs.getLong(3)), limit);
+    }
+
+    public void deleteChanges(Collection<Long> ids) {
+        jdbcTemplate.update("DELETE FROM analytics_changes WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    /**
+     * Время самого старого неперенесённого изменения.
+     */
+    public Optional<Instant> oldestChange() {
+        List<Timestamp> oldest = jdbcTemplate.queryForList(
+                "SELECT changed_at FROM analytics_changes ORDER BY id LIMIT 1", Timestamp.class);
+        return oldest.stream().findFirst().map(Timestamp::toInstant);
+    }
+
+    /**
+     * Книги с колонками, нужными для статистики. Удалённые книги в результат не попадают.
+     */
+    public List<Book> findBooks(Collection<Long> ids) {
+        return jdbcTemplate.query("SELECT id, genre, pages_number, publishing_date, author_id FROM books " +
+                        "WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (rs, rowNum) -> mapBook(rs));
+    }
+
+    public List<Book> findBooksByAuthorIds(Collection<Long> authorIds) {
+        return jdbcTemplate.query("SELECT id, genre, pages_number, publishing_date, author_id FROM books " +
+                        "WHERE author_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", authorIds.toArray())),
+                (rs, rowNum) -> mapBook(rs));
+    }
+
+    public List<Author> findAuthors(Collection<Long> ids) {
+        return jdbcTemplate.query("SELECT id, name FROM authors WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (rs, rowNum) -> {
+                    Author author = new Author();
+                    author.setId(rs.getLong(1));
+                    author.setName(rs.getString(2));
+                    return author;
+                });
+    }
+
+    /**
+     * Потоково читает все книги для полной загрузки. Как и BookJdbcRepository.forEachTitle,
+     * вызывается внутри транзакции, иначе драйвер Postgres игнорирует fetchSize.
+     */
+    public void forEachBook(Consumer<Book> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, genre, pages_number, publishing_date, author_id FROM books");
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapBook(rs)));
+    }
+
+    private static Book mapBook(ResultSet rs) throws SQLException {
+        Book book = new Book();
+        book.setId(rs.getLong(1));
+        book.setGenre(rs.getString(2));
+        book.setPagesNumber(rs.getInt(3));
+        book.setPublishingDate(rs.getObject(4, LocalDate.class));
+        Author author = new Author();
+        author.setId(rs.getLong(5));
+        book.setAuthor(author);
+        return book;
+    }
+
+    @Getter
+    public static final class Change {
+        private final long id;
+        private final String entity;
+        private final long entityId;
+
+        private Change(long id, String entity, long entityId) {
+            this.id = id;
+            this.entity = entity;
+            this.entityId = entityId;
+        }
+    }
+}
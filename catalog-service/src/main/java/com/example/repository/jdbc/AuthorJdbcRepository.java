@@ -2,52 +2,81 @@ package com.example.repository.jdbc;
 
 import com.example.model.Author;
 import com.example.model.Book;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import com.example.pagination.AuthorSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.repository.AuthorRepository;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * JDBC репозиторий для работы с авторами.
  * Реализует базовые CRUD операции и специализированные запросы.
  */
 @Repository
-public class AuthorJdbcRepository {
+public class AuthorJdbcRepository implements AuthorRepository {
+    private static final int STREAM_FETCH_SIZE = 10_000;
+
     private final JdbcTemplate jdbcTemplate;
     private final BookRowMapper bookRowMapper;
+    private final PageCounter pageCounter;
+    private final AuthorRowMapper authorRowMapper = new AuthorRowMapper();
 
-    public AuthorJdbcRepository(JdbcTemplate jdbcTemplate, BookRowMapper bookRowMapper) {
+    public AuthorJdbcRepository(JdbcTemplate jdbcTemplate, BookRowMapper bookRowMapper, PageCounter pageCounter) {
         this.jdbcTemplate = jdbcTemplate;
         this.bookRowMapper = bookRowMapper;
+        this.pageCounter = pageCounter;
     }
 
-    private static final class AuthorRowMapper implements RowMapper<Author> {
+    private static final class AuthorRowMapper extends ColumnIndexRowMapper<Author> {
+        private static final int ID = 0;
+        private static final int NAME = 1;
+        private static final int BIRTH_DATE = 2;
+        private static final int LOCATION = 3;
+        private static final int BIO = 4;
+
+        private AuthorRowMapper() {
+            super("id", "name", "birth_date", "location", "bio");
+        }
+
         @Override
-        public Author mapRow(ResultSet rs, int rowNum) throws SQLException {
+        protected Author mapRow(ResultSet rs, int[] columns) throws SQLException {
             Author author = new Author();
-            author.setId(rs.getLong("id"));
-            author.setName(rs.getString("name"));
-            author.setBirthDate(rs.getObject("birth_date", LocalDate.class));
-            author.setLocation(rs.getString("location"));
-            author.setBio(rs.getString("bio"));
+            author.setId(rs.getLong(columns[ID]));
+            author.setName(rs.getString(columns[NAME]));
+            author.setBirthDate(rs.getObject(columns[BIRTH_DATE], LocalDate.class));
+            author.setLocation(rs.getString(columns[LOCATION]));
+            author.setBio(rs.getString(columns[BIO]));
             return author;
         }
     }
 
-    public void save(Author author) {
+    /**
+     * @return false, если обновляемый автор не найден
+     */
+    public boolean save(Author author) {
         if (author.getId() == null) {
             insert(author);
-        } else {
-            update(author);
+            return true;
         }
+        return update(author);
     }
 
     private void insert(Author author) {
@@ -61,22 +90,26 @@ public class AuthorJdbcRepository {
         author.setId(id);
     }
 
-    private void update(Author author) {
+    private boolean update(Author author) {
         String sql = "UPDATE authors SET name = ?, birth_date = ?, location = ?, bio = ? " +
-                "WHERE id = ?";
-        jdbcTemplate.update(sql,
+                "WHERE id = ? RETURNING id";
+        List<Long> ids = jdbcTemplate.queryForList(sql, Long.class,
                 author.getName(),
                 author.getBirthDate(),
                 author.getLocation(),
                 author.getBio(),
                 author.getId());
+        return !ids.isEmpty();
     }
 
-    public void deleteById(Long id) {
-        jdbcTemplate.update("DELETE FROM authors WHERE id = ?", id);
+    /**
+     * @return false, если автор не найден
+     */
+    public boolean deleteById(long id) {
+        return !jdbcTemplate.queryForList("DELETE FROM authors WHERE id = ? RETURNING id", Long.class, id).isEmpty();
     }
 
-    public boolean existsById(Long id) {
+    public boolean existsById(long id) {
         Integer count = jdbcTemplate.queryForObject(
                 "SELECT COUNT(*) FROM authors WHERE id = ?",
                 Integer.class,
@@ -85,15 +118,15 @@ public class AuthorJdbcRepository {
         return count != null && count > 0;
     }
 
-    public Optional<Author> findById(Long id) {
+    public Optional<Author> findById(long id) {
         try {
             Author author = jdbcTemplate.queryForObject(
                     "SELECT * FROM authors WHERE id = ?",
-                    new AuthorRowMapper(),
+                    authorRowMapper.forQuery(),
                     id
             );
             if (author != null) {
-                loadAuthorBooks(author);
+                loadBooks(List.of(author));
             }
             return Optional.ofNullable(author);
         } catch (Exception e) {
@@ -101,142 +134,203 @@ public class AuthorJdbcRepository {
         }
     }
 
-    public Page<Author> findByNameContainingIgnoreCase(String name, Pageable pageable) {
+    public Optional<String> findNameById(long id) {
+        return jdbcTemplate.queryForList("SELECT name FROM authors WHERE id = ?", String.class, id).stream()
+                .findFirst();
+    }
+
+    /**
+     * Потоково читает id и имена всех авторов для построения поискового индекса.
+     */
+    public void forEachName(Consumer<Author> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, name FROM authors ORDER BY id");
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Author author = new Author();
+            author.setId(rs.getLong(1));
+            author.setName(rs.getString(2));
+            consumer.accept(author);
+        });
+    }
+
+    /*
+     * Постраничные методы выбирают pageSize + 1 строк, а общее количество
+     * вычисляет PageCounter по переданному countMode.
+     */
+    public Slice<Author> findByNameContainingIgnoreCase(String name, Pageable pageable, CountMode countMode) {
         String sql = "SELECT * FROM authors WHERE LOWER(name) LIKE LOWER(?) " +
                 "LIMIT ? OFFSET ?";
-        List<Author> authors = jdbcTemplate.query(sql, new AuthorRowMapper(),
-                "%" + name + "%",
-                pageable.getPageSize(),
+        List<Author> authors = jdbcTemplate.query(sql, authorRowMapper.forQuery(),
+                LikePattern.containing(name),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        authors.forEach(this::loadAuthorBooks);
-
-        String countSql = "SELECT COUNT(*) FROM authors WHERE LOWER(name) LIKE LOWER(?)";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, "%" + name + "%");
-
-        return new PageImpl<>(authors, pageable, total);
+        return pageCounter.slice(authors, pageable, countMode,
+                "authors", "LOWER(name) LIKE LOWER(?)", LikePattern.containing(name));
     }
 
-    public Page<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable) {
+    public Slice<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable,
+                                                CountMode countMode) {
         String sql = "SELECT * FROM authors WHERE birth_date BETWEEN ? AND ? " +
                 "LIMIT ? OFFSET ?";
-        List<Author> authors = jdbcTemplate.query(sql, new AuthorRowMapper(),
+        List<Author> authors = jdbcTemplate.query(sql, authorRowMapper.forQuery(),
                 lowBound,
                 highBound,
-                pageable.getPageSize(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        authors.forEach(this::loadAuthorBooks);
-
-        String countSql = "SELECT COUNT(*) FROM authors WHERE birth_date BETWEEN ? AND ?";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, lowBound, highBound);
-
-        return new PageImpl<>(authors, pageable, total);
+        return pageCounter.slice(authors, pageable, countMode,
+                "authors", "birth_date BETWEEN ? AND ?", lowBound, highBound);
     }
 
-    public Page<Author> findByLocation(String location, Pageable pageable) {
+    public Slice<Author> findByLocation(String location, Pageable pageable, CountMode countMode) {
         String sql = "SELECT * FROM authors WHERE location = ? " +
                 "LIMIT ? OFFSET ?";
-        List<Author> authors = jdbcTemplate.query(sql, new AuthorRowMapper(),
+        List<Author> authors = jdbcTemplate.query(sql, authorRowMapper.forQuery(),
                 location,
-                pageable.getPageSize(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        authors.forEach(this::loadAuthorBooks);
-
-        String countSql = "SELECT COUNT(*) FROM authors WHERE location = ?";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, location
-        );
-        return new PageImpl<>(authors, pageable, total);
+        return pageCounter.slice(authors, pageable, countMode, "authors", "location = ?", location);
     }
 
-    public Page<Author> findByBookGenre(String genre, Pageable pageable) {
-        String sql = "SELECT DISTINCT a.* FROM authors a JOIN books b ON a.id = b.author_id " +
-                "WHERE b.genre = ? LIMIT ? OFFSET ?";
-        List<Author> authors = jdbcTemplate.query(sql, new AuthorRowMapper(),
+    public Slice<Author> findByBookGenre(String genre, Pageable pageable, CountMode countMode) {
+        String condition = "EXISTS (SELECT 1 FROM books b WHERE b.author_id = a.id AND b.genre = ?)";
+        String sql = "SELECT a.* FROM authors a WHERE " + condition + " LIMIT ? OFFSET ?";
+        List<Author> authors = jdbcTemplate.query(sql, authorRowMapper.forQuery(),
                 genre,
-                pageable.getPageSize(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        authors.forEach(this::loadAuthorBooks);
+        return pageCounter.slice(authors, pageable, countMode, "authors a", condition, genre);
+    }
 
-        String countSql = "SELECT COUNT(DISTINCT a.id) FROM authors a JOIN books b ON a.id = b.author_id "
-                + "WHERE b.genre = ?";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, genre);
+    public Slice<Author> findAllByOrderByNameAsc(Pageable pageable, CountMode countMode) {
+        return findAllWithOrder("name ASC", pageable, countMode);
+    }
 
-        return new PageImpl<>(authors, pageable, total);
+    public Slice<Author> findAllByOrderByNameDesc(Pageable pageable, CountMode countMode) {
+        return findAllWithOrder("name DESC", pageable, countMode);
     }
 
-    public Page<Author> findAllByOrderByNameAsc(Pageable pageable) {
-        return findAllWithOrder("name ASC", pageable);
+    public Slice<Author> findAllByOrderByBirthDateAsc(Pageable pageable, CountMode countMode) {
+        return findAllWithOrder("birth_date ASC", pageable, countMode);
     }
 
-    public Page<Author> findAllByOrderByNameDesc(Pageable pageable) {
-        return findAllWithOrder("name DESC", pageable);
+    public Slice<Author> findAllByOrderByBirthDateDesc(Pageable pageable, CountMode countMode) {
+        return findAllWithOrder("birth_date DESC", pageable, countMode);
     }
 
-    public Page<Author> findAllByOrderByBirthDateAsc(Pageable pageable) {
-        return findAllWithOrder("birth_date ASC", pageable);
+    public Slice<Author> findAllOrderByBooksCountAsc(Pageable pageable, CountMode countMode) {
+        return findAllOrderByBooksCount("ASC", pageable, countMode);
     }
 
-    public Page<Author> findAllByOrderByBirthDateDesc(Pageable pageable) {
-        return findAllWithOrder("birth_date DESC", pageable);
+    public Slice<Author> findAllOrderByBooksCountDesc(Pageable pageable, CountMode countMode) {
+        return findAllOrderByBooksCount("DESC", pageable, countMode);
     }
 
-    public Page<Author> findAllOrderByBooksCountAsc(Pageable pageable) {
+    private Slice<Author> findAllOrderByBooksCount(String direction, Pageable pageable, CountMode countMode) {
         String sql = "SELECT a.*, COUNT(b.id) as book_count FROM authors a " +
                 "LEFT JOIN books b ON a.id = b.author_id " +
-                "GROUP BY a.id ORDER BY book_count ASC " +
+                "GROUP BY a.id ORDER BY book_count " + direction + " " +
                 "LIMIT ? OFFSET ?";
 
-        List<Author> authors = jdbcTemplate.query(sql, new AuthorRowMapper(),
-                pageable.getPageSize(),
+        List<Author> authors = jdbcTemplate.query(sql, authorRowMapper.forQuery(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        authors.forEach(this::loadAuthorBooks);
+        return pageCounter.slice(authors, pageable, countMode, "authors", null);
+    }
 
-        int total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM authors",
-                Integer.class);
+    private Slice<Author> findAllWithOrder(String orderClause, Pageable pageable, CountMode countMode) {
+        String sql = "SELECT * FROM authors ORDER BY " + orderClause + " LIMIT ? OFFSET ?";
+        List<Author> authors = jdbcTemplate.query(sql, authorRowMapper.forQuery(),
+                pageable.getPageSize() + 1,
+                pageable.getOffset());
 
-        return new PageImpl<>(authors, pageable, total);
+        return pageCounter.slice(authors, pageable, countMode, "authors", null);
     }
 
-    public Page<Author> findAllOrderByBooksCountDesc(Pageable pageable) {
-        String sql = "SELECT a.*, COUNT(b.id) as book_count FROM authors a " +
-                "LEFT JOIN books b ON a.id = b.author_id " +
-                "GROUP BY a.id ORDER BY book_count DESC " +
-                "LIMIT ? OFFSET ?";
-
-        List<Author> authors = jdbcTemplate.query(sql, new AuthorRowMapper(),
-                pageable.getPageSize(),
-                pageable.getOffset());
+    public KeysetPage<Author> findAll(AuthorSortKey sortKey, boolean descending, KeysetCursor cursor, int limit) {
+        return seek("TRUE", List.of(), sortKey, descending, cursor, limit);
+    }
 
-        authors.forEach(this::loadAuthorBooks);
+    public KeysetPage<Author> findByNameContainingIgnoreCase(String name, KeysetCursor cursor, int limit) {
+        return seek("LOWER(a.name) LIKE LOWER(?)", List.of(LikePattern.containing(name)),
+                AuthorSortKey.NAME, false, cursor, limit);
+    }
 
-        int total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM authors", Integer.class);
+    public KeysetPage<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                     KeysetCursor cursor, int limit) {
+        return seek("a.birth_date BETWEEN ? AND ?", List.of(lowBound, highBound),
+                AuthorSortKey.BIRTH_DATE, false, cursor, limit);
+    }
 
-        return new PageImpl<>(authors, pageable, total);
+    public KeysetPage<Author> findByLocation(String location, KeysetCursor cursor, int limit) {
+        return seek("a.location = ?", List.of(location), AuthorSortKey.ID, false, cursor, limit);
     }
 
-    private Page<Author> findAllWithOrder(String orderClause, Pageable pageable) {
-        String sql = "SELECT * FROM authors ORDER BY " + orderClause + " LIMIT ? OFFSET ?";
-        List<Author> authors = jdbcTemplate.query(sql, new AuthorRowMapper(),
-                pageable.getPageSize(),
-                pageable.getOffset());
+    public KeysetPage<Author> findByBookGenre(String genre, KeysetCursor cursor, int limit) {
+        return seek("EXISTS (SELECT 1 FROM books b WHERE b.author_id = a.id AND b.genre = ?)", List.of(genre),
+                AuthorSortKey.ID, false, cursor, limit);
+    }
 
-        authors.forEach(this::loadAuthorBooks);
+    /**
+     * Keyset-выборка авторов, аналогичная BookJdbcRepository: позиция курсора
+     * задаётся условием по индексируемой колонке и парой (колонка, id).
+     */
+    private KeysetPage<Author> seek(String condition, List<Object> args, AuthorSortKey sortKey, boolean descending,
+                                    KeysetCursor cursor, int limit) {
+        String column = "a." + sortKey.getColumn();
+        String direction = descending ? " DESC" : " ASC";
+        List<Object> params = new ArrayList<>(args);
+
+        StringBuilder sql = new StringBuilder("SELECT a.* FROM authors a WHERE ").append(condition);
+        if (cursor != null) {
+            if (sortKey == AuthorSortKey.ID) {
+                sql.append(" AND a.id").append(descending ? " < ?" : " > ?");
+            } else {
+                Object value = sortKey.parse(cursor.getValue());
+                sql.append(" AND ").append(column).append(descending ? " <= ?" : " >= ?")
+                        .append(" AND (").append(column).append(", a.id)").append(descending ? " < (?, ?)" : " > (?, ?)");
+                params.add(value);
+                params.add(value);
+            }
+            params.add(cursor.getId());
+        }
+        sql.append(" ORDER BY ").append(column).append(direction);
+        if (sortKey != AuthorSortKey.ID) {
+            sql.append(", a.id").append(direction);
+        }
+        sql.append(" LIMIT ?");
+        params.add(limit + 1);
 
-        int total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM authors", Integer.class);
+        List<Author> authors = jdbcTemplate.query(sql.toString(), authorRowMapper.forQuery(), params.toArray());
+        return KeysetPage.of(authors, limit, sortKey, descending);
+    }
 
-        return new PageImpl<>(authors, pageable, total);
+    /**
+     * Загружает книги для страницы авторов одним запросом author_id = ANY(?)
+     * и раскладывает их по авторам.
+     */
+    public void loadBooks(Collection<Author> authors) {
+        if (authors.isEmpty()) {
+            return;
+        }
+        Long[] ids = authors.stream().map(Author::getId).toArray(Long[]::new);
+        Map<Long, List<Book>> booksByAuthor = new HashMap<>();
+        RowMapper<Book> mapper = bookRowMapper.forQuery();
+        jdbcTemplate.query("SELECT * FROM books WHERE author_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                (RowCallbackHandler) rs -> booksByAuthor
+                        .computeIfAbsent(rs.getLong("author_id"), id -> new ArrayList<>())
+                        .add(mapper.mapRow(rs, rs.getRow())));
+        authors.forEach(author -> author.setBooks(booksByAuthor.getOrDefault(author.getId(), new ArrayList<>())));
     }
 
-    private void loadAuthorBooks(Author author) {
-        List<Book> books = jdbcTemplate.query(
-                "SELECT * FROM books WHERE author_id = ?",
-                bookRowMapper,
-                author.getId()
-        );
-        author.setBooks(books);
+    public void clearBooks(Collection<Author> authors) {
+        authors.forEach(author -> author.setBooks(null));
     }
 }
\ No newline at end of file
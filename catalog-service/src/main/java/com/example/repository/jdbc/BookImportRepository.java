@@ -0,0 +1,174 @@
+package com.example.repository.jdbc;
+
+import com.example.dto.BookImportRow;
+import com.example.model.Author;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Массовая загрузка книг: строки копируются через COPY во временную таблицу
+ * и сливаются с books одним INSERT ... ON CONFLICT по uk_book_title_author.
+ * Методы должны вызываться внутри транзакции: временная таблица удаляется при её фиксации.
+ */
+@Repository
+public class BookImportRepository {
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE book_import (" +
+            "row_number bigint, title varchar(255), genre varchar(255), pages_number int, " +
+            "publishing_date date, description text, author_id bigint) ON COMMIT DROP";
+
+    private static final String COPY_STAGING = "COPY book_import " +
+            "(row_number, title, genre, pages_number, publishing_date, description, author_id) " +
+            "FROM STDIN (FORMAT csv)";
+
+    // Сервис отклоняет повторы книги в порции заранее, DISTINCT ON лишь защищает ON CONFLICT от двойного изменения
+    private static final String MERGE = "INSERT INTO books " +
+            "(title, genre, pages_number, publishing_date, description, author_id) " +
+            "SELECT DISTINCT ON (title, author_id) " +
+            "title, genre, pages_number, publishing_date, description, author_id " +
+            "FROM book_import ORDER BY title, author_id, row_number DESC " +
+            "ON CONFLICT ON CONSTRAINT uk_book_title_author DO UPDATE SET " +
+            "genre = EXCLUDED.genre, pages_number = EXCLUDED.pages_number, " +
+            "publishing_date = EXCLUDED.publishing_date, description = EXCLUDED.description " +
+            "WHERE (books.genre, books.pages_number, books.publishing_date, books.description) " +
+            "IS DISTINCT FROM (EXCLUDED.genre, EXCLUDED.pages_number, EXCLUDED.publishing_date, " +
+            "EXCLUDED.description) " +
+            "RETURNING id, title, genre, pages_number, publishing_date, author_id, (xmax = 0) AS inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Книга, вставленная или изменённая слиянием. Книги без изменений не возвращаются.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class MergedBook {
+        private final long id;
+        private final String title;
+        private final String genre;
+        private final int pagesNumber;
+        private final LocalDate publishingDate;
+        private final long authorId;
+        private final boolean inserted;
+    }
+
+    /**
+     * @param rows строки с уже определённым authorId
+     */
+    public List<MergedBook> merge(List<BookImportRow> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (BookImportRow row : rows) {
+            csv.append(row.getRowNumber()).append(',');
+            appendQuoted(csv, row.getTitle()).append(',');
+            appendQuoted(csv, row.getGenre()).append(',');
+            csv.append(row.getPagesNumber()).append(',');
+            csv.append(row.getPublishingDate()).append(',');
+            if (row.getDescription() != null) {
+                appendQuoted(csv, row.getDescription());
+            }
+            csv.append(',').append(row.getAuthorId()).append('\n');
+        }
+
+        jdbcTemplate.execute(CREATE_STAGING);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_STAGING, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into book_import failed", e);
+            }
+        });
+        return jdbcTemplate.query(MERGE, (rs, rowNum) -> new MergedBook(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getString("genre"),
+                rs.getInt("pages_number"),
+                rs.getObject("publishing_date", LocalDate.class),
+                rs.getLong("author_id"),
+                rs.getBoolean("inserted")));
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    public Set<Long> findExistingAuthorIds(Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        jdbcTemplate.query("SELECT id FROM authors WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (RowCallbackHandler) rs -> existing.add(rs.getLong("id")));
+        return existing;
+    }
+
+    /**
+     * Имя автора не уникально, при совпадении берётся автор с наименьшим id.
+     */
+    public Map<String, Long> findAuthorIdsByNames(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT DISTINCT ON (name) name, id FROM authors " +
+                        "WHERE name = ANY(?) ORDER BY name, id",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", names.toArray())),
+                (RowCallbackHandler) rs -> ids.put(rs.getString("name"), rs.getLong("id")));
+        return ids;
+    }
+
+    /**
+     * Создаёт авторов одним запросом и проставляет им id. Имена в списке должны быть различны.
+     */
+    public void insertAuthors(List<Author> authors) {
+        int size = authors.size();
+        String[] names = new String[size];
+        Date[] birthDates = new Date[size];
+        String[] locations = new String[size];
+        String[] bios = new String[size];
+        for (int i = 0; i < size; i++) {
+            Author author = authors.get(i);
+            names[i] = author.getName();
+            birthDates[i] = Date.valueOf(author.getBirthDate());
+            locations[i] = author.getLocation();
+            bios[i] = author.getBio();
+        }
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("INSERT INTO authors (name, birth_date, location, bio) " +
+                        "SELECT * FROM unnest(?::varchar[], ?::date[], ?::varchar[], ?::text[]) " +
+                        "RETURNING id, name",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("varchar", names));
+                    ps.setArray(2, ps.getConnection().createArrayOf("date", birthDates));
+                    ps.setArray(3, ps.getConnection().createArrayOf("varchar", locations));
+                    ps.setArray(4, ps.getConnection().createArrayOf("text", bios));
+                },
+                (RowCallbackHandler) rs -> ids.put(rs.getString("name"), rs.getLong("id")));
+        for (Author author : authors) {
+            author.setId(ids.get(author.getName()));
+        }
+    }
+}
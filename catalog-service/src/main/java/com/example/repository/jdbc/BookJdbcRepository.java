@@ -1,41 +1,80 @@
 package com.example.repository.jdbc;
 
+import com.example.dto.BookExportFilter;
+import com.example.model.Author;
 import com.example.model.Book;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import com.example.pagination.BookSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.projection.BookFields;
+import com.example.repository.BookRepository;
+import com.example.search.BookSearchQuery;
+import com.example.search.BookSearchRepository;
+import com.example.search.BookSearchSql;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * JDBC репозиторий для работы с книгами.
  * Реализует CRUD операции и специализированные запросы для книг.
  */
 @Repository
-public class BookJdbcRepository {
+public class BookJdbcRepository implements BookRepository {
+    private static final int STREAM_FETCH_SIZE = 10_000;
+
+    /* Условия фильтров по жанру, объёму и дате, общие для keyset-выборок и выгрузки */
+    private static final String GENRE_CONDITION = "b.genre = ?";
+    private static final String PAGES_CONDITION = "b.pages_number BETWEEN ? AND ?";
+    private static final String PUBLISHING_DATE_CONDITION = "b.publishing_date BETWEEN ? AND ?";
+
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final BookRowMapper bookRowMapper;
     private final BookWithAuthorRowMapper bookWithAuthorRowMapper;
+    private final PageCounter pageCounter;
 
-    public BookJdbcRepository(JdbcTemplate jdbcTemplate,
-                              BookRowMapper bookRowMapper, BookWithAuthorRowMapper bookWithAuthorRowMapper) {
+    public BookJdbcRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                              BookRowMapper bookRowMapper, BookWithAuthorRowMapper bookWithAuthorRowMapper,
+                              PageCounter pageCounter) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
         this.bookRowMapper = bookRowMapper;
         this.bookWithAuthorRowMapper = bookWithAuthorRowMapper;
+        this.pageCounter = pageCounter;
     }
 
-    public void save(Book book) {
+    /**
+     * Сохраняет книгу за один запрос.
+     * Существование автора проверяется внешним ключом fk_book_author.
+     *
+     * @return false, если обновляемая книга не найдена
+     */
+    public boolean save(Book book) {
         if (book.getId() == null) {
             insert(book);
-        } else {
-            update(book);
+            return true;
         }
+        return update(book);
     }
 
     private void insert(Book book) {
@@ -51,11 +90,11 @@ public class BookJdbcRepository {
         book.setId(id);
     }
 
-    private void update(Book book) {
+    private boolean update(Book book) {
         String sql = "UPDATE books SET title = ?, genre = ?, pages_number = ?, " +
                 "publishing_date = ?, description = ?, author_id = ? " +
-                "WHERE id = ?";
-        jdbcTemplate.update(sql,
+                "WHERE id = ? RETURNING id";
+        List<Long> ids = jdbcTemplate.queryForList(sql, Long.class,
                 book.getTitle(),
                 book.getGenre(),
                 book.getPagesNumber(),
@@ -63,161 +102,374 @@ public class BookJdbcRepository {
                 book.getDescription(),
                 book.getAuthor().getId(),
                 book.getId());
+        return !ids.isEmpty();
     }
 
-    public void deleteById(Long id) {
-        String sql = "DELETE FROM books WHERE id = ?";
-        jdbcTemplate.update(sql, id);
+    /**
+     * @return false, если книга не найдена
+     */
+    public boolean deleteById(long id) {
+        String sql = "DELETE FROM books WHERE id = ? RETURNING id";
+        return !jdbcTemplate.queryForList(sql, Long.class, id).isEmpty();
     }
 
-    public boolean existsById(Long id) {
-        String sql = "SELECT COUNT(*) FROM books WHERE id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, id);
-        return count != null && count > 0;
+    public boolean existsById(long id) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM books WHERE id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
     }
 
-    public Page<Book> findAll(Pageable pageable) {
-        String sql = "SELECT b.* FROM books b LIMIT ? OFFSET ?";
-        List<Book> books = jdbcTemplate.query(sql, bookRowMapper,
-                pageable.getPageSize(),
+    /*
+     * Постраничные методы выбирают pageSize + 1 строк, а общее количество
+     * вычисляет PageCounter по переданному countMode.
+     */
+    public Slice<Book> findAll(Pageable pageable, CountMode countMode, BookFields fields) {
+        String sql = "SELECT " + fields.columns("b") + " FROM books b LIMIT ? OFFSET ?";
+        List<Book> books = jdbcTemplate.query(sql, bookRowMapper.forQuery(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        String countSql = "SELECT COUNT(*) FROM books";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class);
-
-        return new PageImpl<>(books, pageable, total);
+        return pageCounter.slice(books, pageable, countMode, "books", null);
     }
 
-    public Optional<Book> findById(Long id) {
+    public Optional<Book> findById(long id) {
         String sql = "SELECT b.*, a.id as author_id, a.name as author_name, " +
                 "a.birth_date as author_birth_date, a.location as author_location, " +
                 "a.bio as author_bio FROM books b JOIN authors a ON b.author_id = a.id " +
                 "WHERE b.id = ?";
         try {
-            Book book = jdbcTemplate.queryForObject(sql, bookWithAuthorRowMapper, id);
+            Book book = jdbcTemplate.queryForObject(sql, bookWithAuthorRowMapper.forQuery(), id);
             return Optional.ofNullable(book);
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
-    public Page<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable) {
-        String sql = "SELECT b.* FROM books b WHERE LOWER(title) LIKE LOWER(?) " +
-                "LIMIT ? OFFSET ?";
-        List<Book> books = jdbcTemplate.query(sql, bookRowMapper,
-                "%" + title + "%",
-                pageable.getPageSize(),
-                pageable.getOffset());
+    /**
+     * Загружает книги одним запросом id = ANY(?) в порядке переданных идентификаторов.
+     */
+    public List<Book> findAllById(List<Long> ids, BookFields fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = new HashMap<>();
+        RowMapper<Book> mapper = bookRowMapper.forQuery();
+        jdbcTemplate.query("SELECT " + fields.withColumn("id").columns("b") + " FROM books b WHERE b.id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (RowCallbackHandler) rs -> {
+                    Book book = mapper.mapRow(rs, rs.getRow());
+                    booksById.put(book.getId(), book);
+                });
+        return ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Книги с авторами одним JOIN с b.id = ANY(?) в порядке переданных идентификаторов.
+     */
+    public List<Book> findAllWithAuthorById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT b.*, a.id as author_id, a.name as author_name, " +
+                "a.birth_date as author_birth_date, a.location as author_location, " +
+                "a.bio as author_bio FROM books b JOIN authors a ON b.author_id = a.id " +
+                "WHERE b.id = ANY(?)";
+        Map<Long, Book> booksById = new HashMap<>();
+        RowMapper<Book> mapper = bookWithAuthorRowMapper.forQuery();
+        jdbcTemplate.query(sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (RowCallbackHandler) rs -> {
+                    Book book = mapper.mapRow(rs, rs.getRow());
+                    booksById.put(book.getId(), book);
+                });
+        return ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
+    }
 
-        String countSql = "SELECT COUNT(*) FROM books WHERE LOWER(title) LIKE LOWER(?)";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, "%" + title + "%");
+    public List<Long> findIdsAfter(long afterId, int limit) {
+        String sql = "SELECT id FROM books WHERE id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.queryForList(sql, Long.class, afterId, limit);
+    }
+
+    /**
+     * Потоково читает id, название и автора всех книг для построения поискового индекса.
+     * Postgres отдаёт строки порциями только внутри транзакции. Колонки читаются по позиции в SELECT.
+     */
+    public void forEachTitle(Consumer<Book> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, title, author_id FROM books ORDER BY id");
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapTitle(rs)));
+    }
+
+    /**
+     * id, название и автор книг указанных авторов для обновления поискового индекса.
+     */
+    public List<Book> findTitlesByAuthorIds(Collection<Long> authorIds) {
+        return jdbcTemplate.query("SELECT id, title, author_id FROM books WHERE author_id = ANY(?) ORDER BY id",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", authorIds.toArray())),
+                (rs, rowNum) -> mapTitle(rs));
+    }
+
+    public Optional<Book> findTitleById(long id) {
+        return jdbcTemplate.query("SELECT id, title, author_id FROM books WHERE id = ?",
+                (rs, rowNum) -> mapTitle(rs), id).stream().findFirst();
+    }
 
-        return new PageImpl<>(books, pageable, total);
+    private static Book mapTitle(ResultSet rs) throws SQLException {
+        Book book = new Book();
+        book.setId(rs.getLong(1));
+        book.setTitle(rs.getString(2));
+        Author author = new Author();
+        author.setId(rs.getLong(3));
+        book.setAuthor(author);
+        return book;
+    }
+
+    /**
+     * Потоковая выборка книг с именем автора для выгрузки каталога.
+     * Как и forEachTitle, вызывается внутри транзакции: иначе драйвер Postgres
+     * игнорирует fetchSize и загружает весь результат в память.
+     * Строки идут в порядке таблицы без сортировки, чтобы первые из них приходили сразу.
+     * Колонки читаются по позиции в SELECT.
+     */
+    public void forEachBook(BookExportFilter filter, Consumer<Book> consumer) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (filter.getGenre() != null) {
+            conditions.add(GENRE_CONDITION);
+            params.add(filter.getGenre());
+        }
+        if (filter.getMin() != null) {
+            conditions.add(PAGES_CONDITION);
+            params.add(filter.getMin());
+            params.add(filter.getMax());
+        }
+        if (filter.getStart() != null) {
+            conditions.add(PUBLISHING_DATE_CONDITION);
+            params.add(filter.getStart());
+            params.add(filter.getEnd());
+        }
+        String sql = "SELECT b.id, b.title, b.genre, b.pages_number, b.publishing_date, b.description, " +
+                "b.author_id, a.name AS author_name FROM books b JOIN authors a ON a.id = b.author_id" +
+                (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions));
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Book book = new Book();
+            book.setId(rs.getLong(1));
+            book.setTitle(rs.getString(2));
+            book.setGenre(rs.getString(3));
+            book.setPagesNumber(rs.getInt(4));
+            book.setPublishingDate(rs.getObject(5, LocalDate.class));
+            book.setDescription(rs.getString(6));
+            Author author = new Author();
+            author.setId(rs.getLong(7));
+            author.setName(rs.getString(8));
+            book.setAuthor(author);
+            consumer.accept(book);
+        });
     }
 
-    public Page<Book> findByGenre(String genre, Pageable pageable) {
-        String sql = "SELECT b.* FROM books b WHERE genre = ? " +
+    public Slice<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable, CountMode countMode,
+                                                       BookFields fields) {
+        String sql = "SELECT " + fields.columns("b") + " FROM books b WHERE LOWER(title) LIKE LOWER(?) " +
+                "ORDER BY b.id LIMIT ? OFFSET ?";
+        List<Book> books = jdbcTemplate.query(sql, bookRowMapper.forQuery(),
+                LikePattern.containing(title),
+                pageable.getPageSize() + 1,
+                pageable.getOffset());
+
+        return pageCounter.slice(books, pageable, countMode, "books", "LOWER(title) LIKE LOWER(?)",
+                LikePattern.containing(title));
+    }
+
+    public Slice<Book> findByGenre(String genre, Pageable pageable, CountMode countMode, BookFields fields) {
+        String sql = "SELECT " + fields.columns("b") + " FROM books b WHERE genre = ? " +
                 "LIMIT ? OFFSET ?";
-        List<Book> books = jdbcTemplate.query(sql, bookRowMapper,
+        List<Book> books = jdbcTemplate.query(sql, bookRowMapper.forQuery(),
                 genre,
-                pageable.getPageSize(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        String countSql = "SELECT COUNT(*) FROM books WHERE genre = ?";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, genre);
-
-        return new PageImpl<>(books, pageable, total);
+        return pageCounter.slice(books, pageable, countMode, "books", "genre = ?", genre);
     }
 
-    public Page<Book> findByPagesNumberBetween(int minPages, int maxPages, Pageable pageable) {
-        String sql = "SELECT b.* FROM books b WHERE pages_number BETWEEN ? AND ? " +
+    public Slice<Book> findByPagesNumberBetween(int minPages, int maxPages, Pageable pageable, CountMode countMode,
+                                                BookFields fields) {
+        String sql = "SELECT " + fields.columns("b") + " FROM books b WHERE pages_number BETWEEN ? AND ? " +
                 "LIMIT ? OFFSET ?";
-        List<Book> books = jdbcTemplate.query(sql, bookRowMapper,
+        List<Book> books = jdbcTemplate.query(sql, bookRowMapper.forQuery(),
                 minPages,
                 maxPages,
-                pageable.getPageSize(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        String countSql = "SELECT COUNT(*) FROM books WHERE pages_number BETWEEN ? AND ?";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, minPages, maxPages);
-
-        return new PageImpl<>(books, pageable, total);
+        return pageCounter.slice(books, pageable, countMode,
+                "books", "pages_number BETWEEN ? AND ?", minPages, maxPages);
     }
 
-    public Page<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable) {
-        String sql = "SELECT b.* FROM books b WHERE publishing_date BETWEEN ? AND ? " +
+    public Slice<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable,
+                                                   CountMode countMode, BookFields fields) {
+        String sql = "SELECT " + fields.columns("b") + " FROM books b WHERE publishing_date BETWEEN ? AND ? " +
                 "LIMIT ? OFFSET ?";
-        List<Book> books = jdbcTemplate.query(sql, bookRowMapper,
+        List<Book> books = jdbcTemplate.query(sql, bookRowMapper.forQuery(),
                 lowBound,
                 highBound,
-                pageable.getPageSize(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        String countSql = "SELECT COUNT(*) FROM books WHERE publishing_date BETWEEN ? AND ?";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, lowBound, highBound);
-
-        return new PageImpl<>(books, pageable, total);
+        return pageCounter.slice(books, pageable, countMode,
+                "books", "publishing_date BETWEEN ? AND ?", lowBound, highBound);
     }
 
-    public Page<Book> findByAuthorNameContainingIgnoreCase(String authorName, Pageable pageable) {
-        String sql = "SELECT b.* FROM books b JOIN authors a ON b.author_id = a.id " +
+    public Slice<Book> findByAuthorNameContainingIgnoreCase(String authorName, Pageable pageable,
+                                                            CountMode countMode, BookFields fields) {
+        String sql = "SELECT " + fields.columns("b") + " FROM books b JOIN authors a ON b.author_id = a.id " +
                 "WHERE LOWER(a.name) LIKE LOWER(?) " +
-                "LIMIT ? OFFSET ?";
-        List<Book> books = jdbcTemplate.query(sql, bookRowMapper,
-                "%" + authorName + "%",
-                pageable.getPageSize(),
+                "ORDER BY b.id LIMIT ? OFFSET ?";
+        List<Book> books = jdbcTemplate.query(sql, bookRowMapper.forQuery(),
+                LikePattern.containing(authorName),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        String countSql = "SELECT COUNT(*) FROM books b JOIN authors a ON b.author_id = a.id " +
-                "WHERE LOWER(a.name) LIKE LOWER(?)";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class, "%" + authorName + "%");
+        return pageCounter.slice(books, pageable, countMode, "books b",
+                "b.author_id IN (SELECT a.id FROM authors a WHERE LOWER(a.name) LIKE LOWER(?))",
+                LikePattern.containing(authorName));
+    }
 
-        return new PageImpl<>(books, pageable, total);
+    @Override
+    public Slice<Book> search(BookSearchQuery query, Pageable pageable) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("text", query.getText())
+                .addValue("pattern", query.getPattern())
+                .addValue("limit", pageable.getPageSize() + 1)
+                .addValue("offset", pageable.getOffset());
+        List<Book> books = namedParameterJdbcTemplate.query(BookSearchSql.RANKED_SEARCH, params,
+                bookRowMapper.forQuery());
+
+        return BookSearchRepository.toSlice(books, pageable);
     }
 
-    public Page<Book> findAllByOrderByTitleAsc(Pageable pageable) {
-        return findAllWithOrder("title ASC", pageable);
+    public Slice<Book> findAllByOrderByTitleAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return findAllWithOrder("title ASC", pageable, countMode, fields);
     }
 
-    public Page<Book> findAllByOrderByTitleDesc(Pageable pageable) {
-        return findAllWithOrder("title DESC", pageable);
+    public Slice<Book> findAllByOrderByTitleDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return findAllWithOrder("title DESC", pageable, countMode, fields);
     }
 
-    public Page<Book> findAllByOrderByPagesNumberAsc(Pageable pageable) {
-        return findAllWithOrder("pages_number ASC", pageable);
+    public Slice<Book> findAllByOrderByPagesNumberAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return findAllWithOrder("pages_number ASC", pageable, countMode, fields);
     }
 
-    public Page<Book> findAllByOrderByPagesNumberDesc(Pageable pageable) {
-        return findAllWithOrder("pages_number DESC", pageable);
+    public Slice<Book> findAllByOrderByPagesNumberDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return findAllWithOrder("pages_number DESC", pageable, countMode, fields);
     }
 
-    public Page<Book> findAllByOrderByPublishingDateAsc(Pageable pageable) {
-        return findAllWithOrder("publishing_date ASC", pageable);
+    public Slice<Book> findAllByOrderByPublishingDateAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return findAllWithOrder("publishing_date ASC", pageable, countMode, fields);
     }
 
-    public Page<Book> findAllByOrderByPublishingDateDesc(Pageable pageable) {
-        return findAllWithOrder("publishing_date DESC", pageable);
+    public Slice<Book> findAllByOrderByPublishingDateDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return findAllWithOrder("publishing_date DESC", pageable, countMode, fields);
     }
 
-    private Page<Book> findAllWithOrder(String orderClause, Pageable pageable) {
-        String sql = "SELECT b.* FROM books b ORDER BY " + orderClause + " LIMIT ? OFFSET ?";
-        List<Book> books = jdbcTemplate.query(sql, bookRowMapper,
-                pageable.getPageSize(),
+    private Slice<Book> findAllWithOrder(String orderClause, Pageable pageable, CountMode countMode,
+                                         BookFields fields) {
+        String sql = "SELECT " + fields.columns("b") + " FROM books b ORDER BY " + orderClause + " LIMIT ? OFFSET ?";
+        List<Book> books = jdbcTemplate.query(sql, bookRowMapper.forQuery(),
+                pageable.getPageSize() + 1,
                 pageable.getOffset());
 
-        String countSql = "SELECT COUNT(*) FROM books";
-        int total = jdbcTemplate.queryForObject(countSql, Integer.class);
+        return pageCounter.slice(books, pageable, countMode, "books", null);
+    }
+
+    public KeysetPage<Book> findAll(BookSortKey sortKey, boolean descending, KeysetCursor cursor, int limit,
+                                    BookFields fields) {
+        return seek("TRUE", List.of(), sortKey, descending, cursor, limit, fields);
+    }
+
+    public KeysetPage<Book> findByTitleContainingIgnoreCase(String title, KeysetCursor cursor, int limit,
+                                                            BookFields fields) {
+        return seek("LOWER(b.title) LIKE LOWER(?)", List.of(LikePattern.containing(title)),
+                BookSortKey.TITLE, false, cursor, limit, fields);
+    }
+
+    public KeysetPage<Book> findByGenre(String genre, KeysetCursor cursor, int limit, BookFields fields) {
+        return seek(GENRE_CONDITION, List.of(genre), BookSortKey.ID, false, cursor, limit, fields);
+    }
+
+    public KeysetPage<Book> findByPagesNumberBetween(int minPages, int maxPages, KeysetCursor cursor, int limit,
+                                                     BookFields fields) {
+        return seek(PAGES_CONDITION, List.of(minPages, maxPages),
+                BookSortKey.PAGES_NUMBER, false, cursor, limit, fields);
+    }
+
+    public KeysetPage<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                        KeysetCursor cursor, int limit, BookFields fields) {
+        return seek(PUBLISHING_DATE_CONDITION, List.of(lowBound, highBound),
+                BookSortKey.PUBLISHING_DATE, false, cursor, limit, fields);
+    }
+
+    public KeysetPage<Book> findByAuthorNameContainingIgnoreCase(String authorName, KeysetCursor cursor, int limit,
+                                                                 BookFields fields) {
+        return seek("b.author_id IN (SELECT a.id FROM authors a WHERE LOWER(a.name) LIKE LOWER(?))",
+                List.of(LikePattern.containing(authorName)), BookSortKey.ID, false, cursor, limit, fields);
+    }
+
+    /**
+     * Keyset-выборка: вместо OFFSET продолжает чтение индекса с позиции курсора.
+     * Условие по первой колонке индексов idx_book_*_id_cover задаёт начало диапазона,
+     * сравнение пары (колонка, id) отсекает уже выданные строки с тем же значением.
+     * Колонка сортировки выбирается, даже если её нет в fields: из неё строится курсор.
+     */
+    private KeysetPage<Book> seek(String condition, List<Object> args, BookSortKey sortKey, boolean descending,
+                                  KeysetCursor cursor, int limit, BookFields fields) {
+        String column = "b." + sortKey.getColumn();
+        String direction = descending ? " DESC" : " ASC";
+        List<Object> params = new ArrayList<>(args);
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(fields.withColumn(sortKey.getColumn()).columns("b"))
+                .append(" FROM books b WHERE ").append(condition);
+        if (cursor != null) {
+            if (sortKey == BookSortKey.ID) {
+                sql.append(" AND b.id").append(descending ? " < ?" : " > ?");
+            } else {
+                Object value = sortKey.parse(cursor.getValue());
+                sql.append(" AND ").append(column).append(descending ? " <= ?" : " >= ?")
+                        .append(" AND (").append(column).append(", b.id)").append(descending ? " < (?, ?)" : " > (?, ?)");
+                params.add(value);
+                params.add(value);
+            }
+            params.add(cursor.getId());
+        }
+        sql.append(" ORDER BY ").append(column).append(direction);
+        if (sortKey != BookSortKey.ID) {
+            sql.append(", b.id").append(direction);
+        }
+        sql.append(" LIMIT ?");
+        params.add(limit + 1);
 
-        return new PageImpl<>(books, pageable, total);
+        List<Book> books = jdbcTemplate.query(sql.toString(), bookRowMapper.forQuery(), params.toArray());
+        return KeysetPage.of(books, limit, sortKey, descending);
     }
 
+    /*
+     * Статистика читается из genre_stats и author_stats, которые поддерживаются
+     * триггерами на books (changelog/create-stats-tables.xml), поэтому запросы
+     * не зависят от размера таблицы книг.
+     */
     public List<Map<String, Object>> getFullAuthorStats() {
-        String sql = "SELECT a.id, a.name, COUNT(b.id) as book_count, " +
-                "MIN(b.publishing_date) as first_publish_date, " +
-                "MAX(b.publishing_date) as last_publish_date, " +
-                "AVG(b.pages_number) as avg_pages " +
-                "FROM authors a LEFT JOIN books b ON a.id = b.author_id " +
-                "GROUP BY a.id, a.name " +
+        String sql = "SELECT a.id, a.name, COALESCE(s.book_count, 0) as book_count, " +
+                "s.first_publish_date, s.last_publish_date, " +
+                "s.pages_sum::float8 / NULLIF(s.book_count, 0) as avg_pages " +
+                "FROM authors a LEFT JOIN author_stats s ON a.id = s.author_id " +
                 "ORDER BY book_count DESC";
 
         return jdbcTemplate.query(sql, (rs, rowNum) -> {
@@ -233,10 +485,10 @@ public class BookJdbcRepository {
     }
 
     public List<Map<String, Object>> getGenreStats() {
-        String sql = "SELECT genre, COUNT(*) as book_count, " +
-                "AVG(pages_number) as avg_pages " +
-                "FROM books " +
-                "GROUP BY genre " +
+        String sql = "SELECT genre, book_count, " +
+                "pages_sum::float8 / book_count as avg_pages " +
+                "FROM genre_stats " +
+                "WHERE book_count > 0 " +
                 "ORDER BY book_count DESC";
 
         return jdbcTemplate.query(sql, (rs, rowNum) -> {
@@ -249,9 +501,8 @@ public class BookJdbcRepository {
     }
 
     public List<Map<String, Object>> getAuthorStatsSummary() {
-        String sql = "SELECT a.id, a.name, COUNT(b.id) as book_count " +
-                "FROM authors a LEFT JOIN books b ON a.id = b.author_id " +
-                "GROUP BY a.id, a.name " +
+        String sql = "SELECT a.id, a.name, COALESCE(s.book_count, 0) as book_count " +
+                "FROM authors a LEFT JOIN author_stats s ON a.id = s.author_id " +
                 "ORDER BY book_count DESC";
 
         return jdbcTemplate.query(sql, (rs, rowNum) -> {
@@ -270,9 +521,8 @@ public class BookJdbcRepository {
         int authorsCount = jdbcTemplate.queryForObject(authorsCountSql, Integer.class);
         result.put("totalAuthors", authorsCount);
 
-        String topAuthorSql = "SELECT a.name, COUNT(b.id) as book_count " +
-                "FROM authors a LEFT JOIN books b ON a.id = b.author_id " +
-                "GROUP BY a.id, a.name " +
+        String topAuthorSql = "SELECT a.name, COALESCE(s.book_count, 0) as book_count " +
+                "FROM authors a LEFT JOIN author_stats s ON a.id = s.author_id " +
                 "ORDER BY book_count DESC LIMIT 1";
         Map<String, Object> topAuthor = jdbcTemplate.queryForObject(topAuthorSql, (rs, rowNum) -> {
             Map<String, Object> author = new HashMap<>();
@@ -282,10 +532,8 @@ public class BookJdbcRepository {
         });
         result.put("topAuthor", topAuthor);
 
-        String avgBooksSql = "SELECT AVG(book_count) FROM (" +
-                "SELECT COUNT(b.id) as book_count " +
-                "FROM authors a LEFT JOIN books b ON a.id = b.author_id " +
-                "GROUP BY a.id) as counts";
+        String avgBooksSql = "SELECT AVG(COALESCE(s.book_count, 0)) " +
+                "FROM authors a LEFT JOIN author_stats s ON a.id = s.author_id";
         double avgBooks = jdbcTemplate.queryForObject(avgBooksSql, Double.class);
         result.put("avgBooksPerAuthor", avgBooks);
 
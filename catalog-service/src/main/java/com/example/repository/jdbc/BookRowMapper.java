@@ -1,22 +1,45 @@
 package com.example.repository.jdbc;
 
 import com.example.model.Book;
-import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 
-public class BookRowMapper implements RowMapper<Book> {
+/**
+ * Отображение строки books в Book. Колонки, не выбранные запросом с параметром fields, не заполняются.
+ */
+public class BookRowMapper extends ColumnIndexRowMapper<Book> {
+    private static final int ID = 0;
+    private static final int TITLE = 1;
+    private static final int GENRE = 2;
+    private static final int PAGES_NUMBER = 3;
+    private static final int PUBLISHING_DATE = 4;
+    private static final int DESCRIPTION = 5;
+
+    public BookRowMapper() {
+        super("id", "title", "genre", "pages_number", "publishing_date", "description");
+    }
+
     @Override
-    public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
+    protected Book mapRow(ResultSet rs, int[] columns) throws SQLException {
         Book book = new Book();
-        book.setId(rs.getLong("id"));
-        book.setTitle(rs.getString("title"));
-        book.setGenre(rs.getString("genre"));
-        book.setPagesNumber(rs.getInt("pages_number"));
-        book.setPublishingDate(rs.getObject("publishing_date", LocalDate.class));
-        book.setDescription(rs.getString("description"));
+        book.setId(rs.getLong(columns[ID]));
+        if (columns[TITLE] != 0) {
+            book.setTitle(rs.getString(columns[TITLE]));
+        }
+        if (columns[GENRE] != 0) {
+            book.setGenre(rs.getString(columns[GENRE]));
+        }
+        if (columns[PAGES_NUMBER] != 0) {
+            book.setPagesNumber(rs.getInt(columns[PAGES_NUMBER]));
+        }
+        if (columns[PUBLISHING_DATE] != 0) {
+            book.setPublishingDate(rs.getObject(columns[PUBLISHING_DATE], LocalDate.class));
+        }
+        if (columns[DESCRIPTION] != 0) {
+            book.setDescription(rs.getString(columns[DESCRIPTION]));
+        }
         return book;
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,6 @@ package com.example.repository.jdbc;
 
 import com.example.model.Author;
 import com.example.model.Book;
-import org.springframework.context.annotation.Bean;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
 import java.sql.ResultSet;
@@ -11,25 +9,42 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 
 @Component
-public class BookWithAuthorRowMapper implements RowMapper<Book> {
+public class BookWithAuthorRowMapper extends ColumnIndexRowMapper<Book> {
+    private static final int ID = 0;
+    private static final int TITLE = 1;
+    private static final int GENRE = 2;
+    private static final int PAGES_NUMBER = 3;
+    private static final int PUBLISHING_DATE = 4;
+    private static final int DESCRIPTION = 5;
+    private static final int AUTHOR_ID = 6;
+    private static final int AUTHOR_NAME = 7;
+    private static final int AUTHOR_BIRTH_DATE = 8;
+    private static final int AUTHOR_LOCATION = 9;
+    private static final int AUTHOR_BIO = 10;
+
+    public BookWithAuthorRowMapper() {
+        super("id", "title", "genre", "pages_number", "publishing_date", "description",
+                "author_id", "author_name", "author_birth_date", "author_location", "author_bio");
+    }
+
     @Override
-    public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
+    protected Book mapRow(ResultSet rs, int[] columns) throws SQLException {
         Book book = new Book();
-        book.setId(rs.getLong("id"));
-        book.setTitle(rs.getString("title"));
-        book.setGenre(rs.getString("genre"));
-        book.setPagesNumber(rs.getInt("pages_number"));
-        book.setPublishingDate(rs.getObject("publishing_date", LocalDate.class));
-        book.setDescription(rs.getString("description"));
+        book.setId(rs.getLong(columns[ID]));
+        book.setTitle(rs.getString(columns[TITLE]));
+        book.setGenre(rs.getString(columns[GENRE]));
+        book.setPagesNumber(rs.getInt(columns[PAGES_NUMBER]));
+        book.setPublishingDate(rs.getObject(columns[PUBLISHING_DATE], LocalDate.class));
+        book.setDescription(rs.getString(columns[DESCRIPTION]));
 
         Author author = new Author();
-        author.setId(rs.getLong("author_id"));
-        author.setName(rs.getString("author_name"));
-        author.setBirthDate(rs.getObject("author_birth_date", LocalDate.class));
-        author.setLocation(rs.getString("author_location"));
-        author.setBio(rs.getString("author_bio"));
+        author.setId(rs.getLong(columns[AUTHOR_ID]));
+        author.setName(rs.getString(columns[AUTHOR_NAME]));
+        author.setBirthDate(rs.getObject(columns[AUTHOR_BIRTH_DATE], LocalDate.class));
+        author.setLocation(rs.getString(columns[AUTHOR_LOCATION]));
+        author.setBio(rs.getString(columns[AUTHOR_BIO]));
 
         book.setAuthor(author);
         return book;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.example.repository.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Отображение строк с чтением колонок по индексам вместо имён.
+ * Индексы колонок определяются по именам один раз на запрос: forQuery() возвращает RowMapper
+ * одного запроса, который запоминает их по первой строке. Сам экземпляр не хранит состояния,
+ * поэтому его можно использовать во всех запросах и потоках независимо от порядка колонок в SELECT.
+ * Колонки, которых нет в SELECT, получают индекс 0: так читаются выборки
+ * с частью полей (параметр fields).
+ */
+public abstract class ColumnIndexRowMapper<T> {
+    private final String[] labels;
+
+    protected ColumnIndexRowMapper(String... labels) {
+        this.labels = labels;
+    }
+
+    /**
+     * @return RowMapper для строк одного ResultSet
+     */
+    public RowMapper<T> forQuery() {
+        return new QueryRowMapper();
+    }
+
+    /**
+     * Как и findColumn, при повторе имени берёт первую колонку с этим именем.
+     */
+    private int[] resolve(ResultSetMetaData metaData) throws SQLException {
+        int[] indexes = new int[labels.length];
+        for (int column = metaData.getColumnCount(); column >= 1; column--) {
+            String label = metaData.getColumnLabel(column);
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i].equalsIgnoreCase(label)) {
+                    indexes[i] = column;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * @param columns индексы колонок в порядке имён, переданных в конструктор, 0 - колонки нет в выборке
+     */
+    protected abstract T mapRow(ResultSet rs, int[] columns) throws SQLException;
+
+    private final class QueryRowMapper implements RowMapper<T> {
+        private int[] columns;
+
+        @Override
+        public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+            if (columns == null) {
+                columns = resolve(rs.getMetaData());
+            }
+            return ColumnIndexRowMapper.this.mapRow(rs, columns);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.repository.jdbc;
+
+/**
+ * Шаблон LIKE для поиска по подстроке. Символы % и _ из запроса экранируются и ищутся буквально,
+ * как в методах Spring Data JPA ...Containing и в поисковом индексе BookSearchIndex.
+ */
+final class LikePattern {
+
+    private LikePattern() {
+    }
+
+    static String containing(String value) {
+        return "%" + value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
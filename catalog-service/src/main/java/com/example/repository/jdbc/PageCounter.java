@@ -0,0 +1,104 @@
+package com.example.repository.jdbc;
+
+import com.example.pagination.CountMode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Формирует страницы JDBC репозиториев в зависимости от CountMode.
+ * Репозиторий выбирает pageSize + 1 строк: лишняя строка показывает наличие следующей страницы,
+ * поэтому подсчёт не нужен ни в режиме NONE, ни на последней странице.
+ */
+@Component
+public class PageCounter {
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Long> countCache;
+
+    public PageCounter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       @Value("${catalog.pagination.count-cache.ttl:30s}") Duration ttl,
+                       @Value("${catalog.pagination.count-cache.max-size:10000}") long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.countCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        // Набор тегов совпадает с кэшами Spring, иначе Prometheus отбросит одну из групп метрик cache.*
+        CaffeineCacheMetrics.monitor(meterRegistry, countCache, "pageCounts",
+                "name", "pageCounts", "cache.manager", "pageCounter");
+    }
+
+    /**
+     * @param rows      выборка размером не больше pageSize + 1
+     * @param table     таблица с алиасом, например "books b"
+     * @param condition условие WHERE без ключевого слова или null для всей таблицы
+     */
+    public <T> Slice<T> slice(List<T> rows, Pageable pageable, CountMode countMode,
+                              String table, String condition, Object... args) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        if (countMode == CountMode.NONE) {
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+        if (!hasNext && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+        }
+
+        long total = switch (countMode) {
+            case CACHED -> countCache.get(table + '|' + condition + '|' + Arrays.toString(args),
+                    key -> count(table, condition, args));
+            case ESTIMATED -> estimate(table, condition, args);
+            default -> count(table, condition, args);
+        };
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private long count(String table, String condition, Object... args) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + from(table, condition), Long.class, args);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Без фильтра берёт pg_class.reltuples, с фильтром - оценку строк из плана запроса.
+     * Если таблица ещё не анализировалась, reltuples отрицателен и используется план.
+     */
+    private long estimate(String table, String condition, Object... args) {
+        if (condition == null) {
+            Long reltuples = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)",
+                    Long.class, table.split(" ")[0]);
+            if (reltuples != null && reltuples >= 0) {
+                return reltuples;
+            }
+        }
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + from(table, condition), String.class, args);
+        try {
+            return objectMapper.readTree(plan).get(0).get("Plan").get("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot parse query plan", e);
+        }
+    }
+
+    private static String from(String table, String condition) {
+        return condition == null ? table : table + " WHERE " + condition;
+    }
+}
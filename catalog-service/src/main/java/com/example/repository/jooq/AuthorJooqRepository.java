@@ -2,15 +2,27 @@ package com.example.repository.jooq;
 
 import com.example.model.Author;
 import com.example.model.Book;
+import com.example.pagination.AuthorSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.repository.AuthorRepository;
+import com.example.repository.jdbc.PageCounter;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.SelectSeekStepN;
+import org.jooq.generated.tables.records.AuthorsRecord;
 import org.jooq.impl.DSL;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.jooq.generated.Tables.AUTHORS;
@@ -21,31 +33,52 @@ import static org.jooq.generated.Tables.BOOKS;
  * Использует типобезопасные запросы jOOQ.
  */
 @Repository
-public class AuthorJooqRepository {
+public class AuthorJooqRepository implements AuthorRepository {
     private final DSLContext dsl;
+    private final PageCounter pageCounter;
 
-    public AuthorJooqRepository(DSLContext dsl) {
+    public AuthorJooqRepository(DSLContext dsl, PageCounter pageCounter) {
         this.dsl = dsl;
+        this.pageCounter = pageCounter;
     }
 
-    public Author save(Author author) {
-        Long generatedId = dsl.insertInto(AUTHORS)
+    /**
+     * @return false, если обновляемый автор не найден
+     */
+    public boolean save(Author author) {
+        if (author.getId() == null) {
+            Long generatedId = dsl.insertInto(AUTHORS)
+                    .set(AUTHORS.NAME, author.getName())
+                    .set(AUTHORS.BIRTH_DATE, author.getBirthDate())
+                    .set(AUTHORS.LOCATION, author.getLocation())
+                    .set(AUTHORS.BIO, author.getBio())
+                    .returning(AUTHORS.ID)
+                    .fetchOne()
+                    .get(AUTHORS.ID);
+
+            author.setId(generatedId);
+            return true;
+        }
+        return dsl.update(AUTHORS)
                 .set(AUTHORS.NAME, author.getName())
                 .set(AUTHORS.BIRTH_DATE, author.getBirthDate())
                 .set(AUTHORS.LOCATION, author.getLocation())
                 .set(AUTHORS.BIO, author.getBio())
+                .where(AUTHORS.ID.eq(author.getId()))
                 .returning(AUTHORS.ID)
-                .fetchOne()
-                .get(AUTHORS.ID);
-
-        author.setId(generatedId);
-        return author;
+                .fetchOptional()
+                .isPresent();
     }
 
-    public void deleteById(long id) {
-        dsl.deleteFrom(AUTHORS)
+    /**
+     * @return false, если автор не найден
+     */
+    public boolean deleteById(long id) {
+        return dsl.deleteFrom(AUTHORS)
                 .where(AUTHORS.ID.eq(id))
-                .execute();
+                .returning(AUTHORS.ID)
+                .fetchOptional()
+                .isPresent();
     }
 
     public boolean existsById(long id) {
@@ -55,140 +88,147 @@ public class AuthorJooqRepository {
         );
     }
 
-    public Page<Author> findAll(Pageable pageable, org.jooq.SortField<?>... sortFields) {
-        List<Author> authors = dsl.selectFrom(AUTHORS)
-                .orderBy(sortFields)
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Author.class);
-
-        authors.forEach(this::loadAuthorBooks);
-
-        long total = dsl.fetchCount(AUTHORS);
-        return new PageImpl<>(authors, pageable, total);
-    }
-
     public Optional<Author> findById(long id) {
         Author author = dsl.selectFrom(AUTHORS)
                 .where(AUTHORS.ID.eq(id))
                 .fetchOneInto(Author.class);
-        loadAuthorBooks(author);
+        if (author != null) {
+            loadBooks(List.of(author));
+        }
         return Optional.ofNullable(author);
     }
 
-    public Page<Author> findByNameContainingIgnoreCase(String name, Pageable pageable) {
-        List<Author> authors = dsl.selectFrom(AUTHORS)
-                .where(AUTHORS.NAME.likeIgnoreCase("%" + name + "%"))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Author.class);
-
-        authors.forEach(this::loadAuthorBooks);
+    /*
+     * Постраничные методы выбирают pageSize + 1 строк, а общее количество
+     * вычисляет PageCounter по переданному countMode, как в JDBC репозитории.
+     */
+    public Slice<Author> findByNameContainingIgnoreCase(String name, Pageable pageable, CountMode countMode) {
+        return slice(AUTHORS.NAME.containsIgnoreCase(name), pageable, countMode, getSortFields(pageable));
+    }
 
-        long total = dsl.fetchCount(
-                dsl.selectFrom(AUTHORS)
-                        .where(AUTHORS.NAME.likeIgnoreCase("%" + name + "%"))
-        );
+    public Slice<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable,
+                                                CountMode countMode) {
+        return slice(AUTHORS.BIRTH_DATE.between(lowBound, highBound), pageable, countMode, getSortFields(pageable));
+    }
 
-        return new PageImpl<>(authors, pageable, total);
+    public Slice<Author> findByLocation(String location, Pageable pageable, CountMode countMode) {
+        return slice(AUTHORS.LOCATION.eq(location), pageable, countMode, getSortFields(pageable));
     }
 
-    public Page<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable) {
-        List<Author> authors = dsl.selectFrom(AUTHORS)
-                .where(AUTHORS.BIRTH_DATE.between(lowBound, highBound))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Author.class);
+    public Slice<Author> findByBookGenre(String genre, Pageable pageable, CountMode countMode) {
+        return slice(bookGenreCondition(genre), pageable, countMode, getSortFields(pageable));
+    }
 
-        authors.forEach(this::loadAuthorBooks);
+    private Condition bookGenreCondition(String genre) {
+        return DSL.exists(dsl.selectOne()
+                .from(BOOKS)
+                .where(BOOKS.AUTHOR_ID.eq(AUTHORS.ID))
+                .and(BOOKS.GENRE.eq(genre)));
+    }
 
-        long total = dsl.fetchCount(
-                dsl.selectFrom(AUTHORS)
-                        .where(AUTHORS.BIRTH_DATE.between(lowBound, highBound))
-        );
+    public Slice<Author> findAllByOrderByNameAsc(Pageable pageable, CountMode countMode) {
+        return slice(DSL.noCondition(), pageable, countMode, AUTHORS.NAME.asc());
+    }
 
-        return new PageImpl<>(authors, pageable, total);
+    public Slice<Author> findAllByOrderByNameDesc(Pageable pageable, CountMode countMode) {
+        return slice(DSL.noCondition(), pageable, countMode, AUTHORS.NAME.desc());
     }
 
-    public Page<Author> findByLocation(String location, Pageable pageable) {
-        List<Author> authors = dsl.selectFrom(AUTHORS)
-                .where(AUTHORS.LOCATION.eq(location))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Author.class);
+    public Slice<Author> findAllByOrderByBirthDateAsc(Pageable pageable, CountMode countMode) {
+        return slice(DSL.noCondition(), pageable, countMode, AUTHORS.BIRTH_DATE.asc());
+    }
 
-        authors.forEach(this::loadAuthorBooks);
+    public Slice<Author> findAllByOrderByBirthDateDesc(Pageable pageable, CountMode countMode) {
+        return slice(DSL.noCondition(), pageable, countMode, AUTHORS.BIRTH_DATE.desc());
+    }
 
-        long total = dsl.fetchCount(
-                dsl.selectFrom(AUTHORS)
-                        .where(AUTHORS.LOCATION.eq(location))
-        );
+    public Slice<Author> findAllOrderByBooksCountAsc(Pageable pageable, CountMode countMode) {
+        return findAllOrderByBooksCount(pageable, countMode, DSL.count(BOOKS.ID).asc());
+    }
 
-        return new PageImpl<>(authors, pageable, total);
+    public Slice<Author> findAllOrderByBooksCountDesc(Pageable pageable, CountMode countMode) {
+        return findAllOrderByBooksCount(pageable, countMode, DSL.count(BOOKS.ID).desc());
     }
 
-    public Page<Author> findByBookGenre(String genre, Pageable pageable) {
-        List<Author> authors = dsl.selectDistinct(AUTHORS.fields())
+    private Slice<Author> findAllOrderByBooksCount(Pageable pageable, CountMode countMode,
+                                                   org.jooq.SortField<?> sortField) {
+        List<Author> authors = dsl.select(AUTHORS.fields())
                 .from(AUTHORS)
-                .join(BOOKS).on(AUTHORS.ID.eq(BOOKS.AUTHOR_ID))
-                .where(BOOKS.GENRE.eq(genre))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
+                .leftJoin(BOOKS).on(AUTHORS.ID.eq(BOOKS.AUTHOR_ID))
+                .groupBy(AUTHORS.ID)
+                .orderBy(sortField)
+                .limit(pageable.getPageSize() + 1)
                 .offset(pageable.getOffset())
                 .fetchInto(Author.class);
 
-        authors.forEach(this::loadAuthorBooks);
+        return pageCounter.slice(authors, pageable, countMode, AUTHORS.getName(), null);
+    }
 
-        long total = dsl.fetchCount(
-                dsl.selectDistinct(AUTHORS.ID)
-                        .from(AUTHORS)
-                        .join(BOOKS).on(AUTHORS.ID.eq(BOOKS.AUTHOR_ID))
-                        .where(BOOKS.GENRE.eq(genre))
-        );
+    /**
+     * Условие передаётся в PageCounter с подставленными значениями,
+     * поэтому подсчёт и его кэширование работают так же, как для JDBC запросов.
+     */
+    private Slice<Author> slice(Condition condition, Pageable pageable, CountMode countMode,
+                                org.jooq.SortField<?>... sortFields) {
+        List<Author> authors = dsl.selectFrom(AUTHORS)
+                .where(condition)
+                .orderBy(sortFields)
+                .limit(pageable.getPageSize() + 1)
+                .offset(pageable.getOffset())
+                .fetchInto(Author.class);
 
-        return new PageImpl<>(authors, pageable, total);
+        String countCondition = condition.equals(DSL.noCondition()) ? null : dsl.renderInlined(condition);
+        return pageCounter.slice(authors, pageable, countMode, AUTHORS.getName(), countCondition);
     }
 
-    public Page<Author> findAllByOrderByNameAsc(Pageable pageable) {
-        return findAll(pageable, AUTHORS.NAME.asc());
+    public KeysetPage<Author> findAll(AuthorSortKey sortKey, boolean descending, KeysetCursor cursor, int limit) {
+        return seek(DSL.noCondition(), sortKey, descending, cursor, limit);
     }
 
-    public Page<Author> findAllByOrderByNameDesc(Pageable pageable) {
-        return findAll(pageable, AUTHORS.NAME.desc());
+    public KeysetPage<Author> findByNameContainingIgnoreCase(String name, KeysetCursor cursor, int limit) {
+        return seek(AUTHORS.NAME.containsIgnoreCase(name), AuthorSortKey.NAME, false, cursor, limit);
     }
 
-    public Page<Author> findAllByOrderByBirthDateAsc(Pageable pageable) {
-        return findAll(pageable, AUTHORS.BIRTH_DATE.asc());
+    public KeysetPage<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                     KeysetCursor cursor, int limit) {
+        return seek(AUTHORS.BIRTH_DATE.between(lowBound, highBound), AuthorSortKey.BIRTH_DATE, false, cursor, limit);
     }
 
-    public Page<Author> findAllByOrderByBirthDateDesc(Pageable pageable) {
-        return findAll(pageable, AUTHORS.BIRTH_DATE.desc());
+    public KeysetPage<Author> findByLocation(String location, KeysetCursor cursor, int limit) {
+        return seek(AUTHORS.LOCATION.eq(location), AuthorSortKey.ID, false, cursor, limit);
     }
 
-    public Page<Author> findAllOrderByBooksCountAsc(Pageable pageable) {
-        return findAllOrderByBooksCount(pageable, DSL.count(BOOKS.ID).asc());
+    public KeysetPage<Author> findByBookGenre(String genre, KeysetCursor cursor, int limit) {
+        return seek(bookGenreCondition(genre), AuthorSortKey.ID, false, cursor, limit);
     }
 
-    public Page<Author> findAllOrderByBooksCountDesc(Pageable pageable) {
-        return findAllOrderByBooksCount(pageable, DSL.count(BOOKS.ID).desc());
+    private KeysetPage<Author> seek(Condition condition, AuthorSortKey sortKey, boolean descending,
+                                    KeysetCursor cursor, int limit) {
+        Field<?> field = getSortField(sortKey);
+        org.jooq.SortField<?>[] sortFields = sortKey == AuthorSortKey.ID
+                ? new org.jooq.SortField<?>[]{descending ? AUTHORS.ID.desc() : AUTHORS.ID.asc()}
+                : new org.jooq.SortField<?>[]{descending ? field.desc() : field.asc(),
+                        descending ? AUTHORS.ID.desc() : AUTHORS.ID.asc()};
+        SelectSeekStepN<AuthorsRecord> ordered = dsl.selectFrom(AUTHORS).where(condition).orderBy(sortFields);
+
+        List<Author> authors;
+        if (cursor == null) {
+            authors = ordered.limit(limit + 1).fetchInto(Author.class);
+        } else {
+            Object[] seekValues = sortKey == AuthorSortKey.ID
+                    ? new Object[]{cursor.getId()}
+                    : new Object[]{sortKey.parse(cursor.getValue()), cursor.getId()};
+            authors = ordered.seek(seekValues).limit(limit + 1).fetchInto(Author.class);
+        }
+        return KeysetPage.of(authors, limit, sortKey, descending);
     }
 
-    private Page<Author> findAllOrderByBooksCount(Pageable pageable, org.jooq.SortField<?> sortField) {
-        List<Author> authors = dsl.select(AUTHORS.fields())
-                .from(AUTHORS)
-                .leftJoin(BOOKS).on(AUTHORS.ID.eq(BOOKS.AUTHOR_ID))
-                .groupBy(AUTHORS.ID)
-                .orderBy(sortField)
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Author.class);
-
-        long total = dsl.fetchCount(AUTHORS);
-
-        return new PageImpl<>(authors, pageable, total);
+    private Field<?> getSortField(AuthorSortKey sortKey) {
+        return switch (sortKey) {
+            case ID -> AUTHORS.ID;
+            case NAME -> AUTHORS.NAME;
+            case BIRTH_DATE -> AUTHORS.BIRTH_DATE;
+        };
     }
 
     private org.jooq.SortField<?>[] getSortFields(Pageable pageable) {
@@ -200,12 +240,21 @@ public class AuthorJooqRepository {
                 .toArray(org.jooq.SortField[]::new);
     }
 
-    private void loadAuthorBooks(Author author) {
-        if (author != null) {
-            List<Book> books = dsl.selectFrom(BOOKS)
-                    .where(BOOKS.AUTHOR_ID.eq(author.getId()))
-                    .fetchInto(Book.class);
-            author.setBooks(books);
+    /**
+     * Загружает книги для страницы авторов одним сгруппированным запросом.
+     */
+    public void loadBooks(Collection<Author> authors) {
+        if (authors.isEmpty()) {
+            return;
         }
+        Long[] ids = authors.stream().map(Author::getId).toArray(Long[]::new);
+        Map<Long, List<Book>> booksByAuthor = dsl.selectFrom(BOOKS)
+                .where(BOOKS.AUTHOR_ID.eq(DSL.any(ids)))
+                .fetchGroups(BOOKS.AUTHOR_ID, Book.class);
+        authors.forEach(author -> author.setBooks(booksByAuthor.getOrDefault(author.getId(), new ArrayList<>())));
+    }
+
+    public void clearBooks(Collection<Author> authors) {
+        authors.forEach(author -> author.setBooks(null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.repository.jooq;
+
+import com.example.model.Author;
+import org.jooq.Record;
+import org.jooq.RecordMapper;
+import org.jooq.RecordType;
+
+import java.time.LocalDate;
+
+import static org.jooq.generated.tables.Authors.AUTHORS;
+
+/**
+ * Отображение записей таблицы authors в Author по индексам полей без рефлексии.
+ * Книги автора не заполняются, их загружает репозиторий отдельным запросом.
+ */
+public class AuthorRecordMapper<R extends Record> implements RecordMapper<R, Author> {
+    private final int id;
+    private final int name;
+    private final int birthDate;
+    private final int location;
+    private final int bio;
+
+    private AuthorRecordMapper(RecordType<R> recordType) {
+        this.id = recordType.indexOf(AUTHORS.ID);
+        this.name = recordType.indexOf(AUTHORS.NAME);
+        this.birthDate = recordType.indexOf(AUTHORS.BIRTH_DATE);
+        this.location = recordType.indexOf(AUTHORS.LOCATION);
+        this.bio = recordType.indexOf(AUTHORS.BIO);
+    }
+
+    /**
+     * @return отображение или null, если в записи нет какого-либо поля автора
+     */
+    static <R extends Record> AuthorRecordMapper<R> of(RecordType<R> recordType) {
+        AuthorRecordMapper<R> mapper = new AuthorRecordMapper<>(recordType);
+        boolean complete = mapper.id >= 0 && mapper.name >= 0 && mapper.birthDate >= 0 && mapper.location >= 0
+                && mapper.bio >= 0;
+        return complete ? mapper : null;
+    }
+
+    @Override
+    public Author map(R record) {
+        Author author = new Author();
+        author.setId((Long) record.get(id));
+        author.setName((String) record.get(name));
+        author.setBirthDate((LocalDate) record.get(birthDate));
+        author.setLocation((String) record.get(location));
+        author.setBio((String) record.get(bio));
+        return author;
+    }
+}
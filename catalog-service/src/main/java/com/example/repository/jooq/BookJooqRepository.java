@@ -3,17 +3,37 @@ package com.example.repository.jooq;
 import com.example.dto.jooq.*;
 import com.example.model.Author;
 import com.example.model.Book;
+import com.example.pagination.BookSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.projection.BookFields;
+import com.example.repository.BookRepository;
+import com.example.repository.jdbc.PageCounter;
+import com.example.search.BookSearchQuery;
+import com.example.search.BookSearchRepository;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Param;
+import org.jooq.Record;
+import org.jooq.Record1;
+import org.jooq.Select;
+import org.jooq.SelectSeekStepN;
 import org.jooq.impl.DSL;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
+import static org.jooq.generated.tables.AuthorStats.AUTHOR_STATS;
 import static org.jooq.generated.tables.Authors.AUTHORS;
 import static org.jooq.generated.tables.Books.BOOKS;
+import static org.jooq.generated.tables.GenreStats.GENRE_STATS;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -21,21 +41,23 @@ import java.util.Optional;
  * Использует типобезопасные запросы jOOQ.
  */
 @Repository
-public class BookJooqRepository {
+public class BookJooqRepository implements BookRepository {
     private final DSLContext dsl;
+    private final PageCounter pageCounter;
 
-    public BookJooqRepository(DSLContext dsl) {
+    public BookJooqRepository(DSLContext dsl, PageCounter pageCounter) {
         this.dsl = dsl;
+        this.pageCounter = pageCounter;
     }
 
-    public Book save(Book book) {
-        Author author = book.getAuthor();
-        if (author != null && author.getId() != null) {
-            author = dsl.selectFrom(AUTHORS)
-                    .where(AUTHORS.ID.eq(author.getId()))
-                    .fetchOneInto(Author.class);
-            book.setAuthor(author);
-        }
+    /**
+     * Сохраняет книгу за один запрос.
+     * Существование автора проверяется внешним ключом fk_book_author.
+     *
+     * @return false, если обновляемая книга не найдена
+     */
+    public boolean save(Book book) {
+        Long authorId = book.getAuthor() != null ? book.getAuthor().getId() : null;
 
         if (book.getId() == null) {
             Long generatedId = dsl.insertInto(BOOKS)
@@ -44,30 +66,36 @@ public class BookJooqRepository {
                     .set(BOOKS.PAGES_NUMBER, book.getPagesNumber())
                     .set(BOOKS.PUBLISHING_DATE, book.getPublishingDate())
                     .set(BOOKS.DESCRIPTION, book.getDescription())
-                    .set(BOOKS.AUTHOR_ID, author != null ? author.getId() : null)
+                    .set(BOOKS.AUTHOR_ID, authorId)
                     .returning(BOOKS.ID)
                     .fetchOne()
                     .get(BOOKS.ID);
 
             book.setId(generatedId);
-        } else {
-            dsl.update(BOOKS)
-                    .set(BOOKS.TITLE, book.getTitle())
-                    .set(BOOKS.GENRE, book.getGenre())
-                    .set(BOOKS.PAGES_NUMBER, book.getPagesNumber())
-                    .set(BOOKS.PUBLISHING_DATE, book.getPublishingDate())
-                    .set(BOOKS.DESCRIPTION, book.getDescription())
-                    .set(BOOKS.AUTHOR_ID, author != null ? author.getId() : null)
-                    .where(BOOKS.ID.eq(book.getId()))
-                    .execute();
+            return true;
         }
-        return book;
+        return dsl.update(BOOKS)
+                .set(BOOKS.TITLE, book.getTitle())
+                .set(BOOKS.GENRE, book.getGenre())
+                .set(BOOKS.PAGES_NUMBER, book.getPagesNumber())
+                .set(BOOKS.PUBLISHING_DATE, book.getPublishingDate())
+                .set(BOOKS.DESCRIPTION, book.getDescription())
+                .set(BOOKS.AUTHOR_ID, authorId)
+                .where(BOOKS.ID.eq(book.getId()))
+                .returning(BOOKS.ID)
+                .fetchOptional()
+                .isPresent();
     }
 
-    public void deleteById(long id) {
-        dsl.deleteFrom(BOOKS)
+    /**
+     * @return false, если книга не найдена
+     */
+    public boolean deleteById(long id) {
+        return dsl.deleteFrom(BOOKS)
                 .where(BOOKS.ID.eq(id))
-                .execute();
+                .returning(BOOKS.ID)
+                .fetchOptional()
+                .isPresent();
     }
 
     public boolean existsById(long id) {
@@ -77,16 +105,12 @@ public class BookJooqRepository {
         );
     }
 
-    public Page<Book> findAll(Pageable pageable, org.jooq.SortField<?>... sortFields) {
-        List<Book> books = dsl.selectFrom(BOOKS)
-                .orderBy(sortFields)
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Book.class);
-
-        long total = dsl.fetchCount(BOOKS);
-
-        return new PageImpl<>(books, pageable, total);
+    /*
+     * Постраничные методы выбирают pageSize + 1 строк, а общее количество
+     * вычисляет PageCounter по переданному countMode, как в JDBC репозитории.
+     */
+    public Slice<Book> findAll(Pageable pageable, CountMode countMode, BookFields fields) {
+        return slice(DSL.noCondition(), pageable, countMode, fields);
     }
 
     public Optional<Book> findById(long id) {
@@ -105,120 +129,237 @@ public class BookJooqRepository {
         return Optional.ofNullable(book);
     }
 
-    public Page<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable) {
-        List<Book> books = dsl.selectFrom(BOOKS)
-                .where(BOOKS.TITLE.likeIgnoreCase("%" + title + "%"))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Book.class);
+    /**
+     * Загружает книги одним запросом id = ANY(?) в порядке переданных идентификаторов.
+     */
+    public List<Book> findAllById(List<Long> ids, BookFields fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = dsl.select(select(fields.withColumn("id")))
+                .from(BOOKS)
+                .where(BOOKS.ID.eq(DSL.any(ids.toArray(Long[]::new))))
+                .fetchMap(BOOKS.ID, Book.class);
+        return ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
+    }
 
-        long total = dsl.fetchCount(
-                dsl.selectFrom(BOOKS)
-                        .where(BOOKS.TITLE.likeIgnoreCase("%" + title + "%"))
-        );
+    public List<Book> findAllWithAuthorById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = dsl.select(BOOKS.fields())
+                .select(AUTHORS.fields())
+                .from(BOOKS)
+                .join(AUTHORS).on(BOOKS.AUTHOR_ID.eq(AUTHORS.ID))
+                .where(BOOKS.ID.eq(DSL.any(ids.toArray(Long[]::new))))
+                .fetchMap(BOOKS.ID, r -> {
+                    Book b = r.into(BOOKS).into(Book.class);
+                    b.setAuthor(r.into(AUTHORS).into(Author.class));
+                    return b;
+                });
+        return ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
+    }
 
-        return new PageImpl<>(books, pageable, total);
+    public List<Long> findIdsAfter(long afterId, int limit) {
+        return dsl.select(BOOKS.ID)
+                .from(BOOKS)
+                .where(BOOKS.ID.gt(afterId))
+                .orderBy(BOOKS.ID)
+                .limit(limit)
+                .fetch(BOOKS.ID);
     }
 
-    public Page<Book> findByGenre(String genre, Pageable pageable) {
-        List<Book> books = dsl.selectFrom(BOOKS)
-                .where(BOOKS.GENRE.eq(genre))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Book.class);
+    public Slice<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable, CountMode countMode,
+                                                       BookFields fields) {
+        return slice(BOOKS.TITLE.containsIgnoreCase(title), pageable, countMode, fields,
+                getSortFieldsOrId(pageable));
+    }
 
-        long total = dsl.fetchCount(
-                dsl.selectFrom(BOOKS)
-                        .where(BOOKS.GENRE.eq(genre))
-        );
+    public Slice<Book> findByGenre(String genre, Pageable pageable, CountMode countMode, BookFields fields) {
+        return slice(BOOKS.GENRE.eq(genre), pageable, countMode, fields, getSortFields(pageable));
+    }
 
-        return new PageImpl<>(books, pageable, total);
+    public Slice<Book> findByPagesNumberBetween(int minPages, int maxPages, Pageable pageable, CountMode countMode,
+                                                BookFields fields) {
+        return slice(BOOKS.PAGES_NUMBER.between(minPages, maxPages), pageable, countMode, fields,
+                getSortFields(pageable));
     }
 
-    public Page<Book> findByPagesNumberBetween(int minPages, int maxPages, Pageable pageable) {
-        List<Book> books = dsl.selectFrom(BOOKS)
-                .where(BOOKS.PAGES_NUMBER.between(minPages, maxPages))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Book.class);
+    public Slice<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable,
+                                                   CountMode countMode, BookFields fields) {
+        return slice(BOOKS.PUBLISHING_DATE.between(lowBound, highBound), pageable, countMode, fields,
+                getSortFields(pageable));
+    }
 
-        long total = dsl.fetchCount(
-                dsl.selectFrom(BOOKS)
-                        .where(BOOKS.PAGES_NUMBER.between(minPages, maxPages))
-        );
+    public Slice<Book> findByAuthorNameContainingIgnoreCase(String authorName, Pageable pageable,
+                                                            CountMode countMode, BookFields fields) {
+        return slice(authorNameCondition(authorName), pageable, countMode, fields, getSortFieldsOrId(pageable));
+    }
 
-        return new PageImpl<>(books, pageable, total);
+    private Condition authorNameCondition(String authorName) {
+        return BOOKS.AUTHOR_ID.in(dsl.select(AUTHORS.ID)
+                .from(AUTHORS)
+                .where(AUTHORS.NAME.containsIgnoreCase(authorName)));
     }
 
-    public Page<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable) {
-        List<Book> books = dsl.selectFrom(BOOKS)
-                .where(BOOKS.PUBLISHING_DATE.between(lowBound, highBound))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
+    /**
+     * Условие передаётся в PageCounter с подставленными значениями,
+     * поэтому подсчёт и его кэширование работают так же, как для JDBC запросов.
+     */
+    private Slice<Book> slice(Condition condition, Pageable pageable, CountMode countMode, BookFields fields,
+                              org.jooq.SortField<?>... sortFields) {
+        List<Book> books = dsl.select(select(fields))
+                .from(BOOKS)
+                .where(condition)
+                .orderBy(sortFields)
+                .limit(pageable.getPageSize() + 1)
                 .offset(pageable.getOffset())
                 .fetchInto(Book.class);
 
-        long total = dsl.fetchCount(
-                dsl.selectFrom(BOOKS)
-                        .where(BOOKS.PUBLISHING_DATE.between(lowBound, highBound))
-        );
-
-        return new PageImpl<>(books, pageable, total);
+        String countCondition = condition.equals(DSL.noCondition()) ? null : dsl.renderInlined(condition);
+        return pageCounter.slice(books, pageable, countMode, BOOKS.getName(), countCondition);
     }
 
+    /**
+     * Ранжированный поиск, эквивалентный BookSearchSql.RANKED_SEARCH.
+     */
+    @Override
+    public Slice<Book> search(BookSearchQuery query, Pageable pageable) {
+        Field<String> title = DSL.lower(BOOKS.TITLE);
+        Field<String> name = DSL.lower(AUTHORS.NAME);
+        Param<String> text = DSL.val(query.getText());
 
+        Select<Record1<Long>> hits = dsl.select(BOOKS.ID)
+                .from(BOOKS)
+                .where(title.like(query.getPattern()).or(DSL.condition("{0} %> {1}", title, text)))
+                .union(dsl.select(BOOKS.ID)
+                        .from(BOOKS)
+                        .join(AUTHORS).on(BOOKS.AUTHOR_ID.eq(AUTHORS.ID))
+                        .where(name.like(query.getPattern()).or(DSL.condition("{0} %> {1}", name, text))));
 
-    public Page<Book> findByAuthorNameContainingIgnoreCase(String authorName, Pageable pageable) {
         List<Book> books = dsl.select(BOOKS.fields())
                 .from(BOOKS)
                 .join(AUTHORS).on(BOOKS.AUTHOR_ID.eq(AUTHORS.ID))
-                .where(AUTHORS.NAME.likeIgnoreCase("%" + authorName + "%"))
-                .orderBy(getSortFields(pageable))
-                .limit(pageable.getPageSize())
+                .where(BOOKS.ID.in(hits))
+                .orderBy(DSL.greatest(wordSimilarity(text, title), wordSimilarity(text, name)).desc(), BOOKS.ID)
+                .limit(pageable.getPageSize() + 1)
                 .offset(pageable.getOffset())
-                .fetch()
-                .map(r -> {
-                    Book book = r.into(BOOKS).into(Book.class);
-                    Author author = new Author();
-                    author.setId(r.get(BOOKS.AUTHOR_ID));
-                    book.setAuthor(author);
-                    return book;
-                });
+                .fetchInto(Book.class);
 
-        long total = dsl.selectCount()
-                .from(BOOKS)
-                .join(AUTHORS).on(BOOKS.AUTHOR_ID.eq(AUTHORS.ID))
-                .where(AUTHORS.NAME.likeIgnoreCase("%" + authorName + "%"))
-                .fetchOne(0, Long.class);
+        return BookSearchRepository.toSlice(books, pageable);
+    }
+
+    private static Field<Float> wordSimilarity(Field<String> query, Field<String> value) {
+        return DSL.field("word_similarity({0}, {1})", Float.class, query, value);
+    }
+
+    public Slice<Book> findAllByOrderByTitleAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return slice(DSL.noCondition(), pageable, countMode, fields, BOOKS.TITLE.asc());
+    }
+
+    public Slice<Book> findAllByOrderByTitleDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return slice(DSL.noCondition(), pageable, countMode, fields, BOOKS.TITLE.desc());
+    }
+
+    public Slice<Book> findAllByOrderByPagesNumberAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return slice(DSL.noCondition(), pageable, countMode, fields, BOOKS.PAGES_NUMBER.asc());
+    }
+
+    public Slice<Book> findAllByOrderByPagesNumberDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return slice(DSL.noCondition(), pageable, countMode, fields, BOOKS.PAGES_NUMBER.desc());
+    }
 
-        return new PageImpl<>(books, pageable, total);
+    public Slice<Book> findAllByOrderByPublishingDateAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return slice(DSL.noCondition(), pageable, countMode, fields, BOOKS.PUBLISHING_DATE.asc());
     }
 
-    public Page<Book> findAllByOrderByTitleAsc(Pageable pageable) {
-        return findAll(pageable, BOOKS.TITLE.asc());
+    public Slice<Book> findAllByOrderByPublishingDateDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return slice(DSL.noCondition(), pageable, countMode, fields, BOOKS.PUBLISHING_DATE.desc());
     }
 
-    public Page<Book> findAllByOrderByTitleDesc(Pageable pageable) {
-        return findAll(pageable, BOOKS.TITLE.desc());
+    public KeysetPage<Book> findAll(BookSortKey sortKey, boolean descending, KeysetCursor cursor, int limit,
+                                    BookFields fields) {
+        return seek(DSL.noCondition(), sortKey, descending, cursor, limit, fields);
     }
 
-    public Page<Book> findAllByOrderByPagesNumberAsc(Pageable pageable) {
-        return findAll(pageable, BOOKS.PAGES_NUMBER.asc());
+    public KeysetPage<Book> findByTitleContainingIgnoreCase(String title, KeysetCursor cursor, int limit,
+                                                            BookFields fields) {
+        return seek(BOOKS.TITLE.containsIgnoreCase(title), BookSortKey.TITLE, false, cursor, limit, fields);
     }
 
-    public Page<Book> findAllByOrderByPagesNumberDesc(Pageable pageable) {
-        return findAll(pageable, BOOKS.PAGES_NUMBER.desc());
+    public KeysetPage<Book> findByGenre(String genre, KeysetCursor cursor, int limit, BookFields fields) {
+        return seek(BOOKS.GENRE.eq(genre), BookSortKey.ID, false, cursor, limit, fields);
     }
 
-    public Page<Book> findAllByOrderByPublishingDateAsc(Pageable pageable) {
-        return findAll(pageable, BOOKS.PUBLISHING_DATE.asc());
+    public KeysetPage<Book> findByPagesNumberBetween(int minPages, int maxPages, KeysetCursor cursor, int limit,
+                                                     BookFields fields) {
+        return seek(BOOKS.PAGES_NUMBER.between(minPages, maxPages), BookSortKey.PAGES_NUMBER, false, cursor, limit,
+                fields);
     }
 
-    public Page<Book> findAllByOrderByPublishingDateDesc(Pageable pageable) {
-        return findAll(pageable, BOOKS.PUBLISHING_DATE.desc());
+    public KeysetPage<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                        KeysetCursor cursor, int limit, BookFields fields) {
+        return seek(BOOKS.PUBLISHING_DATE.between(lowBound, highBound), BookSortKey.PUBLISHING_DATE, false,
+                cursor, limit, fields);
+    }
+
+    public KeysetPage<Book> findByAuthorNameContainingIgnoreCase(String authorName, KeysetCursor cursor, int limit,
+                                                                 BookFields fields) {
+        return seek(authorNameCondition(authorName), BookSortKey.ID, false, cursor, limit, fields);
+    }
+
+    /**
+     * Колонка сортировки выбирается, даже если её нет в fields: из неё строится курсор.
+     */
+    private KeysetPage<Book> seek(Condition condition, BookSortKey sortKey, boolean descending,
+                                  KeysetCursor cursor, int limit, BookFields fields) {
+        Field<?> field = getSortField(sortKey);
+        org.jooq.SortField<?>[] sortFields = sortKey == BookSortKey.ID
+                ? new org.jooq.SortField<?>[]{descending ? BOOKS.ID.desc() : BOOKS.ID.asc()}
+                : new org.jooq.SortField<?>[]{descending ? field.desc() : field.asc(),
+                        descending ? BOOKS.ID.desc() : BOOKS.ID.asc()};
+        SelectSeekStepN<Record> ordered = dsl.select(select(fields.withColumn(sortKey.getColumn())))
+                .from(BOOKS)
+                .where(condition)
+                .orderBy(sortFields);
+
+        List<Book> books;
+        if (cursor == null) {
+            books = ordered.limit(limit + 1).fetchInto(Book.class);
+        } else {
+            Object[] seekValues = sortKey == BookSortKey.ID
+                    ? new Object[]{cursor.getId()}
+                    : new Object[]{sortKey.parse(cursor.getValue()), cursor.getId()};
+            books = ordered.seek(seekValues).limit(limit + 1).fetchInto(Book.class);
+        }
+        return KeysetPage.of(books, limit, sortKey, descending);
+    }
+
+    private static List<Field<?>> select(BookFields fields) {
+        return fields.getFields().stream().<Field<?>>map(field -> switch (field) {
+            case ID -> BOOKS.ID;
+            case TITLE -> BOOKS.TITLE;
+            case GENRE -> BOOKS.GENRE;
+            case PAGES_NUMBER -> BOOKS.PAGES_NUMBER;
+            case PUBLISHING_DATE -> BOOKS.PUBLISHING_DATE;
+            case DESCRIPTION -> BOOKS.DESCRIPTION;
+        }).toList();
+    }
+
+    private Field<?> getSortField(BookSortKey sortKey) {
+        return switch (sortKey) {
+            case ID -> BOOKS.ID;
+            case TITLE -> BOOKS.TITLE;
+            case PAGES_NUMBER -> BOOKS.PAGES_NUMBER;
+            case PUBLISHING_DATE -> BOOKS.PUBLISHING_DATE;
+        };
+    }
+
+    /**
+     * Поиск по подстроке без сортировки в запросе упорядочен по id, как результаты BookSearchIndex.
+     */
+    private org.jooq.SortField<?>[] getSortFieldsOrId(Pageable pageable) {
+        return pageable.getSort().isSorted() ? getSortFields(pageable) : new org.jooq.SortField<?>[]{BOOKS.ID.asc()};
     }
 
     private org.jooq.SortField<?>[] getSortFields(Pageable pageable) {
@@ -233,37 +374,35 @@ public class BookJooqRepository {
     public List<AuthorStatsDto> getFullAuthorStats() {
         return dsl.select(
                         AUTHORS.NAME,
-                        DSL.count(BOOKS.ID).as("bookCount"),
-                        DSL.avg(BOOKS.PAGES_NUMBER).as("avgPages"),
-                        DSL.min(BOOKS.PUBLISHING_DATE).as("firstPublishDate"),
-                        DSL.max(BOOKS.PUBLISHING_DATE).as("lastPublishDate")
+                        authorBookCount().as("bookCount"),
+                        authorAvgPages().as("avgPages"),
+                        AUTHOR_STATS.FIRST_PUBLISH_DATE.as("firstPublishDate"),
+                        AUTHOR_STATS.LAST_PUBLISH_DATE.as("lastPublishDate")
                 )
                 .from(AUTHORS)
-                .leftJoin(BOOKS).on(AUTHORS.ID.eq(BOOKS.AUTHOR_ID))
-                .groupBy(AUTHORS.ID, AUTHORS.NAME)
+                .leftJoin(AUTHOR_STATS).on(AUTHORS.ID.eq(AUTHOR_STATS.AUTHOR_ID))
                 .fetchInto(AuthorStatsDto.class);
     }
 
     public List<GenreStatsDto> getGenreStats() {
         return dsl.select(
-                        BOOKS.GENRE,
-                        DSL.count().as("bookCount"),
-                        DSL.avg(BOOKS.PAGES_NUMBER).as("avgPages")
+                        GENRE_STATS.GENRE,
+                        GENRE_STATS.BOOK_COUNT.as("bookCount"),
+                        GENRE_STATS.PAGES_SUM.cast(Double.class).div(GENRE_STATS.BOOK_COUNT).as("avgPages")
                 )
-                .from(BOOKS)
-                .groupBy(BOOKS.GENRE)
+                .from(GENRE_STATS)
+                .where(GENRE_STATS.BOOK_COUNT.gt(0L))
                 .fetchInto(GenreStatsDto.class);
     }
 
     public List<AuthorSummaryDto> getAuthorStatsSummary() {
         return dsl.select(
                         AUTHORS.NAME,
-                        DSL.count(BOOKS.ID).as("bookCount"),
-                        DSL.sum(BOOKS.PAGES_NUMBER).as("totalPages")
+                        authorBookCount().as("bookCount"),
+                        AUTHOR_STATS.PAGES_SUM.as("totalPages")
                 )
                 .from(AUTHORS)
-                .leftJoin(BOOKS).on(AUTHORS.ID.eq(BOOKS.AUTHOR_ID))
-                .groupBy(AUTHORS.ID, AUTHORS.NAME)
+                .leftJoin(AUTHOR_STATS).on(AUTHORS.ID.eq(AUTHOR_STATS.AUTHOR_ID))
                 .fetchInto(AuthorSummaryDto.class);
     }
 
@@ -272,25 +411,34 @@ public class BookJooqRepository {
 
         result.setAuthors(dsl.select(
                         AUTHORS.NAME,
-                        DSL.count(BOOKS.ID).as("bookCount"),
-                        DSL.avg(BOOKS.PAGES_NUMBER).as("avgPages")
+                        authorBookCount().as("bookCount"),
+                        authorAvgPages().as("avgPages")
                 )
                 .from(AUTHORS)
-                .leftJoin(BOOKS).on(AUTHORS.ID.eq(BOOKS.AUTHOR_ID))
-                .groupBy(AUTHORS.ID, AUTHORS.NAME)
+                .leftJoin(AUTHOR_STATS).on(AUTHORS.ID.eq(AUTHOR_STATS.AUTHOR_ID))
                 .fetchInto(AuthorSummaryDto.class));
 
+        Field<BigDecimal> totalBooks = DSL.sum(GENRE_STATS.BOOK_COUNT);
+        Field<BigDecimal> totalPages = DSL.sum(GENRE_STATS.PAGES_SUM);
         result.setTotals(dsl.select(
-                        DSL.count(BOOKS.ID).as("totalBooks"),
-                        DSL.sum(BOOKS.PAGES_NUMBER).as("totalPages"),
-                        DSL.avg(BOOKS.PAGES_NUMBER).as("avgPagesAll")
+                        totalBooks.as("totalBooks"),
+                        totalPages.as("totalPages"),
+                        totalPages.cast(Double.class).div(DSL.nullif(totalBooks, BigDecimal.ZERO)).as("avgPagesAll")
                 )
-                .from(BOOKS)
+                .from(GENRE_STATS)
                 .fetchOneInto(TotalStatsDto.class));
 
         return result;
     }
 
+    private static Field<Long> authorBookCount() {
+        return DSL.coalesce(AUTHOR_STATS.BOOK_COUNT, 0L);
+    }
+
+    private static Field<Double> authorAvgPages() {
+        return AUTHOR_STATS.PAGES_SUM.cast(Double.class).div(DSL.nullif(AUTHOR_STATS.BOOK_COUNT, 0L));
+    }
+
     private void loadAuthorBooks(Author author) {
         if (author != null) {
             List<Book> books = dsl.selectFrom(BOOKS)
@@ -0,0 +1,64 @@
+package com.example.repository.jooq;
+
+import com.example.model.Book;
+import org.jooq.Record;
+import org.jooq.RecordMapper;
+import org.jooq.RecordType;
+
+import java.time.LocalDate;
+
+import static org.jooq.generated.tables.Books.BOOKS;
+
+/**
+ * Отображение записей таблицы books в Book по индексам полей без рефлексии.
+ * Индексы определяются один раз для типа записи запроса, автор не заполняется,
+ * как и при отображении через DefaultRecordMapper. Поля, не выбранные запросом
+ * с параметром fields, не заполняются.
+ */
+public class BookRecordMapper<R extends Record> implements RecordMapper<R, Book> {
+    private final int id;
+    private final int title;
+    private final int genre;
+    private final int pagesNumber;
+    private final int publishingDate;
+    private final int description;
+
+    private BookRecordMapper(RecordType<R> recordType) {
+        this.id = recordType.indexOf(BOOKS.ID);
+        this.title = recordType.indexOf(BOOKS.TITLE);
+        this.genre = recordType.indexOf(BOOKS.GENRE);
+        this.pagesNumber = recordType.indexOf(BOOKS.PAGES_NUMBER);
+        this.publishingDate = recordType.indexOf(BOOKS.PUBLISHING_DATE);
+        this.description = recordType.indexOf(BOOKS.DESCRIPTION);
+    }
+
+    /**
+     * @return отображение или null, если в записи нет id книги
+     */
+    static <R extends Record> BookRecordMapper<R> of(RecordType<R> recordType) {
+        BookRecordMapper<R> mapper = new BookRecordMapper<>(recordType);
+        return mapper.id >= 0 ? mapper : null;
+    }
+
+    @Override
+    public Book map(R record) {
+        Book book = new Book();
+        book.setId((Long) record.get(id));
+        if (title >= 0) {
+            book.setTitle((String) record.get(title));
+        }
+        if (genre >= 0) {
+            book.setGenre((String) record.get(genre));
+        }
+        if (pagesNumber >= 0) {
+            book.setPagesNumber((Integer) record.get(pagesNumber));
+        }
+        if (publishingDate >= 0) {
+            book.setPublishingDate((LocalDate) record.get(publishingDate));
+        }
+        if (description >= 0) {
+            book.setDescription((String) record.get(description));
+        }
+        return book;
+    }
+}
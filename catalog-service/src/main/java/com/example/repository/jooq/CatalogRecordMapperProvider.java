@@ -0,0 +1,30 @@
+package com.example.repository.jooq;
+
+import com.example.model.Author;
+import com.example.model.Book;
+import org.jooq.Record;
+import org.jooq.RecordMapper;
+import org.jooq.RecordMapperProvider;
+import org.jooq.RecordType;
+import org.jooq.impl.DefaultRecordMapper;
+
+/**
+ * Подставляет BookRecordMapper и AuthorRecordMapper для fetchInto(Book.class) и fetchInto(Author.class).
+ * jOOQ запрашивает отображение один раз на результат запроса, поэтому поля ищутся один раз,
+ * а не для каждой строки. Остальные типы, записи книг без id и записи авторов без нужных полей
+ * отображает DefaultRecordMapper.
+ */
+public class CatalogRecordMapperProvider implements RecordMapperProvider {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends Record, E> RecordMapper<R, E> provide(RecordType<R> recordType, Class<? extends E> type) {
+        RecordMapper<R, ?> mapper = null;
+        if (type == Book.class) {
+            mapper = BookRecordMapper.of(recordType);
+        } else if (type == Author.class) {
+            mapper = AuthorRecordMapper.of(recordType);
+        }
+        return mapper != null ? (RecordMapper<R, E>) mapper : new DefaultRecordMapper<>(recordType, type);
+    }
+}
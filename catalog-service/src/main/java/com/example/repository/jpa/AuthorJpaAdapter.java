@@ -0,0 +1,173 @@
+package com.example.repository.jpa;
+
+import com.example.model.Author;
+import com.example.model.Book;
+import com.example.pagination.AuthorSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.repository.AuthorRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация AuthorRepository через Spring Data JPA.
+ * Общее количество JPA всегда считает точно, countMode не учитывается.
+ * Авторы страницы отсоединяются от контекста перед изменением списка книг: иначе ленивый список
+ * загрузился бы при сериализации, а замена списка управляемой сущности удалила бы книги через orphanRemoval.
+ */
+@Repository
+public class AuthorJpaAdapter implements AuthorRepository {
+    private final AuthorJpaRepository authorRepository;
+    private final EntityManager entityManager;
+
+    public AuthorJpaAdapter(AuthorJpaRepository authorRepository, EntityManager entityManager) {
+        this.authorRepository = authorRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Существующий автор изменяется через загруженную сущность: merge объекта из запроса
+     * без списка книг удалил бы книги автора через orphanRemoval.
+     */
+    @Override
+    public boolean save(Author author) {
+        if (author.getId() == null) {
+            authorRepository.saveAndFlush(author);
+            return true;
+        }
+        return authorRepository.findById(author.getId())
+                .map(existing -> {
+                    existing.setName(author.getName());
+                    existing.setBirthDate(author.getBirthDate());
+                    existing.setLocation(author.getLocation());
+                    existing.setBio(author.getBio());
+                    authorRepository.flush();
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    @Override
+    public boolean deleteById(long id) {
+        if (!authorRepository.existsById(id)) {
+            return false;
+        }
+        authorRepository.deleteById(id);
+        return true;
+    }
+
+    @Override
+    public Optional<Author> findById(long id) {
+        return authorRepository.findAllWithBooksByIdIn(List.of(id)).stream().findFirst();
+    }
+
+    @Override
+    public Slice<Author> findByNameContainingIgnoreCase(String name, Pageable pageable, CountMode countMode) {
+        return authorRepository.findByNameContainingIgnoreCase(name, pageable);
+    }
+
+    @Override
+    public Slice<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable,
+                                                CountMode countMode) {
+        return authorRepository.findByBirthDateBetween(lowBound, highBound, pageable);
+    }
+
+    @Override
+    public Slice<Author> findByLocation(String location, Pageable pageable, CountMode countMode) {
+        return authorRepository.findByLocation(location, pageable);
+    }
+
+    @Override
+    public Slice<Author> findByBookGenre(String genre, Pageable pageable, CountMode countMode) {
+        return authorRepository.findByBookGenre(genre, pageable);
+    }
+
+    @Override
+    public Slice<Author> findAllByOrderByNameAsc(Pageable pageable, CountMode countMode) {
+        return authorRepository.findAllByOrderByNameAsc(pageable);
+    }
+
+    @Override
+    public Slice<Author> findAllByOrderByNameDesc(Pageable pageable, CountMode countMode) {
+        return authorRepository.findAllByOrderByNameDesc(pageable);
+    }
+
+    @Override
+    public Slice<Author> findAllByOrderByBirthDateAsc(Pageable pageable, CountMode countMode) {
+        return authorRepository.findAllByOrderByBirthDateAsc(pageable);
+    }
+
+    @Override
+    public Slice<Author> findAllByOrderByBirthDateDesc(Pageable pageable, CountMode countMode) {
+        return authorRepository.findAllByOrderByBirthDateDesc(pageable);
+    }
+
+    @Override
+    public Slice<Author> findAllOrderByBooksCountAsc(Pageable pageable, CountMode countMode) {
+        return authorRepository.findAllOrderByBooksCountAsc(pageable);
+    }
+
+    @Override
+    public Slice<Author> findAllOrderByBooksCountDesc(Pageable pageable, CountMode countMode) {
+        return authorRepository.findAllOrderByBooksCountDesc(pageable);
+    }
+
+    @Override
+    public KeysetPage<Author> findAll(AuthorSortKey sortKey, boolean descending, KeysetCursor cursor, int limit) {
+        return authorRepository.findAll(sortKey, descending, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Author> findByNameContainingIgnoreCase(String name, KeysetCursor cursor, int limit) {
+        return authorRepository.findByNameContainingIgnoreCase(name, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                     KeysetCursor cursor, int limit) {
+        return authorRepository.findByBirthDateBetween(lowBound, highBound, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Author> findByLocation(String location, KeysetCursor cursor, int limit) {
+        return authorRepository.findByLocation(location, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Author> findByBookGenre(String genre, KeysetCursor cursor, int limit) {
+        return authorRepository.findByBookGenre(genre, cursor, limit);
+    }
+
+    @Override
+    public void loadBooks(Collection<Author> authors) {
+        if (authors.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Book>> booksByAuthor = authorRepository
+                .findAllWithBooksByIdIn(authors.stream().map(Author::getId).toList()).stream()
+                .collect(Collectors.toMap(Author::getId, Author::getBooks));
+        authors.forEach(author -> {
+            entityManager.detach(author);
+            author.setBooks(new ArrayList<>(booksByAuthor.getOrDefault(author.getId(), List.of())));
+        });
+    }
+
+    @Override
+    public void clearBooks(Collection<Author> authors) {
+        authors.forEach(author -> {
+            entityManager.detach(author);
+            author.setBooks(null);
+        });
+    }
+}
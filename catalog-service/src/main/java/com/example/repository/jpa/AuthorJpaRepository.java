@@ -1,14 +1,26 @@
 package com.example.repository.jpa;
 
 import com.example.model.Author;
+import com.example.pagination.AuthorSortKey;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Репозиторий для работы с авторами в базе данных.
@@ -31,6 +43,70 @@ public interface AuthorJpaRepository extends JpaRepository<Author, Long>{
     Page<Author> findAllByOrderByBirthDateAsc(Pageable pageable);
     Page<Author> findAllByOrderByBirthDateDesc(Pageable pageable);
 
+    // Пакетная загрузка книг
+    @Query("SELECT DISTINCT a FROM Author a LEFT JOIN FETCH a.books WHERE a.id IN :ids")
+    List<Author> findAllWithBooksByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset-пагинация
+    Window<Author> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    Window<Author> findByNameContainingIgnoreCase(String name, ScrollPosition position, Sort sort, Limit limit);
+    Window<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound,
+                                          ScrollPosition position, Sort sort, Limit limit);
+    Window<Author> findByLocation(String location, ScrollPosition position, Sort sort, Limit limit);
+    Window<Author> findDistinctByBooksGenre(String genre, ScrollPosition position, Sort sort, Limit limit);
+
+    default KeysetPage<Author> findAll(AuthorSortKey sortKey, boolean descending, KeysetCursor cursor, int limit) {
+        return toKeysetPage(findAllBy(toPosition(sortKey, cursor), toSort(sortKey, descending), Limit.of(limit + 1)),
+                limit, sortKey, descending);
+    }
+
+    default KeysetPage<Author> findByNameContainingIgnoreCase(String name, KeysetCursor cursor, int limit) {
+        AuthorSortKey sortKey = AuthorSortKey.NAME;
+        return toKeysetPage(findByNameContainingIgnoreCase(name, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    default KeysetPage<Author> findByBirthDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                      KeysetCursor cursor, int limit) {
+        AuthorSortKey sortKey = AuthorSortKey.BIRTH_DATE;
+        return toKeysetPage(findByBirthDateBetween(lowBound, highBound, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    default KeysetPage<Author> findByLocation(String location, KeysetCursor cursor, int limit) {
+        AuthorSortKey sortKey = AuthorSortKey.ID;
+        return toKeysetPage(findByLocation(location, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    default KeysetPage<Author> findByBookGenre(String genre, KeysetCursor cursor, int limit) {
+        AuthorSortKey sortKey = AuthorSortKey.ID;
+        return toKeysetPage(findDistinctByBooksGenre(genre, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    private static ScrollPosition toPosition(AuthorSortKey sortKey, KeysetCursor cursor) {
+        if (cursor == null) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sortKey.getProperty(), sortKey.parse(cursor.getValue()));
+        keys.put(AuthorSortKey.ID.getProperty(), cursor.getId());
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Sort toSort(AuthorSortKey sortKey, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return sortKey == AuthorSortKey.ID
+                ? Sort.by(direction, sortKey.getProperty())
+                : Sort.by(direction, sortKey.getProperty(), AuthorSortKey.ID.getProperty());
+    }
+
+    private static KeysetPage<Author> toKeysetPage(Window<Author> window, int limit, AuthorSortKey sortKey,
+                                                   boolean descending) {
+        return KeysetPage.of(new ArrayList<>(window.getContent()), limit, sortKey, descending);
+    }
+
     // Сложные запросы
     @Query("SELECT a FROM Author a LEFT JOIN a.books b GROUP BY a.id ORDER BY COUNT(b) ASC")
     Page<Author> findAllOrderByBooksCountAsc(Pageable pageable);
@@ -0,0 +1,204 @@
+package com.example.repository.jpa;
+
+import com.example.model.Book;
+import com.example.pagination.BookSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.projection.BookFields;
+import com.example.repository.BookRepository;
+import com.example.search.BookSearchQuery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация BookRepository через Spring Data JPA.
+ * BookJpaRepository не может реализовать контракт сам: save и deleteById JpaRepository
+ * имеют другие возвращаемые типы. Общее количество JPA всегда считает точно, countMode не учитывается.
+ * Сущности загружаются целиком, fields не учитывается: лишние поля отсекаются при сериализации ответа.
+ */
+@Repository
+public class BookJpaAdapter implements BookRepository {
+    private final BookJpaRepository bookRepository;
+
+    public BookJpaAdapter(BookJpaRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Изменения сбрасываются сразу, чтобы нарушение внешнего ключа автора
+     * возникло внутри вызова, а не при фиксации транзакции.
+     */
+    @Override
+    public boolean save(Book book) {
+        if (book.getId() != null && !bookRepository.existsById(book.getId())) {
+            return false;
+        }
+        bookRepository.saveAndFlush(book);
+        return true;
+    }
+
+    @Override
+    public boolean deleteById(long id) {
+        if (!bookRepository.existsById(id)) {
+            return false;
+        }
+        bookRepository.deleteById(id);
+        return true;
+    }
+
+    @Override
+    public boolean existsById(long id) {
+        return bookRepository.existsById(id);
+    }
+
+    @Override
+    public Optional<Book> findById(long id) {
+        return bookRepository.findById(id);
+    }
+
+    @Override
+    public List<Book> findAllById(List<Long> ids, BookFields fields) {
+        Map<Long, Book> booksById = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Book> findAllWithAuthorById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = bookRepository.findWithAuthorByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Long> findIdsAfter(long afterId, int limit) {
+        return bookRepository.findIdsAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Slice<Book> search(BookSearchQuery query, Pageable pageable) {
+        return bookRepository.search(query, pageable);
+    }
+
+    @Override
+    public Slice<Book> findAll(Pageable pageable, CountMode countMode, BookFields fields) {
+        return bookRepository.findAll(pageable);
+    }
+
+    @Override
+    public Slice<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable, CountMode countMode,
+                                                       BookFields fields) {
+        return bookRepository.findByTitleContainingIgnoreCase(title, sortedOrById(pageable));
+    }
+
+    @Override
+    public Slice<Book> findByGenre(String genre, Pageable pageable, CountMode countMode, BookFields fields) {
+        return bookRepository.findByGenre(genre, pageable);
+    }
+
+    @Override
+    public Slice<Book> findByPagesNumberBetween(int minPages, int maxPages, Pageable pageable, CountMode countMode,
+                                                BookFields fields) {
+        return bookRepository.findByPagesNumberBetween(minPages, maxPages, pageable);
+    }
+
+    @Override
+    public Slice<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable,
+                                                   CountMode countMode, BookFields fields) {
+        return bookRepository.findByPublishingDateBetween(lowBound, highBound, pageable);
+    }
+
+    @Override
+    public Slice<Book> findByAuthorNameContainingIgnoreCase(String authorName, Pageable pageable,
+                                                            CountMode countMode, BookFields fields) {
+        return bookRepository.findByAuthorNameContainingIgnoreCase(authorName, sortedOrById(pageable));
+    }
+
+    /**
+     * Поиск по подстроке без сортировки в запросе упорядочен по id, как результаты BookSearchIndex.
+     */
+    private static Pageable sortedOrById(Pageable pageable) {
+        return pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+    }
+
+    @Override
+    public Slice<Book> findAllByOrderByTitleAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return bookRepository.findAllByOrderByTitleAsc(pageable);
+    }
+
+    @Override
+    public Slice<Book> findAllByOrderByTitleDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return bookRepository.findAllByOrderByTitleDesc(pageable);
+    }
+
+    @Override
+    public Slice<Book> findAllByOrderByPagesNumberAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return bookRepository.findAllByOrderByPagesNumberAsc(pageable);
+    }
+
+    @Override
+    public Slice<Book> findAllByOrderByPagesNumberDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return bookRepository.findAllByOrderByPagesNumberDesc(pageable);
+    }
+
+    @Override
+    public Slice<Book> findAllByOrderByPublishingDateAsc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return bookRepository.findAllByOrderByPublishingDateAsc(pageable);
+    }
+
+    @Override
+    public Slice<Book> findAllByOrderByPublishingDateDesc(Pageable pageable, CountMode countMode, BookFields fields) {
+        return bookRepository.findAllByOrderByPublishingDateDesc(pageable);
+    }
+
+    @Override
+    public KeysetPage<Book> findAll(BookSortKey sortKey, boolean descending, KeysetCursor cursor, int limit,
+                                    BookFields fields) {
+        return bookRepository.findAll(sortKey, descending, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Book> findByTitleContainingIgnoreCase(String title, KeysetCursor cursor, int limit,
+                                                            BookFields fields) {
+        return bookRepository.findByTitleContainingIgnoreCase(title, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Book> findByGenre(String genre, KeysetCursor cursor, int limit, BookFields fields) {
+        return bookRepository.findByGenre(genre, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Book> findByPagesNumberBetween(int minPages, int maxPages, KeysetCursor cursor, int limit,
+                                                     BookFields fields) {
+        return bookRepository.findByPagesNumberBetween(minPages, maxPages, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                        KeysetCursor cursor, int limit, BookFields fields) {
+        return bookRepository.findByPublishingDateBetween(lowBound, highBound, cursor, limit);
+    }
+
+    @Override
+    public KeysetPage<Book> findByAuthorNameContainingIgnoreCase(String authorName, KeysetCursor cursor, int limit,
+                                                                 BookFields fields) {
+        return bookRepository.findByAuthorNameContainingIgnoreCase(authorName, cursor, limit);
+    }
+}
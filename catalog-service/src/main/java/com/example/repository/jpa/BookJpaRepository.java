@@ -1,15 +1,29 @@
 package com.example.repository.jpa;
 
 import com.example.model.Book;
+import com.example.pagination.BookSortKey;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.search.BookSearchQuery;
+import com.example.search.BookSearchRepository;
+import com.example.search.BookSearchSql;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,7 +32,7 @@ import java.util.Map;
  * Наследует JpaRepository для базовых CRUD-операций.
  */
 @Repository
-public interface BookJpaRepository extends JpaRepository<Book, Long>{
+public interface BookJpaRepository extends JpaRepository<Book, Long>, BookSearchRepository {
     // Фильтрация
     Page<Book> findByGenre(String genre, Pageable pageable);
     Page<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound, Pageable pageable);
@@ -36,33 +50,116 @@ public interface BookJpaRepository extends JpaRepository<Book, Long>{
     Page<Book> findAllByOrderByPublishingDateAsc(Pageable pageable);
     Page<Book> findAllByOrderByPublishingDateDesc(Pageable pageable);
 
-    // Статистические методы
+    // Keyset-пагинация
+    Window<Book> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    Window<Book> findByTitleContainingIgnoreCase(String title, ScrollPosition position, Sort sort, Limit limit);
+    Window<Book> findByGenre(String genre, ScrollPosition position, Sort sort, Limit limit);
+    Window<Book> findByPagesNumberBetween(int minPages, int maxPages, ScrollPosition position, Sort sort, Limit limit);
+    Window<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound,
+                                             ScrollPosition position, Sort sort, Limit limit);
+    Window<Book> findByAuthorNameContainingIgnoreCase(String authorName, ScrollPosition position, Sort sort, Limit limit);
+
+    // Книги с авторами одним запросом
+    @Query("SELECT b FROM Book b JOIN FETCH b.author WHERE b.id IN :ids")
+    List<Book> findWithAuthorByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // Ранжированный поиск
+    @Query(value = BookSearchSql.RANKED_SEARCH, nativeQuery = true)
+    List<Book> searchRanked(@Param("text") String text, @Param("pattern") String pattern,
+                            @Param("limit") int limit, @Param("offset") long offset);
+
+    @Override
+    default Slice<Book> search(BookSearchQuery query, Pageable pageable) {
+        return BookSearchRepository.toSlice(searchRanked(query.getText(), query.getPattern(),
+                pageable.getPageSize() + 1, pageable.getOffset()), pageable);
+    }
+
+    default KeysetPage<Book> findAll(BookSortKey sortKey, boolean descending, KeysetCursor cursor, int limit) {
+        return toKeysetPage(findAllBy(toPosition(sortKey, cursor), toSort(sortKey, descending), Limit.of(limit + 1)),
+                limit, sortKey, descending);
+    }
+
+    default KeysetPage<Book> findByTitleContainingIgnoreCase(String title, KeysetCursor cursor, int limit) {
+        BookSortKey sortKey = BookSortKey.TITLE;
+        return toKeysetPage(findByTitleContainingIgnoreCase(title, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    default KeysetPage<Book> findByGenre(String genre, KeysetCursor cursor, int limit) {
+        BookSortKey sortKey = BookSortKey.ID;
+        return toKeysetPage(findByGenre(genre, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    default KeysetPage<Book> findByPagesNumberBetween(int minPages, int maxPages, KeysetCursor cursor, int limit) {
+        BookSortKey sortKey = BookSortKey.PAGES_NUMBER;
+        return toKeysetPage(findByPagesNumberBetween(minPages, maxPages, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    default KeysetPage<Book> findByPublishingDateBetween(LocalDate lowBound, LocalDate highBound,
+                                                         KeysetCursor cursor, int limit) {
+        BookSortKey sortKey = BookSortKey.PUBLISHING_DATE;
+        return toKeysetPage(findByPublishingDateBetween(lowBound, highBound, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    default KeysetPage<Book> findByAuthorNameContainingIgnoreCase(String authorName, KeysetCursor cursor, int limit) {
+        BookSortKey sortKey = BookSortKey.ID;
+        return toKeysetPage(findByAuthorNameContainingIgnoreCase(authorName, toPosition(sortKey, cursor),
+                toSort(sortKey, false), Limit.of(limit + 1)), limit, sortKey, false);
+    }
+
+    private static ScrollPosition toPosition(BookSortKey sortKey, KeysetCursor cursor) {
+        if (cursor == null) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sortKey.getProperty(), sortKey.parse(cursor.getValue()));
+        keys.put(BookSortKey.ID.getProperty(), cursor.getId());
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Sort toSort(BookSortKey sortKey, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return sortKey == BookSortKey.ID
+                ? Sort.by(direction, sortKey.getProperty())
+                : Sort.by(direction, sortKey.getProperty(), BookSortKey.ID.getProperty());
+    }
+
+    private static KeysetPage<Book> toKeysetPage(Window<Book> window, int limit, BookSortKey sortKey,
+                                                 boolean descending) {
+        return KeysetPage.of(new ArrayList<>(window.getContent()), limit, sortKey, descending);
+    }
+
+    // Статистические методы читают агрегаты из genre_stats и author_stats
     @Query(value = """
-        SELECT a.name as authorName, COUNT(b.id) as bookCount, 
-               AVG(b.pages_number) as avgPages, 
-               MIN(b.publishing_date) as firstPublication
+        SELECT a.name as authorName, COALESCE(s.book_count, 0) as bookCount,
+               CAST(s.pages_sum AS float8) / NULLIF(s.book_count, 0) as avgPages,
+               s.first_publish_date as firstPublication
         FROM authors a
-        LEFT JOIN books b ON a.id = b.author_id
-        GROUP BY a.id, a.name
+        LEFT JOIN author_stats s ON a.id = s.author_id
         ORDER BY bookCount DESC
         """, nativeQuery = true)
     List<Map<String, Object>> getAuthorStats();
 
     @Query(value = """
-        SELECT a.name as authorName, COUNT(b.id) as bookCount
+        SELECT a.name as authorName, COALESCE(s.book_count, 0) as bookCount
         FROM authors a
-        LEFT JOIN books b ON a.id = b.author_id
-        GROUP BY a.id, a.name
+        LEFT JOIN author_stats s ON a.id = s.author_id
         ORDER BY bookCount DESC
         LIMIT 10
         """, nativeQuery = true)
     List<Map<String, Object>> getAuthorStatsSummary();
 
     @Query(value = """
-        SELECT genre, COUNT(id) as bookCount, 
-               AVG(pages_number) as avgPages
-        FROM books
-        GROUP BY genre
+        SELECT genre, book_count as bookCount,
+               CAST(pages_sum AS float8) / book_count as avgPages
+        FROM genre_stats
+        WHERE book_count > 0
         ORDER BY bookCount DESC
         """, nativeQuery = true)
     List<Map<String, Object>> getGenreStats();
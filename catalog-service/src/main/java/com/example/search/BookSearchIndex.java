@@ -0,0 +1,281 @@
+package com.example.search;
+
+import com.example.cache.InMemoryCatalogView;
+import com.example.model.Author;
+import com.example.model.Book;
+import com.example.repository.jdbc.AuthorJdbcRepository;
+import com.example.repository.jdbc.BookJdbcRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Поисковый индекс каталога в памяти сервиса: триграммы названий книг и имён авторов.
+ * Построение и обновление по событиям каталога общие с другими копиями (InMemoryCatalogView).
+ * Пока индекс строится, поиск возвращает Optional.empty() и сервис выполняет SQL запрос.
+ * Совпадения упорядочены по id, как в SQL запросе без сортировки; запросы с сортировкой выполняются в базе.
+ * Отсортированные совпадения запроса кэшируются до следующего изменения индекса, поэтому следующие
+ * страницы того же запроса берутся срезом без повторной сортировки.
+ */
+@Component
+public class BookSearchIndex extends InMemoryCatalogView {
+    private final BookJdbcRepository bookRepository;
+    private final AuthorJdbcRepository authorRepository;
+    private final int expectedSize;
+
+    private NgramIndex titles;
+    private NgramIndex authors;
+    private final Map<Long, Postings> booksByAuthor = new HashMap<>();
+    private long[] authorOfBook;
+
+    /* Отсортированные id совпадений по запросу; сбрасываются под блокировкой записи при любом изменении */
+    private final Cache<String, long[]> matchCache;
+
+    private final Counter indexHits;
+    private final Counter sqlFallbacks;
+
+    public BookSearchIndex(BookJdbcRepository bookRepository, AuthorJdbcRepository authorRepository,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${catalog.search.index.enabled:true}") boolean enabled,
+                           @Value("${catalog.search.index.expected-size:100000}") int expectedSize,
+                           @Value("${catalog.search.index.match-cache.max-ids:1000000}") long maxCachedIds) {
+        super("search index", enabled, transactionManager);
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.expectedSize = expectedSize;
+        this.matchCache = Caffeine.newBuilder()
+                .maximumWeight(maxCachedIds)
+                .weigher((String query, long[] ids) -> ids.length + 1)
+                .recordStats()
+                .build();
+        clear();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, matchCache, "searchMatches",
+                "name", "searchMatches", "cache.manager", "bookSearchIndex");
+        Gauge.builder("catalog.search.index.memory", this, index -> index.read(index::estimateBytes))
+                .description("Estimated heap size of the in-memory search index")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.index.documents", this, index -> index.read(index.titles::size))
+                .tag("type", "book")
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.index.documents", this, index -> index.read(index.authors::size))
+                .tag("type", "author")
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.index.ready", this, index -> index.isReady() ? 1 : 0)
+                .register(meterRegistry);
+        this.indexHits = Counter.builder("catalog.search.index.queries").tag("source", "index")
+                .register(meterRegistry);
+        this.sqlFallbacks = Counter.builder("catalog.search.index.queries").tag("source", "sql")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void clear() {
+        titles = new NgramIndex(expectedSize);
+        authors = new NgramIndex(Math.max(expectedSize / 10, 16));
+        authorOfBook = new long[Math.max(expectedSize, 16)];
+        booksByAuthor.clear();
+    }
+
+    @Override
+    protected void forEachAuthor(Consumer<Author> consumer) {
+        authorRepository.forEachName(consumer);
+    }
+
+    @Override
+    protected void forEachBook(Consumer<Book> consumer) {
+        bookRepository.forEachTitle(consumer);
+    }
+
+    @Override
+    protected Optional<Book> findBook(long id) {
+        return bookRepository.findTitleById(id);
+    }
+
+    @Override
+    protected Optional<String> findAuthorName(long id) {
+        return authorRepository.findNameById(id);
+    }
+
+    @Override
+    protected List<Book> findBooksByAuthorIds(Collection<Long> authorIds) {
+        return bookRepository.findTitlesByAuthorIds(authorIds);
+    }
+
+    @Override
+    protected boolean containsBook(long id) {
+        return titles.contains(id);
+    }
+
+    @Override
+    protected boolean containsAuthor(long id) {
+        return authors.contains(id);
+    }
+
+    @Override
+    protected String describe() {
+        return titles.size() + " books, " + authors.size() + " authors, ~" + (estimateBytes() >> 20) + " MB";
+    }
+
+    /**
+     * Отсортированные совпадения запросов устаревают при любом изменении индекса.
+     */
+    @Override
+    protected void afterWrite() {
+        matchCache.invalidateAll();
+    }
+
+    /**
+     * @return идентификаторы книг страницы в порядке id и общее количество совпадений по названию
+     * или Optional.empty(), если запрос нужно выполнить в базе
+     */
+    public Optional<Page<Long>> searchTitles(String query, Pageable pageable) {
+        return search("title:" + NgramIndex.normalize(query), () -> titles.search(query), pageable);
+    }
+
+    /**
+     * Книги авторов, имя которых содержит запрос.
+     */
+    public Optional<Page<Long>> searchAuthors(String query, Pageable pageable) {
+        return search("author:" + NgramIndex.normalize(query), () -> {
+            int[] authorDocs = authors.search(query);
+            if (authorDocs == null) {
+                return null;
+            }
+            List<Postings> lists = new ArrayList<>(authorDocs.length);
+            int total = 0;
+            for (int authorDoc : authorDocs) {
+                Postings books = booksByAuthor.get(authors.idOf(authorDoc));
+                if (books != null) {
+                    lists.add(books);
+                    total += books.size();
+                }
+            }
+            int[] docs = new int[total];
+            int position = 0;
+            for (Postings books : lists) {
+                position = books.copyTo(docs, position);
+            }
+            return docs;
+        }, pageable);
+    }
+
+    private Optional<Page<Long>> search(String key, Supplier<int[]> matcher, Pageable pageable) {
+        if (!isReady() || pageable.getSort().isSorted()) {
+            sqlFallbacks.increment();
+            return Optional.empty();
+        }
+        long[] matches = read(() -> {
+            long[] cached = matchCache.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+            int[] docs = matcher.get();
+            if (docs == null) {
+                return null;
+            }
+            /* Номера документов растут вместе с id не всегда: книги других экземпляров приходят не по порядку */
+            long[] ids = new long[docs.length];
+            for (int i = 0; i < docs.length; i++) {
+                ids[i] = titles.idOf(docs[i]);
+            }
+            Arrays.sort(ids);
+            matchCache.put(key, ids);
+            return ids;
+        });
+        if (matches == null) {
+            sqlFallbacks.increment();
+            return Optional.empty();
+        }
+        indexHits.increment();
+        int from = (int) Math.min(pageable.getOffset(), matches.length);
+        int to = Math.min(from + pageable.getPageSize(), matches.length);
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(matches[i]);
+        }
+        return Optional.of(new PageImpl<>(ids, pageable, matches.length));
+    }
+
+    @Override
+    protected void putBook(Book book) {
+        putBook(book.getId(), book.getTitle(), book.getAuthor().getId());
+    }
+
+    @Override
+    protected void putAuthor(long id, String name) {
+        authors.put(id, name);
+    }
+
+    private void putBook(long id, String title, long authorId) {
+        boolean existing = titles.contains(id);
+        int doc = titles.put(id, title);
+        if (doc >= authorOfBook.length) {
+            int capacity = Math.max(doc + 1, authorOfBook.length + (authorOfBook.length >> 1));
+            authorOfBook = Arrays.copyOf(authorOfBook, capacity);
+        }
+        if (existing && authorOfBook[doc] == authorId) {
+            return;
+        }
+        if (existing) {
+            removeFromAuthor(authorOfBook[doc], doc);
+        }
+        authorOfBook[doc] = authorId;
+        booksByAuthor.computeIfAbsent(authorId, key -> new Postings()).add(doc);
+    }
+
+    @Override
+    protected void deleteBook(long id) {
+        int doc = titles.remove(id);
+        if (doc >= 0) {
+            removeFromAuthor(authorOfBook[doc], doc);
+        }
+    }
+
+    @Override
+    protected void deleteAuthor(long id) {
+        authors.remove(id);
+        Postings books = booksByAuthor.remove(id);
+        if (books != null) {
+            for (int doc : books.toArray()) {
+                titles.remove(titles.idOf(doc));
+            }
+        }
+    }
+
+    private void removeFromAuthor(long authorId, int doc) {
+        Postings books = booksByAuthor.get(authorId);
+        if (books != null && books.remove(doc) && books.size() == 0) {
+            booksByAuthor.remove(authorId);
+        }
+    }
+
+    private long estimateBytes() {
+        long bytes = titles.estimateBytes() + authors.estimateBytes() + 16 + 8L * authorOfBook.length;
+        for (Postings books : booksByAuthor.values()) {
+            bytes += 64 + 4L * books.capacity();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.search;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * Нормализованный поисковый запрос по названию книги и имени автора.
+ * text используется операторами похожести pg_trgm, pattern - для LIKE с экранированными символами.
+ */
+@Getter
+public class BookSearchQuery {
+    private final String text;
+    private final String pattern;
+
+    private BookSearchQuery(String text) {
+        this.text = text;
+        this.pattern = "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    public static BookSearchQuery of(String query) {
+        return new BookSearchQuery(query == null ? "" : query.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public boolean isBlank() {
+        return text.isEmpty();
+    }
+}
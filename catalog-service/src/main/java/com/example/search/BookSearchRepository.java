@@ -0,0 +1,29 @@
+package com.example.search;
+
+import com.example.model.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+/**
+ * Общий контракт ранжированного поиска книг для JDBC, jOOQ и JPA репозиториев.
+ * Результаты упорядочены по убыванию релевантности, общее количество не считается.
+ */
+public interface BookSearchRepository {
+
+    /**
+     * Находит книги, у которых название или имя автора содержит запрос
+     * либо похоже на него с точностью до опечатки.
+     */
+    Slice<Book> search(BookSearchQuery query, Pageable pageable);
+
+    /**
+     * Формирует срез из выборки размером pageSize + 1.
+     */
+    static Slice<Book> toSlice(List<Book> books, Pageable pageable) {
+        boolean hasNext = books.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? books.subList(0, pageable.getPageSize()) : books, pageable, hasNext);
+    }
+}
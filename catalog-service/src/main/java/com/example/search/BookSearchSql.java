@@ -0,0 +1,25 @@
+package com.example.search;
+
+/**
+ * SQL ранжированного поиска для JDBC и нативного JPA запроса.
+ * Кандидаты отбираются по триграммным индексам idx_book_title_trgm и idx_author_name_trgm
+ * отдельно для названия и автора, чтобы OR между таблицами не приводил к полному сканированию.
+ * Релевантность - наибольшая word_similarity запроса с названием или именем автора.
+ */
+public final class BookSearchSql {
+    public static final String RANKED_SEARCH = "WITH hits AS (" +
+            "SELECT b.id FROM books b " +
+            "WHERE lower(b.title) LIKE :pattern OR lower(b.title) %> :text " +
+            "UNION " +
+            "SELECT b.id FROM books b JOIN authors a ON a.id = b.author_id " +
+            "WHERE lower(a.name) LIKE :pattern OR lower(a.name) %> :text) " +
+            "SELECT b.* FROM hits h " +
+            "JOIN books b ON b.id = h.id " +
+            "JOIN authors a ON a.id = b.author_id " +
+            "ORDER BY GREATEST(word_similarity(:text, lower(b.title)), " +
+            "word_similarity(:text, lower(a.name))) DESC, b.id " +
+            "LIMIT :limit OFFSET :offset";
+
+    private BookSearchSql() {
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Инвертированный триграммный индекс для поиска по подстроке.
+ * Документ - текст с внешним идентификатором, списки вхождений хранят внутренние номера документов
+ * в примитивных отсортированных массивах. Кандидаты, найденные пересечением списков,
+ * проверяются по сохранённому тексту, поэтому ложных совпадений нет.
+ * Класс не потокобезопасен: синхронизацию обеспечивает владелец индекса.
+ */
+public class NgramIndex {
+    public static final int N = 3;
+    private static final int[] NO_DOCS = new int[0];
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final LongIntHashMap docsById;
+    private long[] ids;
+    private String[] texts;
+    private int docCount;
+    private int liveCount;
+    private long textChars;
+
+    public NgramIndex(int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        docsById = new LongIntHashMap(capacity);
+        ids = new long[capacity];
+        texts = new String[capacity];
+    }
+
+    /**
+     * Добавляет документ или заменяет текст существующего, сохраняя его номер.
+     *
+     * @return номер документа
+     */
+    public int put(long id, String text) {
+        String normalized = normalize(text);
+        int doc = docsById.get(id);
+        if (doc >= 0) {
+            if (normalized.equals(texts[doc])) {
+                return doc;
+            }
+            removePostings(doc);
+        } else {
+            doc = allocate(id);
+        }
+        texts[doc] = normalized;
+        textChars += normalized.length();
+        for (long gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(doc);
+        }
+        return doc;
+    }
+
+    /**
+     * Номер удалённого документа не переиспользуется.
+     *
+     * @return номер удалённого документа или -1
+     */
+    public int remove(long id) {
+        int doc = docsById.remove(id);
+        if (doc >= 0) {
+            removePostings(doc);
+            texts[doc] = null;
+            liveCount--;
+        }
+        return doc;
+    }
+
+    public int docOf(long id) {
+        return docsById.get(id);
+    }
+
+    public long idOf(int doc) {
+        return ids[doc];
+    }
+
+    public boolean contains(long id) {
+        return docsById.get(id) >= 0;
+    }
+
+    /**
+     * @return отсортированные номера документов, содержащих запрос как подстроку,
+     * или null, если запрос короче триграммы и индекс не может его обслужить
+     */
+    public int[] search(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < N) {
+            return null;
+        }
+        long[] grams = grams(normalized);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return NO_DOCS;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+
+        int[] candidates = lists[0].toArray();
+        int count = candidates.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            count = lists[i].retainAll(candidates, count);
+        }
+        if (normalized.length() > N) {
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (texts[candidates[j]].contains(normalized)) {
+                    candidates[kept++] = candidates[j];
+                }
+            }
+            count = kept;
+        }
+        return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    public int gramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Приблизительный объём памяти индекса в байтах с учётом заголовков объектов
+     * и сжатых ссылок: словарь триграмм, списки вхождений, тексты и таблица идентификаторов.
+     */
+    public long estimateBytes() {
+        long bytes = 48L * postings.size();
+        for (Postings list : postings.values()) {
+            bytes += 16 + 4L * list.capacity();
+        }
+        bytes += 16 + 8L * ids.length + 16 + 4L * texts.length;
+        bytes += 40L * liveCount + textChars;
+        bytes += 12L * docsById.capacity();
+        return bytes;
+    }
+
+    private int allocate(long id) {
+        if (docCount == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+        }
+        int doc = docCount++;
+        ids[doc] = id;
+        docsById.put(id, doc);
+        liveCount++;
+        return doc;
+    }
+
+    private void removePostings(int doc) {
+        String text = texts[doc];
+        textChars -= text.length();
+        for (long gram : grams(text)) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(doc) && list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Уникальные триграммы текста, упакованные в long по 16 бит на символ.
+     */
+    static long[] grams(String text) {
+        int count = text.length() - N + 1;
+        if (count <= 0) {
+            return new long[0];
+        }
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int unique = 1;
+        for (int i = 1; i < count; i++) {
+            if (grams[i] != grams[unique - 1]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return unique == count ? grams : Arrays.copyOf(grams, unique);
+    }
+}
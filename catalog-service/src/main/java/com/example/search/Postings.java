@@ -0,0 +1,153 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Отсортированный по возрастанию список номеров документов на примитивном массиве.
+ * Удаление только помечает позицию в битовой карте; массив уплотняется, когда удалённых
+ * становится больше половины, поэтому удаление в среднем не сдвигает массив.
+ */
+final class Postings {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] docs = new int[INITIAL_CAPACITY];
+    /* Количество занятых позиций, включая удалённые */
+    private int size;
+    private BitSet removed;
+    private int removedCount;
+
+    int size() {
+        return size - removedCount;
+    }
+
+    int capacity() {
+        return docs.length;
+    }
+
+    /**
+     * Документы обычно добавляются по возрастанию номера, поэтому вставка в середину - редкий случай.
+     */
+    void add(int doc) {
+        if (size > 0 && docs[size - 1] >= doc) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position >= 0) {
+                if (isRemoved(position)) {
+                    removed.clear(position);
+                    removedCount--;
+                }
+                return;
+            }
+            /* Сдвиг массива сдвинул бы и пометки удаления, поэтому сначала список уплотняется */
+            compact();
+            insertAt(-Arrays.binarySearch(docs, 0, size, doc) - 1, doc);
+            return;
+        }
+        insertAt(size, doc);
+    }
+
+    boolean remove(int doc) {
+        int position = Arrays.binarySearch(docs, 0, size, doc);
+        if (position < 0 || isRemoved(position)) {
+            return false;
+        }
+        if (removed == null) {
+            removed = new BitSet(size);
+        }
+        removed.set(position);
+        removedCount++;
+        if (removedCount * 2 > size) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Оставляет в candidates[0..count) только документы из этого списка.
+     * Списки сопоставимого размера сливаются линейно, для короткого списка кандидатов
+     * используется двоичный поиск.
+     *
+     * @return количество оставшихся кандидатов
+     */
+    int retainAll(int[] candidates, int count) {
+        int kept = 0;
+        if (size < count * 8L) {
+            int position = 0;
+            for (int j = 0; j < count && position < size; j++) {
+                int doc = candidates[j];
+                while (position < size && docs[position] < doc) {
+                    position++;
+                }
+                if (position < size && docs[position] == doc && !isRemoved(position)) {
+                    candidates[kept++] = doc;
+                }
+            }
+            return kept;
+        }
+        int from = 0;
+        for (int j = 0; j < count; j++) {
+            int position = Arrays.binarySearch(docs, from, size, candidates[j]);
+            if (position >= 0) {
+                if (!isRemoved(position)) {
+                    candidates[kept++] = candidates[j];
+                }
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return kept;
+    }
+
+    int[] toArray() {
+        int[] result = new int[size()];
+        copyTo(result, 0);
+        return result;
+    }
+
+    /**
+     * Копирует документы списка в target начиная с offset.
+     *
+     * @return позиция в target после последнего скопированного документа
+     */
+    int copyTo(int[] target, int offset) {
+        if (removedCount == 0) {
+            System.arraycopy(docs, 0, target, offset, size);
+            return offset + size;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!removed.get(i)) {
+                target[offset++] = docs[i];
+            }
+        }
+        return offset;
+    }
+
+    private boolean isRemoved(int position) {
+        return removedCount > 0 && removed.get(position);
+    }
+
+    private void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removed.get(i)) {
+                docs[kept++] = docs[i];
+            }
+        }
+        size = kept;
+        removed = null;
+        removedCount = 0;
+    }
+
+    private void insertAt(int position, int doc) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length + (docs.length >> 1) + 1);
+        }
+        System.arraycopy(docs, position, docs, position + 1, size - position);
+        docs[position] = doc;
+        size++;
+    }
+}
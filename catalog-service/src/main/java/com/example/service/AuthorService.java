@@ -1,35 +1,55 @@
 package com.example.service;
 
+import com.example.cache.EntityCacheInvalidator;
+import com.example.config.CacheConfig;
+import com.example.config.PersistenceConfig;
+import com.example.datasource.Workload;
+import com.example.datasource.WorkloadPool;
 import com.example.dto.AuthorRequest;
+import com.example.event.AuthorChangedEvent;
 import com.example.model.Author;
-import com.example.repository.jdbc.AuthorJdbcRepository;
-import com.example.repository.jooq.AuthorJooqRepository;
-import com.example.repository.jpa.AuthorJpaRepository;
+import com.example.pagination.AuthorSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.repository.AuthorRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Сервис для работы с авторами.
  * Обеспечивает бизнес-логику и транзакционность операций.
  */
 @Service
+@WorkloadPool(Workload.OLTP)
+@Transactional(readOnly = true)
 public class AuthorService {
     private static final Logger logger = LoggerFactory.getLogger(AuthorService.class);
-    //private final AuthorJpaRepository authorRepository;
-    private final AuthorJdbcRepository authorRepository;
-    //private final AuthorJooqRepository authorRepository;
+    private final AuthorRepository authorRepository;
+    private final AuthorRepository authorWriteRepository;
+    private final EntityCacheInvalidator cacheInvalidator;
 
-    public AuthorService(AuthorJdbcRepository authorRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AuthorService(@Qualifier(PersistenceConfig.AUTHOR_READS) AuthorRepository authorRepository,
+                         @Qualifier(PersistenceConfig.AUTHOR_WRITES) AuthorRepository authorWriteRepository,
+                         EntityCacheInvalidator cacheInvalidator, ApplicationEventPublisher eventPublisher) {
         this.authorRepository = authorRepository;
+        this.authorWriteRepository = authorWriteRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -38,7 +58,8 @@ public class AuthorService {
         logger.info("Creating new author: {}", author.getName());
 
         try {
-            authorRepository.save(author);
+            authorWriteRepository.save(author);
+            eventPublisher.publishEvent(AuthorChangedEvent.saved(author));
             logger.info("Author created successfully with ID: {}", author.getId());
 
             Duration duration = Duration.between(start, Instant.now());
@@ -55,18 +76,12 @@ public class AuthorService {
         Instant start = Instant.now();
         logger.info("Updating author with ID: {}", id);
 
-        Author author = authorRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("Author not found with ID: {}", id);
-                    return new EntityNotFoundException("Автор не найден!");
-                });
-
-        author.setName(updatedAuthor.getName());
-        author.setBirthDate(updatedAuthor.getBirthDate());
-        author.setLocation(updatedAuthor.getLocation());
-        author.setBio(updatedAuthor.getBio());
-
-        authorRepository.save(author);
+        updatedAuthor.setId(id);
+        if (!authorWriteRepository.save(updatedAuthor)) {
+            logger.warn("Author not found with ID: {}", id);
+            throw new EntityNotFoundException("Автор не найден!");
+        }
+        eventPublisher.publishEvent(AuthorChangedEvent.saved(updatedAuthor));
 
         logger.info("Author with ID: {} updated successfully", id);
         Duration duration = Duration.between(start, Instant.now());
@@ -78,29 +93,34 @@ public class AuthorService {
         Instant start = Instant.now();
         logger.info("Deleting author with ID: {}", id);
 
-        if (!authorRepository.existsById(id)) {
+        if (!authorWriteRepository.deleteById(id)) {
             throw new EntityNotFoundException("Автор не найден!");
         }
-        authorRepository.deleteById(id);
+        eventPublisher.publishEvent(AuthorChangedEvent.deleted(id));
 
         logger.info("Author with ID: {} deleted successfully", id);
         Duration duration = Duration.between(start, Instant.now());
         logger.debug("Author deletion completed in {} ms", duration.toMillis());
     }
 
-    public Page<Author> getAll(Pageable pageable) {
+    public Slice<Author> getAll(Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching all authors with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findAllByOrderByNameAsc(pageable);
+        Slice<Author> authors = authorRepository.findAllByOrderByNameAsc(pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} all authors in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} all authors in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
     public Author getById(long id) {
+        return cacheInvalidator.getOrLoad(CacheConfig.AUTHORS, id, () -> load(id));
+    }
+
+    private Author load(long id) {
         Instant start = Instant.now();
         logger.debug("Fetching author by ID: {}", id);
 
@@ -116,126 +136,225 @@ public class AuthorService {
         return author;
     }
 
-    public Page<Author> getByName(String name, Pageable pageable) {
+    public Slice<Author> getByName(String name, Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching authors by name with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findByNameContainingIgnoreCase(name, pageable);
+        Slice<Author> authors = authorRepository.findByNameContainingIgnoreCase(name, pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by name in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by name in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getByBirthDateBetween(LocalDate begin, LocalDate end, Pageable pageable) {
+    public Slice<Author> getByBirthDateBetween(LocalDate begin, LocalDate end, Pageable pageable,
+                                               CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching authors by birth date with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findByBirthDateBetween(begin, end, pageable);
+        Slice<Author> authors = authorRepository.findByBirthDateBetween(begin, end, pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by birth date in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by birth date in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getByLocation(String location, Pageable pageable) {
+    public Slice<Author> getByLocation(String location, Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching authors by location with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findByLocation(location, pageable);
+        Slice<Author> authors = authorRepository.findByLocation(location, pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by location in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by location in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getByBookGenre(String genre, Pageable pageable) {
+    public Slice<Author> getByBookGenre(String genre, Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching authors by genre with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findByBookGenre(genre, pageable);
+        Slice<Author> authors = authorRepository.findByBookGenre(genre, pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by genre in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by genre in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getAllByOrderByNameAsc(Pageable pageable) {
+    public Slice<Author> getAllByOrderByNameAsc(Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching all authors by name with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findAllByOrderByNameAsc(pageable);
+        Slice<Author> authors = authorRepository.findAllByOrderByNameAsc(pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by name in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by name in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getAllByOrderByNameDesc(Pageable pageable) {
+    public Slice<Author> getAllByOrderByNameDesc(Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching all authors by name with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findAllByOrderByNameDesc(pageable);
+        Slice<Author> authors = authorRepository.findAllByOrderByNameDesc(pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by name in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by name in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getAllByOrderByBirthDateAsc(Pageable pageable) {
+    public Slice<Author> getAllByOrderByBirthDateAsc(Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching all authors by birth date with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findAllByOrderByBirthDateAsc(pageable);
+        Slice<Author> authors = authorRepository.findAllByOrderByBirthDateAsc(pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by birth date in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by birth date in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getAllByOrderByBirthDateDesc(Pageable pageable) {
+    public Slice<Author> getAllByOrderByBirthDateDesc(Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching all authors by birth date with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findAllByOrderByBirthDateDesc(pageable);
+        Slice<Author> authors = authorRepository.findAllByOrderByBirthDateDesc(pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by birth date in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by birth date in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getAllOrderByBooksCountAsc(Pageable pageable) {
+    public Slice<Author> getAllOrderByBooksCountAsc(Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching all authors by book genre with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findAllOrderByBooksCountAsc(pageable);
+        Slice<Author> authors = authorRepository.findAllOrderByBooksCountAsc(pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by book genre in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by book genre in {} ms", authors.getNumberOfElements(), duration.toMillis());
 
         return authors;
     }
 
-    public Page<Author> getAllOrderByBooksCountDesc(Pageable pageable) {
+    public Slice<Author> getAllOrderByBooksCountDesc(Pageable pageable, CountMode countMode, boolean withBooks) {
         Instant start = Instant.now();
         logger.debug("Fetching all authors by books count with pagination: {}", pageable);
 
-        Page<Author> authors = authorRepository.findAllOrderByBooksCountDesc(pageable);
+        Slice<Author> authors = authorRepository.findAllOrderByBooksCountDesc(pageable, countMode);
+        loadBooks(authors.getContent(), withBooks);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} authors by books count in {} ms", authors.getNumberOfElements(), duration.toMillis());
+
+        return authors;
+    }
+
+    public KeysetPage<Author> getAll(KeysetCursor cursor, int limit, boolean withBooks) {
+        Instant start = Instant.now();
+        logger.debug("Fetching all authors with keyset pagination, limit {}", limit);
+
+        KeysetPage<Author> authors = authorRepository.findAll(AuthorSortKey.NAME, false, cursor, limit);
+        loadBooks(authors.getContent(), withBooks);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} all authors in {} ms", authors.getSize(), duration.toMillis());
+
+        return authors;
+    }
+
+    public KeysetPage<Author> getByName(String name, KeysetCursor cursor, int limit, boolean withBooks) {
+        Instant start = Instant.now();
+        logger.debug("Fetching authors by name with keyset pagination, limit {}", limit);
+
+        KeysetPage<Author> authors = authorRepository.findByNameContainingIgnoreCase(name, cursor, limit);
+        loadBooks(authors.getContent(), withBooks);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} authors by books count in {} ms", authors.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} authors by name in {} ms", authors.getSize(), duration.toMillis());
 
         return authors;
     }
 
+    public KeysetPage<Author> getByBirthDateBetween(LocalDate begin, LocalDate end, KeysetCursor cursor, int limit,
+                                                    boolean withBooks) {
+        Instant start = Instant.now();
+        logger.debug("Fetching authors by birth date with keyset pagination, limit {}", limit);
+
+        KeysetPage<Author> authors = authorRepository.findByBirthDateBetween(begin, end, cursor, limit);
+        loadBooks(authors.getContent(), withBooks);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} authors by birth date in {} ms", authors.getSize(), duration.toMillis());
+
+        return authors;
+    }
+
+    public KeysetPage<Author> getByLocation(String location, KeysetCursor cursor, int limit, boolean withBooks) {
+        Instant start = Instant.now();
+        logger.debug("Fetching authors by location with keyset pagination, limit {}", limit);
+
+        KeysetPage<Author> authors = authorRepository.findByLocation(location, cursor, limit);
+        loadBooks(authors.getContent(), withBooks);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} authors by location in {} ms", authors.getSize(), duration.toMillis());
+
+        return authors;
+    }
+
+    public KeysetPage<Author> getByBookGenre(String genre, KeysetCursor cursor, int limit, boolean withBooks) {
+        Instant start = Instant.now();
+        logger.debug("Fetching authors by genre with keyset pagination, limit {}", limit);
+
+        KeysetPage<Author> authors = authorRepository.findByBookGenre(genre, cursor, limit);
+        loadBooks(authors.getContent(), withBooks);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} authors by genre in {} ms", authors.getSize(), duration.toMillis());
+
+        return authors;
+    }
+
+    public KeysetPage<Author> getAllOrderBy(AuthorSortKey sortKey, boolean descending, KeysetCursor cursor, int limit,
+                                            boolean withBooks) {
+        Instant start = Instant.now();
+        logger.debug("Fetching sorted authors with keyset pagination, limit {}", limit);
+
+        KeysetPage<Author> authors = authorRepository.findAll(sortKey, descending, cursor, limit);
+        loadBooks(authors.getContent(), withBooks);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} sorted authors in {} ms", authors.getSize(), duration.toMillis());
+
+        return authors;
+    }
+
+    private void loadBooks(List<Author> authors, boolean withBooks) {
+        if (withBooks) {
+            authorRepository.loadBooks(authors);
+        } else {
+            authorRepository.clearBooks(authors);
+        }
+    }
+
     public Author convertToAuthor(AuthorRequest dto) {
         Author author = new Author();
         author.setName(dto.getName());
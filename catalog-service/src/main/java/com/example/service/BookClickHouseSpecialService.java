@@ -0,0 +1,70 @@
+package com.example.service;
+
+import com.example.analytics.ClickHouseSync;
+import com.example.repository.clickhouse.BookClickHouseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Статистика из ClickHouse с переходом на Postgres.
+ * Запрос идёт в ClickHouse, пока ClickHouseSync считает копию свежей, иначе и при ошибке
+ * ClickHouse - в реализацию для Postgres, выбранную catalog.persistence.stats.
+ * Создаётся в PersistenceConfig при catalog.analytics.clickhouse.enabled=true.
+ */
+public class BookClickHouseSpecialService implements BookSpecialService {
+    private static final Logger logger = LoggerFactory.getLogger(BookClickHouseSpecialService.class);
+
+    private final BookClickHouseRepository clickHouse;
+    private final ClickHouseSync sync;
+    private final BookSpecialService postgres;
+    private final Counter clickHouseQueries;
+    private final Counter postgresQueries;
+
+    public BookClickHouseSpecialService(BookClickHouseRepository clickHouse, ClickHouseSync sync,
+                                        BookSpecialService postgres, MeterRegistry meterRegistry) {
+        this.clickHouse = clickHouse;
+        this.sync = sync;
+        this.postgres = postgres;
+        this.clickHouseQueries = Counter.builder("catalog.analytics.queries").tag("target", "clickhouse")
+                .register(meterRegistry);
+        this.postgresQueries = Counter.builder("catalog.analytics.queries").tag("target", "postgres")
+                .register(meterRegistry);
+    }
+
+    public List<Map<String, Object>> getGenreStats() {
+        return query(clickHouse::getGenreStats, postgres::getGenreStats);
+    }
+
+    public List<Map<String, Object>> getFullAuthorStats() {
+        return query(clickHouse::getFullAuthorStats, postgres::getFullAuthorStats);
+    }
+
+    public List<Map<String, Object>> getAuthorStatsSummary() {
+        return query(clickHouse::getAuthorStatsSummary, postgres::getAuthorStatsSummary);
+    }
+
+    public Map<String, Object> getCombinedAuthorStats() {
+        return query(clickHouse::getCombinedAuthorStats, postgres::getCombinedAuthorStats);
+    }
+
+    private <T> T query(Supplier<T> clickHouseQuery, Supplier<T> postgresQuery) {
+        if (sync.isFresh()) {
+            try {
+                T result = clickHouseQuery.get();
+                clickHouseQueries.increment();
+                return result;
+            } catch (DataAccessException e) {
+                logger.warn("ClickHouse stats query failed, using Postgres: {}", e.getMessage());
+            }
+        }
+        postgresQueries.increment();
+        return postgresQuery.get();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.service;
+
+import com.example.analytics.BookColumnarSnapshot;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Статистика по колоночному снимку книг в памяти сервиса.
+ * Пока снимок строится, запрос выполняет реализация, выбранная до него в PersistenceConfig.
+ * Создаётся в PersistenceConfig при catalog.analytics.columnar.enabled=true.
+ */
+public class BookColumnarSpecialService implements BookSpecialService {
+    private final BookColumnarSnapshot snapshot;
+    private final BookSpecialService fallback;
+
+    public BookColumnarSpecialService(BookColumnarSnapshot snapshot, BookSpecialService fallback) {
+        this.snapshot = snapshot;
+        this.fallback = fallback;
+    }
+
+    public List<Map<String, Object>> getGenreStats() {
+        return snapshot.getGenreStats().orElseGet(fallback::getGenreStats);
+    }
+
+    public List<Map<String, Object>> getFullAuthorStats() {
+        return snapshot.getFullAuthorStats().orElseGet(fallback::getFullAuthorStats);
+    }
+
+    public List<Map<String, Object>> getAuthorStatsSummary() {
+        return snapshot.getAuthorStatsSummary().orElseGet(fallback::getAuthorStatsSummary);
+    }
+
+    public Map<String, Object> getCombinedAuthorStats() {
+        return snapshot.getCombinedAuthorStats().orElseGet(fallback::getCombinedAuthorStats);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.service;
+
+import com.example.datasource.Workload;
+import com.example.datasource.WorkloadPool;
+import com.example.dto.BookExportFilter;
+import com.example.exporter.BookExportWriter;
+import com.example.repository.jdbc.BookJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Выгрузка каталога потоком из курсора базы данных.
+ * Книги пишутся клиенту по мере чтения, в памяти держится только текущая порция fetchSize,
+ * поэтому потребление памяти не зависит от размера каталога.
+ * На время выгрузки занимается одно соединение из пула.
+ * Транзакция управляется через DataSource, а не через JPA: EntityManager запроса (open-in-view)
+ * закрывается при обрыве соединения клиентом, и откат JPA транзакции завершился бы ошибкой.
+ */
+@Service
+@WorkloadPool(Workload.BULK)
+public class BookExportService {
+    private static final Logger logger = LoggerFactory.getLogger(BookExportService.class);
+
+    private final BookJdbcRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushRows;
+    private final Counter exportedRows;
+
+    public BookExportService(BookJdbcRepository bookRepository, DataSource dataSource,
+                             MeterRegistry meterRegistry,
+                             @Value("${catalog.export.flush-rows:1000}") int flushRows) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.transactionTemplate.setReadOnly(true);
+        this.flushRows = flushRows;
+        this.exportedRows = Counter.builder("catalog.export.rows")
+                .description("Rows written by catalog export")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Первая строка отправляется сразу, дальше ответ сбрасывается клиенту каждые
+     * catalog.export.flush-rows строк. Обрыв соединения клиентом прерывает чтение курсора.
+     *
+     * @return количество выгруженных книг
+     */
+    public long export(BookExportFilter filter, BookExportWriter writer) throws IOException {
+        Instant start = Instant.now();
+        long[] rows = new long[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> bookRepository.forEachBook(filter, book -> {
+                try {
+                    writer.write(book);
+                    long written = ++rows[0];
+                    if (written == 1 || written % flushRows == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            exportedRows.increment(rows[0]);
+            logger.info("Catalog export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        writer.flush();
+        exportedRows.increment(rows[0]);
+        logger.info("Catalog export finished: {} rows in {} ms", rows[0],
+                Duration.between(start, Instant.now()).toMillis());
+        return rows[0];
+    }
+}
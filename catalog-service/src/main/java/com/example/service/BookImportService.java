@@ -0,0 +1,360 @@
+package com.example.service;
+
+import com.example.datasource.Workload;
+import com.example.datasource.WorkloadPool;
+import com.example.dto.BookImportReport;
+import com.example.dto.BookImportRow;
+import com.example.event.AuthorChangedEvent;
+import com.example.event.BooksImportedEvent;
+import com.example.importer.BookImportReader;
+import com.example.model.Author;
+import com.example.model.Book;
+import com.example.repository.jdbc.BookImportRepository;
+import com.example.repository.jdbc.BookImportRepository.MergedBook;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт книг из потока NDJSON или CSV.
+ * Строки читаются порциями по catalog.import.batch-size, каждая порция загружается
+ * отдельной транзакцией, поэтому память не зависит от размера загрузки.
+ * Порция, отклонённая базой из-за данных строки, загружается повторно половинами,
+ * пока ошибка не сведётся к отдельным строкам: в отчёт попадают только они.
+ * Уже загруженные порции остаются.
+ */
+@Service
+@WorkloadPool(Workload.BULK)
+public class BookImportService {
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+
+    private final BookImportRepository importRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final int authorCacheSize;
+
+    private final Counter insertedRows;
+    private final Counter updatedRows;
+    private final Counter unchangedRows;
+    private final Counter failedRows;
+    private final Timer batchTimer;
+
+    public BookImportService(BookImportRepository importRepository, PlatformTransactionManager transactionManager,
+                             Validator validator, ApplicationEventPublisher eventPublisher,
+                             MeterRegistry meterRegistry,
+                             @Value("${catalog.import.batch-size:5000}") int batchSize,
+                             @Value("${catalog.import.max-reported-errors:1000}") int maxReportedErrors,
+                             @Value("${catalog.import.author-cache-size:50000}") int authorCacheSize) {
+        this.importRepository = importRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.authorCacheSize = authorCacheSize;
+
+        this.insertedRows = rowCounter(meterRegistry, "inserted");
+        this.updatedRows = rowCounter(meterRegistry, "updated");
+        this.unchangedRows = rowCounter(meterRegistry, "unchanged");
+        this.failedRows = rowCounter(meterRegistry, "failed");
+        this.batchTimer = Timer.builder("catalog.import.batch")
+                .description("Time to resolve authors, copy and merge one import batch")
+                .register(meterRegistry);
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("catalog.import.rows")
+                .description("Rows processed by bulk import, rate() gives rows per second")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Авторы, уже найденные или созданные в этой загрузке. Размер ограничен,
+     * чтобы каталог с большим числом авторов не расходовал память без предела.
+     */
+    private final class ImportState {
+        private final BookImportReport report = new BookImportReport();
+        private final Map<String, Long> authorIdsByName = lruMap();
+        private final Set<Long> knownAuthorIds = Collections.newSetFromMap(lruMap());
+
+        private <K, V> Map<K, V> lruMap() {
+            return new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > authorCacheSize;
+                }
+            };
+        }
+
+        private void reject(long row, String message) {
+            report.setFailed(report.getFailed() + 1);
+            failedRows.increment();
+            if (report.getErrors().size() < maxReportedErrors) {
+                report.getErrors().add(new BookImportReport.RowError(row, message));
+            }
+        }
+    }
+
+    public BookImportReport importBooks(BookImportReader reader) throws IOException {
+        Instant start = Instant.now();
+        logger.info("Starting bulk import of books");
+
+        ImportState state = new ImportState();
+        List<BookImportRow> batch = new ArrayList<>(batchSize);
+        BookImportRow row;
+        while ((row = reader.next()) != null) {
+            state.report.setReceived(state.report.getReceived() + 1);
+            String error = validate(row);
+            if (error != null) {
+                state.reject(row.getRowNumber(), error);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                importBatch(batch, state);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, state);
+        }
+
+        BookImportReport report = state.report;
+        Duration duration = Duration.between(start, Instant.now());
+        report.setDurationMs(duration.toMillis());
+        report.setRowsPerSecond(report.getReceived() * 1000.0 / Math.max(duration.toMillis(), 1));
+        logger.info("Bulk import completed in {} ms: {} rows, {} inserted, {} updated, {} unchanged, {} failed",
+                duration.toMillis(), report.getReceived(), report.getInserted(), report.getUpdated(),
+                report.getUnchanged(), report.getFailed());
+        return report;
+    }
+
+    private String validate(BookImportRow row) {
+        if (row.getParseError() != null) {
+            return row.getParseError();
+        }
+        Set<ConstraintViolation<BookImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (row.getAuthorId() == null && (row.getAuthorName() == null || row.getAuthorName().isBlank())) {
+            return "Не указан автор: нужен authorId или authorName";
+        }
+        return null;
+    }
+
+    private void importBatch(List<BookImportRow> batch, ImportState state) {
+        List<BookImportReport.RowError> rejected = new ArrayList<>();
+        List<Author> createdAuthors = new ArrayList<>();
+        List<BookImportRow> byAuthorName = batch.stream().filter(row -> row.getAuthorId() == null).toList();
+        try {
+            List<MergedBook> merged = batchTimer.record(() -> transactionTemplate.execute(status -> {
+                List<BookImportRow> resolved = withoutDuplicates(
+                        resolveAuthors(batch, state, createdAuthors, rejected), rejected);
+                List<MergedBook> result = resolved.isEmpty() ? List.of() : importRepository.merge(resolved);
+
+                createdAuthors.forEach(author -> eventPublisher.publishEvent(AuthorChangedEvent.saved(author)));
+                if (!result.isEmpty()) {
+                    eventPublisher.publishEvent(new BooksImportedEvent(toBooks(result)));
+                }
+                return result;
+            }));
+
+            long inserted = merged.stream().filter(MergedBook::isInserted).count();
+            long updated = merged.size() - inserted;
+            long unchanged = batch.size() - rejected.size() - merged.size();
+            BookImportReport report = state.report;
+            report.setInserted(report.getInserted() + inserted);
+            report.setUpdated(report.getUpdated() + updated);
+            report.setUnchanged(report.getUnchanged() + unchanged);
+            report.setAuthorsCreated(report.getAuthorsCreated() + createdAuthors.size());
+            insertedRows.increment(inserted);
+            updatedRows.increment(updated);
+            unchangedRows.increment(unchanged);
+            rejected.forEach(error -> state.reject(error.getRow(), error.getMessage()));
+        } catch (DataAccessException | TransactionException e) {
+            // Созданные в порции авторы откатились вместе с ней
+            state.authorIdsByName.clear();
+            state.knownAuthorIds.clear();
+            byAuthorName.forEach(row -> row.setAuthorId(null));
+            // Ошибку данных вызвала одна из строк, остальные ошибки повтор по частям не исправит
+            if (e instanceof DataIntegrityViolationException && batch.size() > 1) {
+                logger.warn("Import batch of {} rows failed, retrying in halves: {}", batch.size(), e.getMessage());
+                int middle = batch.size() / 2;
+                importBatch(batch.subList(0, middle), state);
+                importBatch(batch.subList(middle, batch.size()), state);
+                return;
+            }
+            logger.error("Import batch of {} rows failed: {}", batch.size(), e.getMessage());
+            String message = (batch.size() == 1 ? "Ошибка загрузки строки: " : "Ошибка загрузки порции: ") +
+                    (e instanceof DataAccessException dataAccessException ?
+                    dataAccessException.getMostSpecificCause().getMessage() : e.getMessage());
+            batch.forEach(row -> state.reject(row.getRowNumber(), message));
+        }
+    }
+
+    /**
+     * Повтор книги (title, authorId) внутри порции отклоняется: загружается последняя строка,
+     * как при построчной загрузке, а более ранние попадают в отчёт.
+     */
+    private static List<BookImportRow> withoutDuplicates(List<BookImportRow> rows,
+                                                         List<BookImportReport.RowError> rejected) {
+        Map<List<Object>, BookImportRow> latest = new LinkedHashMap<>();
+        for (BookImportRow row : rows) {
+            BookImportRow other = latest.get(List.of(row.getTitle(), row.getAuthorId()));
+            BookImportRow kept = other == null || other.getRowNumber() < row.getRowNumber() ? row : other;
+            latest.put(List.of(row.getTitle(), row.getAuthorId()), kept);
+            if (other != null) {
+                BookImportRow duplicate = kept == row ? other : row;
+                rejected.add(new BookImportReport.RowError(duplicate.getRowNumber(),
+                        "Повтор книги: та же книга и автор в строке " + kept.getRowNumber()));
+            }
+        }
+        return latest.size() == rows.size() ? rows : new ArrayList<>(latest.values());
+    }
+
+    /**
+     * Определяет authorId для строк порции: существующие id и имена проверяются
+     * одним запросом каждое, недостающие авторы создаются одним INSERT.
+     */
+    private List<BookImportRow> resolveAuthors(List<BookImportRow> batch, ImportState state,
+                                               List<Author> createdAuthors,
+                                               List<BookImportReport.RowError> rejected) {
+        Set<Long> batchAuthorIds = new HashSet<>();
+        Map<String, Long> batchAuthorIdsByName = new HashMap<>();
+        Set<Long> unknownIds = new HashSet<>();
+        Set<String> unknownNames = new HashSet<>();
+        for (BookImportRow row : batch) {
+            if (row.getAuthorId() != null) {
+                if (state.knownAuthorIds.contains(row.getAuthorId())) {
+                    batchAuthorIds.add(row.getAuthorId());
+                } else {
+                    unknownIds.add(row.getAuthorId());
+                }
+            } else {
+                Long authorId = state.authorIdsByName.get(row.getAuthorName());
+                if (authorId != null) {
+                    batchAuthorIdsByName.put(row.getAuthorName(), authorId);
+                } else {
+                    unknownNames.add(row.getAuthorName());
+                }
+            }
+        }
+        if (!unknownIds.isEmpty()) {
+            Set<Long> found = importRepository.findExistingAuthorIds(unknownIds);
+            batchAuthorIds.addAll(found);
+            state.knownAuthorIds.addAll(found);
+        }
+        if (!unknownNames.isEmpty()) {
+            Map<String, Long> found = importRepository.findAuthorIdsByNames(unknownNames);
+            batchAuthorIdsByName.putAll(found);
+            state.authorIdsByName.putAll(found);
+        }
+
+        // Автор создаётся по первой строке с полными данными и подходит остальным строкам с тем же именем
+        Map<String, Author> newAuthors = new LinkedHashMap<>();
+        for (BookImportRow row : batch) {
+            if (row.getAuthorId() == null && !batchAuthorIdsByName.containsKey(row.getAuthorName())
+                    && row.getAuthorBirthDate() != null && row.getAuthorLocation() != null) {
+                newAuthors.computeIfAbsent(row.getAuthorName(), name -> toAuthor(row));
+            }
+        }
+
+        List<BookImportRow> resolved = new ArrayList<>(batch.size());
+        List<BookImportRow> waitingForAuthor = new ArrayList<>();
+        for (BookImportRow row : batch) {
+            if (row.getAuthorId() != null) {
+                if (batchAuthorIds.contains(row.getAuthorId())) {
+                    resolved.add(row);
+                } else {
+                    rejected.add(new BookImportReport.RowError(row.getRowNumber(),
+                            "Автор с ID: " + row.getAuthorId() + " не найден"));
+                }
+                continue;
+            }
+            Long authorId = batchAuthorIdsByName.get(row.getAuthorName());
+            if (authorId != null) {
+                row.setAuthorId(authorId);
+                resolved.add(row);
+            } else if (newAuthors.containsKey(row.getAuthorName())) {
+                waitingForAuthor.add(row);
+            } else {
+                rejected.add(new BookImportReport.RowError(row.getRowNumber(),
+                        "Автор не найден: " + row.getAuthorName() +
+                                " (для создания нужны authorBirthDate и authorLocation)"));
+            }
+        }
+
+        if (!newAuthors.isEmpty()) {
+            List<Author> authors = new ArrayList<>(newAuthors.values());
+            importRepository.insertAuthors(authors);
+            for (Author author : authors) {
+                state.authorIdsByName.put(author.getName(), author.getId());
+            }
+            createdAuthors.addAll(authors);
+            for (BookImportRow row : waitingForAuthor) {
+                row.setAuthorId(newAuthors.get(row.getAuthorName()).getId());
+                resolved.add(row);
+            }
+        }
+        return resolved;
+    }
+
+    private static Author toAuthor(BookImportRow row) {
+        Author author = new Author();
+        author.setName(row.getAuthorName());
+        author.setBirthDate(row.getAuthorBirthDate());
+        author.setLocation(row.getAuthorLocation());
+        author.setBio(row.getAuthorBio());
+        return author;
+    }
+
+    private static List<Book> toBooks(List<MergedBook> merged) {
+        List<Book> books = new ArrayList<>(merged.size());
+        for (MergedBook mergedBook : merged) {
+            Author author = new Author();
+            author.setId(mergedBook.getAuthorId());
+            Book book = new Book();
+            book.setId(mergedBook.getId());
+            book.setTitle(mergedBook.getTitle());
+            book.setGenre(mergedBook.getGenre());
+            book.setPagesNumber(mergedBook.getPagesNumber());
+            book.setPublishingDate(mergedBook.getPublishingDate());
+            book.setAuthor(author);
+            books.add(book);
+        }
+        return books;
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.service;
 
+import com.example.datasource.Workload;
+import com.example.datasource.WorkloadPool;
 import com.example.repository.jdbc.BookJdbcRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -15,7 +18,9 @@ import java.util.Map;
  * Обеспечивает бизнес-логику и транзакционность операций.
  */
 @Service
-public class BookJdbcSpecialService {
+@WorkloadPool(Workload.ANALYTICS)
+@Transactional(readOnly = true)
+public class BookJdbcSpecialService implements BookSpecialService {
     private static final Logger logger = LoggerFactory.getLogger(BookJdbcSpecialService.class);
     private final BookJdbcRepository bookRepository;
 
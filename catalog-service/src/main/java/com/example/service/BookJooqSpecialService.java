@@ -1,5 +1,7 @@
 package com.example.service;
 
+import com.example.datasource.Workload;
+import com.example.datasource.WorkloadPool;
 import com.example.dto.jooq.AuthorStatsDto;
 import com.example.dto.jooq.AuthorSummaryDto;
 import com.example.dto.jooq.CombinedStatsDto;
@@ -9,6 +11,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -21,7 +24,9 @@ import java.util.stream.Collectors;
  * Обеспечивает бизнес-логику и транзакционность операций.
  */
 @Service
-public class BookJooqSpecialService {
+@WorkloadPool(Workload.ANALYTICS)
+@Transactional(readOnly = true)
+public class BookJooqSpecialService implements BookSpecialService {
     private static final Logger logger = LoggerFactory.getLogger(BookJooqSpecialService.class);
     private final BookJooqRepository bookRepository;
     private final ObjectMapper objectMapper;
@@ -1,9 +1,12 @@
 package com.example.service;
 
+import com.example.datasource.Workload;
+import com.example.datasource.WorkloadPool;
 import com.example.repository.jpa.BookJpaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -12,7 +15,9 @@ import java.util.List;
 import java.util.Map;
 
 @Service
-public class BookJpaSpecialService {
+@WorkloadPool(Workload.ANALYTICS)
+@Transactional(readOnly = true)
+public class BookJpaSpecialService implements BookSpecialService {
     private static final Logger logger = LoggerFactory.getLogger(BookService.class);
     private final BookJpaRepository bookRepository;
 
@@ -59,8 +64,7 @@ public class BookJpaSpecialService {
         return authors;
     }
 
-    // Комбинированный метод с многоуровневым кэшированием
-    //@Cacheable(value = "authorStats", key = "'combined'")
+    // Комбинированная статистика, кэшируется в CatalogStatsCache
     public Map<String, Object> getCombinedAuthorStats() {
         Instant start = Instant.now();
         logger.debug("Fetching combined author stats...");
@@ -1,45 +1,78 @@
 package com.example.service;
 
+import com.example.cache.EntityCacheInvalidator;
+import com.example.config.CacheConfig;
+import com.example.config.PersistenceConfig;
+import com.example.datasource.ReadYourWrites;
+import com.example.datasource.Workload;
+import com.example.datasource.WorkloadPool;
+import com.example.dto.BookDetailsBatchResponse;
 import com.example.dto.BookDetailsResponse;
 import com.example.dto.BookRequest;
+import com.example.event.BookChangedEvent;
 import com.example.model.Author;
 import com.example.model.Book;
-import com.example.repository.jdbc.AuthorJdbcRepository;
-import com.example.repository.jdbc.BookJdbcRepository;
-import com.example.repository.jooq.AuthorJooqRepository;
-import com.example.repository.jooq.BookJooqRepository;
-import com.example.repository.jpa.AuthorJpaRepository;
-import com.example.repository.jpa.BookJpaRepository;
+import com.example.pagination.BookSortKey;
+import com.example.pagination.CountMode;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.projection.BookFields;
+import com.example.repository.BookRepository;
+import com.example.search.BookSearchIndex;
+import com.example.search.BookSearchQuery;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Сервис JPA для работы с книгами:
  * - внутренняя логика CRUD операций;
  * - фильтрация, сортировка и поиск книг.
+ * Чтения выполняются в транзакциях только для чтения и при настроенных репликах уходят на них.
  */
 @Service
+@WorkloadPool(Workload.OLTP)
+@Transactional(readOnly = true)
 public class BookService {
     private static final Logger logger = LoggerFactory.getLogger(BookService.class);
-    //private final BookJpaRepository bookRepository;
-    //private final AuthorJpaRepository authorRepository;
-    private final BookJdbcRepository bookRepository;
-    private final AuthorJdbcRepository authorRepository;
-    //private final BookJooqRepository bookRepository;
-    //private final AuthorJooqRepository authorRepository;
-
-    public BookService(BookJdbcRepository bookRepository, AuthorJdbcRepository authorRepository) {
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    private final BookRepository bookRepository;
+    private final BookRepository bookWriteRepository;
+    private final BookSearchIndex searchIndex;
+    private final EntityCacheInvalidator cacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookService(@Qualifier(PersistenceConfig.BOOK_READS) BookRepository bookRepository,
+                       @Qualifier(PersistenceConfig.BOOK_WRITES) BookRepository bookWriteRepository,
+                       BookSearchIndex searchIndex, EntityCacheInvalidator cacheInvalidator,
+                       ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
-        this.authorRepository = authorRepository;
+        this.bookWriteRepository = bookWriteRepository;
+        this.searchIndex = searchIndex;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -47,12 +80,9 @@ public class BookService {
         Instant start = Instant.now();
         logger.info("Creating new book: {}", book.getTitle());
 
-        Author author = authorRepository.findById(book.getAuthor().getId())
-                .orElseThrow(() -> new EntityNotFoundException("Автор не найден!"));
-        book.setAuthor(author);
-
         try {
-            bookRepository.save(book);
+            bookWriteRepository.save(book);
+            eventPublisher.publishEvent(BookChangedEvent.saved(book));
             logger.info("Book created successfully with ID: {}", book.getId());
             //bookRepository.clearStatsCache();
             //logger.info("All cache has been cleared");
@@ -60,6 +90,8 @@ public class BookService {
             Duration duration = Duration.between(start, Instant.now());
             logger.debug("Book creation completed in {} ms", duration.toMillis());
 
+        } catch (DataIntegrityViolationException e) {
+            throw translateAuthorViolation(e);
         } catch (Exception e) {
             logger.error("Error creating book: {}", e.getMessage());
             throw e;
@@ -71,24 +103,18 @@ public class BookService {
         Instant start = Instant.now();
         logger.info("Updating book with ID: {}", id);
 
-        Long authorId = updatedBook.getAuthor().getId();
-        if (!authorRepository.existsById(authorId)) {
-            throw new EntityNotFoundException("Автор не найден!");
+        updatedBook.setId(id);
+        boolean updated;
+        try {
+            updated = bookWriteRepository.save(updatedBook);
+        } catch (DataIntegrityViolationException e) {
+            throw translateAuthorViolation(e);
         }
-
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("Book not found with ID: {}", id);
-                    return new EntityNotFoundException("Книга не найдена!");
-                });
-
-        book.setTitle(updatedBook.getTitle());
-        book.setGenre(updatedBook.getGenre());
-        book.setPagesNumber(updatedBook.getPagesNumber());
-        book.setPublishingDate(updatedBook.getPublishingDate());
-        book.setDescription(updatedBook.getDescription());
-
-        bookRepository.save(book);
+        if (!updated) {
+            logger.warn("Book not found with ID: {}", id);
+            throw new EntityNotFoundException("Книга не найдена!");
+        }
+        eventPublisher.publishEvent(BookChangedEvent.saved(updatedBook));
         //bookRepository.clearStatsCache();
         //logger.info("All cache has been cleared");
 
@@ -102,10 +128,10 @@ public class BookService {
         Instant start = Instant.now();
         logger.info("Deleting book with ID: {}", id);
 
-        if (!bookRepository.existsById(id)) {
+        if (!bookWriteRepository.deleteById(id)) {
             throw new EntityNotFoundException("Книга не найдена!");
         }
-        bookRepository.deleteById(id);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
         //bookRepository.clearStatsCache();
         //logger.info("All cache has been cleared");
 
@@ -114,19 +140,37 @@ public class BookService {
         logger.debug("Author deletion completed in {} ms", duration.toMillis());
     }
 
-    public Page<Book> getAll(Pageable pageable) {
+    /**
+     * Автор книги не проверяется отдельным запросом:
+     * нарушение внешнего ключа при записи означает, что автора нет.
+     */
+    private RuntimeException translateAuthorViolation(DataIntegrityViolationException e) {
+        if (e.getMostSpecificCause() instanceof SQLException sqlException
+                && FOREIGN_KEY_VIOLATION.equals(sqlException.getSQLState())) {
+            logger.warn("Author not found for book: {}", sqlException.getMessage());
+            return new EntityNotFoundException("Автор не найден!");
+        }
+        logger.error("Error saving book: {}", e.getMessage());
+        return e;
+    }
+
+    public Slice<Book> getAll(Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching all books with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findAll(pageable);
+        Slice<Book> books = bookRepository.findAll(pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} all books in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} all books in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
     public Book getById(long id) {
+        return cacheInvalidator.getOrLoad(CacheConfig.BOOKS, id, () -> load(id));
+    }
+
+    private Book load(long id) {
         Instant start = Instant.now();
         logger.debug("Fetching book by ID: {}", id);
 
@@ -142,134 +186,317 @@ public class BookService {
         return book;
     }
 
-    public Page<Book> getByTitle(String title, Pageable pageable) {
+    /**
+     * Проверка существования книги без загрузки её данных и автора.
+     * Выполняется на основной базе: другие сервисы проверяют книгу сразу после её создания.
+     */
+    public boolean exists(long id) {
+        boolean exists = ReadYourWrites.onPrimary(() -> bookRepository.existsById(id));
+        logger.debug("Book {} exists: {}", id, exists);
+        return exists;
+    }
+
+    /**
+     * Страница идентификаторов всех книг по возрастанию, следующая начинается после последнего id.
+     */
+    public List<Long> getIds(long afterId, int limit) {
+        Instant start = Instant.now();
+
+        List<Long> ids = bookRepository.findIdsAfter(afterId, limit);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} book ids after {} in {} ms", ids.size(), afterId, duration.toMillis());
+
+        return ids;
+    }
+
+    /**
+     * Данные книг одним запросом в порядке ids, повторы сохраняются.
+     * Идентификаторы книг, которых нет в каталоге, возвращаются отдельно.
+     */
+    public BookDetailsBatchResponse getDetailsByIds(List<Long> ids) {
+        Instant start = Instant.now();
+        logger.debug("Fetching details for {} books", ids.size());
+
+        Map<Long, Book> booksById = new HashMap<>();
+        for (Book book : bookRepository.findAllWithAuthorById(ids.stream().distinct().toList())) {
+            booksById.put(book.getId(), book);
+        }
+        List<BookDetailsResponse> books = new ArrayList<>(ids.size());
+        Set<Long> missingIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            Book book = booksById.get(id);
+            if (book != null) {
+                books.add(convertToBookDetails(book));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        BookDetailsBatchResponse response = new BookDetailsBatchResponse();
+        response.setBooks(books);
+        response.setMissingIds(new ArrayList<>(missingIds));
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched details for {} books, {} missing in {} ms", books.size(), missingIds.size(),
+                duration.toMillis());
+
+        return response;
+    }
+
+    public Slice<Book> getByTitle(String title, Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching books by title with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findByTitleContainingIgnoreCase(title, pageable);
+        Optional<Page<Long>> hits = searchIndex.searchTitles(title, pageable);
+        Slice<Book> books = hits.isPresent() ?
+                hydrate(hits.get(), countMode, fields) :
+                bookRepository.findByTitleContainingIgnoreCase(title, pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by title in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by title in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getByGenre(String genre, Pageable pageable) {
+    public Slice<Book> getByGenre(String genre, Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching books by genre with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findByGenre(genre, pageable);
+        Slice<Book> books = bookRepository.findByGenre(genre, pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by genre in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by genre in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getBySize(int min, int max, Pageable pageable) {
+    public Slice<Book> getBySize(int min, int max, Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching books by page number with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findByPagesNumberBetween(min, max, pageable);
+        Slice<Book> books = bookRepository.findByPagesNumberBetween(min, max, pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by page number in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by page number in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getByPeriod(LocalDate lowBound, LocalDate highBound, Pageable pageable) {
+    public Slice<Book> getByPeriod(LocalDate lowBound, LocalDate highBound, Pageable pageable, CountMode countMode,
+                                   BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching books by publishing date with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findByPublishingDateBetween(lowBound, highBound, pageable);
+        Slice<Book> books = bookRepository.findByPublishingDateBetween(lowBound, highBound, pageable, countMode,
+                fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by publishing date in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by publishing date in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getByAuthor(String authorName, Pageable pageable) {
+    public Slice<Book> getByAuthor(String authorName, Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching books by authors with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findByAuthorNameContainingIgnoreCase(authorName, pageable);
+        Optional<Page<Long>> hits = searchIndex.searchAuthors(authorName, pageable);
+        Slice<Book> books = hits.isPresent() ?
+                hydrate(hits.get(), countMode, fields) :
+                bookRepository.findByAuthorNameContainingIgnoreCase(authorName, pageable, countMode, fields);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} books by authors in {} ms", books.getNumberOfElements(), duration.toMillis());
+
+        return books;
+    }
+
+    /**
+     * Индекс возвращает идентификаторы и точное количество совпадений,
+     * сами книги загружаются одним запросом по первичному ключу с запрошенными полями.
+     * Точное количество бесплатно, поэтому подходит для любого countMode, кроме NONE.
+     */
+    private Slice<Book> hydrate(Page<Long> hits, CountMode countMode, BookFields fields) {
+        List<Book> books = bookRepository.findAllById(hits.getContent(), fields);
+        return countMode == CountMode.NONE ?
+                new SliceImpl<>(books, hits.getPageable(), hits.hasNext()) :
+                new PageImpl<>(books, hits.getPageable(), hits.getTotalElements());
+    }
+
+    /**
+     * Ранжированный поиск по названию и автору через триграммные индексы.
+     */
+    public Slice<Book> search(String query, Pageable pageable) {
+        Instant start = Instant.now();
+        logger.debug("Searching books by '{}' with pagination: {}", query, pageable);
+
+        BookSearchQuery searchQuery = BookSearchQuery.of(query);
+        Slice<Book> books = searchQuery.isBlank() ?
+                new SliceImpl<>(List.of(), pageable, false) :
+                bookRepository.search(searchQuery, pageable);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by authors in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Found {} books in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getOrderByTitleAsc(Pageable pageable) {
+    public Slice<Book> getOrderByTitleAsc(Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching all books by title with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findAllByOrderByTitleAsc(pageable);
+        Slice<Book> books = bookRepository.findAllByOrderByTitleAsc(pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by title in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by title in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getOrderByTitleDesc(Pageable pageable) {
+    public Slice<Book> getOrderByTitleDesc(Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching all books by title with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findAllByOrderByTitleDesc(pageable);
+        Slice<Book> books = bookRepository.findAllByOrderByTitleDesc(pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by title in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by title in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getOrderBySizeAsc(Pageable pageable) {
+    public Slice<Book> getOrderBySizeAsc(Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching all books by page number with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findAllByOrderByPagesNumberAsc(pageable);
+        Slice<Book> books = bookRepository.findAllByOrderByPagesNumberAsc(pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by page number in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by page number in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getOrderBySizeDesc(Pageable pageable) {
+    public Slice<Book> getOrderBySizeDesc(Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching all books by page number with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findAllByOrderByPagesNumberDesc(pageable);
+        Slice<Book> books = bookRepository.findAllByOrderByPagesNumberDesc(pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by page number in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by page number in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getOrderByPublishingDateAsc(Pageable pageable) {
+    public Slice<Book> getOrderByPublishingDateAsc(Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching all books by publishing date with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findAllByOrderByPublishingDateAsc(pageable);
+        Slice<Book> books = bookRepository.findAllByOrderByPublishingDateAsc(pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by publishing date in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by publishing date in {} ms", books.getNumberOfElements(), duration.toMillis());
 
         return books;
     }
 
-    public Page<Book> getOrderByPublishingDateDesc(Pageable pageable) {
+    public Slice<Book> getOrderByPublishingDateDesc(Pageable pageable, CountMode countMode, BookFields fields) {
         Instant start = Instant.now();
         logger.debug("Fetching all books by publishing date with pagination: {}", pageable);
 
-        Page<Book> books = bookRepository.findAllByOrderByPublishingDateDesc(pageable);
+        Slice<Book> books = bookRepository.findAllByOrderByPublishingDateDesc(pageable, countMode, fields);
 
         Duration duration = Duration.between(start, Instant.now());
-        logger.debug("Fetched {} books by publishing date in {} ms", books.getTotalElements(), duration.toMillis());
+        logger.debug("Fetched {} books by publishing date in {} ms", books.getNumberOfElements(), duration.toMillis());
+
+        return books;
+    }
+
+    public KeysetPage<Book> getAll(KeysetCursor cursor, int limit, BookFields fields) {
+        Instant start = Instant.now();
+        logger.debug("Fetching all books with keyset pagination, limit {}", limit);
+
+        KeysetPage<Book> books = bookRepository.findAll(BookSortKey.ID, false, cursor, limit, fields);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} all books in {} ms", books.getSize(), duration.toMillis());
+
+        return books;
+    }
+
+    public KeysetPage<Book> getByTitle(String title, KeysetCursor cursor, int limit, BookFields fields) {
+        Instant start = Instant.now();
+        logger.debug("Fetching books by title with keyset pagination, limit {}", limit);
+
+        KeysetPage<Book> books = bookRepository.findByTitleContainingIgnoreCase(title, cursor, limit, fields);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} books by title in {} ms", books.getSize(), duration.toMillis());
+
+        return books;
+    }
+
+    public KeysetPage<Book> getByGenre(String genre, KeysetCursor cursor, int limit, BookFields fields) {
+        Instant start = Instant.now();
+        logger.debug("Fetching books by genre with keyset pagination, limit {}", limit);
+
+        KeysetPage<Book> books = bookRepository.findByGenre(genre, cursor, limit, fields);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} books by genre in {} ms", books.getSize(), duration.toMillis());
+
+        return books;
+    }
+
+    public KeysetPage<Book> getBySize(int min, int max, KeysetCursor cursor, int limit, BookFields fields) {
+        Instant start = Instant.now();
+        logger.debug("Fetching books by page number with keyset pagination, limit {}", limit);
+
+        KeysetPage<Book> books = bookRepository.findByPagesNumberBetween(min, max, cursor, limit, fields);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} books by page number in {} ms", books.getSize(), duration.toMillis());
+
+        return books;
+    }
+
+    public KeysetPage<Book> getByPeriod(LocalDate lowBound, LocalDate highBound, KeysetCursor cursor, int limit,
+                                        BookFields fields) {
+        Instant start = Instant.now();
+        logger.debug("Fetching books by publishing date with keyset pagination, limit {}", limit);
+
+        KeysetPage<Book> books = bookRepository.findByPublishingDateBetween(lowBound, highBound, cursor, limit,
+                fields);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} books by publishing date in {} ms", books.getSize(), duration.toMillis());
+
+        return books;
+    }
+
+    public KeysetPage<Book> getByAuthor(String authorName, KeysetCursor cursor, int limit, BookFields fields) {
+        Instant start = Instant.now();
+        logger.debug("Fetching books by authors with keyset pagination, limit {}", limit);
+
+        KeysetPage<Book> books = bookRepository.findByAuthorNameContainingIgnoreCase(authorName, cursor, limit,
+                fields);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} books by authors in {} ms", books.getSize(), duration.toMillis());
+
+        return books;
+    }
+
+    public KeysetPage<Book> getOrderBy(BookSortKey sortKey, boolean descending, KeysetCursor cursor, int limit,
+                                       BookFields fields) {
+        Instant start = Instant.now();
+        logger.debug("Fetching sorted books with keyset pagination, limit {}", limit);
+
+        KeysetPage<Book> books = bookRepository.findAll(sortKey, descending, cursor, limit, fields);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} sorted books in {} ms", books.getSize(), duration.toMillis());
 
         return books;
     }
@@ -281,13 +508,16 @@ public class BookService {
         book.setPagesNumber(dto.getPagesNumber());
         book.setPublishingDate(dto.getPublishingDate());
         book.setDescription(dto.getDescription());
-        book.setAuthor(authorRepository.findById(dto.getAuthorId())
-                .orElseThrow(() -> new EntityNotFoundException("Автор не найден!")));
+
+        Author author = new Author();
+        author.setId(dto.getAuthorId());
+        book.setAuthor(author);
         return book;
     }
 
     public BookDetailsResponse convertToBookDetails(Book book) {
         BookDetailsResponse response = new BookDetailsResponse();
+        response.setId(book.getId());
         response.setTitle(book.getTitle());
         response.setGenre(book.getGenre());
         response.setPagesNumber(book.getPagesNumber());
@@ -0,0 +1,19 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Статистика по жанрам и авторам.
+ * Реализации для JDBC, jOOQ и JPA, используемая выбирается в PersistenceConfig.
+ */
+public interface BookSpecialService {
+
+    List<Map<String, Object>> getGenreStats();
+
+    List<Map<String, Object>> getFullAuthorStats();
+
+    List<Map<String, Object>> getAuthorStatsSummary();
+
+    Map<String, Object> getCombinedAuthorStats();
+}
@@ -0,0 +1,182 @@
+package com.example.service;
+
+import com.example.dto.CatalogChangeResponse;
+import com.example.event.AuthorChangedEvent;
+import com.example.event.BookChangedEvent;
+import com.example.event.BooksImportedEvent;
+import com.example.event.RemoteCatalogChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Лента изменений каталога для других сервисов (Server-Sent Events).
+ * Подписчик получает свои записи экземпляра после фиксации транзакции и записи других экземпляров
+ * из RemoteCatalogChangeEvent, поэтому достаточно подписки на любой экземпляр сервиса.
+ * Первое событие подписки - resync: изменения до подключения подписчик не получал.
+ * Раз в catalog.changes.heartbeat-interval подписчикам отправляется комментарий,
+ * по которому они замечают оборванное соединение.
+ * События ставятся в очередь подписчика на catalog.changes.subscriber-queue-size событий и отправляются
+ * потоком отправки, поэтому медленный подписчик не задерживает потоки, фиксирующие транзакции,
+ * и поток LISTEN. При переполнении очередь подписчика заменяется одним событием resync.
+ */
+@Component
+public class CatalogChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeFeed.class);
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final int queueSize;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "catalog-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /* Поток на подписчика, пока у него есть события: зависшая отправка не задерживает остальных */
+    private final ExecutorService senders = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "catalog-change-feed-send");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CatalogChangeFeed(@Value("${catalog.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+                             @Value("${catalog.changes.subscriber-queue-size:1000}") int queueSize) {
+        this.queueSize = queueSize;
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    public SseEmitter subscribe() {
+        Subscriber subscriber = new Subscriber(new SseEmitter(0L));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.offer(resync());
+        logger.info("Catalog change feed subscribed, {} subscribers", subscribers.size());
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        publish(CatalogChangeResponse.book(event.getBookId(), event.isDeleted()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        publish(CatalogChangeResponse.authors());
+    }
+
+    /**
+     * Импорт сообщается как изменение авторов: уведомления других экземпляров содержат только их.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        publish(CatalogChangeResponse.authors());
+    }
+
+    @EventListener
+    public void onRemoteChange(RemoteCatalogChangeEvent event) {
+        switch (event.getType()) {
+            case BOOK -> publish(CatalogChangeResponse.book(event.getBookId(), event.isBookDeleted()));
+            case AUTHOR, BOOKS_IMPORTED -> publish(CatalogChangeResponse.authors());
+            case RESYNC -> publish(CatalogChangeResponse.resync());
+        }
+    }
+
+    private void publish(CatalogChangeResponse change) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().data(change, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder resync() {
+        return SseEmitter.event().data(CatalogChangeResponse.resync(), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Очередь событий подписчика; отправляет её не больше одного потока одновременно.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> events = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Пропущенные при переполнении события подписчик восстанавливает по resync, как после подключения.
+         */
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (!events.offer(event)) {
+                logger.warn("Catalog change feed subscriber is {} events behind, sending resync", queueSize);
+                events.clear();
+                events.offer(resync());
+            }
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = events.poll()) != null) {
+                    if (!send(event)) {
+                        events.clear();
+                        return;
+                    }
+                }
+                sending.set(false);
+            } while (!events.isEmpty() && sending.compareAndSet(false, true));
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Catalog change feed subscriber disconnected: {}", e.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.analytics;
+
+import com.example.repository.jdbc.AnalyticsChangeJdbcRepository;
+import com.example.repository.jdbc.AuthorJdbcRepository;
+import com.example.repository.jdbc.BookJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Параллельные агрегаты колоночного снимка равны статистике BookJdbcRepository на тех же данных.
+ * Порядок строк с одинаковым количеством книг не задан, поэтому строки сравниваются по ключу.
+ */
+@SpringBootTest
+class BookColumnarSnapshotTests {
+	private static final double DELTA = 1e-9;
+
+	@Autowired
+	private AnalyticsChangeJdbcRepository changes;
+
+	@Autowired
+	private AuthorJdbcRepository authorRepository;
+
+	@Autowired
+	private BookJdbcRepository bookRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private BookColumnarSnapshot snapshot;
+	private long authorWithoutBooks;
+
+	@BeforeEach
+	void buildSnapshot() throws InterruptedException {
+		authorWithoutBooks = jdbcTemplate.queryForObject("INSERT INTO authors (name, birth_date, location) "
+				+ "VALUES (?, ?, ?) RETURNING id", Long.class, "Columnar Author " + System.nanoTime(),
+				LocalDate.of(1970, 1, 1), "Test");
+		snapshot = new BookColumnarSnapshot(changes, authorRepository, transactionManager, new SimpleMeterRegistry(),
+				true, 1000, 4);
+		snapshot.startBuild();
+		for (int i = 0; i < 600 && !snapshot.isReady(); i++) {
+			Thread.sleep(100);
+		}
+		assertTrue(snapshot.isReady(), "Columnar snapshot was not built");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		snapshot.stop();
+		jdbcTemplate.update("DELETE FROM authors WHERE id = ?", authorWithoutBooks);
+	}
+
+	@Test
+	void genreStatsMatchRepository() {
+		List<Map<String, Object>> expected = bookRepository.getGenreStats();
+		List<Map<String, Object>> actual = snapshot.getGenreStats().orElseThrow();
+
+		assertEquals(expected.size(), actual.size());
+		Map<Object, Map<String, Object>> byGenre = byKey(actual, "genre");
+		for (Map<String, Object> row : expected) {
+			Map<String, Object> stats = byGenre.get(row.get("genre"));
+			assertNotNull(stats, "genre " + row.get("genre"));
+			assertEquals(row.get("bookCount"), stats.get("bookCount"));
+			assertEquals((Double) row.get("avgPages"), (Double) stats.get("avgPages"), DELTA);
+		}
+		assertSortedByBookCount(actual);
+	}
+
+	@Test
+	void fullAuthorStatsMatchRepository() {
+		List<Map<String, Object>> expected = bookRepository.getFullAuthorStats();
+		List<Map<String, Object>> actual = snapshot.getFullAuthorStats().orElseThrow();
+
+		assertEquals(expected.size(), actual.size());
+		Map<Object, Map<String, Object>> byAuthor = byKey(actual, "authorId");
+		assertEquals(0, byAuthor.get(authorWithoutBooks).get("bookCount"));
+		for (Map<String, Object> row : expected) {
+			Map<String, Object> stats = byAuthor.get(row.get("authorId"));
+			assertNotNull(stats, "author " + row.get("authorId"));
+			assertEquals(row.get("authorName"), stats.get("authorName"));
+			assertEquals(row.get("bookCount"), stats.get("bookCount"));
+			assertEquals(toLocalDate(row.get("firstPublishDate")), toLocalDate(stats.get("firstPublishDate")));
+			assertEquals(toLocalDate(row.get("lastPublishDate")), toLocalDate(stats.get("lastPublishDate")));
+			assertEquals((Double) row.get("avgPages"), (Double) stats.get("avgPages"), DELTA);
+		}
+		assertSortedByBookCount(actual);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void combinedAuthorStatsMatchRepository() {
+		Map<String, Object> expected = bookRepository.getCombinedAuthorStats();
+		Map<String, Object> actual = snapshot.getCombinedAuthorStats().orElseThrow();
+
+		assertEquals(expected.get("totalAuthors"), actual.get("totalAuthors"));
+		assertEquals((Double) expected.get("avgBooksPerAuthor"), (Double) actual.get("avgBooksPerAuthor"), DELTA);
+		Map<String, Object> expectedTop = (Map<String, Object>) expected.get("topAuthor");
+		Map<String, Object> actualTop = (Map<String, Object>) actual.get("topAuthor");
+		assertEquals(expectedTop.get("bookCount"), actualTop.get("bookCount"));
+		/* При равном количестве книг база и снимок могут выбрать разных авторов */
+		Integer topAuthorBooks = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(s.book_count), 0) FROM authors a "
+				+ "LEFT JOIN author_stats s ON a.id = s.author_id WHERE a.name = ?", Integer.class,
+				actualTop.get("authorName"));
+		assertEquals(actualTop.get("bookCount"), topAuthorBooks);
+	}
+
+	private static Map<Object, Map<String, Object>> byKey(List<Map<String, Object>> rows, String key) {
+		Map<Object, Map<String, Object>> result = new HashMap<>();
+		for (Map<String, Object> row : rows) {
+			result.put(row.get(key), row);
+		}
+		return result;
+	}
+
+	private static void assertSortedByBookCount(List<Map<String, Object>> rows) {
+		for (int i = 1; i < rows.size(); i++) {
+			assertTrue((Integer) rows.get(i - 1).get("bookCount") >= (Integer) rows.get(i).get("bookCount"));
+		}
+	}
+
+	private static LocalDate toLocalDate(Object date) {
+		return date == null ? null : ((Date) date).toLocalDate();
+	}
+}
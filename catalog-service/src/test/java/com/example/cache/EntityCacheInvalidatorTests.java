@@ -0,0 +1,74 @@
+package com.example.cache;
+
+import com.example.config.CacheConfig;
+import com.example.model.Author;
+import com.example.model.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+class EntityCacheInvalidatorTests {
+	private static final long BOOK_ID = -42L;
+	private static final long AUTHOR_ID = -7L;
+
+	@Autowired
+	private EntityCacheInvalidator invalidator;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Test
+	void cachesLoadedValue() {
+		Book book = book();
+		assertSame(book, invalidator.getOrLoad(CacheConfig.BOOKS, BOOK_ID, () -> book));
+		assertSame(book, invalidator.getOrLoad(CacheConfig.BOOKS, BOOK_ID, Book::new));
+		invalidator.evictBook(BOOK_ID, 0);
+		assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(BOOK_ID));
+	}
+
+	@Test
+	void skipsValueLoadedDuringInvalidation() {
+		Book stale = book();
+		Book loaded = invalidator.getOrLoad(CacheConfig.BOOKS, BOOK_ID, () -> {
+			/* Изменение зафиксировано и инвалидировано, пока загрузка читала старую строку */
+			invalidator.evictBook(BOOK_ID, 0);
+			return stale;
+		});
+
+		assertSame(stale, loaded);
+		assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(BOOK_ID));
+		Book fresh = book();
+		assertSame(fresh, invalidator.getOrLoad(CacheConfig.BOOKS, BOOK_ID, () -> fresh));
+		assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(BOOK_ID));
+		invalidator.evictBook(BOOK_ID, 0);
+	}
+
+	@Test
+	void evictsAuthorListingBookMovedToAnotherAuthor() {
+		Author author = new Author();
+		author.setId(AUTHOR_ID);
+		author.setBooks(List.of(book()));
+		invalidator.getOrLoad(CacheConfig.AUTHORS, AUTHOR_ID, () -> author);
+		assertNotNull(cacheManager.getCache(CacheConfig.AUTHORS).get(AUTHOR_ID));
+
+		/* Книга перешла к другому автору: прежний известен только по закэшированному списку */
+		invalidator.evictBook(BOOK_ID, AUTHOR_ID - 1);
+
+		assertNull(cacheManager.getCache(CacheConfig.AUTHORS).get(AUTHOR_ID));
+	}
+
+	private static Book book() {
+		Book book = new Book();
+		book.setId(BOOK_ID);
+		return book;
+	}
+
+}
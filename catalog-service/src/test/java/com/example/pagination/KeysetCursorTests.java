@@ -0,0 +1,105 @@
+package com.example.pagination;
+
+import com.example.exception.InvalidCursorException;
+import com.example.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetCursorTests {
+
+	@Test
+	void roundTripsEverySortKeyAndDirection() {
+		Book book = book(42L, "Title: with: separators", 310, LocalDate.of(2001, 2, 3));
+		for (BookSortKey sortKey : BookSortKey.values()) {
+			for (boolean descending : new boolean[]{false, true}) {
+				String token = KeysetCursor.of(sortKey, descending, book).encode();
+				KeysetCursor cursor = KeysetCursor.decode(token, sortKey, descending);
+				assertEquals(sortKey.name(), cursor.getKey());
+				assertEquals(descending, cursor.isDescending());
+				assertEquals(42L, cursor.getId());
+				assertEquals(String.valueOf(sortKey.valueOf(book)), cursor.getValue());
+				assertEquals(sortKey.valueOf(book), sortKey.parse(cursor.getValue()));
+			}
+		}
+	}
+
+	@Test
+	void blankTokenMeansFirstPage() {
+		assertNull(KeysetCursor.decode(null, BookSortKey.ID, false));
+		assertNull(KeysetCursor.decode("", BookSortKey.ID, false));
+		assertNull(KeysetCursor.decode("  ", BookSortKey.ID, false));
+	}
+
+	@Test
+	void rejectsCursorOfAnotherSortKey() {
+		String token = KeysetCursor.of(BookSortKey.TITLE, false, book(1L, "A", 10, LocalDate.now())).encode();
+		InvalidCursorException e = assertThrows(InvalidCursorException.class,
+				() -> KeysetCursor.decode(token, BookSortKey.PAGES_NUMBER, false));
+		assertEquals("Курсор не соответствует сортировке запроса!", e.getMessage());
+	}
+
+	@Test
+	void rejectsCursorOfAnotherDirection() {
+		String token = KeysetCursor.of(BookSortKey.ID, true, book(1L, "A", 10, LocalDate.now())).encode();
+		InvalidCursorException e = assertThrows(InvalidCursorException.class,
+				() -> KeysetCursor.decode(token, BookSortKey.ID, false));
+		assertEquals("Курсор не соответствует сортировке запроса!", e.getMessage());
+	}
+
+	@Test
+	void rejectsMalformedTokens() {
+		assertMalformed("!!not-base64!!", BookSortKey.ID);
+		assertMalformed(encode("garbage"), BookSortKey.ID);
+		assertMalformed(encode("ID:A"), BookSortKey.ID);
+		assertMalformed(encode("ID:A:x:1"), BookSortKey.ID);
+		assertMalformed(encode("PAGES_NUMBER:A:1:many"), BookSortKey.PAGES_NUMBER);
+		assertMalformed(encode("PUBLISHING_DATE:A:1:2001"), BookSortKey.PUBLISHING_DATE);
+	}
+
+	@Test
+	void pageCarriesCursorOfLastRowOnlyWhenMoreRowsExist() {
+		List<Book> rows = List.of(book(1L, "A", 10, LocalDate.now()), book(2L, "A", 10, LocalDate.now()),
+				book(3L, "A", 10, LocalDate.now()));
+
+		KeysetPage<Book> page = KeysetPage.of(rows, 2, BookSortKey.TITLE, false);
+		assertTrue(page.isHasNext());
+		assertEquals(2, page.getSize());
+		KeysetCursor cursor = KeysetCursor.decode(page.getNextCursor(), BookSortKey.TITLE, false);
+		assertEquals(2L, cursor.getId());
+		assertEquals("A", cursor.getValue());
+
+		KeysetPage<Book> last = KeysetPage.of(rows, 3, BookSortKey.TITLE, false);
+		assertFalse(last.isHasNext());
+		assertNull(last.getNextCursor());
+	}
+
+	private static void assertMalformed(String token, BookSortKey sortKey) {
+		InvalidCursorException e = assertThrows(InvalidCursorException.class,
+				() -> KeysetCursor.decode(token, sortKey, false));
+		assertEquals("Некорректный курсор!", e.getMessage());
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Book book(long id, String title, int pages, LocalDate publishingDate) {
+		Book book = new Book();
+		book.setId(id);
+		book.setTitle(title);
+		book.setPagesNumber(pages);
+		book.setPublishingDate(publishingDate);
+		return book;
+	}
+
+}
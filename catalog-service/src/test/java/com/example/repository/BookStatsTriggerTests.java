@@ -0,0 +1,232 @@
+package com.example.repository;
+
+import com.example.dto.BookImportRow;
+import com.example.repository.jdbc.BookImportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Триггеры books поддерживают genre_stats и author_stats равными агрегатам по самой таблице books.
+ * Данные создаются в транзакции теста и откатываются после него; тест конкурентного удаления
+ * фиксирует свои данные и удаляет их в конце.
+ */
+@SpringBootTest
+@Transactional
+class BookStatsTriggerTests {
+	private static final String GENRE_MARKER = "zqxstats";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private BookImportRepository importRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private String genre;
+	private String otherGenre;
+
+	@BeforeEach
+	void chooseGenres() {
+		genre = GENRE_MARKER + " " + System.nanoTime();
+		otherGenre = genre + " other";
+	}
+
+	@Test
+	void insertExtendsBoundaries() {
+		long author = insertAuthor();
+		insertBook("a", genre, 2000, author);
+		insertBook("b", genre, 1990, author);
+		insertBook("c", genre, 2010, author);
+
+		assertStatsMatchBooks(author);
+		assertEquals(LocalDate.of(1990, 1, 1), genreStats(genre).get("first_publish_date"));
+	}
+
+	@Test
+	void updateMovesBookBetweenGenresAndAuthors() {
+		long author = insertAuthor();
+		long otherAuthor = insertAuthor();
+		long first = insertBook("a", genre, 1990, author);
+		insertBook("b", genre, 2000, author);
+		insertBook("c", otherGenre, 2005, otherAuthor);
+
+		jdbcTemplate.update("UPDATE books SET genre = ?, author_id = ?, pages_number = 77 WHERE id = ?",
+				otherGenre, otherAuthor, first);
+
+		assertStatsMatchBooks(author, otherAuthor);
+		assertEquals(LocalDate.of(2000, 1, 1), genreStats(genre).get("first_publish_date"));
+		assertEquals(LocalDate.of(1990, 1, 1), genreStats(otherGenre).get("first_publish_date"));
+	}
+
+	@Test
+	void deleteOfBoundaryBookRecomputesBoundaries() {
+		long author = insertAuthor();
+		long earliest = insertBook("a", genre, 1990, author);
+		insertBook("b", genre, 2000, author);
+		long latest = insertBook("c", genre, 2010, author);
+
+		jdbcTemplate.update("DELETE FROM books WHERE id IN (?, ?)", earliest, latest);
+
+		assertStatsMatchBooks(author);
+		assertEquals(LocalDate.of(2000, 1, 1), genreStats(genre).get("first_publish_date"));
+		assertEquals(LocalDate.of(2000, 1, 1), genreStats(genre).get("last_publish_date"));
+	}
+
+	@Test
+	void importMergeUpdatesExistingAndInsertsNewBooks() {
+		long author = insertAuthor();
+		insertBook("existing", genre, 1990, author);
+		insertBook("kept", genre, 2000, author);
+
+		List<BookImportRepository.MergedBook> merged = importRepository.merge(List.of(
+				importRow(1, "existing", otherGenre, 2015, author),
+				importRow(2, "new", genre, 1980, author)));
+
+		assertEquals(2, merged.size());
+		assertStatsMatchBooks(author);
+		assertEquals(LocalDate.of(1980, 1, 1), genreStats(genre).get("first_publish_date"));
+		assertEquals(LocalDate.of(2015, 1, 1), genreStats(otherGenre).get("last_publish_date"));
+	}
+
+	/**
+	 * Удаление граничной книги ждёт блокировку строки статистики, пока другая транзакция добавляет
+	 * книгу внутри границ; пересчёт после ожидания должен увидеть эту книгу как новую границу.
+	 */
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void deleteWaitingForConcurrentInsertSeesCommittedBook() throws Exception {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		long author = transaction.execute(status -> insertAuthor());
+		long boundary = transaction.execute(status -> insertBook("boundary", genre, 2000, author));
+		transaction.execute(status -> insertBook("late", genre, 2010, author));
+		try {
+			CountDownLatch inserted = new CountDownLatch(1);
+			CountDownLatch commit = new CountDownLatch(1);
+			CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(
+					status -> {
+						insertBook("middle", genre, 2005, author);
+						inserted.countDown();
+						await(commit);
+					}));
+			assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+			CompletableFuture<Void> deleter = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(
+					status -> jdbcTemplate.update("DELETE FROM books WHERE id = ? /* " + GENRE_MARKER + " */",
+							boundary)));
+			awaitLockWait();
+			commit.countDown();
+			writer.get(10, TimeUnit.SECONDS);
+			deleter.get(10, TimeUnit.SECONDS);
+
+			assertStatsMatchBooks(author);
+			assertEquals(LocalDate.of(2005, 1, 1), genreStats(genre).get("first_publish_date"));
+		} finally {
+			transaction.executeWithoutResult(status -> {
+				jdbcTemplate.update("DELETE FROM authors WHERE id = ?", author);
+				jdbcTemplate.update("DELETE FROM genre_stats WHERE genre = ?", genre);
+			});
+		}
+	}
+
+	private void awaitLockWait() throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			Integer waiting = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity "
+					+ "WHERE wait_event_type = 'Lock' AND query LIKE ?", Integer.class, "%" + GENRE_MARKER + "%");
+			if (waiting != null && waiting > 0) {
+				return;
+			}
+			Thread.sleep(100);
+		}
+		throw new AssertionError("Delete did not wait for the stats row lock");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private long insertAuthor() {
+		return jdbcTemplate.queryForObject("INSERT INTO authors (name, birth_date, location) VALUES (?, ?, ?) "
+				+ "RETURNING id", Long.class, "Stats Author " + System.nanoTime(), LocalDate.of(1970, 1, 1), "Test");
+	}
+
+	private long insertBook(String title, String bookGenre, int year, long authorId) {
+		return jdbcTemplate.queryForObject("INSERT INTO books (title, genre, pages_number, publishing_date, "
+				+ "author_id) VALUES (?, ?, ?, ?, ?) RETURNING id", Long.class, GENRE_MARKER + " " + title, bookGenre,
+				100 + year % 100, LocalDate.of(year, 1, 1), authorId);
+	}
+
+	private BookImportRow importRow(long rowNumber, String title, String bookGenre, int year, long authorId) {
+		BookImportRow row = new BookImportRow();
+		row.setRowNumber(rowNumber);
+		row.setTitle(GENRE_MARKER + " " + title);
+		row.setGenre(bookGenre);
+		row.setPagesNumber(300);
+		row.setPublishingDate(LocalDate.of(year, 1, 1));
+		row.setAuthorId(authorId);
+		return row;
+	}
+
+	private void assertStatsMatchBooks(long... authorIds) {
+		for (String name : List.of(genre, otherGenre)) {
+			assertEquals(expected("genre = ?", name), genreStats(name), name);
+		}
+		for (long authorId : authorIds) {
+			assertEquals(expected("author_id = ?", authorId), stats("author_stats", "author_id", authorId),
+					"author " + authorId);
+		}
+	}
+
+	private Map<String, Object> genreStats(String name) {
+		return stats("genre_stats", "genre", name);
+	}
+
+	/**
+	 * Строка статистики без книг равна пустой: читающие запросы такие строки отфильтровывают.
+	 */
+	private Map<String, Object> stats(String table, String key, Object value) {
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT book_count, pages_sum, "
+				+ "first_publish_date, last_publish_date FROM " + table + " WHERE " + key + " = ? AND book_count > 0",
+				value);
+		return rows.isEmpty() ? Map.of() : normalize(rows.get(0));
+	}
+
+	private Map<String, Object> expected(String condition, Object value) {
+		Map<String, Object> row = jdbcTemplate.queryForMap("SELECT COUNT(*) AS book_count, "
+				+ "SUM(pages_number) AS pages_sum, MIN(publishing_date) AS first_publish_date, "
+				+ "MAX(publishing_date) AS last_publish_date FROM books WHERE " + condition, value);
+		return ((Number) row.get("book_count")).longValue() == 0 ? Map.of() : normalize(row);
+	}
+
+	private static Map<String, Object> normalize(Map<String, Object> row) {
+		return Map.of(
+				"book_count", ((Number) row.get("book_count")).longValue(),
+				"pages_sum", ((Number) row.get("pages_sum")).longValue(),
+				"first_publish_date", ((Date) row.get("first_publish_date")).toLocalDate(),
+				"last_publish_date", ((Date) row.get("last_publish_date")).toLocalDate());
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.example.repository;
+
+import com.example.model.Book;
+import com.example.pagination.BookSortKey;
+import com.example.pagination.KeysetCursor;
+import com.example.pagination.KeysetPage;
+import com.example.projection.BookFields;
+import com.example.repository.jdbc.BookJdbcRepository;
+import com.example.repository.jooq.BookJooqRepository;
+import com.example.repository.jpa.BookJpaAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Keyset-пагинация по неуникальному ключу сортировки во всех реализациях хранилища:
+ * строки с одинаковым значением ключа упорядочиваются по id и не теряются и не повторяются на границе страниц.
+ * Данные создаются в транзакции теста и откатываются после него.
+ */
+@SpringBootTest
+@Transactional
+class KeysetSeekTests {
+	private static final String TITLE_MARKER = "zqxkeyset";
+	private static final int PAGES = 1_000_000;
+	private static final int PAGE_SIZE = 2;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private BookJdbcRepository jdbc;
+
+	@Autowired
+	private BookJooqRepository jooq;
+
+	@Autowired
+	private BookJpaAdapter jpa;
+
+	private final List<Book> books = new ArrayList<>();
+
+	@BeforeEach
+	void insertTiedBooks() {
+		long[] authors = new long[3];
+		for (int i = 0; i < authors.length; i++) {
+			authors[i] = jdbcTemplate.queryForObject("INSERT INTO authors (name, birth_date, location) "
+					+ "VALUES (?, ?, ?) RETURNING id", Long.class, "Keyset Author " + i, LocalDate.of(1970, 1, 1),
+					"Test");
+		}
+		/* Три книги с одинаковым названием и числом страниц, остальные совпадают попарно */
+		insert(TITLE_MARKER + " tie", PAGES, authors[2]);
+		insert(TITLE_MARKER + " tie", PAGES, authors[0]);
+		insert(TITLE_MARKER + " tie", PAGES, authors[1]);
+		insert(TITLE_MARKER + " tie b", PAGES + 1, authors[1]);
+		insert(TITLE_MARKER + " tie b", PAGES + 1, authors[0]);
+		insert(TITLE_MARKER + " tie c", PAGES + 1, authors[2]);
+	}
+
+	@Test
+	void titleTiesAreOrderedById() {
+		List<Long> expected = expectedIds(Comparator.comparing(Book::getTitle).thenComparing(Book::getId));
+		repositories().forEach((name, repository) -> assertEquals(expected,
+				collect(cursor -> repository.findByTitleContainingIgnoreCase(TITLE_MARKER, cursor, PAGE_SIZE,
+						BookFields.ALL), BookSortKey.TITLE, false), name));
+	}
+
+	@Test
+	void pagesTiesAreOrderedById() {
+		List<Long> expected = expectedIds(Comparator.comparingInt(Book::getPagesNumber).thenComparing(Book::getId));
+		repositories().forEach((name, repository) -> assertEquals(expected,
+				collect(cursor -> repository.findByPagesNumberBetween(PAGES, PAGES + 1, cursor, PAGE_SIZE,
+						BookFields.ALL), BookSortKey.PAGES_NUMBER, false), name));
+	}
+
+	@Test
+	void descendingTiesAreOrderedByIdDescending() {
+		List<Long> expected = expectedIds(Comparator.comparingInt(Book::getPagesNumber).thenComparing(Book::getId)
+				.reversed());
+		/* Созданные книги толще всех остальных, поэтому при сортировке по убыванию идут первыми */
+		repositories().forEach((name, repository) -> assertEquals(expected,
+				collect(cursor -> repository.findAll(BookSortKey.PAGES_NUMBER, true, cursor, PAGE_SIZE,
+						BookFields.ALL), BookSortKey.PAGES_NUMBER, true).subList(0, books.size()), name));
+	}
+
+	private void insert(String title, int pages, long authorId) {
+		Book book = new Book();
+		book.setTitle(title);
+		book.setPagesNumber(pages);
+		book.setId(jdbcTemplate.queryForObject("INSERT INTO books (title, genre, pages_number, publishing_date, "
+				+ "author_id) VALUES (?, ?, ?, ?, ?) RETURNING id", Long.class, title, "Test", pages,
+				LocalDate.of(2000, 1, 1), authorId));
+		books.add(book);
+	}
+
+	private List<Long> expectedIds(Comparator<Book> order) {
+		return books.stream().sorted(order).map(Book::getId).toList();
+	}
+
+	private Map<String, BookRepository> repositories() {
+		Map<String, BookRepository> repositories = new LinkedHashMap<>();
+		repositories.put("jdbc", jdbc);
+		repositories.put("jooq", jooq);
+		repositories.put("jpa", jpa);
+		return repositories;
+	}
+
+	/**
+	 * Проходит страницы по курсорам, пока не наберёт все созданные книги или страницы не кончатся.
+	 */
+	private List<Long> collect(Function<KeysetCursor, KeysetPage<Book>> query, BookSortKey sortKey,
+							   boolean descending) {
+		List<Long> ids = new ArrayList<>();
+		KeysetCursor cursor = null;
+		while (ids.size() < books.size()) {
+			KeysetPage<Book> page = query.apply(cursor);
+			page.getContent().forEach(book -> ids.add(book.getId()));
+			if (!page.isHasNext()) {
+				break;
+			}
+			cursor = KeysetCursor.decode(page.getNextCursor(), sortKey, descending);
+		}
+		return ids;
+	}
+
+}
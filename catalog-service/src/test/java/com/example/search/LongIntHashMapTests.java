@@ -0,0 +1,87 @@
+package com.example.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntHashMapTests {
+
+	@Test
+	void putsReplacesAndRemoves() {
+		LongIntHashMap map = new LongIntHashMap(4);
+		map.put(1L, 10);
+		map.put(-5L, 20);
+		map.put(0L, 30);
+		map.put(1L, 11);
+
+		assertEquals(3, map.size());
+		assertEquals(11, map.get(1L));
+		assertEquals(20, map.get(-5L));
+		assertEquals(30, map.get(0L));
+		assertEquals(-1, map.get(2L));
+
+		assertEquals(20, map.remove(-5L));
+		assertEquals(-1, map.remove(-5L));
+		assertEquals(-1, map.get(-5L));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	void removalKeepsCollidingKeysReachable() {
+		LongIntHashMap map = new LongIntHashMap(8);
+		long capacity = map.capacity();
+		/* Ключи, кратные ёмкости таблицы, образуют длинные кластеры и проверяют сдвиг при удалении */
+		for (int i = 0; i < 10; i++) {
+			map.put(i * capacity, i);
+		}
+		for (int i = 0; i < 10; i += 2) {
+			assertEquals(i, map.remove(i * capacity));
+		}
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i % 2 == 0 ? -1 : i, map.get(i * capacity));
+		}
+	}
+
+	@Test
+	void growsBeyondExpectedSize() {
+		LongIntHashMap map = new LongIntHashMap(1);
+		long initialCapacity = map.capacity();
+		for (int i = 0; i < 10_000; i++) {
+			map.put(i * 31L, i);
+		}
+
+		assertEquals(10_000, map.size());
+		assertTrue(map.capacity() > initialCapacity);
+		for (int i = 0; i < 10_000; i++) {
+			assertEquals(i, map.get(i * 31L));
+		}
+	}
+
+	@Test
+	void matchesHashMapUnderRandomOperations() {
+		LongIntHashMap map = new LongIntHashMap(16);
+		Map<Long, Integer> expected = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			long key = random.nextInt(2_000) - 1_000;
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.getOrDefault(key, -1).intValue(), map.remove(key));
+				expected.remove(key);
+			} else {
+				map.put(key, i);
+				expected.put(key, i);
+			}
+		}
+
+		assertEquals(expected.size(), map.size());
+		for (long key = -1_000; key < 1_000; key++) {
+			assertEquals(expected.getOrDefault(key, -1).intValue(), map.get(key));
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.example.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NgramIndexTests {
+
+	@Test
+	void findsSubstringsIgnoringCase() {
+		NgramIndex index = new NgramIndex(4);
+		int hobbit = index.put(10L, "The Hobbit");
+		int rings = index.put(20L, "The Lord of the Rings");
+		int silmarillion = index.put(30L, "Silmarillion");
+
+		assertArrayEquals(new int[]{hobbit, rings}, index.search("THE"));
+		assertArrayEquals(new int[]{hobbit}, index.search("hobbit"));
+		assertArrayEquals(new int[]{rings}, index.search("lord of"));
+		assertArrayEquals(new int[]{silmarillion}, index.search("marill"));
+		assertEquals(30L, index.idOf(silmarillion));
+		assertEquals(rings, index.docOf(20L));
+	}
+
+	@Test
+	void matchesWholeTextAndTextBoundaries() {
+		NgramIndex index = new NgramIndex(4);
+		int doc = index.put(1L, "abcdef");
+
+		assertArrayEquals(new int[]{doc}, index.search("abcdef"));
+		assertArrayEquals(new int[]{doc}, index.search("abc"));
+		assertArrayEquals(new int[]{doc}, index.search("def"));
+		assertArrayEquals(new int[0], index.search("abcdefg"));
+		assertArrayEquals(new int[0], index.search("zabc"));
+	}
+
+	@Test
+	void rejectsCandidatesThatContainAllTrigramsButNotTheSubstring() {
+		NgramIndex index = new NgramIndex(4);
+		/* Текст содержит триграммы "abc" и "bcd", но не подстроку "abcd" */
+		index.put(1L, "abc bcd");
+		int match = index.put(2L, "xabcdx");
+
+		assertArrayEquals(new int[]{match}, index.search("abcd"));
+	}
+
+	@Test
+	void treatsLikeWildcardsLiterally() {
+		NgramIndex index = new NgramIndex(4);
+		int percent = index.put(1L, "100% pure");
+		index.put(2L, "1000 pure");
+		int underscore = index.put(3L, "snake_case");
+		index.put(4L, "snakeXcase");
+
+		assertArrayEquals(new int[]{percent}, index.search("0% p"));
+		assertArrayEquals(new int[]{underscore}, index.search("e_c"));
+	}
+
+	@Test
+	void handlesRepeatedTrigrams() {
+		NgramIndex index = new NgramIndex(4);
+		int doc = index.put(1L, "aaaaaa");
+		index.put(2L, "aaa");
+
+		assertArrayEquals(new int[]{doc}, index.search("aaaa"));
+		assertEquals(1, NgramIndex.grams("aaaaaa").length);
+	}
+
+	@Test
+	void shortQueriesAreLeftToTheDatabase() {
+		NgramIndex index = new NgramIndex(4);
+		index.put(1L, "ab");
+
+		assertNull(index.search("ab"));
+		assertNull(index.search(""));
+		assertArrayEquals(new int[0], index.search("abc"));
+	}
+
+	@Test
+	void replacesTextKeepingDocumentNumber() {
+		NgramIndex index = new NgramIndex(4);
+		int doc = index.put(1L, "Old title");
+
+		assertEquals(doc, index.put(1L, "New title"));
+		assertArrayEquals(new int[0], index.search("old"));
+		assertArrayEquals(new int[]{doc}, index.search("new"));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void removesDocumentsAndEmptyPostings() {
+		NgramIndex index = new NgramIndex(4);
+		int first = index.put(1L, "unique words");
+		int second = index.put(2L, "common words");
+
+		assertEquals(first, index.remove(1L));
+		assertEquals(-1, index.remove(1L));
+		assertFalse(index.contains(1L));
+		assertTrue(index.contains(2L));
+		assertArrayEquals(new int[0], index.search("unique"));
+		assertArrayEquals(new int[]{second}, index.search("words"));
+		assertEquals(NgramIndex.grams("common words").length, index.gramCount());
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void growsBeyondExpectedSize() {
+		NgramIndex index = new NgramIndex(1);
+		for (long id = 1; id <= 1000; id++) {
+			index.put(id, "book " + id);
+		}
+
+		assertEquals(1000, index.size());
+		assertEquals(1, index.search("book 1000").length);
+		/* 1, 10-19, 100-199 и 1000 */
+		assertEquals(112, index.search("book 1").length);
+		for (long id = 1; id <= 1000; id++) {
+			assertEquals(id, index.idOf(index.docOf(id)));
+		}
+	}
+
+}
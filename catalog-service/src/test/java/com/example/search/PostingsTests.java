@@ -0,0 +1,133 @@
+package com.example.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostingsTests {
+
+	@Test
+	void keepsDocumentsSortedAndUnique() {
+		Postings postings = postings(5, 1, 9, 3, 5, 7, 1);
+
+		assertArrayEquals(new int[]{1, 3, 5, 7, 9}, postings.toArray());
+		assertEquals(5, postings.size());
+	}
+
+	@Test
+	void removesOnlyPresentDocuments() {
+		Postings postings = postings(1, 2, 3);
+
+		assertTrue(postings.remove(2));
+		assertFalse(postings.remove(2));
+		assertFalse(postings.remove(4));
+		assertArrayEquals(new int[]{1, 3}, postings.toArray());
+		assertTrue(postings.remove(1));
+		assertTrue(postings.remove(3));
+		assertEquals(0, postings.size());
+	}
+
+	@Test
+	void readdsRemovedDocumentsAndInsertsBetweenRemoved() {
+		Postings postings = postings(1, 3, 5, 7, 9);
+		assertTrue(postings.remove(3));
+		assertTrue(postings.remove(7));
+
+		postings.add(7);
+		postings.add(4);
+
+		assertArrayEquals(new int[]{1, 4, 5, 7, 9}, postings.toArray());
+		assertEquals(5, postings.size());
+	}
+
+	@Test
+	void compactsAfterMostDocumentsAreRemoved() {
+		Postings postings = new Postings();
+		for (int doc = 0; doc < 100; doc++) {
+			postings.add(doc);
+		}
+		for (int doc = 0; doc < 90; doc++) {
+			assertTrue(postings.remove(doc));
+		}
+
+		assertEquals(10, postings.size());
+		assertArrayEquals(new int[]{90, 91, 92, 93, 94, 95, 96, 97, 98, 99}, postings.toArray());
+		int[] target = new int[12];
+		assertEquals(11, postings.copyTo(target, 1));
+		assertEquals(90, target[1]);
+	}
+
+	@Test
+	void retainAllSkipsRemovedDocuments() {
+		Postings small = postings(1, 2, 3, 4);
+		small.remove(2);
+		Postings large = new Postings();
+		for (int doc = 0; doc < 1000; doc++) {
+			large.add(doc);
+		}
+		large.remove(3);
+		large.remove(500);
+		int[] merged = {1, 2, 3};
+		int[] searched = {3, 500, 501};
+
+		assertArrayEquals(new int[]{1, 3}, Arrays.copyOf(merged, small.retainAll(merged, merged.length)));
+		assertArrayEquals(new int[]{501}, Arrays.copyOf(searched, large.retainAll(searched, searched.length)));
+	}
+
+	@Test
+	void growsPastInitialCapacity() {
+		Postings postings = new Postings();
+		for (int doc = 0; doc < 100; doc++) {
+			postings.add(doc);
+		}
+
+		assertEquals(100, postings.size());
+		assertTrue(postings.capacity() >= 100);
+	}
+
+	@Test
+	void retainAllMergesListsOfSimilarSize() {
+		Postings postings = postings(1, 3, 5, 7, 9);
+		int[] candidates = {0, 3, 4, 7, 9, 10};
+
+		int count = postings.retainAll(candidates, candidates.length);
+
+		assertArrayEquals(new int[]{3, 7, 9}, Arrays.copyOf(candidates, count));
+	}
+
+	@Test
+	void retainAllSearchesLongListForFewCandidates() {
+		Postings postings = new Postings();
+		for (int doc = 0; doc < 1000; doc += 2) {
+			postings.add(doc);
+		}
+		int[] candidates = {1, 2, 500, 501, 998, 999};
+
+		int count = postings.retainAll(candidates, candidates.length);
+
+		assertArrayEquals(new int[]{2, 500, 998}, Arrays.copyOf(candidates, count));
+	}
+
+	@Test
+	void retainAllConsidersOnlyFirstCountCandidates() {
+		Postings postings = postings(1, 2, 3);
+		int[] candidates = {1, 3, 2};
+
+		assertEquals(2, postings.retainAll(candidates, 2));
+		assertEquals(0, postings(8).retainAll(candidates, 0));
+	}
+
+	private static Postings postings(int... docs) {
+		Postings postings = new Postings();
+		for (int doc : docs) {
+			postings.add(doc);
+		}
+		return postings;
+	}
+
+}
@@ -1,24 +1,91 @@
 package com.example.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.io.IOException;
+import java.time.Duration;
 
 @Configuration
 public class AppConfig {
 
 
+    /**
+     * Пул keep-alive соединений RestTemplate к catalog-service.
+     * Простаивающие соединения закрываются раньше, чем их закроет Tomcat каталога
+     * (keepAliveTimeout 20 секунд), а перед повторным использованием после паузы проверяются.
+     * Запрос ждёт свободное соединение не дольше connection-request-timeout.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager catalogConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${reader.catalog.http.max-connections:200}") int maxConnections,
+            @Value("${reader.catalog.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+            @Value("${reader.catalog.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${reader.catalog.http.read-timeout:5s}") Duration readTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "catalog").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient catalogHttpClient(
+            PoolingHttpClientConnectionManager catalogConnectionManager,
+            @Value("${reader.catalog.http.connection-request-timeout:1s}") Duration connectionRequestTimeout,
+            @Value("${reader.catalog.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${reader.catalog.http.keep-alive:15s}") Duration keepAlive,
+            @Value("${reader.catalog.http.idle-eviction:15s}") Duration idleEviction) {
+        return HttpClients.custom()
+                .setConnectionManager(catalogConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .evictExpiredConnections()
+                .build();
+    }
+
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient catalogHttpClient,
+                                     @Value("${reader.catalog.revalidation.max-entries:10000}") int maxEntries) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(catalogHttpClient));
+
+        // Ответы каталога с ETag перепроверяются через If-None-Match вместо повторной загрузки
+        restTemplate.getInterceptors().add(new CatalogRevalidationInterceptor(maxEntries));
 
         // Настройка обработки ошибок
         restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
@@ -33,4 +100,26 @@ public class AppConfig {
 
         return restTemplate;
     }
+
+    /**
+     * WebClient для параллельной загрузки данных книг (CatalogBookClient).
+     * Reactor Netty ограничивает пул отдельно для каждого адреса, поэтому max-connections-per-instance
+     * действует на каждый экземпляр catalog-service, а всего соединений до N * max-connections-per-instance.
+     * Сверх лимита запросы к экземпляру ждут соединение не дольше pending-acquire-timeout.
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder catalogWebClientBuilder(
+            @Value("${reader.catalog.details.max-connections-per-instance:64}") int maxConnections,
+            @Value("${reader.catalog.details.pending-acquire-timeout:1s}") Duration pendingAcquireTimeout,
+            @Value("${reader.catalog.details.call-timeout:2s}") Duration callTimeout) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("catalog-details")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) callTimeout.toMillis())
+                .responseTimeout(callTimeout);
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
 }
\ No newline at end of file
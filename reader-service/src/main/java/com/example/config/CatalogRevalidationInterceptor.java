@@ -0,0 +1,109 @@
+package com.example.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Повторная проверка ответов catalog-service вместо повторной загрузки.
+ * Тела GET-ответов с ETag хранятся по URL (не больше maxEntries, вытесняются давно запрошенные),
+ * следующий запрос уходит с If-None-Match, и на 304 возвращается сохранённое тело как ответ 200.
+ */
+public class CatalogRevalidationInterceptor implements ClientHttpRequestInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogRevalidationInterceptor.class);
+    private final Map<URI, CachedResponse> responses;
+
+    public CatalogRevalidationInterceptor(int maxEntries) {
+        this.responses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+        URI uri = request.getURI();
+        CachedResponse cached = responses.get(uri);
+        if (cached != null) {
+            request.getHeaders().setIfNoneMatch(cached.etag);
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            response.close();
+            logger.debug("Revalidated {}", uri);
+            return cached;
+        }
+        String etag = response.getHeaders().getETag();
+        if (etag == null || !response.getStatusCode().is2xxSuccessful()) {
+            responses.remove(uri);
+            return response;
+        }
+        CachedResponse fresh = new CachedResponse(etag, response.getHeaders(),
+                StreamUtils.copyToByteArray(response.getBody()));
+        response.close();
+        responses.put(uri, fresh);
+        return fresh;
+    }
+
+    /**
+     * Сохранённый ответ 200, тело читается заново при каждом использовании.
+     */
+    private static final class CachedResponse implements ClientHttpResponse {
+        private final String etag;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        private CachedResponse(String etag, HttpHeaders headers, byte[] body) {
+            this.etag = etag;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Ответ пакетного запроса данных книг в catalog-service:
+ * книги в порядке запрошенных ids и ids, которых нет в каталоге.
+ */
+@Data
+public class BookDetailsBatch {
+    private List<BookResponse> books;
+    private List<Long> missingIds;
+}
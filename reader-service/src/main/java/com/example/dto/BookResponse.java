@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
  */
 @Data
 public class BookResponse {
+    private Long id;
     private String title;
     private String genre;
     private int pagesNumber;
@@ -20,6 +21,22 @@ public class BookResponse {
     private AuthorInfo author;
     private LocalDateTime addedAt;
 
+    /**
+     * Копия с датой добавления в список: данные книги из кэша общие для всех списков.
+     */
+    public BookResponse withAddedAt(LocalDateTime addedAt) {
+        BookResponse copy = new BookResponse();
+        copy.setId(id);
+        copy.setTitle(title);
+        copy.setGenre(genre);
+        copy.setPagesNumber(pagesNumber);
+        copy.setPublishingDate(publishingDate);
+        copy.setDescription(description);
+        copy.setAuthor(author);
+        copy.setAddedAt(addedAt);
+        return copy;
+    }
+
     @Data
     public static class AuthorInfo {
         private String name;
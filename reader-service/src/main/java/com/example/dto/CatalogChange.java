@@ -0,0 +1,16 @@
+package com.example.dto;
+
+import lombok.Data;
+
+/**
+ * Событие ленты изменений catalog-service (/api/catalog/changes):
+ * book - книга bookId создана, изменена или удалена (deleted);
+ * authors - изменились авторы, имена которых входят в данные книг;
+ * resync - изменения могли быть пропущены.
+ */
+@Data
+public class CatalogChange {
+    private String type;
+    private Long bookId;
+    private boolean deleted;
+}
@@ -0,0 +1,262 @@
+package com.example.service;
+
+import com.example.dto.BookDetailsBatch;
+import com.example.dto.BookResponse;
+import com.example.exception.BookNotInReadListException;
+import com.example.model.Reader;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Загрузка данных книг страницы списка прочитанного из catalog-service.
+ * Режим reader.catalog.details.mode:
+ * - batch - запросы details:batch по MAX_BATCH_IDS книг, не больше max-concurrency одновременно на страницу;
+ * - parallel - запросы по каждой книге через WebClient, не больше max-concurrency одновременно
+ * на страницу и не больше max-connections-per-instance на каждый экземпляр catalog-service
+ * (пул соединений AppConfig).
+ * Книги, которых нет в каталоге или которые не загрузились за call-timeout, пропускаются:
+ * страница возвращается с остальными книгами.
+ * Данные книг хранятся в локальном кэше (near cache), в catalog-service запрашиваются только промахи.
+ */
+@Component
+public class CatalogBookClient {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogBookClient.class);
+    private static final String CATALOG_BOOKS = "http://catalog-service/api/catalog/books";
+    private static final String CACHE_NAME = "reader.catalog.details";
+    /* Ограничение catalog-service на число id в details:batch (BookDetailsBatchRequest.MAX_IDS) */
+    private static final int MAX_BATCH_IDS = 1000;
+
+    private final WebClient webClient;
+    private final AsyncLoadingCache<Long, BookResponse> books;
+    private final DetailsMode mode;
+    private final int maxConcurrency;
+    private final Duration callTimeout;
+    private final Duration pageTimeout;
+
+    public CatalogBookClient(WebClient.Builder catalogWebClientBuilder, MeterRegistry meterRegistry,
+                             @Value("${reader.catalog.details.mode:batch}") DetailsMode mode,
+                             @Value("${reader.catalog.details.max-concurrency:8}") int maxConcurrency,
+                             @Value("${reader.catalog.details.call-timeout:2s}") Duration callTimeout,
+                             @Value("${reader.catalog.details.page-timeout:5s}") Duration pageTimeout,
+                             @Value("${reader.catalog.details.cache.max-size:10000}") long cacheMaxSize,
+                             @Value("${reader.catalog.details.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                             @Value("${reader.catalog.details.cache.refresh-after-write:1m}")
+                             Duration refreshAfterWrite) {
+        this.webClient = catalogWebClientBuilder.build();
+        this.mode = mode;
+        this.maxConcurrency = maxConcurrency;
+        this.callTimeout = callTimeout;
+        this.pageTimeout = pageTimeout;
+        this.books = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .buildAsync(new DetailsLoader());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, books, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".hit.ratio", books, cache -> cache.synchronous().stats().hitRate())
+                .description("Доля запросов данных книг, обслуженных из локального кэша")
+                .register(meterRegistry);
+        logger.info("Catalog details mode: {}, near cache max size {}, expire after {}, refresh after {}",
+                mode, cacheMaxSize, expireAfterWrite, refreshAfterWrite);
+    }
+
+    /**
+     * Данные книг в порядке списка, addedAt берётся из записи списка.
+     */
+    public List<BookResponse> fetchDetails(List<Reader> readers) {
+        if (readers.isEmpty()) {
+            return List.of();
+        }
+        Instant start = Instant.now();
+        List<BookResponse> books = mode == DetailsMode.PARALLEL ? fetchParallel(readers) : fetchBatch(readers);
+
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched {} of {} book details in {} ms", books.size(), readers.size(), duration.toMillis());
+
+        return books;
+    }
+
+    /**
+     * Данные одной книги: отсутствие книги в каталоге и ошибка загрузки - исключения.
+     */
+    public BookResponse fetchDetails(long bookId, LocalDateTime addedAt) {
+        BookResponse book;
+        try {
+            book = books.get(bookId).join();
+        } catch (CompletionException e) {
+            logger.error("Error fetching book details: {}", e.getCause().getMessage());
+            throw new BookNotInReadListException(
+                    "Ошибка при получении информации о книге: " + e.getCause().getMessage());
+        }
+        if (book == null) {
+            logger.error("Book {} not found in catalog", bookId);
+            throw new BookNotInReadListException("Книга с ID: " + bookId + " не найдена в каталоге!");
+        }
+        return book.withAddedAt(addedAt);
+    }
+
+    public void invalidate(long bookId) {
+        books.synchronous().invalidate(bookId);
+    }
+
+    public void invalidateAll() {
+        books.synchronous().invalidateAll();
+    }
+
+    /**
+     * Промахи страницы загружаются запросами details:batch. Книги, которые уже загружает
+     * другой запрос, не запрашиваются повторно: ожидается общая загрузка.
+     */
+    private List<BookResponse> fetchBatch(List<Reader> readers) {
+        List<Long> bookIds = readers.stream().map(Reader::getBookId).toList();
+        Map<Long, BookResponse> booksById;
+        try {
+            booksById = books.getAll(bookIds).join();
+        } catch (CompletionException e) {
+            logger.error("Error fetching book details: {}", e.getCause().getMessage());
+            return List.of();
+        }
+
+        List<BookResponse> result = new ArrayList<>(readers.size());
+        for (Reader reader : readers) {
+            BookResponse book = booksById.get(reader.getBookId());
+            if (book != null) {
+                result.add(book.withAddedAt(reader.getAddedAt()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Запросы выполняются на потоках Reactor Netty, поток Tomcat только ждёт результата страницы.
+     * Через page-timeout возвращаются книги, загруженные к этому моменту.
+     */
+    private List<BookResponse> fetchParallel(List<Reader> readers) {
+        List<BookResponse> result = Flux.fromIterable(readers)
+                .flatMapSequential(this::fetchOne, maxConcurrency)
+                .take(pageTimeout)
+                .collectList()
+                .block();
+        return result == null ? List.of() : result;
+    }
+
+    /**
+     * Отмена по page-timeout не отменяет загрузку в кэше: её могут ждать другие запросы.
+     */
+    private Mono<BookResponse> fetchOne(Reader reader) {
+        long bookId = reader.getBookId();
+        return Mono.fromFuture(books.get(bookId), true)
+                .map(book -> book.withAddedAt(reader.getAddedAt()))
+                .onErrorResume(e -> {
+                    if (e instanceof TimeoutException) {
+                        logger.warn("Book {} details timed out after {}, skipping", bookId, callTimeout);
+                    } else {
+                        logger.error("Error fetching book {} details: {}", bookId, e.getMessage());
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Загрузка промахов и фоновое обновление записей старше refresh-after-write:
+     * до окончания обновления читается прежнее значение. Книги, которых нет в каталоге,
+     * в кэш не попадают.
+     */
+    private final class DetailsLoader implements AsyncCacheLoader<Long, BookResponse> {
+
+        @Override
+        public CompletableFuture<? extends BookResponse> asyncLoad(Long bookId, Executor executor) {
+            return webClient.get()
+                    .uri(CATALOG_BOOKS + "/{id}/details", bookId)
+                    .retrieve()
+                    .bodyToMono(BookResponse.class)
+                    .timeout(callTimeout)
+                    .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                        logger.warn("Book {} not found in catalog, skipping", bookId);
+                        return Mono.empty();
+                    })
+                    .toFuture();
+        }
+
+        /**
+         * Промахи делятся на части по MAX_BATCH_IDS: ошибка одной части не отменяет остальные,
+         * её книги пропускаются.
+         */
+        @Override
+        public CompletableFuture<? extends Map<? extends Long, ? extends BookResponse>> asyncLoadAll(
+                Set<? extends Long> bookIds, Executor executor) {
+            List<List<Long>> chunks = new ArrayList<>();
+            List<Long> chunk = new ArrayList<>(Math.min(bookIds.size(), MAX_BATCH_IDS));
+            for (Long bookId : bookIds) {
+                if (chunk.size() == MAX_BATCH_IDS) {
+                    chunks.add(chunk);
+                    chunk = new ArrayList<>(MAX_BATCH_IDS);
+                }
+                chunk.add(bookId);
+            }
+            chunks.add(chunk);
+            return Flux.fromIterable(chunks)
+                    .flatMap(ids -> loadChunk(ids).onErrorResume(e -> {
+                        logger.error("Error fetching details of {} books: {}", ids.size(), e.getMessage());
+                        return Mono.just(Map.of());
+                    }), maxConcurrency)
+                    .collect(HashMap<Long, BookResponse>::new, Map::putAll)
+                    .toFuture();
+        }
+
+        private Mono<Map<Long, BookResponse>> loadChunk(List<Long> bookIds) {
+            return webClient.post()
+                    .uri(CATALOG_BOOKS + "/details:batch")
+                    .bodyValue(Map.of("ids", bookIds))
+                    .retrieve()
+                    .bodyToMono(BookDetailsBatch.class)
+                    .timeout(pageTimeout)
+                    .map(batch -> {
+                        if (batch.getBooks() == null) {
+                            logger.error("Empty batch details response for books {}", bookIds);
+                            return Map.<Long, BookResponse>of();
+                        }
+                        if (batch.getMissingIds() != null && !batch.getMissingIds().isEmpty()) {
+                            logger.warn("Books {} not found in catalog, skipping", batch.getMissingIds());
+                        }
+                        Map<Long, BookResponse> booksById = new HashMap<>();
+                        for (BookResponse book : batch.getBooks()) {
+                            booksById.put(book.getId(), book);
+                        }
+                        return booksById;
+                    });
+        }
+    }
+
+    public enum DetailsMode {
+        BATCH,
+        PARALLEL
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальный фильтр Блума идентификаторов книг каталога для проверки перед добавлением в список.
+ * Фильтр периодически строится заново по страницам /api/catalog/books/ids, при неизменном каталоге
+ * страницы перепроверяются по ETag. Отрицательный ответ фильтра окончателен только для id не больше
+ * максимального id предыдущей синхронизации: книги с большими id могли появиться после построения
+ * фильтра, а меньший id мог быть выдан транзакции, зафиксированной уже после чтения страниц.
+ * Поэтому первый фильтр не доверяет ни одному id и отвечает окончательно только после второй синхронизации.
+ * Остальные id и положительные ответы проверяются в catalog-service.
+ * Новые книги из уведомлений CatalogChangeListener добавляются в фильтр сразу.
+ */
+@Component
+public class CatalogBookIds {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogBookIds.class);
+    private static final String CATALOG_BOOK_IDS = "http://catalog-service/api/catalog/books/ids";
+    /* Запас под книги, созданные до следующей синхронизации */
+    private static final double GROWTH_FACTOR = 1.25;
+
+    private final RestTemplate restTemplate;
+    private final boolean enabled;
+    private final Duration syncInterval;
+    private final int pageSize;
+    private final double falsePositiveRate;
+    private final ScheduledExecutorService syncer;
+    private final Counter absent;
+    private final Counter possible;
+    private final Counter unknown;
+    private volatile Snapshot snapshot;
+    private long lastMaxId;
+    /* Книги из уведомлений во время синхронизации, добавляются в новый фильтр */
+    private List<Long> addedDuringSync;
+
+    public CatalogBookIds(RestTemplate restTemplate, MeterRegistry meterRegistry,
+                          @Value("${reader.catalog.book-ids.enabled:true}") boolean enabled,
+                          @Value("${reader.catalog.book-ids.sync-interval:5m}") Duration syncInterval,
+                          @Value("${reader.catalog.book-ids.page-size:10000}") int pageSize,
+                          @Value("${reader.catalog.book-ids.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.restTemplate = restTemplate;
+        this.enabled = enabled;
+        this.syncInterval = syncInterval;
+        this.pageSize = pageSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncer = enabled ? Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "catalog-book-ids-sync");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        absent = checks(meterRegistry, "absent");
+        possible = checks(meterRegistry, "possible");
+        unknown = checks(meterRegistry, "unknown");
+        Gauge.builder("reader.catalog.book-ids.size", this, ids -> ids.snapshot == null ? 0 : ids.snapshot.size)
+                .description("Число идентификаторов книг в локальном фильтре")
+                .register(meterRegistry);
+        Gauge.builder("reader.catalog.book-ids.memory", this,
+                        ids -> ids.snapshot == null ? 0 : ids.snapshot.filter.estimateBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("reader.catalog.book-ids.checks")
+                .description("Проверки существования книг по локальному фильтру")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (syncer == null) {
+            logger.info("Catalog book id filter is disabled");
+            return;
+        }
+        syncer.scheduleWithFixedDelay(this::sync, 0, syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Catalog book id filter sync every {}", syncInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+    }
+
+    /**
+     * @return false, если книги точно нет в каталоге; true - нужна проверка в catalog-service
+     */
+    public boolean mightExist(long bookId) {
+        Snapshot current = snapshot;
+        if (current == null || bookId > current.trustedMaxId) {
+            unknown.increment();
+            return true;
+        }
+        if (current.filter.mightContain(bookId)) {
+            possible.increment();
+            return true;
+        }
+        absent.increment();
+        return false;
+    }
+
+    /**
+     * Книга создана в каталоге после построения фильтра.
+     */
+    public synchronized void added(long bookId) {
+        if (snapshot != null) {
+            snapshot.filter.put(bookId);
+        }
+        if (addedDuringSync != null) {
+            addedDuringSync.add(bookId);
+        }
+    }
+
+    void sync() {
+        Instant start = Instant.now();
+        synchronized (this) {
+            addedDuringSync = new ArrayList<>();
+        }
+        try {
+            long[] ids = fetchIds();
+            LongBloomFilter filter = new LongBloomFilter((long) (ids.length * GROWTH_FACTOR), falsePositiveRate);
+            for (long id : ids) {
+                filter.put(id);
+            }
+            long maxId = ids.length == 0 ? 0 : ids[ids.length - 1];
+            /* Первый фильтр не доверяет своему максимуму: ниже него могут быть незафиксированные id */
+            long trustedMaxId = snapshot == null ? 0 : Math.min(lastMaxId, maxId);
+            synchronized (this) {
+                for (long id : addedDuringSync) {
+                    filter.put(id);
+                }
+                addedDuringSync = null;
+                snapshot = new Snapshot(filter, ids.length, trustedMaxId);
+                lastMaxId = maxId;
+            }
+
+            Duration duration = Duration.between(start, Instant.now());
+            logger.info("Synced {} catalog book ids, filter {} KB, trusted up to id {} in {} ms",
+                    ids.length, filter.estimateBytes() / 1024, trustedMaxId, duration.toMillis());
+        } catch (RestClientException e) {
+            synchronized (this) {
+                addedDuringSync = null;
+            }
+            logger.warn("Catalog book id sync failed, keeping previous filter: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                addedDuringSync = null;
+            }
+            logger.error("Catalog book id sync failed", e);
+        }
+    }
+
+    /**
+     * Идентификаторы всех книг по возрастанию.
+     */
+    private long[] fetchIds() {
+        long[] ids = new long[Math.max(pageSize, 16)];
+        int count = 0;
+        long after = 0;
+        while (true) {
+            long[] page = restTemplate.getForObject(CATALOG_BOOK_IDS + "?after={after}&limit={limit}",
+                    long[].class, after, pageSize);
+            if (page == null || page.length == 0) {
+                break;
+            }
+            if (count + page.length > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length + (ids.length >> 1), count + page.length));
+            }
+            System.arraycopy(page, 0, ids, count, page.length);
+            count += page.length;
+            after = page[page.length - 1];
+            if (page.length < pageSize) {
+                break;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private static final class Snapshot {
+        private final LongBloomFilter filter;
+        private final int size;
+        private final long trustedMaxId;
+
+        private Snapshot(LongBloomFilter filter, int size, long trustedMaxId) {
+            this.filter = filter;
+            this.size = size;
+            this.trustedMaxId = trustedMaxId;
+        }
+    }
+}
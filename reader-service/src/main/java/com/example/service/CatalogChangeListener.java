@@ -0,0 +1,113 @@
+package com.example.service;
+
+import com.example.dto.CatalogChange;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Инвалидация кэша данных книг CatalogBookClient по ленте изменений catalog-service
+ * (/api/catalog/changes, Server-Sent Events): отдельного доступа к базе каталога не нужно.
+ * Книга удаляется из кэша по id, созданная или изменённая книга добавляется в фильтр CatalogBookIds.
+ * Данные книг содержат имя автора, а id автора в них нет, поэтому изменения авторов очищают кэш целиком.
+ * Лента начинается с события resync, а изменения между обрывом и переподключением теряются,
+ * поэтому при подключении и обрыве кэш очищается целиком. Соединение без событий и heartbeat
+ * дольше idle-timeout считается оборванным.
+ * Без инвалидации данные книг устаревают не дольше чем на expire-after-write.
+ */
+@Component
+@ConditionalOnProperty(name = "reader.catalog.invalidation.enabled", havingValue = "true")
+public class CatalogChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeListener.class);
+    private static final String CATALOG_CHANGES = "http://catalog-service/api/catalog/changes";
+    private static final ParameterizedTypeReference<ServerSentEvent<CatalogChange>> CHANGE_EVENT =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final CatalogBookClient catalogBookClient;
+    private final CatalogBookIds catalogBookIds;
+    private final WebClient webClient;
+    private final Duration idleTimeout;
+    private final Duration reconnectDelay;
+    private Disposable subscription;
+
+    public CatalogChangeListener(CatalogBookClient catalogBookClient, CatalogBookIds catalogBookIds,
+                                 WebClient.Builder catalogWebClientBuilder,
+                                 @Value("${reader.catalog.invalidation.idle-timeout:45s}") Duration idleTimeout,
+                                 @Value("${reader.catalog.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.catalogBookClient = catalogBookClient;
+        this.catalogBookIds = catalogBookIds;
+        /* Лента открыта постоянно: пул и responseTimeout загрузки данных книг к ней не применяются */
+        this.webClient = catalogWebClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create()))
+                .build();
+        this.idleTimeout = idleTimeout;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        subscription = Flux.defer(this::changes)
+                .doOnError(e -> {
+                    logger.warn("Catalog change feed failed, clearing book details cache: {}", e.getMessage());
+                    catalogBookClient.invalidateAll();
+                })
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, reconnectDelay))
+                .subscribe(this::onChange);
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<ServerSentEvent<CatalogChange>> changes() {
+        return webClient.get()
+                .uri(CATALOG_CHANGES)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(CHANGE_EVENT)
+                .timeout(idleTimeout)
+                .concatWith(Flux.error(new IllegalStateException("Catalog change feed closed")));
+    }
+
+    private void onChange(ServerSentEvent<CatalogChange> event) {
+        CatalogChange change = event.data();
+        /* Событие без данных - heartbeat */
+        if (change == null) {
+            return;
+        }
+        switch (String.valueOf(change.getType())) {
+            case "book" -> {
+                catalogBookClient.invalidate(change.getBookId());
+                if (!change.isDeleted()) {
+                    catalogBookIds.added(change.getBookId());
+                }
+            }
+            case "authors" -> catalogBookClient.invalidateAll();
+            case "resync" -> {
+                logger.info("Subscribed to catalog changes, clearing book details cache");
+                catalogBookClient.invalidateAll();
+            }
+            default -> logger.warn("Unknown catalog change: {}", change);
+        }
+    }
+}
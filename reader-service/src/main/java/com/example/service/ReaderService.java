@@ -11,7 +11,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
@@ -22,8 +23,6 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Сервис для работы с читательскими списками:
@@ -36,6 +35,8 @@ public class ReaderService {
     private static final Logger logger = LoggerFactory.getLogger(ReaderService.class);
     private final ReaderRepository readerRepository;
     private final RestTemplate restTemplate; // для проверки существования книги в book-service
+    private final CatalogBookClient catalogBookClient;
+    private final CatalogBookIds catalogBookIds;
 
     @Transactional
     public void addBookToReadList(String username, long bookId) {
@@ -62,24 +63,32 @@ public class ReaderService {
         logger.debug("Add book to read list completed in {} ms", duration.toMillis());
     }
 
+    /**
+     * Книги, которых точно нет по локальному фильтру, отклоняются без запроса в catalog-service.
+     * Остальные проверяются запросом HEAD без загрузки данных книги.
+     */
     private void checkIfBookExists(long bookId) {
+        if (!catalogBookIds.mightExist(bookId)) {
+            logger.warn("Book {} not found by local id filter", bookId);
+            throw new BookNotInReadListException("Книга с ID: " + bookId + " не найдена!");
+        }
         try {
             Instant start = Instant.now();
             logger.debug("Checking if book {} exists", bookId);
 
-            ResponseEntity<Void> response = restTemplate.getForEntity(
-                    "http://catalog-service/api/catalog/books/{id}",
-                    Void.class,
-                    bookId);
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                logger.warn("Book {} not found", bookId);
-                throw new BookNotInReadListException("Книга с ID: " + bookId + " не найдена!");
-            }
+            restTemplate.exchange("http://catalog-service/api/catalog/books/{id}", HttpMethod.HEAD, null,
+                    Void.class, bookId);
 
             Duration duration = Duration.between(start, Instant.now());
             logger.debug("Book existence check completed in {} ms", duration.toMillis());
 
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() != HttpStatus.NOT_FOUND) {
+                logger.error("Error checking book existence: {}", e.getMessage());
+                throw new BookNotInReadListException("Ошибка при проверке существования книги: " + e.getMessage());
+            }
+            logger.warn("Book {} not found", bookId);
+            throw new BookNotInReadListException("Книга с ID: " + bookId + " не найдена!");
         } catch (RestClientException e) {
             logger.error("Error checking book existence: {}", e.getMessage());
             throw new BookNotInReadListException("Ошибка при проверке существования книги: " + e.getMessage());
@@ -131,17 +140,7 @@ public class ReaderService {
 
         Page<Reader> readerPage = readerRepository.findByUsername(username, pageable);
 
-        List<BookResponse> bookResponses = readerPage.getContent().stream()
-                .map(reader -> {
-                    try {
-                        return fetchBookDetails(reader.getBookId(), reader.getAddedAt());
-                    } catch (BookNotInReadListException e) {
-                        logger.warn("Book {} not found in catalog, skipping", reader.getBookId());
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<BookResponse> bookResponses = catalogBookClient.fetchDetails(readerPage.getContent());
 
         Page<BookResponse> result = new PageImpl<>(bookResponses, pageable, readerPage.getTotalElements());
 
@@ -156,29 +155,11 @@ public class ReaderService {
         Instant start = Instant.now();
         logger.debug("Fetching details for book {}", bookId);
 
-        String url = "http://catalog-service/api/catalog/books/" + bookId + "/details";
-
-        try {
-            ResponseEntity<BookResponse> response = restTemplate.getForEntity(url, BookResponse.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                BookResponse bookResponse = response.getBody();
-                bookResponse.setAddedAt(addedAt);
+        BookResponse bookResponse = catalogBookClient.fetchDetails(bookId, addedAt);
 
-                Duration duration = Duration.between(start, Instant.now());
-                logger.debug("Fetched book {} details in {} ms", bookId, duration.toMillis());
-
-                return bookResponse;
-            }
-
-            throw new BookNotInReadListException("Неверный ответ для книги с ID: " + bookId);
+        Duration duration = Duration.between(start, Instant.now());
+        logger.debug("Fetched book {} details in {} ms", bookId, duration.toMillis());
 
-        } catch (HttpClientErrorException.NotFound e) {
-            logger.error("Book {} not found in catalog", bookId);
-            throw new BookNotInReadListException("Книга с ID: " + bookId + " не найдена в каталоге!");
-        } catch (RestClientException e) {
-            logger.error("Error fetching book details: {}", e.getMessage());
-            throw new BookNotInReadListException("Ошибка при получении информации о книге: " + e.getMessage());
-        }
+        return bookResponse;
     }
 }
\ No newline at end of file
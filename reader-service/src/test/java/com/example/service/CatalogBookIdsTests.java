@@ -0,0 +1,123 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class CatalogBookIdsTests {
+	private static final String CATALOG_BOOK_IDS = "http://catalog-service/api/catalog/books/ids";
+	private static final int PAGE_SIZE = 4000;
+
+	private RestTemplate restTemplate;
+	private CatalogBookIds bookIds;
+
+	@BeforeEach
+	void setUp() {
+		restTemplate = new RestTemplate();
+		bookIds = new CatalogBookIds(restTemplate, new SimpleMeterRegistry(), true, Duration.ofMinutes(5),
+				PAGE_SIZE, 0.01);
+	}
+
+	@Test
+	void everyIdNeedsCheckBeforeFirstSync() {
+		for (long id = 1; id <= 1000; id++) {
+			assertTrue(bookIds.mightExist(id));
+		}
+	}
+
+	/**
+	 * Книги с id ниже максимума первой синхронизации могли быть зафиксированы после чтения страниц.
+	 */
+	@Test
+	void firstSyncTrustsNoIds() {
+		sync(oddIds(19_999));
+
+		for (long id = 1; id <= 21_000; id++) {
+			assertTrue(bookIds.mightExist(id), "id " + id);
+		}
+	}
+
+	@Test
+	void laterSyncTrustsOnlyPreviousMaxId() {
+		sync(oddIds(9_999));
+		sync(oddIds(19_999));
+
+		for (long id = 1; id <= 19_999; id += 2) {
+			assertTrue(bookIds.mightExist(id), "synced id " + id);
+		}
+		assertMostlyAbsent(2, 9_998);
+		/* Книги с id выше прошлого максимума могли быть зафиксированы после чтения страниц */
+		for (long id = 10_000; id <= 19_998; id += 2) {
+			assertTrue(bookIds.mightExist(id), "id above previous max " + id);
+		}
+	}
+
+	@Test
+	void keepsBooksAddedDuringAndAfterSync() {
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+		server.expect(requestTo(CATALOG_BOOK_IDS + "?after=0&limit=" + PAGE_SIZE)).andRespond(request -> {
+			bookIds.added(2_000);
+			return page(oddIds(5_999)).createResponse(request);
+		});
+		bookIds.sync();
+		server.verify();
+
+		bookIds.added(4_000);
+
+		assertTrue(bookIds.mightExist(2_000));
+		assertTrue(bookIds.mightExist(4_000));
+	}
+
+	/**
+	 * Страницы ids по PAGE_SIZE, последняя полная страница завершается пустой.
+	 */
+	private void sync(long[] ids) {
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+		long after = 0;
+		int from = 0;
+		while (true) {
+			long[] page = Arrays.copyOfRange(ids, from, Math.min(from + PAGE_SIZE, ids.length));
+			server.expect(requestTo(CATALOG_BOOK_IDS + "?after=" + after + "&limit=" + PAGE_SIZE))
+					.andRespond(page(page));
+			if (page.length < PAGE_SIZE) {
+				break;
+			}
+			from += PAGE_SIZE;
+			after = page[page.length - 1];
+		}
+		bookIds.sync();
+		server.verify();
+	}
+
+	private void assertMostlyAbsent(long from, long to) {
+		int checked = 0;
+		int absent = 0;
+		for (long id = from; id <= to; id += 2) {
+			checked++;
+			absent += bookIds.mightExist(id) ? 0 : 1;
+		}
+		assertTrue(absent > checked * 0.95, absent + " of " + checked + " absent ids rejected");
+	}
+
+	private static long[] oddIds(long maxId) {
+		return LongStream.iterate(1, id -> id <= maxId, id -> id + 2).toArray();
+	}
+
+	private static ResponseCreator page(long[] ids) {
+		String json = Arrays.stream(ids).mapToObj(Long::toString).collect(Collectors.joining(",", "[", "]"));
+		return withSuccess(json, MediaType.APPLICATION_JSON);
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongBloomFilterTests {
+	private static final int SIZE = 100_000;
+	private static final double FALSE_POSITIVE_RATE = 0.01;
+
+	@Test
+	void hasNoFalseNegatives() {
+		LongBloomFilter filter = new LongBloomFilter(SIZE, FALSE_POSITIVE_RATE);
+		SplittableRandom random = new SplittableRandom(42);
+		long[] values = new long[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			values[i] = i < SIZE / 2 ? i + 1 : random.nextLong();
+			filter.put(values[i]);
+		}
+
+		for (long value : values) {
+			assertTrue(filter.mightContain(value), "value " + value);
+		}
+	}
+
+	@Test
+	void keepsFalsePositiveRateNearConfigured() {
+		LongBloomFilter filter = new LongBloomFilter(SIZE, FALSE_POSITIVE_RATE);
+		for (long id = 1; id <= SIZE; id++) {
+			filter.put(id);
+		}
+
+		/* Соседние id и случайные значения, которые не добавлялись */
+		int positives = 0;
+		for (long id = SIZE + 1; id <= 2 * SIZE; id++) {
+			positives += filter.mightContain(id) ? 1 : 0;
+		}
+		SplittableRandom random = new SplittableRandom(7);
+		for (int i = 0; i < SIZE; i++) {
+			positives += filter.mightContain(random.nextLong(3L * SIZE, Long.MAX_VALUE)) ? 1 : 0;
+		}
+
+		double rate = (double) positives / (2 * SIZE);
+		assertTrue(rate < FALSE_POSITIVE_RATE * 1.5, "false positive rate " + rate);
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		LongBloomFilter filter = new LongBloomFilter(0, FALSE_POSITIVE_RATE);
+
+		for (long id = 0; id < 1000; id++) {
+			assertFalse(filter.mightContain(id));
+		}
+	}
+
+	@Test
+	void concurrentPutsAreNotLost() throws Exception {
+		LongBloomFilter filter = new LongBloomFilter(SIZE, FALSE_POSITIVE_RATE);
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < threads; thread++) {
+				int offset = thread;
+				futures.add(executor.submit(() -> {
+					for (long id = offset; id < SIZE; id += threads) {
+						filter.put(id);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (long id = 0; id < SIZE; id++) {
+			assertTrue(filter.mightContain(id), "id " + id);
+		}
+	}
+}